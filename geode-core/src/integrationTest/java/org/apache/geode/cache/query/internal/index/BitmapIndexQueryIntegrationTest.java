@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.PartitionAttributesFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionFactory;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.IndexType;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLIndexTest.class})
+public class BitmapIndexQueryIntegrationTest {
+
+  private static final String QUERY =
+      "select * from /portfolios p where p.status = 'active' and p.type = 'type0'";
+
+  /**
+   * Enough entries for every status and type to be kept in a bitmap, also in each of the two
+   * buckets of the partitioned region
+   */
+  private static final int ENTRIES = 6 * 2 * (IndexManager.INDEX_ELEMARRAY_THRESHOLD + 10);
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  private Region<Integer, Portfolio> createRegion(RegionShortcut shortcut) throws Exception {
+    Cache cache = serverStarterRule.getCache();
+    RegionFactory<Integer, Portfolio> regionFactory = cache.createRegionFactory(shortcut);
+    if (shortcut.isPartition()) {
+      regionFactory.setPartitionAttributes(
+          new PartitionAttributesFactory<Integer, Portfolio>().setTotalNumBuckets(2)
+              .create());
+    }
+    Region<Integer, Portfolio> region = regionFactory.create("portfolios");
+    QueryService qs = cache.getQueryService();
+    Index statusIndex =
+        qs.createIndex("statusIndex", IndexType.BITMAP, "p.status", "/portfolios p");
+    Index typeIndex = qs.createIndex("typeIndex", IndexType.BITMAP, "p.type", "/portfolios p");
+    assertThat(statusIndex.getType()).isEqualTo(IndexType.BITMAP);
+    assertThat(typeIndex.getType()).isEqualTo(IndexType.BITMAP);
+    for (int i = 0; i < ENTRIES; i++) {
+      region.put(i, new Portfolio(i));
+    }
+    return region;
+  }
+
+  private Set<Integer> executeQuery() throws Exception {
+    QueryService qs = serverStarterRule.getCache().getQueryService();
+    SelectResults<Portfolio> results = (SelectResults<Portfolio>) qs.newQuery(QUERY).execute();
+    Set<Integer> ids = new HashSet<>();
+    for (Portfolio portfolio : results) {
+      assertThat(ids.add(portfolio.getID())).isTrue();
+    }
+    return ids;
+  }
+
+  private Set<Integer> expectedIds(Region<Integer, Portfolio> region) {
+    Set<Integer> ids = new HashSet<>();
+    for (Portfolio portfolio : region.values()) {
+      if ("active".equals(portfolio.status) && "type0".equals(portfolio.getType())) {
+        ids.add(portfolio.getID());
+      }
+    }
+    return ids;
+  }
+
+  @Test
+  public void andOfEqualityConditionsReturnsTheIntersection() throws Exception {
+    Region<Integer, Portfolio> region = createRegion(RegionShortcut.REPLICATE);
+
+    Set<Integer> ids = executeQuery();
+
+    assertThat(ids).hasSize(ENTRIES / 6);
+    assertThat(ids).isEqualTo(expectedIds(region));
+  }
+
+  @Test
+  public void updatesAndDestroysKeepTheBitmapsConsistent() throws Exception {
+    Region<Integer, Portfolio> region = createRegion(RegionShortcut.REPLICATE);
+
+    for (int i = 0; i < ENTRIES; i += 12) {
+      // was active and type0
+      Portfolio portfolio = new Portfolio(i);
+      portfolio.status = "inactive";
+      region.put(i, portfolio);
+    }
+    for (int i = 1; i < ENTRIES; i += 12) {
+      // was inactive and type1, and is now active and type0
+      Portfolio portfolio = new Portfolio(i + 5);
+      portfolio.ID = i;
+      region.put(i, portfolio);
+    }
+    for (int i = 6; i < ENTRIES; i += 24) {
+      region.destroy(i);
+    }
+    // new entries may be given the ordinals of the destroyed ones
+    for (int i = ENTRIES; i < ENTRIES + 60; i += 6) {
+      region.put(i, new Portfolio(i));
+    }
+
+    assertThat(executeQuery()).isEqualTo(expectedIds(region));
+  }
+
+  @Test
+  public void andOfEqualityConditionsOnPartitionedRegionReturnsTheIntersection()
+      throws Exception {
+    Region<Integer, Portfolio> region = createRegion(RegionShortcut.PARTITION);
+
+    assertThat(executeQuery()).isEqualTo(expectedIds(region));
+
+    for (int i = 0; i < ENTRIES; i += 18) {
+      region.destroy(i);
+    }
+
+    assertThat(executeQuery()).isEqualTo(expectedIds(region));
+  }
+}
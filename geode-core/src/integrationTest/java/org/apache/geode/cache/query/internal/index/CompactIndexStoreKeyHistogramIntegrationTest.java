@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.apache.geode.test.awaitility.GeodeAwaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+/**
+ * Key histograms of a compact range index kept in a {@link CompactIndexStore}, with cost based
+ * index selection on. Integration tests run in their own JVM, so the flags can be set before the
+ * classes reading them are loaded.
+ */
+@Category({OQLIndexTest.class})
+public class CompactIndexStoreKeyHistogramIntegrationTest {
+
+  static {
+    System.setProperty(DistributionConfig.GEMFIRE_PREFIX + "Query.costBasedIndexSelection",
+        "true");
+    System.setProperty(DistributionConfig.GEMFIRE_PREFIX + "index.COMPACT_INDEX_STORE", "true");
+  }
+
+  /** More entries than the updates needed for a histogram to become stale */
+  private static final int ENTRIES = 2000;
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  @Test
+  public void histogramOfAnEmptyIndexIsRebuiltOnceEntriesAreAdded() throws Exception {
+    assertThat(DefaultQuery.COST_BASED_INDEX_SELECTION).isTrue();
+    assertThat(IndexManager.COMPACT_INDEX_STORE).isTrue();
+    Cache cache = serverStarterRule.getCache();
+    Region<Integer, Portfolio> region =
+        cache.<Integer, Portfolio>createRegionFactory(RegionShortcut.REPLICATE)
+            .create("portfolios");
+    QueryService qs = cache.getQueryService();
+    CompactRangeIndex index =
+        (CompactRangeIndex) qs.createIndex("idIndex", "p.ID", "/portfolios p");
+    assertThat(index.getIndexStorage()).isInstanceOf(CompactIndexStore.class);
+    await().until(() -> index.getKeyHistogram() != null);
+    assertThat(index.getKeyHistogram().getTotalEntries()).isZero();
+
+    for (int i = 0; i < ENTRIES; i++) {
+      region.put(i, new Portfolio(i));
+    }
+
+    await().untilAsserted(
+        () -> assertThat(index.getKeyHistogram().getTotalEntries()).isEqualTo(ENTRIES));
+  }
+}
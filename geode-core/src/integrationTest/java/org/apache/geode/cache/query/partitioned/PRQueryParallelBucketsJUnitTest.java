@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.partitioned;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.Struct;
+import org.apache.geode.cache.query.data.PortfolioData;
+import org.apache.geode.internal.cache.PRQueryProcessor;
+import org.apache.geode.internal.cache.PartitionedRegionTestHelper;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+
+/**
+ * Verifies the results of queries on a PartitionedRegion whose buckets are queried in parallel.
+ */
+@Category({OQLQueryTest.class})
+public class PRQueryParallelBucketsJUnitTest {
+
+  private static final int ENTRIES = 500;
+
+  private Region<Integer, PortfolioData> region;
+
+  @Before
+  public void setUp() throws Exception {
+    PRQueryProcessor.TEST_PARALLEL_BUCKET_QUERY = true;
+    this.region = PartitionedRegionTestHelper.createPartitionedRegion("portfolios", "100", 0);
+    for (int i = 0; i < ENTRIES; i++) {
+      this.region.put(i, new PortfolioData(i));
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    PRQueryProcessor.TEST_PARALLEL_BUCKET_QUERY = false;
+    this.region.close();
+  }
+
+  private SelectResults query(String queryString) throws Exception {
+    return (SelectResults) this.region.getCache().getQueryService().newQuery(queryString)
+        .execute();
+  }
+
+  @Test
+  public void resultsOfEveryBucketAreReturnedOnce() throws Exception {
+    SelectResults results = query("select * from /portfolios p where p.ID >= 100");
+
+    List<Integer> ids = new ArrayList<>();
+    for (Object portfolio : results) {
+      ids.add(((PortfolioData) portfolio).getID());
+    }
+    assertThat(ids).hasSize(ENTRIES - 100).doesNotHaveDuplicates().allMatch(id -> id >= 100);
+  }
+
+  @Test
+  public void orderByMergesTheResultsOfTheBucketsInOrder() throws Exception {
+    SelectResults results =
+        query("select distinct p.ID from /portfolios p where p.ID < 300 order by p.ID desc");
+
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 299; i >= 0; i--) {
+      expected.add(i);
+    }
+    assertThat(results.asList()).isEqualTo(expected);
+  }
+
+  @Test
+  public void orderByWithLimitReturnsTheFirstResultsOfAllBuckets() throws Exception {
+    SelectResults results = query("select distinct p.ID from /portfolios p order by p.ID limit 7");
+
+    assertThat(results.asList()).containsExactly(0, 1, 2, 3, 4, 5, 6);
+  }
+
+  @Test
+  public void groupByAggregatesTheResultsOfAllBuckets() throws Exception {
+    SelectResults results =
+        query("select p.status, count(*) from /portfolios p group by p.status order by p.status");
+
+    assertThat(results.size()).isEqualTo(2);
+    for (Object result : results) {
+      Struct struct = (Struct) result;
+      assertThat(struct.getFieldValues()[0]).isIn("active", "inactive");
+      assertThat(struct.getFieldValues()[1]).isEqualTo(ENTRIES / 2);
+    }
+  }
+}
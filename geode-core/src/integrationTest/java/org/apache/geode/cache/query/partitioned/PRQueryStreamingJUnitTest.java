@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.partitioned;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.data.PortfolioData;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.StreamingQueryResults;
+import org.apache.geode.internal.cache.PartitionedRegionTestHelper;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+
+/**
+ * Verifies the queries on a PartitionedRegion whose results are streamed as they arrive.
+ */
+@Category({OQLQueryTest.class})
+public class PRQueryStreamingJUnitTest {
+
+  private static final int ENTRIES = 200;
+
+  private Region<Integer, PortfolioData> region;
+
+  @Before
+  public void setUp() throws Exception {
+    this.region = PartitionedRegionTestHelper.createPartitionedRegion("portfolios", "100", 0);
+    for (int i = 0; i < ENTRIES; i++) {
+      this.region.put(i, new PortfolioData(i));
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    DefaultQuery.testHook = null;
+    this.region.close();
+  }
+
+  private DefaultQuery newQuery(String queryString) {
+    DefaultQuery query =
+        (DefaultQuery) this.region.getCache().getQueryService().newQuery(queryString);
+    // as the queries of clients are
+    query.setRemoteQuery(true);
+    return query;
+  }
+
+  private static List<Object> consume(StreamingQueryResults results) throws Exception {
+    List<Object> all = new ArrayList<>();
+    try {
+      List<Object> chunk;
+      while ((chunk = results.nextChunk()) != null) {
+        all.addAll(chunk);
+      }
+    } finally {
+      results.close();
+    }
+    return all;
+  }
+
+  @Test
+  public void resultsOfEveryBucketAreStreamed() throws Exception {
+    StreamingQueryResults results =
+        newQuery("select p.ID from /portfolios p where p.ID >= 50").executeStreaming(null);
+
+    assertThat(consume(results)).hasSize(ENTRIES - 50).doesNotHaveDuplicates();
+  }
+
+  @Test
+  public void limitStopsTheStream() throws Exception {
+    StreamingQueryResults results =
+        newQuery("select p.ID from /portfolios p limit 7").executeStreaming(null);
+
+    assertThat(consume(results)).hasSize(7);
+  }
+
+  @Test
+  public void orderedQueryIsNotStreamed() throws Exception {
+    assertThat(newQuery("select p.ID from /portfolios p order by p.ID").executeStreaming(null))
+        .isNull();
+  }
+
+  @Test
+  public void selectStarKeepsTheResultsSerializedBeforeAnyIsStreamed() throws Exception {
+    DefaultQuery query = newQuery("select * from /portfolios");
+
+    StreamingQueryResults results = query.executeStreaming(null);
+
+    assertThat(query.isKeepSerialized()).isTrue();
+    assertThat(consume(results)).hasSize(ENTRIES);
+  }
+
+  @Test
+  public void testHookIsCalledBeforeTheBucketsAreQueried() throws Exception {
+    List<DefaultQuery.TestHook.SPOTS> spots = Collections.synchronizedList(new ArrayList<>());
+    DefaultQuery.testHook = (spot, query) -> spots.add(spot);
+
+    consume(newQuery("select p.ID from /portfolios p").executeStreaming(null));
+
+    // as when the query is executed, before the query of each bucket calls it
+    assertThat(spots.get(0)).isEqualTo(DefaultQuery.TestHook.SPOTS.BEFORE_QUERY_EXECUTION);
+    assertThat(spots).contains(DefaultQuery.TestHook.SPOTS.BEFORE_QUERY_DEPENDENCY_COMPUTATION);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOCATORS;
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.EvictionAction;
+import org.apache.geode.cache.EvictionAttributes;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+
+/**
+ * Reads overflowed values of finished oplogs with {@link Oplog#MMAP_READS} set.
+ */
+public class OplogMappedReadsIntegrationTest {
+
+  private static final int VALUE_SIZE = 1024;
+
+  /** Enough entries to fill several oplogs */
+  private static final int ENTRIES = 100;
+
+  private Cache cache;
+
+  private DiskStoreImpl diskStore;
+
+  private Region<Integer, byte[]> region;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Rule
+  public TestName testName = new TestName();
+
+  @Before
+  public void setUp() throws Exception {
+    Oplog.MMAP_READS = true;
+    String uniqueName = getClass().getSimpleName() + "_" + testName.getMethodName();
+
+    cache = new CacheFactory().set(LOCATORS, "").set(MCAST_PORT, "0").create();
+
+    DiskStoreFactoryImpl dsf = (DiskStoreFactoryImpl) cache.createDiskStoreFactory();
+    dsf.setDiskDirs(new File[] {temporaryFolder.newFolder()});
+    dsf.setAutoCompact(false);
+    dsf.setAllowForceCompaction(true);
+    dsf.setMaxOplogSizeInBytes(10240);
+    diskStore = (DiskStoreImpl) dsf.create(uniqueName);
+
+    region = cache.<Integer, byte[]>createRegionFactory(RegionShortcut.LOCAL_PERSISTENT)
+        .setDiskStoreName(uniqueName).setDiskSynchronous(true)
+        .setEvictionAttributes(
+            EvictionAttributes.createLRUEntryAttributes(1, EvictionAction.OVERFLOW_TO_DISK))
+        .create(uniqueName);
+    for (int i = 0; i < ENTRIES; i++) {
+      region.put(i, valueOf(i));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    Oplog.MMAP_READS = false;
+    Oplog.FAIL_CRF_MAPPING_FOR_TESTING_PURPOSES = false;
+    if (cache != null) {
+      cache.close();
+    }
+  }
+
+  private static byte[] valueOf(int key) {
+    byte[] value = new byte[VALUE_SIZE];
+    Arrays.fill(value, (byte) key);
+    return value;
+  }
+
+  private void assertValuesAreRead() {
+    for (int i = 0; i < ENTRIES; i++) {
+      assertThat(region.get(i)).isEqualTo(valueOf(i));
+    }
+  }
+
+  @Test
+  public void valuesOfFinishedOplogsAreReadFromTheMapping() {
+    assertValuesAreRead();
+
+    assertThat(diskStore.getStats().getMappedOplogReads()).isGreaterThan(0);
+    assertThat(diskStore.getStats().getMappedOplogBytes()).isGreaterThan(0);
+  }
+
+  @Test
+  public void valuesAreReadFromTheFileIfMappingFails() {
+    Oplog.FAIL_CRF_MAPPING_FOR_TESTING_PURPOSES = true;
+
+    assertValuesAreRead();
+
+    assertThat(diskStore.getStats().getMappedOplogReads()).isEqualTo(0);
+    assertThat(diskStore.getStats().getMappedOplogBytes()).isEqualTo(0);
+  }
+
+  @Test
+  public void mappingsAreReleasedWhenOplogsAreDeleted() {
+    assertValuesAreRead();
+    assertThat(diskStore.getStats().getMappedOplogBytes()).isGreaterThan(0);
+
+    for (int i = 0; i < ENTRIES; i++) {
+      region.destroy(i);
+    }
+    // the oplogs no longer have live entries, so they are deleted
+    diskStore.forceCompaction();
+
+    assertThat(diskStore.getStats().getMappedOplogBytes()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOCATORS;
+import static org.apache.geode.distributed.ConfigurationProperties.LOG_LEVEL;
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.geode.DataSerializable;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.FunctionService;
+import org.apache.geode.cache.execute.RegionFunctionContext;
+import org.apache.geode.cache.server.CacheServer;
+
+/**
+ * The server side of {@link ClientServerOperationBenchmark}. A client cache cannot be created in a
+ * JVM that already has a peer cache, so the benchmark launches this class in a child JVM. It
+ * starts a cache server on an ephemeral loopback port, prints that port on standard out and runs
+ * until its standard in is closed.
+ */
+public class ClientServerBenchmarkServer {
+
+  static final String REGION_NAME = "region";
+
+  static final String PORT_PREFIX = "PORT=";
+
+  public static void main(String[] args) throws Exception {
+    Cache cache = new CacheFactory().set(MCAST_PORT, "0").set(LOCATORS, "")
+        .set(LOG_LEVEL, "warn").create();
+    try {
+      cache.createRegionFactory(RegionShortcut.REPLICATE).create(REGION_NAME);
+      cache.getQueryService().createIndex("idIndex", "id", "/" + REGION_NAME);
+      FunctionService.registerFunction(new GetValuesFunction());
+
+      CacheServer server = cache.addCacheServer();
+      server.setBindAddress("localhost");
+      server.setPort(0);
+      server.start();
+
+      System.out.println(PORT_PREFIX + server.getPort());
+      System.out.flush();
+
+      // the benchmark closes our standard in when it is done
+      while (System.in.read() != -1) {
+      }
+    } finally {
+      cache.close();
+    }
+  }
+
+  /**
+   * Returns the values of the keys in its filter.
+   */
+  public static class GetValuesFunction implements Function<Object> {
+
+    static final String ID = "ClientServerBenchmarkGetValues";
+
+    @Override
+    public void execute(FunctionContext<Object> context) {
+      RegionFunctionContext regionContext = (RegionFunctionContext) context;
+      Region<Object, Object> region = regionContext.getDataSet();
+      List<Object> values = new ArrayList<>();
+      for (Object key : regionContext.getFilter()) {
+        values.add(region.get(key));
+      }
+      context.getResultSender().lastResult(values);
+    }
+
+    @Override
+    public String getId() {
+      return ID;
+    }
+
+    @Override
+    public boolean optimizeForWrite() {
+      return false;
+    }
+  }
+
+  /**
+   * A region value with a queryable id and a payload of the size being measured.
+   */
+  public static class BenchmarkValue implements DataSerializable {
+
+    private int id;
+
+    private byte[] payload;
+
+    public BenchmarkValue() {}
+
+    BenchmarkValue(int id, byte[] payload) {
+      this.id = id;
+      this.payload = payload;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public byte[] getPayload() {
+      return payload;
+    }
+
+    @Override
+    public void toData(DataOutput out) throws IOException {
+      out.writeInt(id);
+      out.writeInt(payload.length);
+      out.write(payload);
+    }
+
+    @Override
+    public void fromData(DataInput in) throws IOException {
+      id = in.readInt();
+      payload = new byte[in.readInt()];
+      in.readFully(payload);
+    }
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOG_LEVEL;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.client.ClientServerBenchmarkServer.BenchmarkValue;
+import org.apache.geode.cache.client.ClientServerBenchmarkServer.GetValuesFunction;
+import org.apache.geode.cache.execute.FunctionService;
+import org.apache.geode.cache.query.Query;
+
+/**
+ * This benchmark measures the throughput and latency of client operations against a cache server
+ * over loopback, covering the Get70, Put70, GetAll70, PutAll80, ExecuteRegionFunction66 and Query
+ * commands. The server runs in a child JVM, see {@link ClientServerBenchmarkServer}.
+ * <p>
+ * Each operation is measured with a single client thread and, in {@link Contended}, with many
+ * client threads sharing one pool. Other thread counts can be measured with the jmh -t option.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClientServerOperationBenchmark {
+
+  private static final int ENTRIES = 10_000;
+
+  private static final int BULK_SIZE = 100;
+
+  @Param({"100", "10240"})
+  int payloadSize;
+
+  private Process server;
+  private ClientCache clientCache;
+  private Region<Integer, BenchmarkValue> region;
+  private Query query;
+  private BenchmarkValue value;
+
+  /**
+   * Measures many client threads contending for the same pool.
+   */
+  @Threads(16)
+  public static class Contended extends ClientServerOperationBenchmark {
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    int port = startServer();
+    clientCache = new ClientCacheFactory().set(LOG_LEVEL, "warn")
+        .addPoolServer("localhost", port).setPoolMaxConnections(-1).create();
+    region = clientCache.<Integer, BenchmarkValue>createClientRegionFactory(
+        ClientRegionShortcut.PROXY).create(ClientServerBenchmarkServer.REGION_NAME);
+    query = clientCache.getQueryService().newQuery(
+        "select * from /" + ClientServerBenchmarkServer.REGION_NAME + " r where r.id = $1");
+
+    value = new BenchmarkValue(0, new byte[payloadSize]);
+    Map<Integer, BenchmarkValue> entries = new HashMap<>();
+    for (int i = 0; i < ENTRIES; i++) {
+      entries.put(i, new BenchmarkValue(i, new byte[payloadSize]));
+      if (entries.size() == BULK_SIZE) {
+        region.putAll(entries);
+        entries.clear();
+      }
+    }
+    region.putAll(entries);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    try {
+      if (clientCache != null) {
+        clientCache.close();
+      }
+    } finally {
+      stopServer();
+    }
+  }
+
+  @Benchmark
+  public BenchmarkValue get() {
+    return region.get(randomKey());
+  }
+
+  @Benchmark
+  public BenchmarkValue put() {
+    return region.put(randomKey(), value);
+  }
+
+  @Benchmark
+  public Map<Integer, BenchmarkValue> getAll() {
+    return region.getAll(randomKeys());
+  }
+
+  @Benchmark
+  public void putAll() {
+    Map<Integer, BenchmarkValue> entries = new HashMap<>();
+    for (Integer key : randomKeys()) {
+      entries.put(key, value);
+    }
+    region.putAll(entries);
+  }
+
+  @Benchmark
+  public Object executeRegionFunction() {
+    Set<Integer> filter = new HashSet<>();
+    filter.add(randomKey());
+    return FunctionService.onRegion(region).withFilter(filter).execute(GetValuesFunction.ID)
+        .getResult();
+  }
+
+  @Benchmark
+  public Object query() throws Exception {
+    return query.execute(new Object[] {randomKey()});
+  }
+
+  private static int randomKey() {
+    return ThreadLocalRandom.current().nextInt(ENTRIES);
+  }
+
+  private static Set<Integer> randomKeys() {
+    Set<Integer> keys = new HashSet<>();
+    while (keys.size() < BULK_SIZE) {
+      keys.add(randomKey());
+    }
+    return keys;
+  }
+
+  private int startServer() throws Exception {
+    List<String> command = new ArrayList<>();
+    command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(ClientServerBenchmarkServer.class.getName());
+    server = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+
+    BufferedReader reader = new BufferedReader(
+        new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.startsWith(ClientServerBenchmarkServer.PORT_PREFIX)) {
+        drainServerOutput(reader);
+        return Integer.parseInt(
+            line.substring(ClientServerBenchmarkServer.PORT_PREFIX.length()).trim());
+      }
+    }
+    stopServer();
+    throw new IllegalStateException("Benchmark server exited without reporting its port");
+  }
+
+  /**
+   * Keeps copying the server's output so that it never blocks on a full pipe.
+   */
+  private static void drainServerOutput(BufferedReader reader) {
+    Thread drainer = new Thread(() -> {
+      try {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          System.out.println(line);
+        }
+      } catch (IOException ignore) {
+        // the server has exited
+      }
+    }, "Benchmark Server Output");
+    drainer.setDaemon(true);
+    drainer.start();
+  }
+
+  private void stopServer() throws Exception {
+    if (server == null) {
+      return;
+    }
+    server.getOutputStream().close();
+    if (!server.waitFor(30, TimeUnit.SECONDS)) {
+      server.destroyForcibly();
+    }
+    server = null;
+  }
+}
@@ -106,7 +106,23 @@ public class AsyncEventQueueStats extends GatewaySenderStats {
             f.createIntCounter(SYNCHRONIZATION_EVENTS_ENQUEUED,
                 "Number of synchronization events added to the event queue.", "operations"),
             f.createIntCounter(SYNCHRONIZATION_EVENTS_PROVIDED,
-                "Number of synchronization events provided to other members.", "operations"),});
+                "Number of synchronization events provided to other members.", "operations"),
+            f.createLongCounter(BATCH_BYTES_SENT,
+                "Number of bytes of batches of events sent to gateway receivers.", "bytes"),
+            f.createLongCounter(EVENT_VALUE_BYTES,
+                "Number of bytes of event values sent to gateway receivers, before compression.",
+                "bytes"),
+            f.createLongCounter(COMPRESSED_EVENT_VALUE_BYTES,
+                "Number of bytes of event values sent to gateway receivers, after compression.",
+                "bytes"),
+            f.createIntCounter(BATCHES_ACKNOWLEDGED,
+                "Number of batches of events acknowledged by gateway receivers.", "operations"),
+            f.createLongCounter(BATCH_ACKNOWLEDGEMENT_TIME,
+                "Total time between sending batches of events and receiving their acknowledgement.",
+                "nanoseconds"),
+            f.createIntGauge(BATCH_SIZE,
+                "Number of events in a batch when adaptive batch sizing is enabled.",
+                "operations"),});
 
     // Initialize id fields
     eventsReceivedId = type.nameToId(EVENTS_RECEIVED);
@@ -141,6 +157,12 @@ public class AsyncEventQueueStats extends GatewaySenderStats {
     loadBalanceTimeId = type.nameToId(LOAD_BALANCE_TIME);
     synchronizationEventsEnqueuedId = type.nameToId(SYNCHRONIZATION_EVENTS_ENQUEUED);
     synchronizationEventsProvidedId = type.nameToId(SYNCHRONIZATION_EVENTS_PROVIDED);
+    batchBytesSentId = type.nameToId(BATCH_BYTES_SENT);
+    eventValueBytesId = type.nameToId(EVENT_VALUE_BYTES);
+    compressedEventValueBytesId = type.nameToId(COMPRESSED_EVENT_VALUE_BYTES);
+    batchesAcknowledgedId = type.nameToId(BATCHES_ACKNOWLEDGED);
+    batchAcknowledgementTimeId = type.nameToId(BATCH_ACKNOWLEDGEMENT_TIME);
+    batchSizeId = type.nameToId(BATCH_SIZE);
   }
 
   /**
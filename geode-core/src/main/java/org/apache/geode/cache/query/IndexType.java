@@ -72,7 +72,21 @@ public enum IndexType {
    *
    * @see QueryService#createIndex(String, IndexType, String, String)
    */
-  PRIMARY_KEY("KEY");
+  PRIMARY_KEY("KEY"),
+
+  /**
+   * The index type of a bitmap index. A bitmap index is used like a functional index, and is meant
+   * for an indexedExpression with few distinct values, such as a status or a flag. The entries of a
+   * value that many entries have are kept as a compressed bitmap rather than a set, which takes
+   * much less memory, and the bitmaps of several bitmap indexes on the same region are and'ed when
+   * a query compares each of their indexedExpressions for equality with a constant.
+   * <p>
+   * A bitmap index can only be created with a fromClause that has a single iterator over the region
+   * values, on a region with synchronous index maintenance.
+   *
+   * @see QueryService#createIndex(String, IndexType, String, String)
+   */
+  BITMAP("BITMAP");
 
   private String name;
 
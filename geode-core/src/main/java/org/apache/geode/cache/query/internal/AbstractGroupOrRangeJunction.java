@@ -25,12 +25,15 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.IndexType;
 import org.apache.geode.cache.query.NameResolutionException;
 import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.Struct;
 import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.BitmapIndexFilter;
+import org.apache.geode.cache.query.internal.index.IndexProtocol;
 import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
 import org.apache.geode.cache.query.types.ObjectType;
@@ -264,6 +267,9 @@ public abstract class AbstractGroupOrRangeJunction extends AbstractCompiledValue
     List sortedConditionsList =
         this.getCondtionsSortedOnIncreasingEstimatedIndexResultSize(context);
 
+    BitmapIndexFilter bitmapIndexFilter =
+        _operator == LITERAL_and ? createBitmapIndexFilter(sortedConditionsList, context) : null;
+
     // Sort the operands in increasing order of resultset size
     Iterator i = sortedConditionsList.iterator();
     // SortedSet intersectionSet = new TreeSet(new SelectResultsComparator());
@@ -294,13 +300,24 @@ public abstract class AbstractGroupOrRangeJunction extends AbstractCompiledValue
       // isConditioningNeeded because there is no provision right now to pass
       // intermediate results from RangeJunction & also no code to utilize the
       // intermediate results in the evaluator created out of RangeJunction.
-      filterResults = filter.filterEvaluate(context,
-          !isConditioningNeeded ? intermediateResults : null, this.completeExpansion,
-          null/*
-               * Asif * Asif :The iter operands passed are null, as a not null value can exists only
-               * if there exists a single Filter operand in original GroupJunction
-               */, this.indpndntItr, _operator == LITERAL_and, isConditioningNeeded,
-          false /* do not evaluate projection */);
+      boolean isBitmapIndexFiltered =
+          bitmapIndexFilter != null && bitmapIndexFilter.hasCondition(filter);
+      if (isBitmapIndexFiltered) {
+        context.cachePut(CompiledValue.BITMAP_INDEX_FILTER, bitmapIndexFilter);
+      }
+      try {
+        filterResults = filter.filterEvaluate(context,
+            !isConditioningNeeded ? intermediateResults : null, this.completeExpansion,
+            null/*
+                 * Asif * Asif :The iter operands passed are null, as a not null value can exists
+                 * only if there exists a single Filter operand in original GroupJunction
+                 */, this.indpndntItr, _operator == LITERAL_and, isConditioningNeeded,
+            false /* do not evaluate projection */);
+      } finally {
+        if (isBitmapIndexFiltered) {
+          context.cachePut(CompiledValue.BITMAP_INDEX_FILTER, null);
+        }
+      }
       if (_operator == LITERAL_and) {
         if (filterResults != null && filterResults.isEmpty()) {
           return filterResults;
@@ -345,6 +362,44 @@ public abstract class AbstractGroupOrRangeJunction extends AbstractCompiledValue
     return intermediateResults;
   }
 
+  /**
+   * Collects the equality conditions of this AND junction that look up a constant in a bitmap
+   * index on the same region, so that the bitmaps of their keys can be and'ed before the entries of
+   * any of them are looked up. Returns null unless there are at least two.
+   */
+  private BitmapIndexFilter createBitmapIndexFilter(List conditions, ExecutionContext context)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException {
+    BitmapIndexFilter bitmapIndexFilter = null;
+    Object region = null;
+    for (Object condition : conditions) {
+      if (!(condition instanceof CompiledComparison) || condition instanceof CompiledLike
+          || ((CompiledComparison) condition).getOperator() != OQLLexerTokenTypes.TOK_EQ) {
+        continue;
+      }
+      IndexInfo[] indexInfo = ((CompiledComparison) condition).getIndexInfo(context);
+      if (indexInfo == null || indexInfo.length != 1) {
+        continue;
+      }
+      IndexProtocol index = indexInfo[0]._getIndex();
+      CompiledValue key = indexInfo[0]._key();
+      if (index == null || index.getType() != IndexType.BITMAP
+          || !(key instanceof CompiledLiteral || key instanceof CompiledBindArgument)) {
+        continue;
+      }
+      if (region == null) {
+        region = index.getRegion();
+      } else if (region != index.getRegion()) {
+        continue;
+      }
+      if (bitmapIndexFilter == null) {
+        bitmapIndexFilter = new BitmapIndexFilter();
+      }
+      bitmapIndexFilter.add(index.getName(), indexInfo[0].evaluateIndexKey(context), condition);
+    }
+    return bitmapIndexFilter != null && bitmapIndexFilter.size() > 1 ? bitmapIndexFilter : null;
+  }
+
   /** invariant: the operand is known to be evaluated by iteration */
   private SelectResults auxIterateEvaluate(CompiledValue operand, ExecutionContext context,
       SelectResults intermediateResults) throws FunctionDomainException, TypeMismatchException,
@@ -15,14 +15,16 @@
 
 package org.apache.geode.cache.query.internal;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.lang.reflect.Modifier;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -36,6 +38,8 @@ import org.apache.geode.internal.cache.Token;
 import org.apache.geode.pdx.JSONFormatter;
 import org.apache.geode.pdx.PdxSerializationException;
 import org.apache.geode.pdx.internal.InternalPdxInstance;
+import org.apache.geode.pdx.internal.PdxField;
+import org.apache.geode.pdx.internal.PdxInstanceImpl;
 import org.apache.geode.pdx.internal.PdxType;
 import org.apache.geode.pdx.internal.TypeRegistry;
 
@@ -50,8 +54,12 @@ public class AttributeDescriptor {
   private final String _name;
   private final MethodInvocationAuthorizer _methodInvocationAuthorizer;
   private final TypeRegistry _pdxRegistry;
-  /** cache for remembering the correct Member for a class and attribute */
-  private static final ConcurrentMap<List, Member> _localCache = new ConcurrentHashMap();
+  /** cache for remembering the correct accessor for a class and attribute */
+  private static final ConcurrentMap<Class, ConcurrentMap<String, ReadAccessor>> _localCache =
+      new ConcurrentHashMap<>();
+
+  /** the type every accessor's method handle is adapted to */
+  private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
 
 
 
@@ -95,75 +103,59 @@ public class AttributeDescriptor {
       return QueryService.UNDEFINED;
     }
 
-    Class resolutionClass = target.getClass();
-    Member m = getReadMember(resolutionClass);
-    try {
-      if (m instanceof Method) {
-        try {
-          _methodInvocationAuthorizer.authorizeMethodInvocation((Method) m, target);
-          return ((Method) m).invoke(target, (Object[]) null);
-        } catch (EntryDestroyedException e) {
-          // eat the Exception
-          return QueryService.UNDEFINED;
-        } catch (IllegalAccessException e) {
-          throw new NameNotFoundException(
-              String.format(
-                  "Method ' %s ' in class ' %s ' is not accessible to the query processor",
-                  new Object[] {m.getName(), target.getClass().getName()}),
-              e);
-        } catch (InvocationTargetException e) {
-          // if the target exception is Exception, wrap that,
-          // otherwise wrap the InvocationTargetException itself
-          Throwable t = e.getTargetException();
-          if ((t instanceof EntryDestroyedException)) {
-            // eat the exception
-            return QueryService.UNDEFINED;
-          }
-          if (t instanceof Exception)
-            throw new QueryInvocationTargetException(t);
-          throw new QueryInvocationTargetException(e);
-        }
-      } else {
-        try {
-          return ((Field) m).get(target);
-        } catch (IllegalAccessException e) {
-          throw new NameNotFoundException(
-              String.format(
-                  "Field ' %s ' in class ' %s ' is not accessible to the query processor",
-                  new Object[] {m.getName(), target.getClass().getName()}),
-              e);
-        } catch (EntryDestroyedException e) {
-          return QueryService.UNDEFINED;
-        }
+    ReadAccessor accessor = getReadAccessor(target.getClass());
+    Member m = accessor.member;
+    if (m instanceof Method) {
+      try {
+        _methodInvocationAuthorizer.authorizeMethodInvocation((Method) m, target);
+      } catch (EntryDestroyedException e) {
+        // eat the Exception
+        return QueryService.UNDEFINED;
       }
+    }
+    try {
+      return accessor.handle.invokeExact(target);
     } catch (EntryDestroyedException e) {
       // eat the exception
       return QueryService.UNDEFINED;
+    } catch (Exception e) {
+      throw new QueryInvocationTargetException(e);
+    } catch (VirtualMachineError e) {
+      throw e;
+    } catch (Throwable t) {
+      // an Error thrown by the method itself, wrapped as reflection would have done
+      throw new QueryInvocationTargetException(new InvocationTargetException(t));
     }
   }
 
   Member getReadMember(Class targetClass) throws NameNotFoundException {
+    return getReadAccessor(targetClass).member;
+  }
 
-    // mapping: public field (same name), method (getAttribute()),
-    // method (attribute())
-    List key = new ArrayList();
-    key.add(targetClass);
-    key.add(_name);
-
-    Member m = _localCache.computeIfAbsent(key, k -> {
-      Member member = getReadField(targetClass);
-      return member == null ? getReadMethod(targetClass) : member;
-    });
+  private ReadAccessor getReadAccessor(Class targetClass) throws NameNotFoundException {
+    ConcurrentMap<String, ReadAccessor> accessors = _localCache.get(targetClass);
+    if (accessors == null) {
+      accessors = _localCache.computeIfAbsent(targetClass, k -> new ConcurrentHashMap<>());
+    }
+    ReadAccessor accessor = accessors.get(_name);
+    if (accessor == null) {
+      // mapping: public field (same name), method (getAttribute()),
+      // method (attribute())
+      accessor = accessors.computeIfAbsent(_name, k -> {
+        Member member = getReadField(targetClass);
+        if (member == null) {
+          member = getReadMethod(targetClass);
+        }
+        return member == null ? null : new ReadAccessor(member);
+      });
+    }
 
-    if (m == null) {
+    if (accessor == null) {
       throw new NameNotFoundException(
           String.format("No public attribute named ' %s ' was found in class %s",
               new Object[] {_name, targetClass.getName()}));
     }
-
-    // override security for nonpublic derived classes with public members
-    ((AccessibleObject) m).setAccessible(true);
-    return m;
+    return accessor;
   }
 
 
@@ -207,6 +199,14 @@ public class AttributeDescriptor {
    */
   private Object readPdx(InternalPdxInstance pdxInstance)
       throws NameNotFoundException, QueryInvocationTargetException {
+    if (pdxInstance instanceof PdxInstanceImpl) {
+      // look the field up once and read it at its offset in the serialized bytes
+      PdxInstanceImpl pdxInstanceImpl = (PdxInstanceImpl) pdxInstance;
+      PdxField field = pdxInstanceImpl.getPdxField(_name);
+      if (field != null) {
+        return pdxInstanceImpl.getRawField(field);
+      }
+    }
     // if the field is present in the pdxinstance
     if (pdxInstance.hasField(_name)) {
       // return PdxString if field is a String otherwise invoke readField
@@ -295,6 +295,32 @@ public class AttributeDescriptor {
     return false;
   }
 
-
-
+  /**
+   * A field or method that reads an attribute, together with a method handle that invokes it. The
+   * handle is created once per class and attribute, so reading the attribute of each object a query
+   * visits costs a direct call rather than an access check and a reflective invocation.
+   */
+  private static class ReadAccessor {
+    final Member member;
+    final MethodHandle handle;
+
+    ReadAccessor(Member member) {
+      // override security for nonpublic derived classes with public members
+      ((AccessibleObject) member).setAccessible(true);
+      this.member = member;
+      try {
+        MethodHandle mh = member instanceof Method
+            ? MethodHandles.lookup().unreflect((Method) member)
+            : MethodHandles.lookup().unreflectGetter((Field) member);
+        if (Modifier.isStatic(member.getModifiers())) {
+          // the target is ignored, as it is by reflection
+          mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        }
+        this.handle = mh.asType(ACCESSOR_TYPE);
+      } catch (IllegalAccessException e) {
+        // cannot happen as the member has been made accessible
+        throw new IllegalStateException(e);
+      }
+    }
+  }
 }
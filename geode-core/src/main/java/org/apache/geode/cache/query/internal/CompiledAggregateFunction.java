@@ -21,6 +21,7 @@ import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.aggregate.Avg;
 import org.apache.geode.cache.query.internal.aggregate.AvgBucketNode;
+import org.apache.geode.cache.query.internal.aggregate.AvgBucketResultCombiner;
 import org.apache.geode.cache.query.internal.aggregate.AvgDistinct;
 import org.apache.geode.cache.query.internal.aggregate.AvgDistinctPRQueryNode;
 import org.apache.geode.cache.query.internal.aggregate.AvgPRQueryNode;
@@ -29,6 +30,7 @@ import org.apache.geode.cache.query.internal.aggregate.CountDistinct;
 import org.apache.geode.cache.query.internal.aggregate.CountDistinctPRQueryNode;
 import org.apache.geode.cache.query.internal.aggregate.CountPRQueryNode;
 import org.apache.geode.cache.query.internal.aggregate.DistinctAggregator;
+import org.apache.geode.cache.query.internal.aggregate.DistinctBucketResultCombiner;
 import org.apache.geode.cache.query.internal.aggregate.MaxMin;
 import org.apache.geode.cache.query.internal.aggregate.Sum;
 import org.apache.geode.cache.query.internal.aggregate.SumDistinct;
@@ -64,10 +66,13 @@ public class CompiledAggregateFunction extends AbstractCompiledValue {
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
     boolean isPRQueryNode = context.getIsPRQueryNode();
     boolean isBucketNode = context.getBucketList() != null;
+    boolean isCombiningBucketResults = context.isCombiningBucketResults();
     switch (this.aggFuncType) {
 
       case OQLLexerTokenTypes.SUM:
-        if (isPRQueryNode) {
+        if (isCombiningBucketResults) {
+          return this.distinctOnly ? new DistinctBucketResultCombiner() : new Sum();
+        } else if (isPRQueryNode) {
           return this.distinctOnly ? new SumDistinctPRQueryNode() : new Sum();
         } else {
           return this.distinctOnly ? (isBucketNode ? new DistinctAggregator() : new SumDistinct())
@@ -81,7 +86,10 @@ public class CompiledAggregateFunction extends AbstractCompiledValue {
         return new MaxMin(false);
 
       case OQLLexerTokenTypes.AVG:
-        if (isPRQueryNode) {
+        if (isCombiningBucketResults) {
+          return this.distinctOnly ? new DistinctBucketResultCombiner()
+              : new AvgBucketResultCombiner();
+        } else if (isPRQueryNode) {
           return this.distinctOnly ? new AvgDistinctPRQueryNode() : new AvgPRQueryNode();
         } else {
           return this.distinctOnly ? (isBucketNode ? new DistinctAggregator() : new AvgDistinct())
@@ -89,7 +97,9 @@ public class CompiledAggregateFunction extends AbstractCompiledValue {
         }
 
       case OQLLexerTokenTypes.COUNT:
-        if (isPRQueryNode) {
+        if (isCombiningBucketResults) {
+          return this.distinctOnly ? new DistinctBucketResultCombiner() : new CountPRQueryNode();
+        } else if (isPRQueryNode) {
           return this.distinctOnly ? new CountDistinctPRQueryNode() : new CountPRQueryNode();
         } else {
           return this.distinctOnly ? (isBucketNode ? new DistinctAggregator() : new CountDistinct())
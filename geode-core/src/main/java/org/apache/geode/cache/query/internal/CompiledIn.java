@@ -227,7 +227,8 @@ public class CompiledIn extends AbstractCompiledValue implements Indexable {
       // index
       if (indexInfo[0]._index.getCanonicalizedIndexedExpression().equals(preferredCondn)
           && (indexInfo[0]._index.getType() == IndexType.FUNCTIONAL
-              || indexInfo[0]._index.getType() == IndexType.HASH)) {
+              || indexInfo[0]._index.getType() == IndexType.HASH
+              || indexInfo[0]._index.getType() == IndexType.BITMAP)) {
         result.isPreferred = true;
       }
     }
@@ -703,8 +704,8 @@ public class CompiledIn extends AbstractCompiledValue implements Indexable {
     int thatSize = comparedTo.getSizeEstimate(context);
     int thatOperator = comparedTo.getOperator();
 
-    // Go with the lowest cost when hint is used.
-    if (context instanceof QueryExecutionContext && ((QueryExecutionContext) context).hasHints()) {
+    // Go with the lowest cost when hint is used or cost based selection is enabled.
+    if (context.isCostBasedFilterSelection()) {
       return thisSize <= thatSize;
     }
 
@@ -50,6 +50,10 @@ public class CompiledLiteral extends AbstractCompiledValue {
     return _obj;
   }
 
+  public Object getValue() {
+    return _obj;
+  }
+
   /**
    * creates new PdxString from String and caches it
    */
@@ -376,6 +376,10 @@ public class CompiledSelect extends AbstractCompiledValue {
         RuntimeIterator rIter = iterDef.getRuntimeIterator(context);
         context.bindIterator(rIter);
       }
+      // whether the results are kept serialized has to be known before any of them are gathered
+      if (query instanceof DefaultQuery) {
+        ((DefaultQuery) query).keepResultsSerialized(this, context);
+      }
       results = prepareEmptyResultSet(context, false);
     } finally {
       context.popScope();
@@ -1155,11 +1159,12 @@ public class CompiledSelect extends AbstractCompiledValue {
     ArrayList evaluatedOrderByClause = null;
     OrderByComparator comparator = null;
     boolean applyOrderBy = false;
+    int limitValue = -1;
     if (this.orderByAttrs != null && !ignoreOrderBy) {
       // In case PR order-by will get applied on the coordinator node
       // on the cumulative results. Apply the order-by on PR only if
       // limit is specified.
-      Integer limitValue = evaluateLimitValue(context, this.limit);
+      limitValue = evaluateLimitValue(context, this.limit);
       if (context.getPartitionedRegion() != null && limitValue < 0) {
         applyOrderBy = false;
       }
@@ -1370,6 +1375,13 @@ public class CompiledSelect extends AbstractCompiledValue {
         }
       }
     }
+    // Only the first rows of an ordered query with a limit are returned, so the rows that sort
+    // after them are dropped as the results grow instead of being kept until the end. Waiting
+    // until there are twice as many rows as needed keeps the cost per row low.
+    if (applyOrderBy && limitValue >= 0 && resultSet instanceof Truncatable
+        && resultSet.size() > 2L * limitValue) {
+      ((Truncatable) resultSet).truncate(limitValue);
+    }
     return occurrence;
   }
 
@@ -286,8 +286,8 @@ public class CompiledUndefined extends AbstractCompiledValue implements Negatabl
     int thatSize = comparedTo.getSizeEstimate(context);
     int thatOperator = comparedTo.getOperator();
 
-    // Go with the lowest cost when hint is used.
-    if (context instanceof QueryExecutionContext && ((QueryExecutionContext) context).hasHints()) {
+    // Go with the lowest cost when hint is used or cost based selection is enabled.
+    if (context.isCostBasedFilterSelection()) {
       return thisSize <= thatSize;
     }
 
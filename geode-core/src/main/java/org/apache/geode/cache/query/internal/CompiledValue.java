@@ -65,6 +65,7 @@ public interface CompiledValue {
   String CAN_APPLY_ORDER_BY_AT_INDEX = "can_apply_orderby_at_index";
   String PREF_INDEX_COND = "preferred_index_condition";
   String QUERY_INDEX_HINTS = "query_index_hints";
+  String BITMAP_INDEX_FILTER = "bitmap_index_filter";
 
   CompiledValue MAP_INDEX_ALL_KEYS = new AbstractCompiledValue() {
     @Override
@@ -40,8 +40,6 @@ import org.apache.geode.cache.persistence.PartitionOfflineException;
 import org.apache.geode.cache.query.FunctionDomainException;
 import org.apache.geode.cache.query.NameResolutionException;
 import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.QueryException;
-import org.apache.geode.cache.query.QueryInvalidException;
 import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.QueryStatistics;
@@ -88,6 +86,15 @@ public class DefaultQuery implements Query {
   public static boolean QUERY_VERBOSE =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "Query.VERBOSE");
 
+  /**
+   * System property to choose among the indexes usable by an AND junction by their estimated
+   * result size alone, as is done when the query has index hints, rather than preferring equality
+   * conditions to range conditions. Range conditions on compact range indexes are then estimated
+   * from a histogram of the index keys.
+   */
+  public static final boolean COST_BASED_INDEX_SELECTION =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "Query.costBasedIndexSelection");
+
   /**
    * System property to cleanup the compiled query. The compiled query will be removed if it is not
    * used for more than the set value. By default its set to 10 minutes, the time is set in
@@ -173,19 +180,18 @@ public class DefaultQuery implements Query {
    * @see QueryService#newQuery
    */
   public DefaultQuery(String queryString, InternalCache cache, boolean isForRemote) {
+    this(queryString, QueryPlanCache.Plan.compile(queryString, cache, isForRemote), cache);
+  }
+
+  /**
+   * Creates a query from an already compiled query string, which may be shared with other queries.
+   *
+   * @see QueryPlanCache
+   */
+  public DefaultQuery(String queryString, QueryPlanCache.Plan plan, InternalCache cache) {
     this.queryString = queryString;
-    QCompiler compiler = new QCompiler();
-    this.compiledQuery = compiler.compileQuery(queryString);
-    CompiledSelect cs = getSimpleSelect();
-    if (cs != null && !isForRemote && (cs.isGroupBy() || cs.isOrderBy())) {
-      QueryExecutionContext ctx = new QueryExecutionContext(null, cache);
-      try {
-        cs.computeDependencies(ctx);
-      } catch (QueryException qe) {
-        throw new QueryInvalidException("", qe);
-      }
-    }
-    this.traceOn = compiler.isTraceRequested() || QUERY_VERBOSE;
+    this.compiledQuery = plan.getCompiledQuery();
+    this.traceOn = plan.isTraceRequested() || QUERY_VERBOSE;
     this.cache = cache;
     this.stats = new DefaultQueryStatistics();
     this.cancelationTask = Optional.empty();
@@ -320,6 +326,90 @@ public class DefaultQuery implements Query {
     }
   }
 
+  /**
+   * Starts executing this query and returns its results chunk by chunk as they arrive, so that the
+   * whole result set does not have to be held in memory at once. Only queries on a single
+   * partitioned region whose results need no further processing once they have been collected are
+   * streamed, see {@link PartitionedRegion#executeQueryStreaming(DefaultQuery, Object[])}.
+   * Results are returned in the form they would take for a remote query. Unlike
+   * {@link #execute(Object[])}, buckets whose results have already been returned are not queried
+   * again if a member fails; the stream fails instead.
+   *
+   * @return null if this query cannot be streamed, in which case it should be executed normally
+   */
+  public StreamingQueryResults executeStreaming(Object[] params) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    if (params == null) {
+      params = EMPTY_ARRAY;
+    }
+    if (this.serverProxy != null || needsPDXDeserializationWrapper(true)
+        || this.cache.getTxManager().getTXState() != null) {
+      return null;
+    }
+    QueryExecutor qe = checkQueryOnPR(params);
+    if (!(qe instanceof PartitionedRegion)) {
+      return null;
+    }
+    return ((PartitionedRegion) qe).executeQueryStreaming(this, params);
+  }
+
+  /**
+   * Runs the part of a streamed query that produces its results, on the thread of the streaming
+   * query pool, with the monitoring, statistics and observer callbacks of {@link #execute}. The
+   * query is monitored until all of its results have been produced rather than only while the local
+   * buckets are queried, since its consumer relies on the {@link QueryMonitor} to cancel a query
+   * that runs too long or when the heap becomes critical.
+   */
+  public void executeStreamed(StreamedExecution execution) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    long startTime = 0L;
+    if (this.traceOn && this.cache != null) {
+      startTime = NanoTimer.getTime();
+    }
+
+    QueryObserver indexObserver = null;
+    QueryObserver observer = null;
+    QueryMonitor queryMonitor = this.cache.getQueryMonitor();
+    Optional<ScheduledFuture> cancelationTask = Optional.empty();
+    long statStartTime = CachePerfStats.getStatTime();
+    Boolean initialPdxReadSerialized = this.cache.getPdxReadSerializedOverride();
+    try {
+      this.cache.setPdxReadSerializedOverride(true);
+      indexObserver = this.startTrace();
+      if (queryMonitor != null) {
+        queryMonitor.monitorQueryThread(this);
+        // the local buckets replace the cancelation task of this query with their own
+        cancelationTask = getCancelationTask();
+      }
+      observer = QueryObserverHolder.getInstance();
+      observer.startQuery(this);
+      if (DefaultQuery.testHook != null) {
+        DefaultQuery.testHook.doTestHook(DefaultQuery.TestHook.SPOTS.BEFORE_QUERY_EXECUTION,
+            this);
+      }
+      execution.execute();
+    } finally {
+      if (observer != null) {
+        observer.endQuery();
+      }
+      updateStatistics(CachePerfStats.getStatTime() - statStartTime);
+      cancelationTask.ifPresent(task -> task.cancel(false));
+      this.cache.setPdxReadSerializedOverride(initialPdxReadSerialized);
+      this.endTrace(indexObserver, startTime, null);
+    }
+  }
+
+  /**
+   * The part of a streamed query that produces its results.
+   *
+   * @see #executeStreamed(StreamedExecution)
+   */
+  @FunctionalInterface
+  public interface StreamedExecution {
+    void execute() throws FunctionDomainException, TypeMismatchException,
+        NameResolutionException, QueryInvocationTargetException;
+  }
+
   /**
    * This method attempts to reintrepret a {@link QueryExecutionCanceledException} using the
    * the value returned by {@link #getQueryCanceledException} (set by the {@link QueryMonitor}).
@@ -151,7 +151,14 @@ public class DefaultQueryService implements InternalQueryService {
       throw new QueryInvalidException(
           "The query string must not be empty");
     ServerProxy serverProxy = pool == null ? null : new ServerProxy(pool);
-    DefaultQuery query = new DefaultQuery(queryString, this.cache, serverProxy != null);
+    DefaultQuery query;
+    if (serverProxy == null) {
+      query = new DefaultQuery(queryString,
+          this.cache.getQueryPlanCache().getPlan(queryString, this.cache), this.cache);
+    } else {
+      // compiled only to be sent to the server
+      query = new DefaultQuery(queryString, this.cache, true);
+    }
     query.setServerProxy(serverProxy);
     return query;
   }
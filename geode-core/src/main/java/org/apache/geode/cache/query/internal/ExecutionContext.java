@@ -91,6 +91,7 @@ public class ExecutionContext {
   private boolean distinct = false;
   private Object currentProjectionField = null;
   private boolean isPRQueryNode = false;
+  private boolean isCombiningBucketResults = false;
 
   /**
    * Param specialIteratorVar name of special variable to use to denote the current iteration
@@ -587,6 +588,16 @@ public class ExecutionContext {
     return false;
   }
 
+  /**
+   * Returns true if filters are to be chosen by their estimated result size alone rather than by
+   * their operator.
+   *
+   * @see DefaultQuery#COST_BASED_INDEX_SELECTION
+   */
+  public boolean isCostBasedFilterSelection() {
+    return DefaultQuery.COST_BASED_INDEX_SELECTION;
+  }
+
   public List getBucketList() {
     return null;
   }
@@ -647,4 +658,16 @@ public class ExecutionContext {
     return this.isPRQueryNode;
   }
 
+  /**
+   * Set on a data store that combines the grouped results of its buckets before sending them to
+   * the query node.
+   */
+  public void setIsCombiningBucketResults(boolean isCombiningBucketResults) {
+    this.isCombiningBucketResults = isCombiningBucketResults;
+  }
+
+  public boolean isCombiningBucketResults() {
+    return this.isCombiningBucketResults;
+  }
+
 }
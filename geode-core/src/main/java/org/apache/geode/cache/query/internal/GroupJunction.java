@@ -24,6 +24,7 @@ import org.apache.geode.cache.query.FunctionDomainException;
 import org.apache.geode.cache.query.NameResolutionException;
 import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.IndexProtocol;
 
 /**
  * This structure contains the filter evaluable and iter evaluable conditions which are dependent on
@@ -164,6 +165,14 @@ public class GroupJunction extends AbstractGroupOrRangeJunction {
           }
         }
         evalOperands.add(0, currentBestFilter);
+        if (DefaultQuery.COST_BASED_INDEX_SELECTION && context.getQuery() != null
+            && ((DefaultQuery) context.getQuery()).isTraced()) {
+          List bestIndexes = ((CompiledValue) currentBestFilter).getPlanInfo(context).indexes;
+          context.getCache().getLogger()
+              .info("Query Trace Info: chose the filter on index "
+                  + ((IndexProtocol) bestIndexes.get(0)).getName()
+                  + " with an estimated result size of " + currentBestFilterSize);
+        }
       }
     } else {
       indexCount = _operands.length;
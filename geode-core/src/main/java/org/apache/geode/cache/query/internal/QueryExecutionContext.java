@@ -215,6 +215,11 @@ public class QueryExecutionContext extends ExecutionContext {
     return hints != null;
   }
 
+  @Override
+  public boolean isCostBasedFilterSelection() {
+    return hasHints() || super.isCostBasedFilterSelection();
+  }
+
   boolean hasMultiHints() {
     return hints != null && hints.size() > 1;
   }
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.geode.cache.query.QueryException;
+import org.apache.geode.cache.query.QueryInvalidException;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.CachePerfStats;
+import org.apache.geode.internal.cache.InternalCache;
+
+/**
+ * The compiled forms of the query strings most recently used in a cache, so that a query string
+ * that is executed again and again is parsed and compiled only once. A compiled query is not
+ * changed by executing it, which the server already relies on when it shares a {@link DefaultQuery}
+ * between its clients, so one may be shared by any number of queries. Which indexes a query uses
+ * depends on its bind arguments and is still decided each time it is executed.
+ * <p>
+ * Holds at most {@link #MAX_SIZE} query strings, dropping the least recently used one when full.
+ */
+public class QueryPlanCache {
+
+  /**
+   * The number of compiled query strings kept by each cache. Zero disables the cache.
+   */
+  public static final int MAX_SIZE =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "Query.planCacheSize", 256);
+
+  private final int maxSize;
+
+  private final CachePerfStats stats;
+
+  private final LinkedHashMap<String, Plan> plans;
+
+  public QueryPlanCache(CachePerfStats stats) {
+    this(MAX_SIZE, stats);
+  }
+
+  QueryPlanCache(int maxSize, CachePerfStats stats) {
+    this.maxSize = maxSize;
+    this.stats = stats;
+    this.plans = new LinkedHashMap<String, Plan>(16, 0.75f, true) {
+      private static final long serialVersionUID = 3658240436113591427L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Plan> eldest) {
+        return size() > QueryPlanCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the compiled form of a query string, compiling it if it is not in this cache.
+   *
+   * @throws QueryInvalidException if the query string is invalid
+   */
+  public Plan getPlan(String queryString, InternalCache cache) {
+    if (this.maxSize <= 0) {
+      return Plan.compile(queryString, cache, false);
+    }
+    Plan plan;
+    synchronized (this.plans) {
+      plan = this.plans.get(queryString);
+    }
+    if (plan != null) {
+      this.stats.incQueryPlanCacheHits();
+      return plan;
+    }
+    this.stats.incQueryPlanCacheMisses();
+    // compiled outside of the lock, a query string compiled by two threads at once is cached once
+    plan = Plan.compile(queryString, cache, false);
+    synchronized (this.plans) {
+      Plan existing = this.plans.putIfAbsent(queryString, plan);
+      return existing != null ? existing : plan;
+    }
+  }
+
+  public int size() {
+    synchronized (this.plans) {
+      return this.plans.size();
+    }
+  }
+
+  public void clear() {
+    synchronized (this.plans) {
+      this.plans.clear();
+    }
+  }
+
+  /**
+   * A compiled query string.
+   */
+  public static class Plan {
+
+    private final CompiledValue compiledQuery;
+
+    private final boolean traceRequested;
+
+    private Plan(CompiledValue compiledQuery, boolean traceRequested) {
+      this.compiledQuery = compiledQuery;
+      this.traceRequested = traceRequested;
+    }
+
+    /**
+     * Compiles a query string. Unless the query is only compiled to be sent to a server, the
+     * ORDER BY and GROUP BY clauses of a SELECT are prepared once here rather than by each
+     * execution.
+     */
+    static Plan compile(String queryString, InternalCache cache, boolean isForRemote) {
+      QCompiler compiler = new QCompiler();
+      CompiledValue compiledQuery = compiler.compileQuery(queryString);
+      if (compiledQuery instanceof CompiledSelect && !isForRemote) {
+        CompiledSelect cs = (CompiledSelect) compiledQuery;
+        if (cs.isGroupBy() || cs.isOrderBy()) {
+          QueryExecutionContext ctx = new QueryExecutionContext(null, cache);
+          try {
+            cs.computeDependencies(ctx);
+          } catch (QueryException qe) {
+            throw new QueryInvalidException("", qe);
+          }
+        }
+      }
+      return new Plan(compiledQuery, compiler.isTraceRequested());
+    }
+
+    CompiledValue getCompiledQuery() {
+      return this.compiledQuery;
+    }
+
+    boolean isTraceRequested() {
+      return this.traceRequested;
+    }
+  }
+}
@@ -117,8 +117,8 @@ public class RangeJunction extends AbstractGroupOrRangeJunction {
     // return the one with lower size estimate is better
     boolean isThisBetter = true;
 
-    // Go with the lowest cost when hint is used.
-    if (context instanceof QueryExecutionContext && ((QueryExecutionContext) context).hasHints()) {
+    // Go with the lowest cost when hint is used or cost based selection is enabled.
+    if (context.isCostBasedFilterSelection()) {
       return thisSize <= comparedTo.getSizeEstimate(context);
     }
 
@@ -515,9 +515,20 @@ public class RangeJunction extends AbstractGroupOrRangeJunction {
   }
 
   @Override
-  public int getSizeEstimate(ExecutionContext context) {
-    // TODO:Asif:Try to estimate better
-    return RANGE_SIZE_ESTIMATE;
+  public int getSizeEstimate(ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    if (!DefaultQuery.COST_BASED_INDEX_SELECTION) {
+      // TODO:Asif:Try to estimate better
+      return RANGE_SIZE_ESTIMATE;
+    }
+    // the conditions are ANDed on the same index so none can match more than the smallest
+    int estimate = Integer.MAX_VALUE;
+    for (CompiledValue operand : this._operands) {
+      if (operand instanceof Filter) {
+        estimate = Math.min(estimate, ((Filter) operand).getSizeEstimate(context));
+      }
+    }
+    return estimate == Integer.MAX_VALUE ? RANGE_SIZE_ESTIMATE : estimate;
   }
 
   /*
@@ -838,9 +849,8 @@ public class RangeJunction extends AbstractGroupOrRangeJunction {
 
       int thatOperator = comparedTo.getOperator();
 
-      // Go with the lowest cost when hint is used.
-      if (context instanceof QueryExecutionContext
-          && ((QueryExecutionContext) context).hasHints()) {
+      // Go with the lowest cost when hint is used or cost based selection is enabled.
+      if (context.isCostBasedFilterSelection()) {
         return thisSize <= comparedTo.getSizeEstimate(context);
       }
 
@@ -1027,6 +1037,22 @@ public class RangeJunction extends AbstractGroupOrRangeJunction {
       this.greaterCondnKey = greaterCondnKey;
     }
 
+    @Override
+    public int getSizeEstimate(ExecutionContext context) {
+      if (DefaultQuery.COST_BASED_INDEX_SELECTION) {
+        try {
+          int estimate = this.indxInfo._index.getRangeSizeEstimate(this.greaterCondnKey,
+              this.greaterCondnOp, this.lessCondnKey, this.lessCondnOp, this.indxInfo._matchLevel);
+          if (estimate >= 0) {
+            return estimate;
+          }
+        } catch (TypeMismatchException ignore) {
+          // fall back to the fixed estimate
+        }
+      }
+      return super.getSizeEstimate(context);
+    }
+
     @Override
     public SelectResults filterEvaluate(ExecutionContext context, SelectResults iterationLimit)
         throws FunctionDomainException, TypeMismatchException, NameResolutionException,
@@ -42,7 +42,7 @@ import org.apache.geode.internal.Version;
  * @since GemFire 4.0
  */
 public class SortedResultSet extends TreeSet
-    implements SelectResults, Ordered, DataSerializableFixedID {
+    implements SelectResults, Ordered, Truncatable, DataSerializableFixedID {
   private static final long serialVersionUID = 5184711453750319224L;
 
   private ObjectType elementType;
@@ -152,4 +152,11 @@ public class SortedResultSet extends TreeSet
   public boolean dataPreordered() {
     return false;
   }
+
+  @Override
+  public void truncate(int maxSize) {
+    while (size() > maxSize) {
+      OrderByComparator.removeEvaluatedSortCriteria(comparator(), pollLast());
+    }
+  }
 }
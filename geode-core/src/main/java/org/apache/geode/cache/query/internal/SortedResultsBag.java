@@ -35,7 +35,7 @@ import org.apache.geode.internal.cache.CachePerfStats;
  *
  * @param <E>
  */
-public class SortedResultsBag<E> extends Bag implements Ordered {
+public class SortedResultsBag<E> extends Bag implements Ordered, Truncatable {
 
   private final Map<E, Integer> sortedMap;
   private final boolean orderedDataAddition;
@@ -238,6 +238,32 @@ public class SortedResultsBag<E> extends Bag implements Ordered {
     return this.orderedDataAddition;
   }
 
+  /**
+   * Does nothing if the data was added in order, as the last element cannot then be found cheaply.
+   */
+  @Override
+  public void truncate(int maxSize) {
+    if (this.orderedDataAddition || this.hasLimitIterator) {
+      return;
+    }
+    TreeMap<E, Integer> map = (TreeMap<E, Integer>) this.sortedMap;
+    while (this.size > maxSize) {
+      // nulls are iterated either before or after all the other elements
+      if (this.numNulls > 0 && (!this.emitNullAtStart || map.isEmpty())) {
+        this.numNulls--;
+      } else {
+        Map.Entry<E, Integer> last = map.lastEntry();
+        if (last.getValue() > 1) {
+          map.put(last.getKey(), last.getValue() - 1);
+        } else {
+          map.pollLastEntry();
+          OrderByComparator.removeEvaluatedSortCriteria(map.comparator(), last.getKey());
+        }
+      }
+      this.size--;
+    }
+  }
+
   @Override
   protected boolean nullOutputAtBegining() {
     return this.emitNullAtStart;
@@ -44,7 +44,7 @@ import org.apache.geode.internal.Version;
  * @since GemFire 4.0
  */
 public class SortedStructSet extends TreeSet
-    implements SelectResults, DataSerializableFixedID, Ordered, StructFields {
+    implements SelectResults, DataSerializableFixedID, Ordered, Truncatable, StructFields {
   private static final long serialVersionUID = -1687142950781718159L;
 
   protected StructTypeImpl structType;
@@ -399,4 +399,11 @@ public class SortedStructSet extends TreeSet
   public boolean dataPreordered() {
     return false;
   }
+
+  @Override
+  public void truncate(int maxSize) {
+    while (size() > maxSize) {
+      OrderByComparator.removeEvaluatedSortCriteria(comparator(), pollLast());
+    }
+  }
 }
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.geode.cache.query.QueryException;
+import org.apache.geode.cache.query.internal.CumulativeNonDistinctResults.Metadata;
+import org.apache.geode.cache.query.internal.types.StructTypeImpl;
+import org.apache.geode.cache.query.internal.utils.PDXUtils;
+import org.apache.geode.cache.query.types.CollectionType;
+import org.apache.geode.distributed.internal.DistributionConfig;
+
+/**
+ * The results of a query on a partitioned region, handed to the consumer chunk by chunk as they
+ * arrive from the members hosting the buckets rather than gathered into a single
+ * {@link org.apache.geode.cache.query.SelectResults}.
+ * <p>
+ * The chunks of the local buckets are added by the thread executing the query, which waits while
+ * {@link #WINDOW} of its chunks are buffered. The chunks of the other members are added by the
+ * threads processing their replies, which must never wait, so they are buffered whatever the
+ * window. Those chunks are therefore only bounded by the query itself: it is canceled by the
+ * {@link QueryMonitor} if it runs too long or the heap becomes critical, and a canceled query
+ * stops both the producers and the consumer.
+ * <p>
+ * Chunks are taken by a single consumer thread.
+ *
+ * @see DefaultQuery#executeStreaming(Object[])
+ */
+public class StreamingQueryResults implements AutoCloseable {
+
+  /**
+   * The number of chunks of the local buckets that may be buffered before the thread executing the
+   * query has to wait.
+   */
+  public static final int WINDOW =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "Query.streamingWindow", 16);
+
+  /** How long the producers and the consumer wait before checking if the query was canceled */
+  private static final long CANCEL_CHECK_MILLIS = 100;
+
+  private static final Object END = new Object();
+
+  private final DefaultQuery query;
+
+  private final CollectionType collectionType;
+
+  private final boolean isStruct;
+
+  /** -1 if the query has no limit */
+  private final int limit;
+
+  private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+
+  /** Held by each buffered chunk that was added by {@link #add} */
+  private final Semaphore window;
+
+  private volatile boolean closed;
+
+  private volatile Throwable failure;
+
+  /** Only accessed by the consumer */
+  private int resultCount;
+
+  /** Only accessed by the consumer */
+  private boolean done;
+
+  private final boolean[] objectChangedMarker = new boolean[1];
+
+  public StreamingQueryResults(DefaultQuery query, CollectionType collectionType, int limit) {
+    this(query, collectionType, limit, WINDOW);
+  }
+
+  StreamingQueryResults(DefaultQuery query, CollectionType collectionType, int limit,
+      int window) {
+    this.query = query;
+    this.collectionType = collectionType;
+    this.isStruct = collectionType.getElementType().isStructType();
+    this.limit = limit;
+    this.window = new Semaphore(Math.max(1, window));
+  }
+
+  public CollectionType getCollectionType() {
+    return this.collectionType;
+  }
+
+  /**
+   * Adds a chunk of results, waiting while the window is full. Must not be called by a thread
+   * processing replies, see {@link #offer}.
+   *
+   * @param metadata how the elements of the chunk have to be converted before they are returned
+   * @return false if the consumer has closed these results, the query was canceled or the calling
+   *         thread was interrupted, in which case the query should stop producing results
+   */
+  public boolean add(Collection<?> results, Metadata metadata) {
+    try {
+      while (!this.closed && !isCanceled()) {
+        if (this.window.tryAcquire(CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+          this.chunks.add(new Chunk(results, metadata, true));
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  /**
+   * Adds a chunk of results without waiting, whether or not the window is full.
+   *
+   * @param metadata how the elements of the chunk have to be converted before they are returned
+   * @return false if the consumer has closed these results or the query was canceled, in which
+   *         case the query should stop producing results
+   */
+  public boolean offer(Collection<?> results, Metadata metadata) {
+    if (this.closed || isCanceled()) {
+      return false;
+    }
+    this.chunks.add(new Chunk(results, metadata, false));
+    return true;
+  }
+
+  /**
+   * Called once every result has been added.
+   */
+  public void complete() {
+    this.chunks.add(END);
+  }
+
+  /**
+   * Called instead of {@link #complete()} if the query failed. The failure is thrown to the
+   * consumer once it has taken the chunks added before it.
+   */
+  public void fail(Throwable t) {
+    this.failure = t;
+    this.chunks.add(END);
+  }
+
+  public boolean isClosed() {
+    return this.closed;
+  }
+
+  private boolean isCanceled() {
+    return this.query.isCanceled();
+  }
+
+  /**
+   * Returns the next chunk of results, waiting for one to arrive.
+   *
+   * @return the next chunk, or null once every result has been returned
+   * @throws QueryException if the query failed
+   * @throws org.apache.geode.cache.CacheRuntimeException the reason the query was canceled, if it
+   *         was canceled by the {@link QueryMonitor}
+   */
+  public List<Object> nextChunk() throws QueryException, InterruptedException {
+    while (!this.done) {
+      Object next = this.chunks.poll(CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+      if (next == null) {
+        if (isCanceled()) {
+          this.done = true;
+          close();
+          throw this.query.getQueryCanceledException();
+        }
+        continue;
+      }
+      if (next == END) {
+        this.done = true;
+        Throwable t = this.failure;
+        if (t != null) {
+          throwFailure(t);
+        }
+        return null;
+      }
+      Chunk chunk = (Chunk) next;
+      if (chunk.inWindow) {
+        this.window.release();
+      }
+      List<Object> results = convert(chunk);
+      if (!results.isEmpty()) {
+        return results;
+      }
+    }
+    return null;
+  }
+  private List<Object> convert(Chunk chunk) {
+    int size = chunk.results.size();
+    if (this.limit >= 0) {
+      size = Math.min(size, this.limit - this.resultCount);
+    }
+    List<Object> results = new ArrayList<>(size);
+    for (Object original : chunk.results) {
+      if (results.size() == size) {
+        break;
+      }
+      Metadata metadata = chunk.metadata;
+      Object e = PDXUtils.convertPDX(original, this.isStruct, metadata.getDomainObjectForPdx,
+          metadata.getDeserializedObject, metadata.localResults, this.objectChangedMarker, false);
+      if (this.isStruct) {
+        if (this.objectChangedMarker[0]) {
+          e = new StructImpl((StructTypeImpl) this.collectionType.getElementType(), (Object[]) e);
+        } else {
+          e = original;
+        }
+      }
+      results.add(e);
+    }
+    this.resultCount += results.size();
+    if (this.limit >= 0 && this.resultCount >= this.limit) {
+      // nothing more is needed so let the query stop early
+      this.done = true;
+      close();
+    }
+    return results;
+  }
+
+  private static void throwFailure(Throwable t) throws QueryException {
+    if (t instanceof QueryException) {
+      throw (QueryException) t;
+    } else if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    }
+    throw new QueryException(t);
+  }
+
+  /**
+   * Stops the query from producing any more results and discards those that are buffered.
+   */
+  @Override
+  public void close() {
+    this.closed = true;
+    this.chunks.clear();
+  }
+
+  private static class Chunk {
+    final Collection<?> results;
+    final Metadata metadata;
+    /** Whether the chunk holds a permit of the window */
+    final boolean inWindow;
+
+    Chunk(Collection<?> results, Metadata metadata, boolean inWindow) {
+      this.results = results;
+      this.metadata = metadata;
+      this.inWindow = inWindow;
+    }
+  }
+}
@@ -0,0 +1,570 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.cq;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.Struct;
+import org.apache.geode.cache.query.internal.AttributeDescriptor;
+import org.apache.geode.cache.query.internal.CompiledComparison;
+import org.apache.geode.cache.query.internal.CompiledConstruction;
+import org.apache.geode.cache.query.internal.CompiledID;
+import org.apache.geode.cache.query.internal.CompiledIn;
+import org.apache.geode.cache.query.internal.CompiledIteratorDef;
+import org.apache.geode.cache.query.internal.CompiledJunction;
+import org.apache.geode.cache.query.internal.CompiledLiteral;
+import org.apache.geode.cache.query.internal.CompiledPath;
+import org.apache.geode.cache.query.internal.CompiledRegion;
+import org.apache.geode.cache.query.internal.CompiledSelect;
+import org.apache.geode.cache.query.internal.CompiledValue;
+import org.apache.geode.cache.query.internal.CqEntry;
+import org.apache.geode.cache.query.internal.MethodInvocationAuthorizer;
+import org.apache.geode.cache.query.internal.QCompiler;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.pdx.internal.PdxString;
+import org.apache.geode.pdx.internal.TypeRegistry;
+
+/**
+ * An index of the WHERE clauses of the CQs registered on a region, which finds the CQs whose query
+ * may match the value of an event without evaluating the query of every CQ.
+ * <p>
+ * A query is indexed on the first condition of its WHERE clause, if that condition compares an
+ * attribute path of the iterator with a number or string literal using =, &lt;, &lt;=, &gt; or
+ * &gt;=, or looks the path up in a SET of such literals with IN. As an AND junction is false as
+ * soon as its first operand is false, the query cannot match a value that does not meet the
+ * condition. The conditions of all the queries on a path are kept in maps sorted by their
+ * literals, so the conditions a value meets are found with one evaluation of the path and one
+ * lookup in each map.
+ * <p>
+ * Only values the comparison certainly rules out are ruled out: if the path cannot be evaluated on
+ * a value, is UNDEFINED or is not a number or a string, or the comparison would fail, every query
+ * on the path is a candidate so that its evaluation gives the same result or error as without the
+ * index. Queries that are not indexed are always candidates.
+ */
+public class CqPredicateIndex {
+
+  private static final int NUMBER = 0;
+
+  private static final int STRING = 1;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** The predicates of the registered queries by query string */
+  private final Map<String, Predicate> predicates = new ConcurrentHashMap<>();
+
+  /** The conditions of the indexed queries by attribute path, guarded by the lock */
+  private final Map<String, PathConditions> paths = new HashMap<>();
+
+  /** The ids of the indexed queries, guarded by the lock */
+  private final BitSet ids = new BitSet();
+
+  /** Incremented as each query is added, guarded by the lock */
+  private long version;
+
+  /**
+   * Adds the query of a CQ. A query added for several CQs is indexed once.
+   */
+  public void add(String queryString) {
+    if (queryString == null) {
+      return;
+    }
+    this.lock.writeLock().lock();
+    try {
+      Predicate predicate = this.predicates.get(queryString);
+      if (predicate == null) {
+        Condition condition = getCondition(queryString);
+        int id = -1;
+        if (condition != null) {
+          id = this.ids.nextClearBit(0);
+          this.ids.set(id);
+          this.paths.computeIfAbsent(condition.path, k -> new PathConditions(condition.attributes))
+              .add(condition, id);
+        }
+        predicate = new Predicate(condition, id, ++this.version);
+        this.predicates.put(queryString, predicate);
+      }
+      predicate.references++;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes the query of a CQ that was added.
+   */
+  public void remove(String queryString) {
+    if (queryString == null) {
+      return;
+    }
+    this.lock.writeLock().lock();
+    try {
+      Predicate predicate = this.predicates.get(queryString);
+      if (predicate == null || --predicate.references > 0) {
+        return;
+      }
+      this.predicates.remove(queryString);
+      if (predicate.isIndexed()) {
+        PathConditions conditions = this.paths.get(predicate.condition.path);
+        conditions.remove(predicate.condition, predicate.id);
+        if (conditions.isEmpty()) {
+          this.paths.remove(predicate.condition.path);
+        }
+        this.ids.clear(predicate.id);
+      }
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns whether the query is indexed, for tests.
+   */
+  boolean isIndexed(String queryString) {
+    Predicate predicate = this.predicates.get(queryString);
+    return predicate != null && predicate.isIndexed();
+  }
+
+  /**
+   * Finds the queries that may match a value.
+   *
+   * @param value the new or old value of an event
+   * @param pdxRegistry the registry used to read the fields of PDX values
+   * @param authorizer the authorizer of the methods that read attributes
+   */
+  public Candidates getCandidates(Object value, TypeRegistry pdxRegistry,
+      MethodInvocationAuthorizer authorizer) {
+    this.lock.readLock().lock();
+    try {
+      BitSet candidates = new BitSet();
+      for (PathConditions conditions : this.paths.values()) {
+        conditions.addCandidates(value, pdxRegistry, authorizer, candidates);
+      }
+      return new Candidates(candidates, this.version);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * The queries that may match a value.
+   */
+  public class Candidates {
+
+    private final BitSet ids;
+
+    /** The version of the index when the candidates were found */
+    private final long version;
+
+    private Candidates(BitSet ids, long version) {
+      this.ids = ids;
+      this.version = version;
+    }
+
+    /**
+     * Returns false if the query cannot match the value, and true if it may. A query added after
+     * the candidates were found may match.
+     */
+    public boolean mayMatch(String queryString) {
+      Predicate predicate = queryString == null ? null : predicates.get(queryString);
+      return predicate == null || !predicate.isIndexed() || predicate.version > this.version
+          || this.ids.get(predicate.id);
+    }
+  }
+
+  /**
+   * Returns the indexed condition of a query, or null if the query is not indexed.
+   */
+  private static Condition getCondition(String queryString) {
+    CompiledValue query;
+    try {
+      query = new QCompiler().compileQuery(queryString);
+    } catch (RuntimeException e) {
+      // the query is reported invalid when the CQ is registered
+      return null;
+    }
+    if (!(query instanceof CompiledSelect)) {
+      return null;
+    }
+    CompiledSelect select = (CompiledSelect) query;
+    List iterators = select.getIterators();
+    if (iterators.size() != 1) {
+      return null;
+    }
+    CompiledIteratorDef iterator = (CompiledIteratorDef) iterators.get(0);
+    if (!(iterator.getCollectionExpr() instanceof CompiledRegion)
+        || !TypeUtils.OBJECT_TYPE.equals(iterator.getElementType())) {
+      return null;
+    }
+    CompiledValue where = select.getWhereClause();
+    if (where instanceof CompiledJunction
+        && ((CompiledJunction) where).getOperator() == OQLLexerTokenTypes.LITERAL_and) {
+      // the junction is evaluated from its first operand on
+      where = (CompiledValue) where.getChildren().get(0);
+    }
+    if (where instanceof CompiledComparison) {
+      return getCondition((CompiledComparison) where, iterator.getName());
+    }
+    if (where instanceof CompiledIn) {
+      return getCondition((CompiledIn) where, iterator.getName());
+    }
+    return null;
+  }
+
+  private static Condition getCondition(CompiledComparison comparison, String iteratorName) {
+    CompiledValue path = comparison._left;
+    CompiledValue literal = comparison._right;
+    int operator = comparison.getOperator();
+    if (path instanceof CompiledLiteral) {
+      path = comparison._right;
+      literal = comparison._left;
+      operator = reflect(operator);
+    }
+    if (operator < 0 || !(literal instanceof CompiledLiteral)) {
+      return null;
+    }
+    List<String> attributes = getAttributes(path, iteratorName);
+    Object value = ((CompiledLiteral) literal).getValue();
+    if (attributes == null || getKind(value) < 0) {
+      return null;
+    }
+    return new Condition(attributes, operator, new Object[] {value});
+  }
+
+  private static Condition getCondition(CompiledIn in, String iteratorName) {
+    List children = in.getChildren();
+    List<String> attributes = getAttributes((CompiledValue) children.get(0), iteratorName);
+    if (attributes == null || !(children.get(1) instanceof CompiledConstruction)) {
+      return null;
+    }
+    List elements = ((CompiledConstruction) children.get(1)).getChildren();
+    if (elements.isEmpty()) {
+      return null;
+    }
+    Object[] values = new Object[elements.size()];
+    for (int i = 0; i < values.length; i++) {
+      if (!(elements.get(i) instanceof CompiledLiteral)) {
+        return null;
+      }
+      values[i] = ((CompiledLiteral) elements.get(i)).getValue();
+      if (getKind(values[i]) < 0) {
+        return null;
+      }
+    }
+    return new Condition(attributes, OQLLexerTokenTypes.TOK_EQ, values);
+  }
+
+  /**
+   * Returns the operator of a comparison with its operands swapped, or -1 if it is not indexed.
+   */
+  private static int reflect(int operator) {
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_EQ:
+        return OQLLexerTokenTypes.TOK_EQ;
+      case OQLLexerTokenTypes.TOK_LT:
+        return OQLLexerTokenTypes.TOK_GT;
+      case OQLLexerTokenTypes.TOK_LE:
+        return OQLLexerTokenTypes.TOK_GE;
+      case OQLLexerTokenTypes.TOK_GT:
+        return OQLLexerTokenTypes.TOK_LT;
+      case OQLLexerTokenTypes.TOK_GE:
+        return OQLLexerTokenTypes.TOK_LE;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Returns the attributes read from the iterator to evaluate an expression, or null if the
+   * expression is not an attribute path of the iterator.
+   */
+  private static List<String> getAttributes(CompiledValue expression, String iteratorName) {
+    if (expression instanceof CompiledID) {
+      String id = ((CompiledID) expression).getId();
+      List<String> attributes = new ArrayList<>();
+      if (!id.equals(iteratorName)) {
+        // an implicit attribute of the iterator
+        attributes.add(id);
+      }
+      return attributes;
+    }
+    if (expression instanceof CompiledPath) {
+      CompiledPath path = (CompiledPath) expression;
+      List<String> attributes = getAttributes(path.getReceiver(), iteratorName);
+      if (attributes != null) {
+        attributes.add(path.getTailID());
+      }
+      return attributes;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the kind of a literal, or -1 if conditions on it are not indexed.
+   */
+  private static int getKind(Object literal) {
+    if (literal instanceof Integer || literal instanceof Long || literal instanceof Float
+        || literal instanceof Double) {
+      return NUMBER;
+    }
+    if (literal instanceof String) {
+      return STRING;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns whether a value compares with number literals as a number. Other numbers may compare
+   * in an order that does not match the order of the literals.
+   */
+  private static boolean isNumber(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Float
+        || value instanceof Double || value instanceof Short || value instanceof Byte;
+  }
+
+  private static class Condition {
+
+    private final String[] attributes;
+
+    /** The attributes joined with dots */
+    private final String path;
+
+    /** The operator with the path on the left, TOK_EQ for IN */
+    private final int operator;
+
+    private final Object[] literals;
+
+    Condition(List<String> attributes, int operator, Object[] literals) {
+      this.attributes = attributes.toArray(new String[0]);
+      this.path = String.join(".", attributes);
+      this.operator = operator;
+      this.literals = literals;
+    }
+  }
+
+  private static class Predicate {
+
+    /** The indexed condition, or null if the query is not indexed */
+    private final Condition condition;
+
+    private final int id;
+
+    /** The version of the index when the query was added */
+    private final long version;
+
+    /** The number of CQs that added the query, guarded by the lock */
+    private int references;
+
+    Predicate(Condition condition, int id, long version) {
+      this.condition = condition;
+      this.id = id;
+      this.version = version;
+    }
+
+    boolean isIndexed() {
+      return this.condition != null;
+    }
+  }
+
+  /**
+   * The conditions of the indexed queries on an attribute path.
+   */
+  private static class PathConditions {
+
+    private final String[] attributes;
+
+    private final Conditions[] conditions = new Conditions[] {
+        new Conditions(TypeUtils.getExtendedNumericComparator()), new Conditions(null)};
+
+    PathConditions(String[] attributes) {
+      this.attributes = attributes;
+    }
+
+    void add(Condition condition, int id) {
+      for (Object literal : condition.literals) {
+        this.conditions[getKind(literal)].add(condition.operator, literal, id);
+      }
+    }
+
+    void remove(Condition condition, int id) {
+      for (Object literal : condition.literals) {
+        this.conditions[getKind(literal)].remove(condition.operator, literal, id);
+      }
+    }
+
+    boolean isEmpty() {
+      return this.conditions[NUMBER].isEmpty() && this.conditions[STRING].isEmpty();
+    }
+
+    void addCandidates(Object value, TypeRegistry pdxRegistry,
+        MethodInvocationAuthorizer authorizer, BitSet candidates) {
+      Object pathValue;
+      try {
+        pathValue = read(value, pdxRegistry, authorizer);
+      } catch (Exception e) {
+        // the evaluation of the queries reports the error
+        pathValue = QueryService.UNDEFINED;
+      }
+      Conditions numbers = this.conditions[NUMBER];
+      Conditions strings = this.conditions[STRING];
+      if (pathValue == null) {
+        // null is not equal to a literal, but is not ordered with it
+        numbers.addRanges(candidates);
+        strings.addRanges(candidates);
+      } else if (isNumber(pathValue)) {
+        // a number is not equal to a string and cannot be ordered with it
+        numbers.addMatches(pathValue, candidates);
+        strings.addRanges(candidates);
+      } else if (pathValue instanceof String) {
+        strings.addMatches(pathValue, candidates);
+        numbers.addRanges(candidates);
+      } else if (pathValue instanceof PdxString) {
+        // a PdxString is ordered by its bytes rather than as a String
+        strings.addEqual(pathValue.toString(), candidates);
+        strings.addRanges(candidates);
+        numbers.addRanges(candidates);
+      } else {
+        numbers.addAll(candidates);
+        strings.addAll(candidates);
+      }
+    }
+
+    private Object read(Object value, TypeRegistry pdxRegistry,
+        MethodInvocationAuthorizer authorizer) throws Exception {
+      Object target = value;
+      for (String attribute : this.attributes) {
+        if (target instanceof Struct || target instanceof Region.Entry
+            || target instanceof CqEntry) {
+          return QueryService.UNDEFINED;
+        }
+        target = new AttributeDescriptor(pdxRegistry, authorizer, attribute).read(target);
+      }
+      return target;
+    }
+  }
+
+  /**
+   * The conditions of the indexed queries on an attribute path with literals of one kind, from each
+   * literal to the ids of the queries.
+   */
+  private static class Conditions {
+
+    private final NavigableMap<Object, BitSet> equal;
+
+    private final NavigableMap<Object, BitSet> greater;
+
+    private final NavigableMap<Object, BitSet> greaterOrEqual;
+
+    private final NavigableMap<Object, BitSet> less;
+
+    private final NavigableMap<Object, BitSet> lessOrEqual;
+
+    @SuppressWarnings("unchecked")
+    Conditions(Comparator comparator) {
+      this.equal = new TreeMap<>(comparator);
+      this.greater = new TreeMap<>(comparator);
+      this.greaterOrEqual = new TreeMap<>(comparator);
+      this.less = new TreeMap<>(comparator);
+      this.lessOrEqual = new TreeMap<>(comparator);
+    }
+
+    private NavigableMap<Object, BitSet> getMap(int operator) {
+      switch (operator) {
+        case OQLLexerTokenTypes.TOK_EQ:
+          return this.equal;
+        case OQLLexerTokenTypes.TOK_GT:
+          return this.greater;
+        case OQLLexerTokenTypes.TOK_GE:
+          return this.greaterOrEqual;
+        case OQLLexerTokenTypes.TOK_LT:
+          return this.less;
+        case OQLLexerTokenTypes.TOK_LE:
+          return this.lessOrEqual;
+        default:
+          throw new IllegalArgumentException("operator=" + operator);
+      }
+    }
+
+    void add(int operator, Object literal, int id) {
+      getMap(operator).computeIfAbsent(literal, k -> new BitSet()).set(id);
+    }
+
+    void remove(int operator, Object literal, int id) {
+      NavigableMap<Object, BitSet> map = getMap(operator);
+      BitSet ids = map.get(literal);
+      if (ids != null) {
+        ids.clear(id);
+        if (ids.isEmpty()) {
+          map.remove(literal);
+        }
+      }
+    }
+
+    boolean isEmpty() {
+      return this.equal.isEmpty() && this.greater.isEmpty() && this.greaterOrEqual.isEmpty()
+          && this.less.isEmpty() && this.lessOrEqual.isEmpty();
+    }
+
+    /**
+     * Adds the queries whose condition a value of the same kind as the literals meets.
+     */
+    void addMatches(Object value, BitSet candidates) {
+      addEqual(value, candidates);
+      // path > literal for the literals less than the value, and so on
+      or(this.greater.headMap(value, false).values(), candidates);
+      or(this.greaterOrEqual.headMap(value, true).values(), candidates);
+      or(this.less.tailMap(value, false).values(), candidates);
+      or(this.lessOrEqual.tailMap(value, true).values(), candidates);
+    }
+
+    void addEqual(Object value, BitSet candidates) {
+      BitSet ids = this.equal.get(value);
+      if (ids != null) {
+        candidates.or(ids);
+      }
+    }
+
+    void addRanges(BitSet candidates) {
+      or(this.greater.values(), candidates);
+      or(this.greaterOrEqual.values(), candidates);
+      or(this.less.values(), candidates);
+      or(this.lessOrEqual.values(), candidates);
+    }
+
+    void addAll(BitSet candidates) {
+      or(this.equal.values(), candidates);
+      addRanges(candidates);
+    }
+
+    private static void or(Collection<BitSet> ids, BitSet candidates) {
+      for (BitSet each : ids) {
+        candidates.or(each);
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.IndexStatistics;
+import org.apache.geode.cache.query.IndexType;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.CompiledValue;
+import org.apache.geode.cache.query.internal.ExecutionContext;
+import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+
+/**
+ * A compact range index for an indexed expression with few distinct values. A key with many entries
+ * keeps them in a bitmap of the ordinals the {@link EntryOrdinals} of the region gives them, rather
+ * than in a concurrent hash set, which takes a small fraction of the memory. As all the bitmap
+ * indexes of a region, or of a bucket of a partitioned region, share the ordinals, the bitmaps of
+ * the keys of several equality conditions of an AND junction are and'ed before the entries of any
+ * of them are looked up.
+ *
+ * @see IndexType#BITMAP
+ * @see BitmapIndexFilter
+ */
+public class BitmapIndex extends CompactRangeIndex {
+
+  BitmapIndex(InternalCache cache, String indexName, Region region, String fromClause,
+      String indexedExpression, String projectionAttributes, String origFromClause,
+      String origIndexExpr, String[] definitions, IndexStatistics stats, EntryOrdinals ordinals) {
+    super(cache, indexName, region, fromClause, indexedExpression, projectionAttributes,
+        origFromClause, origIndexExpr, definitions, stats,
+        internalIndexStats -> new BitmapIndexStore(region, internalIndexStats,
+            cache, ordinals));
+  }
+
+  @Override
+  public IndexType getType() {
+    return IndexType.BITMAP;
+  }
+
+  private BitmapIndexStore getBitmapIndexStore() {
+    return (BitmapIndexStore) getIndexStorage();
+  }
+
+  /**
+   * Returns the ordinals of the entries of a key, null if the key has no entries or an empty
+   * bitmap if it has too few entries to be kept in a bitmap.
+   */
+  OrdinalBitmap getOrdinals(Object key) throws TypeMismatchException {
+    return getBitmapIndexStore().getOrdinals(getPdxStringForIndexedPdxKeys(key));
+  }
+
+  @Override
+  CloseableIterator<IndexStoreEntry> getEntries(Object key, ExecutionContext context)
+      throws TypeMismatchException {
+    BitmapIndexFilter filter =
+        (BitmapIndexFilter) context.cacheGet(CompiledValue.BITMAP_INDEX_FILTER);
+    if (filter != null) {
+      OrdinalBitmap ordinals = filter.getOrdinals(this, key);
+      if (ordinals != null) {
+        return getBitmapIndexStore().get(key, ordinals);
+      }
+    }
+    return super.getEntries(key, context);
+  }
+
+  /**
+   * Clears the index once it is removed so that its bitmaps let go of their ordinals. A query that
+   * is still using the index may miss some of its entries.
+   */
+  @Override
+  public void destroy() {
+    super.destroy();
+    clear();
+  }
+}
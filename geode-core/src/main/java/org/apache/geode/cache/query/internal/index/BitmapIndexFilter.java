@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+
+/**
+ * The equality conditions on bitmap indexes of an AND junction. While the junction is evaluated, a
+ * bitmap index looking up the key of one of the conditions only returns the entries that also
+ * match all the other conditions, found by and'ing the bitmaps of their keys. The and'ed bitmaps
+ * only narrow the entries looked up: the junction still evaluates its other conditions on them.
+ * <p>
+ * The indexes are looked up by name in the index manager of the region being queried, which is a
+ * bucket of a partitioned region in turn, and the and'ed bitmaps are kept for each.
+ */
+public class BitmapIndexFilter {
+
+  private final List<String> indexNames = new ArrayList<>();
+
+  private final List<Object> keys = new ArrayList<>();
+
+  private final List<Object> conditions = new ArrayList<>();
+
+  private final Map<BitmapIndex, OrdinalBitmap> ordinals = new IdentityHashMap<>();
+
+  /**
+   * Adds the equality condition of an index on a key.
+   */
+  public void add(String indexName, Object key, Object condition) throws TypeMismatchException {
+    key = TypeUtils.indexKeyFor(key);
+    this.indexNames.add(indexName);
+    this.keys.add(key == null ? IndexManager.NULL : key);
+    this.conditions.add(condition);
+  }
+
+  public int size() {
+    return this.conditions.size();
+  }
+
+  public boolean hasCondition(Object condition) {
+    for (Object each : this.conditions) {
+      if (each == condition) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the ordinals of the entries that match every condition, if the index and key are one
+   * of the conditions and the bitmaps of at least two of the conditions narrow the entries, and
+   * null otherwise.
+   */
+  synchronized OrdinalBitmap getOrdinals(BitmapIndex index, Object key)
+      throws TypeMismatchException {
+    if (!isCondition(index, key)) {
+      return null;
+    }
+    if (this.ordinals.containsKey(index)) {
+      return this.ordinals.get(index);
+    }
+    OrdinalBitmap result = null;
+    int bitmaps = 0;
+    IndexManager indexManager = IndexUtils.getIndexManager(index.cache, index.getRegion(), false);
+    if (indexManager != null) {
+      for (int i = 0; i < this.indexNames.size(); i++) {
+        Index other = indexManager.getIndex(this.indexNames.get(i));
+        if (!(other instanceof BitmapIndex) || !other.isValid()) {
+          continue;
+        }
+        OrdinalBitmap bitmap = ((BitmapIndex) other).getOrdinals(this.keys.get(i));
+        if (bitmap == null) {
+          // no entry has the key, which the lookup finds without the bitmaps
+          result = null;
+          bitmaps = 0;
+          break;
+        }
+        if (bitmap.isEmpty()) {
+          // the key has too few entries to be kept in a bitmap
+          continue;
+        }
+        result = result == null ? bitmap : result.and(bitmap);
+        bitmaps++;
+      }
+    }
+    if (bitmaps < 2) {
+      result = null;
+    }
+    this.ordinals.put(index, result);
+    return result;
+  }
+
+  private boolean isCondition(BitmapIndex index, Object key) {
+    for (int i = 0; i < this.indexNames.size(); i++) {
+      if (this.indexNames.get(i).equals(index.getName())
+          && index.getPdxStringForIndexedPdxKeys(this.keys.get(i)).equals(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
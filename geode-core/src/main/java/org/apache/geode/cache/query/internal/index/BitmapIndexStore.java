@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+
+/**
+ * The store of a {@link BitmapIndex}. A key with more than
+ * {@link IndexManager#INDEX_ELEMARRAY_THRESHOLD} entries keeps them in an {@link EntryBitmap}
+ * rather than a concurrent hash set, numbered by the {@link EntryOrdinals} of the region. Keys with
+ * fewer entries are kept as in a {@link MemoryIndexStore}.
+ */
+class BitmapIndexStore extends MemoryIndexStore {
+
+  private final EntryOrdinals ordinals;
+
+  BitmapIndexStore(Region region, InternalIndexStatistics internalIndexStats, InternalCache cache,
+      EntryOrdinals ordinals) {
+    super(region, internalIndexStats, cache);
+    this.ordinals = ordinals;
+  }
+
+  @Override
+  Collection createEntrySet() {
+    return new EntryBitmap(this.ordinals);
+  }
+
+  /**
+   * Returns the bitmap of the entries of a key, null if the key has no entries or an empty bitmap
+   * if it has too few entries to be kept in a bitmap.
+   */
+  OrdinalBitmap getOrdinals(Object indexKey) throws TypeMismatchException {
+    Object entries = this.valueToEntriesMap.get(TypeUtils.indexKeyFor(indexKey));
+    if (entries == null) {
+      return null;
+    }
+    if (entries instanceof EntryBitmap) {
+      return ((EntryBitmap) entries).copyOrdinals();
+    }
+    return new OrdinalBitmap();
+  }
+
+  /**
+   * Returns the entries of a key whose ordinals are in the given bitmap. The entries of a key that
+   * are not kept in a bitmap are all returned.
+   */
+  CloseableIterator<IndexStoreEntry> get(Object indexKey, OrdinalBitmap filter) {
+    Iterator<Map.Entry> entries = entryIterator(indexKey, true, indexKey, true, false);
+    return new MemoryIndexStoreIterator(new Iterator<Map.Entry>() {
+      @Override
+      public boolean hasNext() {
+        return entries.hasNext();
+      }
+
+      @Override
+      public Map.Entry next() {
+        Map.Entry mapEntry = entries.next();
+        if (!(mapEntry.getValue() instanceof EntryBitmap)) {
+          return mapEntry;
+        }
+        EntryBitmap bitmap = (EntryBitmap) mapEntry.getValue();
+        return new AbstractMap.SimpleImmutableEntry<>(mapEntry.getKey(),
+            new AbstractCollection() {
+              @Override
+              public Iterator iterator() {
+                return bitmap.iterator(filter);
+              }
+
+              @Override
+              public int size() {
+                return Math.min(bitmap.size(), filter.getCardinality());
+              }
+            });
+      }
+    }, indexKey, null);
+  }
+
+  @Override
+  public boolean clear() {
+    // the bitmaps let go of their ordinals, which other bitmap indexes may still be using
+    Iterator<Map.Entry> entries = entryIterator(null, false, null, false, false);
+    while (entries.hasNext()) {
+      Object value = entries.next().getValue();
+      if (value instanceof EntryBitmap) {
+        ((EntryBitmap) value).clear();
+      }
+    }
+    return super.clear();
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.RegionEntry;
+
+/**
+ * An in-memory index store that keeps integer or long index keys in a {@link LongKeyBlockMap}
+ * rather than in the skip list of {@link MemoryIndexStore}. Such a key then costs a long and a
+ * reference in a block instead of a skip list node, its index nodes and a boxed key, which takes
+ * several times less heap for an index on a numeric field and keeps neighbouring keys together for
+ * range scans.
+ * <p>
+ * Only the keys of the class of the first integer or long key added are kept in blocks. Any other
+ * keys, such as null and undefined, are kept by the superclass and the iterators merge the two in
+ * key order. Changes to the keys of one block are serialized, so many threads adding keys in
+ * increasing order contend more than they would on the skip list.
+ *
+ * @see IndexManager#COMPACT_INDEX_STORE
+ */
+class CompactIndexStore extends MemoryIndexStore {
+
+  private final Comparator comparator = TypeUtils.getExtendedNumericComparator();
+
+  /** Integer or Long, set before {@link #longKeys} */
+  private volatile Class<?> longKeyClass;
+
+  /** Created when the first integer or long key is added */
+  private volatile LongKeyBlockMap longKeys;
+
+  private final AtomicInteger numLongKeys = new AtomicInteger();
+
+  CompactIndexStore(Region region, InternalIndexStatistics internalIndexStats,
+      InternalCache cache) {
+    super(region, internalIndexStats, cache);
+  }
+
+  /**
+   * Returns the map holding the given index key, or null if the key is kept by the superclass.
+   */
+  private LongKeyBlockMap longKeysFor(Object indexKey, boolean create) {
+    Class<?> keyClass = indexKey.getClass();
+    if (keyClass != Integer.class && keyClass != Long.class) {
+      return null;
+    }
+    LongKeyBlockMap map = this.longKeys;
+    if (map == null) {
+      if (!create) {
+        return null;
+      }
+      synchronized (this) {
+        map = this.longKeys;
+        if (map == null) {
+          this.longKeyClass = keyClass;
+          map = new LongKeyBlockMap(this::toIndexKey);
+          this.longKeys = map;
+        }
+      }
+    }
+    return this.longKeyClass == keyClass ? map : null;
+  }
+
+  private Object toIndexKey(long key) {
+    return this.longKeyClass == Integer.class ? Integer.valueOf((int) key) : Long.valueOf(key);
+  }
+
+  @Override
+  public void updateMapping(Object indexKey, Object oldKey, RegionEntry re, Object oldValue)
+      throws IMQException {
+    Object newKey;
+    LongKeyBlockMap map;
+    try {
+      newKey = TypeUtils.indexKeyFor(indexKey);
+      map = newKey == null ? null : longKeysFor(newKey, true);
+      if (map == null) {
+        super.updateMapping(indexKey, oldKey, re, oldValue);
+        return;
+      }
+      // the value was modified in place so the old key has to be found in the store
+      if (oldValue != null && oldValue == getTargetObjectInVM(re)) {
+        oldKey = getOldKey(newKey, re);
+      }
+    } catch (TypeMismatchException ex) {
+      throw new IMQException("Could not add object of type " + indexKey.getClass().getName(), ex);
+    }
+    // counted as MemoryIndexStore.updateMapping does, so that key histograms become stale
+    incNumModifications();
+    if (oldKey != null && oldKey.equals(newKey)) {
+      return;
+    }
+
+    Object previous = map.compute(((Number) newKey).longValue(), regionEntries -> {
+      if (regionEntries == null) {
+        return re;
+      }
+      if (regionEntries instanceof RegionEntry) {
+        IndexElemArray elemArray = new IndexElemArray();
+        elemArray.add(regionEntries);
+        elemArray.add(re);
+        return elemArray;
+      }
+      Collection entries = (Collection) regionEntries;
+      if (entries instanceof IndexElemArray
+          && entries.size() >= IndexManager.INDEX_ELEMARRAY_THRESHOLD) {
+        IndexConcurrentHashSet set =
+            new IndexConcurrentHashSet(IndexManager.INDEX_ELEMARRAY_THRESHOLD + 20, 0.75f, 1);
+        set.addAll(entries);
+        set.add(re);
+        return set;
+      }
+      entries.add(re);
+      return entries;
+    });
+    if (previous == null) {
+      this.numLongKeys.incrementAndGet();
+      this.internalIndexStats.incNumKeys(1);
+    }
+
+    // oldKey is not null only for an update
+    if (oldKey != null) {
+      basicRemoveMapping(oldKey, re, false);
+    }
+    this.internalIndexStats.incNumValues(1);
+  }
+
+  @Override
+  boolean basicRemoveMapping(Object key, RegionEntry entry, boolean findOldKey)
+      throws IMQException {
+    Object indexKey;
+    try {
+      indexKey = TypeUtils.indexKeyFor(key);
+    } catch (TypeMismatchException ex) {
+      throw new IMQException("Could not add object of type " + key.getClass().getName(), ex);
+    }
+    LongKeyBlockMap map = indexKey == null ? null : longKeysFor(indexKey, false);
+    if (map == null) {
+      return super.basicRemoveMapping(key, entry, findOldKey);
+    }
+
+    boolean[] found = new boolean[1];
+    boolean[] keyRemoved = new boolean[1];
+    map.compute(((Number) indexKey).longValue(), regionEntries -> {
+      if (regionEntries == null) {
+        return null;
+      }
+      if (regionEntries instanceof RegionEntry) {
+        found[0] = regionEntries == entry;
+      } else {
+        Collection entries = (Collection) regionEntries;
+        found[0] = entries.remove(entry);
+        if (!entries.isEmpty()) {
+          return entries;
+        }
+      }
+      keyRemoved[0] = found[0];
+      return found[0] ? null : regionEntries;
+    });
+    if (keyRemoved[0]) {
+      this.numLongKeys.decrementAndGet();
+      this.internalIndexStats.incNumKeys(-1);
+    }
+
+    if (found[0]) {
+      this.internalIndexStats.incNumValues(-1);
+    } else if (findOldKey) {
+      // the value may have been modified in place and so be indexed under another key
+      try {
+        return basicRemoveMapping(getOldKey(key, entry), entry, false);
+      } catch (TypeMismatchException e) {
+        throw new IMQException("Could not find old key: " + key.getClass().getName(), e);
+      }
+    }
+    return found[0];
+  }
+
+  @Override
+  Iterator<Map.Entry> entryIterator(Object start, boolean startInclusive, Object end,
+      boolean endInclusive, boolean descending) {
+    Iterator<Map.Entry> entries =
+        super.entryIterator(start, startInclusive, end, endInclusive, descending);
+    LongKeyBlockMap map = this.longKeys;
+    if (map == null) {
+      return entries;
+    }
+    Iterator<Map.Entry> longKeyEntries =
+        longKeyEntries(map, start, startInclusive, end, endInclusive, descending);
+    if (!entries.hasNext()) {
+      return longKeyEntries;
+    }
+    return new MergingIterator(longKeyEntries, entries,
+        descending ? this.comparator.reversed() : this.comparator);
+  }
+
+  private Iterator<Map.Entry> longKeyEntries(LongKeyBlockMap map, Object start,
+      boolean startInclusive, Object end, boolean endInclusive, boolean descending) {
+    boolean intKeys = this.longKeyClass == Integer.class;
+    long from = intKeys ? Integer.MIN_VALUE : Long.MIN_VALUE;
+    long to = intKeys ? Integer.MAX_VALUE : Long.MAX_VALUE;
+    if (start != null) {
+      if (!isInRange(to, start, startInclusive, true)) {
+        return Collections.emptyIterator();
+      }
+      from = lowestKeyInRange(from, to, start, startInclusive);
+    }
+    if (end != null) {
+      if (!isInRange(from, end, endInclusive, false)) {
+        return Collections.emptyIterator();
+      }
+      to = highestKeyInRange(from, to, end, endInclusive);
+    }
+    return (Iterator) map.iterator(from, to, descending);
+  }
+
+  /**
+   * Whether a key is above a start bound or below an end bound. The bounds may be of any type the
+   * comparator of the index accepts.
+   */
+  private boolean isInRange(long key, Object bound, boolean inclusive, boolean isStart) {
+    int result = this.comparator.compare(toIndexKey(key), bound);
+    if (!isStart) {
+      result = -result;
+    }
+    return inclusive ? result >= 0 : result > 0;
+  }
+
+  /**
+   * Returns the lowest key from low to high above the start bound, which high is known to be.
+   */
+  private long lowestKeyInRange(long low, long high, Object start, boolean inclusive) {
+    if (start.getClass() == this.longKeyClass) {
+      long key = ((Number) start).longValue();
+      return inclusive ? key : key + 1;
+    }
+    while (low < high) {
+      long middle = low + ((high - low) >>> 1);
+      if (isInRange(middle, start, inclusive, true)) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the highest key from low to high below the end bound, which low is known to be.
+   */
+  private long highestKeyInRange(long low, long high, Object end, boolean inclusive) {
+    if (end.getClass() == this.longKeyClass) {
+      long key = ((Number) end).longValue();
+      return inclusive ? key : key - 1;
+    }
+    while (low < high) {
+      long middle = high - ((high - low) >>> 1);
+      if (isInRange(middle, end, inclusive, false)) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return high;
+  }
+
+  @Override
+  public int size(Object key) {
+    int size = super.size(key);
+    LongKeyBlockMap map = this.longKeys;
+    if (map != null) {
+      Iterator<Map.Entry> entries = longKeyEntries(map, key, true, key, true, false);
+      while (entries.hasNext()) {
+        Object value = entries.next().getValue();
+        size += value instanceof RegionEntry ? 1 : ((Collection) value).size();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public int size() {
+    return super.size() + this.numLongKeys.get();
+  }
+
+  @Override
+  public boolean clear() {
+    super.clear();
+    LongKeyBlockMap map = this.longKeys;
+    if (map != null) {
+      map.clear();
+    }
+    this.numLongKeys.set(0);
+    return true;
+  }
+
+  /**
+   * Merges two iterators over mappings that are each in the order of the given comparator.
+   */
+  private static class MergingIterator implements Iterator<Map.Entry> {
+    private final Iterator<Map.Entry> first;
+    private final Iterator<Map.Entry> second;
+    private final Comparator comparator;
+    private Map.Entry nextFirst;
+    private Map.Entry nextSecond;
+
+    MergingIterator(Iterator<Map.Entry> first, Iterator<Map.Entry> second,
+        Comparator comparator) {
+      this.first = first;
+      this.second = second;
+      this.comparator = comparator;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (this.nextFirst == null && this.first.hasNext()) {
+        this.nextFirst = this.first.next();
+      }
+      if (this.nextSecond == null && this.second.hasNext()) {
+        this.nextSecond = this.second.next();
+      }
+      return this.nextFirst != null || this.nextSecond != null;
+    }
+
+    @Override
+    public Map.Entry next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry next;
+      if (this.nextSecond == null || this.nextFirst != null
+          && this.comparator.compare(this.nextFirst.getKey(), this.nextSecond.getKey()) <= 0) {
+        next = this.nextFirst;
+        this.nextFirst = null;
+      } else {
+        next = this.nextSecond;
+        this.nextSecond = null;
+      }
+      return next;
+    }
+  }
+}
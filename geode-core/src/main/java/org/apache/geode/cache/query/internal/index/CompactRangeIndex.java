@@ -22,6 +22,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import org.apache.logging.log4j.Logger;
 
@@ -44,6 +48,7 @@ import org.apache.geode.cache.query.internal.CompiledPath;
 import org.apache.geode.cache.query.internal.CompiledSortCriterion;
 import org.apache.geode.cache.query.internal.CompiledValue;
 import org.apache.geode.cache.query.internal.CqEntry;
+import org.apache.geode.cache.query.internal.DefaultQuery;
 import org.apache.geode.cache.query.internal.ExecutionContext;
 import org.apache.geode.cache.query.internal.IndexInfo;
 import org.apache.geode.cache.query.internal.QRegion;
@@ -69,6 +74,7 @@ import org.apache.geode.internal.cache.RegionEntryContext;
 import org.apache.geode.internal.cache.entries.VMThinRegionEntryHeap;
 import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
 import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingExecutors;
 import org.apache.geode.pdx.internal.PdxString;
 
 /**
@@ -92,16 +98,46 @@ public class CompactRangeIndex extends AbstractIndex {
 
   private IndexStore indexStore;
 
+  /** The number of updates after which a key histogram is rebuilt however large the index */
+  private static final long KEY_HISTOGRAM_MIN_UPDATES = 1000;
+
+  /** The fraction of the index that must change before its key histogram is rebuilt */
+  private static final double KEY_HISTOGRAM_MAX_CHANGED_FRACTION = 0.1;
+
+  /** The thread that builds the key histograms of indexes, created when first needed */
+  private static ExecutorService keyHistogramBuilder;
+
+  private volatile IndexKeyHistogram keyHistogram;
+
+  private final AtomicBoolean buildingKeyHistogram = new AtomicBoolean();
+
   static boolean TEST_ALWAYS_UPDATE_IN_PROGRESS = false;
 
   public CompactRangeIndex(InternalCache cache, String indexName, Region region, String fromClause,
       String indexedExpression, String projectionAttributes, String origFromClause,
       String origIndexExpr, String[] definitions, IndexStatistics stats) {
+    this(cache, indexName, region, fromClause, indexedExpression, projectionAttributes,
+        origFromClause, origIndexExpr, definitions, stats, null);
+  }
+
+  /**
+   * @param indexStoreFactory creates the store of the index from its statistics, or null for the
+   *        store chosen by the system properties
+   */
+  CompactRangeIndex(InternalCache cache, String indexName, Region region, String fromClause,
+      String indexedExpression, String projectionAttributes, String origFromClause,
+      String origIndexExpr, String[] definitions, IndexStatistics stats,
+      Function<InternalIndexStatistics, IndexStore> indexStoreFactory) {
     super(cache, indexName, region, fromClause, indexedExpression, projectionAttributes,
         origFromClause, origIndexExpr, definitions, stats);
-    if (IndexManager.IS_TEST_LDM) {
+    if (indexStoreFactory != null) {
+      indexStore = indexStoreFactory.apply(internalIndexStats);
+    } else if (IndexManager.IS_TEST_LDM) {
       indexStore = new MapIndexStore(
           ((LocalRegion) region).getIndexMap(indexName, indexedExpression, origFromClause), region);
+    } else if (IndexManager.COMPACT_INDEX_STORE && !IndexManager.isObjectModificationInplace()) {
+      indexStore =
+          new CompactIndexStore(region, internalIndexStats, (InternalCache) region.getCache());
     } else {
       indexStore =
           new MemoryIndexStore(region, internalIndexStats, (InternalCache) region.getCache());
@@ -312,6 +348,12 @@ public class CompactRangeIndex extends AbstractIndex {
     }
     long start = updateIndexUseStats(false);
     try {
+      if (DefaultQuery.COST_BASED_INDEX_SELECTION && matchLevel <= 0) {
+        long estimate = estimateFromKeyHistogram(key, operator);
+        if (estimate >= 0) {
+          return (int) Math.min(estimate, Integer.MAX_VALUE);
+        }
+      }
       switch (operator) {
         case OQLLexerTokenTypes.TOK_EQ: {
           key = TypeUtils.indexKeyFor(key);
@@ -462,6 +504,101 @@ public class CompactRangeIndex extends AbstractIndex {
     return size;
   }
 
+  @Override
+  public int getRangeSizeEstimate(Object lowerKey, int lowerOp, Object upperKey, int upperOp,
+      int matchLevel) throws TypeMismatchException {
+    if (matchLevel > 0 || lowerKey == null || upperKey == null) {
+      return -1;
+    }
+    IndexKeyHistogram histogram = getKeyHistogram();
+    if (histogram == null) {
+      return -1;
+    }
+    long estimate = histogram.estimateRange(toHistogramKey(lowerKey),
+        lowerOp == OQLLexerTokenTypes.TOK_GE, toHistogramKey(upperKey),
+        upperOp == OQLLexerTokenTypes.TOK_LE);
+    return (int) Math.min(estimate, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Estimates the result size of a single sided range condition from the key histogram.
+   *
+   * @return the estimate, or -1 if the histogram cannot estimate it
+   */
+  private long estimateFromKeyHistogram(Object key, int operator) throws TypeMismatchException {
+    if (key == IndexManager.NULL || key == QueryService.UNDEFINED) {
+      return -1;
+    }
+    IndexKeyHistogram histogram;
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_LT:
+      case OQLLexerTokenTypes.TOK_LE:
+      case OQLLexerTokenTypes.TOK_GT:
+      case OQLLexerTokenTypes.TOK_GE:
+        histogram = getKeyHistogram();
+        break;
+      default:
+        return -1;
+    }
+    if (histogram == null) {
+      return -1;
+    }
+    key = toHistogramKey(key);
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_LT:
+        return histogram.estimateLessThan(key, false);
+      case OQLLexerTokenTypes.TOK_LE:
+        return histogram.estimateLessThan(key, true);
+      case OQLLexerTokenTypes.TOK_GT:
+        return histogram.estimateGreaterThan(key, false);
+      default:
+        return histogram.estimateGreaterThan(key, true);
+    }
+  }
+
+  private Object toHistogramKey(Object key) throws TypeMismatchException {
+    return getPdxStringForIndexedPdxKeys(TypeUtils.indexKeyFor(key));
+  }
+
+  /**
+   * Returns a histogram of the keys of this index. If the index store has changed too much since
+   * the histogram was built, it is rebuilt in the background and the previous one is returned
+   * meanwhile, so a query never waits for a histogram to be built.
+   *
+   * @return the histogram, or null if the index store cannot provide one or it is not built yet
+   */
+  IndexKeyHistogram getKeyHistogram() {
+    if (!(this.indexStore instanceof MemoryIndexStore)) {
+      return null;
+    }
+    MemoryIndexStore store = (MemoryIndexStore) this.indexStore;
+    IndexKeyHistogram histogram = this.keyHistogram;
+    if ((histogram == null || histogram.isStale(store.getNumModifications(),
+        KEY_HISTOGRAM_MIN_UPDATES, KEY_HISTOGRAM_MAX_CHANGED_FRACTION))
+        && this.buildingKeyHistogram.compareAndSet(false, true)) {
+      try {
+        getKeyHistogramBuilder().execute(() -> {
+          try {
+            this.keyHistogram = store.createKeyHistogram(IndexKeyHistogram.DEFAULT_MAX_BUCKETS);
+          } finally {
+            this.buildingKeyHistogram.set(false);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        this.buildingKeyHistogram.set(false);
+      }
+    }
+    return histogram;
+  }
+
+  private static synchronized ExecutorService getKeyHistogramBuilder() {
+    if (keyHistogramBuilder == null) {
+      keyHistogramBuilder =
+          LoggingExecutors.newFixedThreadPoolWithTimeout("IndexKeyHistogramBuilder", 1, 60);
+    }
+    return keyHistogramBuilder;
+  }
+
   /** Method called while appropriate lock held on index */
   private void lockedQueryPrivate(Object key, int operator, Collection results,
       CompiledValue iterOps, RuntimeIterator runtimeItr, ExecutionContext context, Set keysToRemove,
@@ -550,6 +687,14 @@ public class CompactRangeIndex extends AbstractIndex {
   }
 
 
+  /**
+   * Returns the entries of the key of an equality condition.
+   */
+  CloseableIterator<IndexStoreEntry> getEntries(Object key, ExecutionContext context)
+      throws TypeMismatchException {
+    return indexStore.get(key);
+  }
+
   private void evaluate(Object key, int operator, Collection results, CompiledValue iterOps,
       RuntimeIterator runtimeItr, ExecutionContext context, Set keysToRemove, List projAttrib,
       SelectResults intermediateResults, boolean isIntersection, int limit, boolean applyOrderBy,
@@ -574,7 +719,7 @@ public class CompactRangeIndex extends AbstractIndex {
       switch (operator) {
         case OQLLexerTokenTypes.TOK_EQ:
           assert keysToRemove.isEmpty();
-          iterator = indexStore.get(key);
+          iterator = getEntries(key, context);
           addToResultsFromEntries(key, operator, iterator, results, iterOps, runtimeItr, context,
               projAttrib, intermediateResults, isIntersection, multiColOrderBy ? -1 : limit);
           break;
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.geode.internal.cache.RegionEntry;
+
+/**
+ * The region entries of one key of a {@link BitmapIndexStore}, kept as a bitmap of their
+ * {@link EntryOrdinals}. Takes the place of the {@link IndexConcurrentHashSet} of a key with many
+ * entries in a {@link MemoryIndexStore}, and like it is thread safe. Changes lock this collection.
+ * Iterators are weakly consistent: they copy a chunk of ordinals at a time under the lock, so they
+ * never return an entry that was not in this collection when its chunk was copied.
+ */
+final class EntryBitmap extends AbstractCollection<RegionEntry> {
+
+  private static final int CHUNK_SIZE = 256;
+
+  private final EntryOrdinals ordinals;
+
+  private final OrdinalBitmap bitmap = new OrdinalBitmap();
+
+  /** Read without the lock to estimate the size of query results */
+  private volatile int size;
+
+  EntryBitmap(EntryOrdinals ordinals) {
+    this.ordinals = ordinals;
+  }
+
+  @Override
+  public synchronized boolean add(RegionEntry entry) {
+    int ordinal = this.ordinals.acquire(entry);
+    if (!this.bitmap.add(ordinal)) {
+      this.ordinals.release(ordinal);
+      return false;
+    }
+    this.size++;
+    return true;
+  }
+
+  @Override
+  public synchronized boolean remove(Object entry) {
+    if (!(entry instanceof RegionEntry)) {
+      return false;
+    }
+    int ordinal = this.ordinals.ordinalOf((RegionEntry) entry);
+    if (ordinal < 0 || !this.bitmap.remove(ordinal)) {
+      return false;
+    }
+    this.ordinals.release(ordinal);
+    this.size--;
+    return true;
+  }
+
+  @Override
+  public synchronized boolean contains(Object entry) {
+    if (!(entry instanceof RegionEntry)) {
+      return false;
+    }
+    int ordinal = this.ordinals.ordinalOf((RegionEntry) entry);
+    return ordinal >= 0 && this.bitmap.contains(ordinal);
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Lets go of the ordinals of every entry, which must be done before this collection is dropped.
+   */
+  @Override
+  public synchronized void clear() {
+    int[] chunk = new int[CHUNK_SIZE];
+    int count;
+    while ((count = this.bitmap.copyFrom(0, chunk)) > 0) {
+      for (int i = 0; i < count; i++) {
+        this.bitmap.remove(chunk[i]);
+        this.ordinals.release(chunk[i]);
+      }
+    }
+    this.size = 0;
+  }
+
+  /**
+   * Returns a copy of the ordinals of the entries in this collection.
+   */
+  synchronized OrdinalBitmap copyOrdinals() {
+    return this.bitmap.copy();
+  }
+
+  @Override
+  public Iterator<RegionEntry> iterator() {
+    return new EntryIterator(null);
+  }
+
+  /**
+   * Returns the entries of this collection whose ordinals are in the given bitmap, which must not
+   * change while the iterator is used.
+   */
+  Iterator<RegionEntry> iterator(OrdinalBitmap filter) {
+    return new EntryIterator(filter);
+  }
+
+  private class EntryIterator implements Iterator<RegionEntry> {
+    private final OrdinalBitmap filter;
+    private final int[] chunk = new int[CHUNK_SIZE];
+    private final RegionEntry[] entries = new RegionEntry[CHUNK_SIZE];
+    private int count;
+    private int index;
+    private int nextOrdinal;
+    private boolean done;
+
+    EntryIterator(OrdinalBitmap filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (this.index == this.count) {
+        if (this.done) {
+          return false;
+        }
+        fill();
+      }
+      return true;
+    }
+
+    @Override
+    public RegionEntry next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      RegionEntry entry = this.entries[this.index];
+      this.entries[this.index++] = null;
+      return entry;
+    }
+
+    private void fill() {
+      this.index = 0;
+      this.count = 0;
+      int copied;
+      if (this.filter == null) {
+        synchronized (EntryBitmap.this) {
+          copied = bitmap.copyFrom(this.nextOrdinal, this.chunk);
+          for (int i = 0; i < copied; i++) {
+            this.entries[i] = ordinals.entryAt(this.chunk[i]);
+          }
+        }
+        this.count = copied;
+      } else {
+        // the filter is usually much smaller, so its ordinals are looked up in this bitmap
+        copied = this.filter.copyFrom(this.nextOrdinal, this.chunk);
+        synchronized (EntryBitmap.this) {
+          for (int i = 0; i < copied; i++) {
+            if (bitmap.contains(this.chunk[i])) {
+              this.entries[this.count++] = ordinals.entryAt(this.chunk[i]);
+            }
+          }
+        }
+      }
+      if (copied < CHUNK_SIZE) {
+        this.done = true;
+      } else {
+        this.nextOrdinal = this.chunk[copied - 1] + 1;
+      }
+    }
+  }
+}
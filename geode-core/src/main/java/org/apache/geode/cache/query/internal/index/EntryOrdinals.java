@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+import org.apache.geode.internal.cache.RegionEntry;
+
+/**
+ * Numbers the entries of a region, or of a bucket of a partitioned region, that are held by the
+ * bitmaps of its bitmap indexes. Every bitmap index on the region shares the numbering so the
+ * bitmaps of different indexes can be and'ed.
+ * <p>
+ * An entry is given the lowest free ordinal when the first bitmap takes it and keeps it until the
+ * last bitmap holding it lets it go, after which the ordinal may be given to another entry. An
+ * ordinal read from a bitmap therefore names the entry only while that bitmap still holds it.
+ * <p>
+ * The ordinals of the entries are kept in open addressing tables of primitive arrays, split into
+ * stripes by the identity hash of the entries so that bitmaps changing different entries seldom
+ * contend. Looking up an ordinal takes no lock unless the stripe is being changed. Only numbering
+ * an entry and letting its ordinal go lock the whole of this instance.
+ *
+ * @see BitmapIndex
+ */
+class EntryOrdinals {
+
+  private static final int STRIPE_BITS = 4;
+
+  private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+  /** The entries by ordinal, replaced rather than changed in place when it grows */
+  private volatile RegionEntry[] entries = new RegionEntry[64];
+
+  /** The ordinals let go, reused lowest first so that the bitmaps stay dense */
+  private final OrdinalBitmap free = new OrdinalBitmap();
+
+  private int nextOrdinal;
+
+  EntryOrdinals() {
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] = new Stripe();
+    }
+  }
+
+  private static int hash(RegionEntry entry) {
+    int h = System.identityHashCode(entry) * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private Stripe stripeOf(int hash) {
+    return this.stripes[hash >>> (Integer.SIZE - STRIPE_BITS)];
+  }
+
+  /**
+   * Returns the ordinal of an entry that a bitmap is about to hold, numbering it if no other bitmap
+   * holds it.
+   */
+  int acquire(RegionEntry entry) {
+    int hash = hash(entry);
+    Stripe stripe = stripeOf(hash);
+    long stamp = stripe.lock.writeLock();
+    try {
+      Table table = stripe.table;
+      int slot = table.slotOf(entry, hash);
+      if (slot >= 0) {
+        table.references[slot]++;
+        return table.ordinals[slot];
+      }
+      int ordinal = newOrdinal(entry);
+      stripe.add(-slot - 1, entry, hash, ordinal);
+      return ordinal;
+    } finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Lets go of an ordinal that a bitmap no longer holds.
+   */
+  void release(int ordinal) {
+    // the ordinal cannot be given to another entry while the calling bitmap holds it
+    RegionEntry entry = this.entries[ordinal];
+    int hash = hash(entry);
+    Stripe stripe = stripeOf(hash);
+    long stamp = stripe.lock.writeLock();
+    try {
+      Table table = stripe.table;
+      int slot = table.slotOf(entry, hash);
+      if (--table.references[slot] == 0) {
+        stripe.remove(slot);
+        freeOrdinal(ordinal);
+      }
+    } finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * @return the ordinal of the entry, or -1 if no bitmap holds it
+   */
+  int ordinalOf(RegionEntry entry) {
+    int hash = hash(entry);
+    Stripe stripe = stripeOf(hash);
+    long stamp = stripe.lock.tryOptimisticRead();
+    int ordinal = stripe.table.ordinalOf(entry, hash);
+    if (!stripe.lock.validate(stamp)) {
+      // the stripe changed while it was read
+      stamp = stripe.lock.readLock();
+      try {
+        ordinal = stripe.table.ordinalOf(entry, hash);
+      } finally {
+        stripe.lock.unlockRead(stamp);
+      }
+    }
+    return ordinal;
+  }
+
+  /**
+   * Returns the entry with the given ordinal. The caller must hold the lock of a bitmap that holds
+   * the ordinal, which keeps the ordinal from being given to another entry.
+   */
+  RegionEntry entryAt(int ordinal) {
+    return this.entries[ordinal];
+  }
+
+  int size() {
+    int size = 0;
+    for (Stripe stripe : this.stripes) {
+      long stamp = stripe.lock.readLock();
+      try {
+        size += stripe.size;
+      } finally {
+        stripe.lock.unlockRead(stamp);
+      }
+    }
+    return size;
+  }
+
+  private synchronized int newOrdinal(RegionEntry entry) {
+    int ordinal;
+    if (this.free.isEmpty()) {
+      ordinal = this.nextOrdinal++;
+      if (ordinal == this.entries.length) {
+        this.entries = Arrays.copyOf(this.entries, ordinal * 2);
+      }
+    } else {
+      int[] lowest = new int[1];
+      this.free.copyFrom(0, lowest);
+      ordinal = lowest[0];
+      this.free.remove(ordinal);
+    }
+    this.entries[ordinal] = entry;
+    return ordinal;
+  }
+
+  private synchronized void freeOrdinal(int ordinal) {
+    this.entries[ordinal] = null;
+    this.free.add(ordinal);
+  }
+
+  /**
+   * The entries whose hash falls in one stripe. Changes hold the write lock.
+   */
+  private static class Stripe {
+    final StampedLock lock = new StampedLock();
+
+    /** Replaced rather than resized when it grows, since it is read without the lock */
+    Table table = new Table(16);
+
+    int size;
+
+    void add(int slot, RegionEntry entry, int hash, int ordinal) {
+      Table table = this.table;
+      if ((this.size + 1) * 3 > table.keys.length * 2) {
+        table = table.grow();
+        this.table = table;
+        slot = -table.slotOf(entry, hash) - 1;
+      }
+      table.keys[slot] = entry;
+      table.ordinals[slot] = ordinal;
+      table.references[slot] = 1;
+      this.size++;
+    }
+
+    void remove(int slot) {
+      this.table.remove(slot);
+      this.size--;
+    }
+  }
+
+  /**
+   * A linear probing table of entries, their ordinals and the number of bitmaps holding them.
+   */
+  private static class Table {
+    final RegionEntry[] keys;
+
+    final int[] ordinals;
+
+    final int[] references;
+
+    Table(int capacity) {
+      this.keys = new RegionEntry[capacity];
+      this.ordinals = new int[capacity];
+      this.references = new int[capacity];
+    }
+
+    /**
+     * @return the slot of the entry, or -(the free slot it would take + 1) if it is not in this
+     *         table
+     */
+    int slotOf(RegionEntry entry, int hash) {
+      int mask = this.keys.length - 1;
+      // bounded so that a read racing with a change cannot loop forever
+      for (int i = hash & mask, probes = 0; probes < this.keys.length; i = (i + 1) & mask) {
+        RegionEntry key = this.keys[i];
+        if (key == entry) {
+          return i;
+        }
+        if (key == null) {
+          return -i - 1;
+        }
+        probes++;
+      }
+      return -1;
+    }
+
+    int ordinalOf(RegionEntry entry, int hash) {
+      int slot = slotOf(entry, hash);
+      return slot < 0 ? -1 : this.ordinals[slot];
+    }
+
+    Table grow() {
+      Table table = new Table(this.keys.length * 2);
+      for (int i = 0; i < this.keys.length; i++) {
+        RegionEntry key = this.keys[i];
+        if (key != null) {
+          int slot = -table.slotOf(key, hash(key)) - 1;
+          table.keys[slot] = key;
+          table.ordinals[slot] = this.ordinals[i];
+          table.references[slot] = this.references[i];
+        }
+      }
+      return table;
+    }
+
+    /**
+     * Empties a slot, moving back the entries after it that could not take their own slot so that
+     * none of them is separated from its slot by an empty one.
+     */
+    void remove(int slot) {
+      int mask = this.keys.length - 1;
+      int hole = slot;
+      for (int i = (slot + 1) & mask; this.keys[i] != null; i = (i + 1) & mask) {
+        int home = hash(this.keys[i]) & mask;
+        if (((i - home) & mask) >= ((i - hole) & mask)) {
+          this.keys[hole] = this.keys[i];
+          this.ordinals[hole] = this.ordinals[i];
+          this.references[hole] = this.references[i];
+          hole = i;
+        }
+      }
+      this.keys[hole] = null;
+    }
+  }
+}
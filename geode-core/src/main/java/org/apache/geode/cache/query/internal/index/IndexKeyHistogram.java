@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An equi-depth histogram of the keys of an index, used to estimate how many entries a range
+ * condition will select. Each bucket holds roughly the same number of entries, so a key that many
+ * entries share gets a narrow bucket of its own and skewed data is estimated far better than by
+ * interpolating between the smallest and largest key. Numeric keys are interpolated within a
+ * bucket; other comparable keys, such as strings and dates, are assumed to fall in its middle.
+ * <p>
+ * A histogram is immutable and describes the index at the time it was built.
+ */
+class IndexKeyHistogram {
+
+  static final int DEFAULT_MAX_BUCKETS = 64;
+
+  private final Comparator comparator;
+
+  /** The first key of each bucket followed by the largest key */
+  private final Object[] bounds;
+
+  /** The number of entries in the buckets before each bucket */
+  private final long[] entriesBefore;
+
+  private final long[] entries;
+
+  private final long[] distinctKeys;
+
+  private final long totalEntries;
+
+  private final long builtAtUpdate;
+
+  private IndexKeyHistogram(Comparator comparator, Object[] bounds, long[] entries,
+      long[] distinctKeys, long builtAtUpdate) {
+    this.comparator = comparator;
+    this.bounds = bounds;
+    this.entries = entries;
+    this.distinctKeys = distinctKeys;
+    this.builtAtUpdate = builtAtUpdate;
+    this.entriesBefore = new long[entries.length];
+    long total = 0;
+    for (int i = 0; i < entries.length; i++) {
+      this.entriesBefore[i] = total;
+      total += entries[i];
+    }
+    this.totalEntries = total;
+  }
+
+  long getTotalEntries() {
+    return this.totalEntries;
+  }
+
+  int getBucketCount() {
+    return this.entries.length;
+  }
+
+  /**
+   * Returns the number of index updates that had completed when this histogram was built.
+   */
+  long getBuiltAtUpdate() {
+    return this.builtAtUpdate;
+  }
+
+  /**
+   * Returns true if so many updates have been made to the index since this histogram was built
+   * that its estimates can no longer be trusted.
+   */
+  boolean isStale(long currentUpdate, long minUpdates, double maxChangedFraction) {
+    long changes = currentUpdate - this.builtAtUpdate;
+    return changes < 0
+        || changes > Math.max(minUpdates, (long) (this.totalEntries * maxChangedFraction));
+  }
+
+  /**
+   * Estimates the number of entries whose key is less than, or if inclusive is true less than or
+   * equal to, the given key.
+   *
+   * @return the estimate, or -1 if the key cannot be compared with the keys of the index
+   */
+  long estimateLessThan(Object key, boolean inclusive) {
+    if (this.totalEntries == 0) {
+      return 0;
+    }
+    try {
+      int last = this.entries.length - 1;
+      int cmpToMax = this.comparator.compare(key, this.bounds[last + 1]);
+      if (cmpToMax > 0 || (cmpToMax == 0 && inclusive)) {
+        return this.totalEntries;
+      }
+      int bucket = findBucket(key);
+      if (bucket < 0) {
+        return 0;
+      }
+      long inBucket;
+      if (this.comparator.compare(this.bounds[bucket], key) == 0) {
+        inBucket = inclusive ? entriesPerKey(bucket) : 0;
+      } else if (cmpToMax == 0) {
+        // every entry of the last bucket except those with the largest key
+        inBucket = this.entries[bucket] - entriesPerKey(bucket);
+      } else {
+        double fraction = fractionOfBucket(bucket, key);
+        inBucket = (long) (this.entries[bucket] * fraction);
+      }
+      return this.entriesBefore[bucket] + Math.max(0, inBucket);
+    } catch (ClassCastException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Estimates the number of entries whose key is greater than, or if inclusive is true greater
+   * than or equal to, the given key.
+   *
+   * @return the estimate, or -1 if the key cannot be compared with the keys of the index
+   */
+  long estimateGreaterThan(Object key, boolean inclusive) {
+    long notGreater = estimateLessThan(key, !inclusive);
+    return notGreater < 0 ? -1 : this.totalEntries - notGreater;
+  }
+
+  /**
+   * Estimates the number of entries whose key lies between the given bounds.
+   *
+   * @return the estimate, or -1 if a bound cannot be compared with the keys of the index
+   */
+  long estimateRange(Object lowerKey, boolean lowerInclusive, Object upperKey,
+      boolean upperInclusive) {
+    long belowUpper = estimateLessThan(upperKey, upperInclusive);
+    long belowLower = estimateLessThan(lowerKey, !lowerInclusive);
+    if (belowUpper < 0 || belowLower < 0) {
+      return -1;
+    }
+    return Math.max(0, belowUpper - belowLower);
+  }
+
+  /** Returns the last bucket whose first key is not greater than the given key, or -1 */
+  private int findBucket(Object key) {
+    int low = 0;
+    int high = this.entries.length - 1;
+    int result = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (this.comparator.compare(this.bounds[mid], key) <= 0) {
+        result = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return result;
+  }
+
+  private long entriesPerKey(int bucket) {
+    return Math.max(1, this.entries[bucket] / Math.max(1, this.distinctKeys[bucket]));
+  }
+
+  private double fractionOfBucket(int bucket, Object key) {
+    Object low = this.bounds[bucket];
+    Object high = this.bounds[bucket + 1];
+    if (low instanceof Number && high instanceof Number && key instanceof Number) {
+      double lowValue = ((Number) low).doubleValue();
+      double highValue = ((Number) high).doubleValue();
+      if (highValue > lowValue) {
+        double fraction = (((Number) key).doubleValue() - lowValue) / (highValue - lowValue);
+        return Math.min(1.0, Math.max(0.0, fraction));
+      }
+    }
+    return 0.5;
+  }
+
+  /**
+   * Builds a histogram from keys added in ascending order.
+   */
+  static class Builder {
+    private final Comparator comparator;
+    private final long entriesPerBucket;
+    private final long builtAtUpdate;
+    private final List<Object> bounds = new ArrayList<>();
+    private final List<long[]> buckets = new ArrayList<>();
+    private Object lastKey;
+    private long[] current;
+
+    /**
+     * @param expectedEntries the approximate number of entries that will be added
+     * @param builtAtUpdate the number of index updates that have completed
+     */
+    Builder(Comparator comparator, long expectedEntries, int maxBuckets, long builtAtUpdate) {
+      this.comparator = comparator;
+      this.entriesPerBucket = Math.max(1, expectedEntries / Math.max(1, maxBuckets));
+      this.builtAtUpdate = builtAtUpdate;
+    }
+
+    /**
+     * Adds a key and the number of entries that have it. Keys must be added in ascending order.
+     */
+    void add(Object key, long count) {
+      if (count <= 0) {
+        return;
+      }
+      if (this.current == null || this.current[0] >= this.entriesPerBucket) {
+        this.current = new long[2];
+        this.buckets.add(this.current);
+        this.bounds.add(key);
+      }
+      this.current[0] += count;
+      this.current[1]++;
+      this.lastKey = key;
+    }
+
+    IndexKeyHistogram build() {
+      int size = this.buckets.size();
+      Object[] boundsArray = new Object[size + 1];
+      long[] entries = new long[size];
+      long[] distinctKeys = new long[size];
+      for (int i = 0; i < size; i++) {
+        boundsArray[i] = this.bounds.get(i);
+        entries[i] = this.buckets.get(i)[0];
+        distinctKeys[i] = this.buckets.get(i)[1];
+      }
+      boundsArray[size] = this.lastKey;
+      return new IndexKeyHistogram(this.comparator, boundsArray, entries, distinctKeys,
+          this.builtAtUpdate);
+    }
+  }
+}
@@ -103,6 +103,9 @@ public class IndexManager {
   private ConcurrentMap canonicalizedIteratorNameMap = new ConcurrentHashMap();
   private IndexUpdaterThread updater;
 
+  /** Numbers the entries held by the bitmap indexes of the region, created by the first of them */
+  private EntryOrdinals entryOrdinals;
+
   // Threshold for Queue.
   private final int INDEX_MAINTENANCE_BUFFER =
       Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "AsynchIndexMaintenanceThreshold", -1);
@@ -137,6 +140,14 @@ public class IndexManager {
 
   /** For test purpose only */
   public static boolean TEST_RANGEINDEX_ONLY = false;
+
+  /**
+   * System property to keep the integer and long keys of compact range indexes in blocks of
+   * primitive keys, which takes several times less heap than the default skip list of keys.
+   */
+  public static final boolean COMPACT_INDEX_STORE =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "index.COMPACT_INDEX_STORE");
+
   public static final String INDEX_ELEMARRAY_THRESHOLD_PROP = "index_elemarray_threshold";
   public static final String INDEX_ELEMARRAY_SIZE_PROP = "index_elemarray_size";
   public static final int INDEX_ELEMARRAY_THRESHOLD =
@@ -302,6 +313,10 @@ public class IndexManager {
       } else {
         throw new AssertionError("Don't know how to set helper for " + indexType);
       }
+      if (indexType == IndexType.BITMAP && (!isCompactOrHash || helper.isMapTypeIndex())) {
+        throw new UnsupportedOperationException(
+            "Bitmap index is only supported on a single iterator over the region values of a region with synchronous index maintenance, and not on map fields.");
+      }
       if (!isCompactOrHash && indexType != IndexType.PRIMARY_KEY) {
 
         if (indexType == IndexType.HASH) {
@@ -1221,7 +1236,8 @@ public class IndexManager {
           continue;
         }
         IndexProtocol index = (IndexProtocol) ind;
-        if (index.getType() == IndexType.FUNCTIONAL || index.getType() == IndexType.HASH) {
+        if (index.getType() == IndexType.FUNCTIONAL || index.getType() == IndexType.HASH
+            || index.getType() == IndexType.BITMAP) {
           AbstractIndex aIndex = ((AbstractIndex) index);
           start = ((AbstractIndex) index).updateIndexUpdateStats();
           ((AbstractIndex) index).recreateIndexData();
@@ -1377,6 +1393,13 @@ public class IndexManager {
     return ++this.iternameCounter;
   }
 
+  synchronized EntryOrdinals getEntryOrdinals() {
+    if (this.entryOrdinals == null) {
+      this.entryOrdinals = new EntryOrdinals();
+    }
+    return this.entryOrdinals;
+  }
+
   /**
    * Asif : Given a definition returns the canonicalized iterator name for the definition. If the
    * definition does not exist , null is returned
@@ -1611,6 +1634,12 @@ public class IndexManager {
 
         logger.info("Using Hash index implementation for '{}' on region {}", indexName,
             region.getFullPath());
+      } else if (indexType == IndexType.BITMAP) {
+        index = new BitmapIndex(cache, indexName, region, fromClause, indexedExpression,
+            projectionAttributes, origFromClause, origIndexedExpression, definitions, stats,
+            IndexManager.this.getEntryOrdinals());
+        logger.info("Using Bitmap index implementation for '{}' on region {}", indexName,
+            region.getFullPath());
       } else {
         // boolean isCompact = !helper.isMapTypeIndex() &&
         // shouldCreateCompactIndex((FunctionalIndexCreationHelper)helper);
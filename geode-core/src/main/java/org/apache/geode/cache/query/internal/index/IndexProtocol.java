@@ -164,6 +164,18 @@ public interface IndexProtocol extends Index {
 
   int getSizeEstimate(Object key, int op, int matchLevel) throws TypeMismatchException;
 
+  /**
+   * Estimates the number of entries whose key lies between a lower and an upper bound.
+   *
+   * @param lowerOp TOK_GT or TOK_GE
+   * @param upperOp TOK_LT or TOK_LE
+   * @return the estimate, or -1 if this index cannot estimate it
+   */
+  default int getRangeSizeEstimate(Object lowerKey, int lowerOp, Object upperKey, int upperOp,
+      int matchLevel) throws TypeMismatchException {
+    return -1;
+  }
+
   boolean isMatchingWithIndexExpression(CompiledValue condnExpr, String condnExprStr,
       ExecutionContext context)
       throws AmbiguousNameException, TypeMismatchException, NameResolutionException;
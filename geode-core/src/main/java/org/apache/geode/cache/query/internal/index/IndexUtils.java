@@ -104,6 +104,16 @@ public class IndexUtils {
         indxData = qs.getBestMatchIndex(regionpath, defintions, IndexType.FUNCTIONAL,
             indexedExpression, context);
       }
+      // a bitmap index is used for the same conditions as a functional index
+      if (indxData == null || !indxData._index.isValid()) {
+        if (useOnlyExactIndexs) {
+          indxData =
+              qs.getIndex(regionpath, defintions, IndexType.BITMAP, indexedExpression, context);
+        } else {
+          indxData = qs.getBestMatchIndex(regionpath, defintions, IndexType.BITMAP,
+              indexedExpression, context);
+        }
+      }
     } else {
       // if exact PRIMARY_KEY Index not found then try to find exact FUNCTIONAL Index
       if (indxData._matchLevel != 0) {
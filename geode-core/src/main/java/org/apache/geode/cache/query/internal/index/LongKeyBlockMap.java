@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * A concurrent sorted map from long keys to values that keeps its keys in blocks of primitive
+ * arrays. Each block holds up to {@link #BLOCK_SIZE} keys in order and is found through a skip list
+ * on the lowest key it may hold, so a mapping costs a long and a reference in the block rather than
+ * a skip list node and a boxed key.
+ * <p>
+ * Changes lock the block holding the key. Iterators copy the part of a block they need under its
+ * lock and are weakly consistent, like the iterators of {@link ConcurrentSkipListMap}.
+ */
+final class LongKeyBlockMap {
+
+  static final int BLOCK_SIZE = 128;
+
+  /**
+   * Blocks by the lowest key they may hold. A block holds the keys from its own low key up to the
+   * low key of the next block. The block at {@link Long#MIN_VALUE} is never removed so every key
+   * has a block.
+   */
+  private final ConcurrentSkipListMap<Long, Block> blocks = new ConcurrentSkipListMap<>();
+
+  private final LongFunction<Object> keyFactory;
+
+  /**
+   * @param keyFactory creates the key returned by iterators for a long key
+   */
+  LongKeyBlockMap(LongFunction<Object> keyFactory) {
+    this.keyFactory = keyFactory;
+    this.blocks.put(Long.MIN_VALUE, new Block(Long.MIN_VALUE));
+  }
+
+  Object get(long key) {
+    while (true) {
+      Block block = this.blocks.floorEntry(key).getValue();
+      synchronized (block) {
+        if (!isCurrent(block, key)) {
+          continue;
+        }
+        int index = block.indexOf(key);
+        return index >= 0 ? block.values[index] : null;
+      }
+    }
+  }
+
+  /**
+   * Replaces the value of a key with the result of the given function, which is called with null
+   * if the key has no value and returns null to remove the key. The function is called while the
+   * block holding the key is locked and so must not use this map.
+   *
+   * @return the value of the key before the function was applied
+   */
+  Object compute(long key, UnaryOperator<Object> function) {
+    while (true) {
+      Block block = this.blocks.floorEntry(key).getValue();
+      synchronized (block) {
+        if (!isCurrent(block, key)) {
+          continue;
+        }
+        int index = block.indexOf(key);
+        Object oldValue = index >= 0 ? block.values[index] : null;
+        Object newValue = function.apply(oldValue);
+        if (newValue == null) {
+          if (index >= 0) {
+            block.remove(index);
+            if (block.size == 0 && block.lowKey != Long.MIN_VALUE) {
+              this.blocks.remove(block.lowKey, block);
+            }
+          }
+        } else if (index >= 0) {
+          block.values[index] = newValue;
+        } else {
+          insert(block, -(index + 1), key, newValue);
+        }
+        return oldValue;
+      }
+    }
+  }
+
+  /**
+   * Whether the given locked block still holds the key. The block may have been split or removed
+   * while this thread waited for its lock.
+   */
+  private boolean isCurrent(Block block, long key) {
+    return this.blocks.floorEntry(key).getValue() == block;
+  }
+
+  /**
+   * Inserts into a locked block, splitting it first if it is full. Keys added at either end of a
+   * full block go to a block of their own so that a map filled in key order has full blocks.
+   */
+  private void insert(Block block, int index, long key, Object value) {
+    if (block.size < BLOCK_SIZE) {
+      block.insert(index, key, value);
+      return;
+    }
+    Block higher;
+    if (index == BLOCK_SIZE) {
+      higher = new Block(key);
+      higher.insert(0, key, value);
+    } else if (index == 0) {
+      higher = new Block(block.keys[0]);
+      higher.keys = block.keys;
+      higher.values = block.values;
+      higher.size = block.size;
+      block.keys = new long[BLOCK_SIZE];
+      block.values = new Object[BLOCK_SIZE];
+      block.size = 0;
+      block.insert(0, key, value);
+    } else {
+      int half = BLOCK_SIZE / 2;
+      higher = new Block(block.keys[half]);
+      higher.size = BLOCK_SIZE - half;
+      System.arraycopy(block.keys, half, higher.keys, 0, higher.size);
+      System.arraycopy(block.values, half, higher.values, 0, higher.size);
+      Arrays.fill(block.values, half, BLOCK_SIZE, null);
+      block.size = half;
+      if (index <= half) {
+        block.insert(index, key, value);
+      } else {
+        higher.insert(index - half, key, value);
+      }
+    }
+    // published while the lower block is locked so that writers waiting for it see the split
+    this.blocks.put(higher.lowKey, higher);
+  }
+
+  /**
+   * Returns the mappings with keys from {@code from} to {@code to}, both inclusive, in ascending or
+   * descending key order.
+   */
+  Iterator<Map.Entry<Object, Object>> iterator(long from, long to, boolean descending) {
+    return new BlockIterator(from, to, descending);
+  }
+
+  void clear() {
+    // replace the lowest block first so that every key still has a block
+    this.blocks.put(Long.MIN_VALUE, new Block(Long.MIN_VALUE));
+    this.blocks.tailMap(Long.MIN_VALUE, false).clear();
+  }
+
+  private static final class Block {
+    final long lowKey;
+    long[] keys = new long[BLOCK_SIZE];
+    Object[] values = new Object[BLOCK_SIZE];
+    int size;
+
+    Block(long lowKey) {
+      this.lowKey = lowKey;
+    }
+
+    /**
+     * @return the index of the key, or -(insertion point + 1) if it is not in this block
+     */
+    int indexOf(long key) {
+      return Arrays.binarySearch(this.keys, 0, this.size, key);
+    }
+
+    void insert(int index, long key, Object value) {
+      System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+      System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+      this.keys[index] = key;
+      this.values[index] = value;
+      this.size++;
+    }
+
+    void remove(int index) {
+      this.size--;
+      System.arraycopy(this.keys, index + 1, this.keys, index, this.size - index);
+      System.arraycopy(this.values, index + 1, this.values, index, this.size - index);
+      this.values[this.size] = null;
+    }
+  }
+
+  /**
+   * Copies the mappings of one block at a time and then finds the block holding the key after the
+   * last one copied, so it carries on correctly whatever blocks are split or removed meanwhile.
+   */
+  private class BlockIterator implements Iterator<Map.Entry<Object, Object>> {
+    private final boolean descending;
+    private final long[] keys = new long[BLOCK_SIZE];
+    private final Object[] values = new Object[BLOCK_SIZE];
+    private int count;
+    private int index;
+    /** The first key not yet returned in ascending order, or the last in descending order */
+    private long next;
+    /** The key at which iteration stops, inclusive */
+    private final long last;
+    private boolean done;
+
+    BlockIterator(long from, long to, boolean descending) {
+      this.descending = descending;
+      this.next = descending ? to : from;
+      this.last = descending ? from : to;
+      this.done = from > to;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (this.index == this.count) {
+        if (this.done) {
+          return false;
+        }
+        fill();
+      }
+      return true;
+    }
+
+    @Override
+    public Map.Entry<Object, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int i = this.index++;
+      Object value = this.values[i];
+      this.values[i] = null;
+      return new AbstractMap.SimpleImmutableEntry<>(keyFactory.apply(this.keys[i]), value);
+    }
+
+    private void fill() {
+      this.index = 0;
+      this.count = 0;
+      Block block = blocks.floorEntry(this.next).getValue();
+      boolean blockExhausted;
+      synchronized (block) {
+        if (!isCurrent(block, this.next)) {
+          return;
+        }
+        blockExhausted = this.descending ? copyDescending(block) : copyAscending(block);
+      }
+      if (this.count > 0) {
+        long lastCopied = this.keys[this.count - 1];
+        if (lastCopied == this.last || !blockExhausted) {
+          this.done = true;
+        } else {
+          this.next = this.descending ? lastCopied - 1 : lastCopied + 1;
+        }
+      } else if (!blockExhausted) {
+        // the block has keys beyond the last one wanted
+        this.done = true;
+      } else if (this.descending) {
+        if (block.lowKey <= this.last) {
+          this.done = true;
+        } else {
+          this.next = block.lowKey - 1;
+        }
+      } else {
+        Long higherKey = blocks.higherKey(block.lowKey);
+        if (higherKey == null || higherKey > this.last) {
+          this.done = true;
+        } else {
+          // a lower key if the block was split meanwhile, in which case it is looked up again
+          this.next = Math.max(this.next, higherKey);
+        }
+      }
+    }
+
+    /**
+     * @return true if every key of the block from the next one on was copied
+     */
+    private boolean copyAscending(Block block) {
+      int i = block.indexOf(this.next);
+      if (i < 0) {
+        i = -(i + 1);
+      }
+      for (; i < block.size; i++) {
+        if (block.keys[i] > this.last) {
+          return false;
+        }
+        this.keys[this.count] = block.keys[i];
+        this.values[this.count++] = block.values[i];
+      }
+      return true;
+    }
+
+    /**
+     * @return true if every key of the block down to the next one was copied
+     */
+    private boolean copyDescending(Block block) {
+      int i = block.indexOf(this.next);
+      if (i < 0) {
+        i = -(i + 1) - 1;
+      }
+      for (; i >= 0; i--) {
+        if (block.keys[i] < this.last) {
+          return false;
+        }
+        this.keys[this.count] = block.keys[i];
+        this.values[this.count++] = block.values[i];
+      }
+      return true;
+    }
+  }
+}
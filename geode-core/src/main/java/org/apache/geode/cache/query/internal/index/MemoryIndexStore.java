@@ -19,12 +19,14 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.geode.cache.EntryDestroyedException;
 import org.apache.geode.cache.Region;
@@ -34,6 +36,8 @@ import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.CompiledComparison;
 import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.NullToken;
+import org.apache.geode.cache.query.internal.Undefined;
 import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
 import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.TypeUtils;
@@ -60,10 +64,16 @@ public class MemoryIndexStore implements IndexStore {
   // number of keys
   private final AtomicInteger numIndexKeys = new AtomicInteger(0);
 
+  /**
+   * The number of changes to the mappings of this store. A bucket index shares its statistics with
+   * the other buckets of its partitioned region, so its key histogram is kept up to date with this.
+   */
+  private final AtomicLong numModifications = new AtomicLong();
+
   // Map for RegionEntries=>value of indexedExpression (reverse map)
   private ConcurrentMap entryToValuesMap;
 
-  private final InternalIndexStatistics internalIndexStats;
+  final InternalIndexStatistics internalIndexStats;
 
   private final InternalCache cache;
 
@@ -98,6 +108,7 @@ public class MemoryIndexStore implements IndexStore {
   @Override
   public void updateMapping(Object indexKey, Object oldKey, RegionEntry re, Object oldValue)
       throws IMQException {
+    this.numModifications.incrementAndGet();
     try {
 
       if (DefaultQuery.testHook != null) {
@@ -169,12 +180,12 @@ public class MemoryIndexStore implements IndexStore {
                 DefaultQuery.TestHook.SPOTS.COMPLETE_TRANSITION_FROM_REGION_ENTRY_TO_ELEMARRAY,
                 null);
           }
-        } else if (regionEntries instanceof IndexConcurrentHashSet) {
+        } else if (!(regionEntries instanceof IndexElemArray)) {
           // This synchronized is for avoiding conflcts with remove of
-          // ConcurrentHashSet when set size becomes zero during
+          // the entry set when set size becomes zero during
           // basicRemoveMapping();
           synchronized (regionEntries) {
-            ((IndexConcurrentHashSet) regionEntries).add(re);
+            ((Collection) regionEntries).add(re);
           }
           if (regionEntries != this.valueToEntriesMap.get(indexKey)) {
             retry = true;
@@ -183,8 +194,7 @@ public class MemoryIndexStore implements IndexStore {
           IndexElemArray elemArray = (IndexElemArray) regionEntries;
           synchronized (elemArray) {
             if (elemArray.size() >= IndexManager.INDEX_ELEMARRAY_THRESHOLD) {
-              IndexConcurrentHashSet set =
-                  new IndexConcurrentHashSet(IndexManager.INDEX_ELEMARRAY_THRESHOLD + 20, 0.75f, 1);
+              Collection set = createEntrySet();
               // Replace first so that we are sure that the set is placed in
               // index then we should add old elements in the new set.
 
@@ -253,15 +263,25 @@ public class MemoryIndexStore implements IndexStore {
     internalIndexStats.incNumValues(1);
   }
 
+  /**
+   * Creates the collection that takes the place of the {@link IndexElemArray} of a key once the key
+   * has more than {@link IndexManager#INDEX_ELEMARRAY_THRESHOLD} entries. It must be thread safe.
+   */
+  Collection createEntrySet() {
+    return new IndexConcurrentHashSet(IndexManager.INDEX_ELEMARRAY_THRESHOLD + 20, 0.75f, 1);
+  }
+
   /**
    * Find the old key by traversing the forward map in case of in-place update modification If not
    * found it means the value object was modified with same value. So oldKey is same as newKey.
    *
    */
-  private Object getOldKey(Object newKey, RegionEntry entry) throws TypeMismatchException {
-    for (Object mapEntry : valueToEntriesMap.entrySet()) {
-      Object regionEntries = ((Entry) mapEntry).getValue();
-      Object indexKey = ((Entry) mapEntry).getKey();
+  Object getOldKey(Object newKey, RegionEntry entry) throws TypeMismatchException {
+    Iterator<Map.Entry> entries = entryIterator(null, false, null, false, false);
+    while (entries.hasNext()) {
+      Entry mapEntry = entries.next();
+      Object regionEntries = mapEntry.getValue();
+      Object indexKey = mapEntry.getKey();
       // if more than one index key maps to the same RegionEntry that
       // means there has been an in-place modification
       if (TypeUtils.compare(indexKey, newKey, CompiledComparison.TOK_NE).equals(Boolean.TRUE)) {
@@ -286,6 +306,7 @@ public class MemoryIndexStore implements IndexStore {
 
   @Override
   public void removeMapping(Object indexKey, RegionEntry re) throws IMQException {
+    this.numModifications.incrementAndGet();
     // Remove from forward map
     boolean found = basicRemoveMapping(indexKey, re, true);
     // Remove from reverse map.
@@ -297,7 +318,7 @@ public class MemoryIndexStore implements IndexStore {
     }
   }
 
-  private boolean basicRemoveMapping(Object key, RegionEntry entry, boolean findOldKey)
+  boolean basicRemoveMapping(Object key, RegionEntry entry, boolean findOldKey)
       throws IMQException {
     boolean found = false;
     boolean possiblyAlreadyRemoved = false;
@@ -402,62 +423,75 @@ public class MemoryIndexStore implements IndexStore {
     return newKey;
   }
 
+  /**
+   * Returns the mappings of index keys to region entries from start to end, in ascending or
+   * descending key order. A null start or end leaves that end of the range open. All of the
+   * iterators of this store are built on this method.
+   */
+  Iterator<Map.Entry> entryIterator(Object start, boolean startInclusive, Object end,
+      boolean endInclusive, boolean descending) {
+    NavigableMap map = this.valueToEntriesMap;
+    if (start != null && end != null) {
+      map = map.subMap(start, startInclusive, end, endInclusive);
+    } else if (start != null) {
+      map = map.tailMap(start, startInclusive);
+    } else if (end != null) {
+      map = map.headMap(end, endInclusive);
+    }
+    if (descending) {
+      map = map.descendingMap();
+    }
+    return map.entrySet().iterator();
+  }
+
   @Override
   public CloseableIterator<IndexStoreEntry> get(Object indexKey) {
-    return new MemoryIndexStoreIterator(
-        this.valueToEntriesMap.subMap(indexKey, true, indexKey, true), indexKey, null);
+    return new MemoryIndexStoreIterator(entryIterator(indexKey, true, indexKey, true, false),
+        indexKey, null);
   }
 
   @Override
   public CloseableIterator<IndexStoreEntry> iterator(Object start, boolean startInclusive,
       Object end, boolean endInclusive, Collection keysToRemove) {
-    if (start == null) {
-      return new MemoryIndexStoreIterator(this.valueToEntriesMap.headMap(end, endInclusive), null,
-          keysToRemove);
-    }
     return new MemoryIndexStoreIterator(
-        this.valueToEntriesMap.subMap(start, startInclusive, end, endInclusive), null,
-        keysToRemove);
+        entryIterator(start, startInclusive, end, endInclusive, false), null, keysToRemove);
   }
 
   @Override
   public CloseableIterator<IndexStoreEntry> iterator(Object start, boolean startInclusive,
       Collection keysToRemove) {
-    return new MemoryIndexStoreIterator(this.valueToEntriesMap.tailMap(start, startInclusive), null,
-        keysToRemove);
+    return new MemoryIndexStoreIterator(entryIterator(start, startInclusive, null, false, false),
+        null, keysToRemove);
   }
 
   public Iterator<IndexStoreEntry> getKeysIterator() {
-    return new MemoryIndexStoreKeyIterator(this.valueToEntriesMap);
+    return new MemoryIndexStoreKeyIterator(entryIterator(null, false, null, false, false));
   }
 
   @Override
   public CloseableIterator<IndexStoreEntry> iterator(Collection keysToRemove) {
-    return new MemoryIndexStoreIterator(this.valueToEntriesMap, null, keysToRemove);
+    return new MemoryIndexStoreIterator(entryIterator(null, false, null, false, false), null,
+        keysToRemove);
   }
 
   @Override
   public CloseableIterator<IndexStoreEntry> descendingIterator(Object start, boolean startInclusive,
       Object end, boolean endInclusive, Collection keysToRemove) {
-    if (start == null) {
-      return new MemoryIndexStoreIterator(
-          this.valueToEntriesMap.headMap(end, endInclusive).descendingMap(), null, keysToRemove);
-    }
     return new MemoryIndexStoreIterator(
-        this.valueToEntriesMap.subMap(start, startInclusive, end, endInclusive).descendingMap(),
-        null, keysToRemove);
+        entryIterator(start, startInclusive, end, endInclusive, true), null, keysToRemove);
   }
 
   @Override
   public CloseableIterator<IndexStoreEntry> descendingIterator(Object start, boolean startInclusive,
       Collection keysToRemove) {
-    return new MemoryIndexStoreIterator(
-        this.valueToEntriesMap.tailMap(start, startInclusive).descendingMap(), null, keysToRemove);
+    return new MemoryIndexStoreIterator(entryIterator(start, startInclusive, null, false, true),
+        null, keysToRemove);
   }
 
   @Override
   public CloseableIterator<IndexStoreEntry> descendingIterator(Collection keysToRemove) {
-    return new MemoryIndexStoreIterator(this.valueToEntriesMap.descendingMap(), null, keysToRemove);
+    return new MemoryIndexStoreIterator(entryIterator(null, false, null, false, true), null,
+        keysToRemove);
   }
 
   @Override
@@ -553,9 +587,56 @@ public class MemoryIndexStore implements IndexStore {
       this.entryToValuesMap.clear();
     }
     numIndexKeys.set(0);
+    this.numModifications.incrementAndGet();
     return true;
   }
 
+  long getNumModifications() {
+    return this.numModifications.get();
+  }
+
+  /**
+   * Counts a change to the keys of this store, for a subclass that keeps some keys itself.
+   */
+  void incNumModifications() {
+    this.numModifications.incrementAndGet();
+  }
+
+  /**
+   * Builds a histogram of the keys in this store. The null and undefined keys are left out since
+   * no range condition selects them. The histogram is of the entries of this store alone, and is
+   * built at its current {@link #getNumModifications() number of modifications}.
+   */
+  IndexKeyHistogram createKeyHistogram(int maxBuckets) {
+    long builtAtModification = this.numModifications.get();
+    long expectedEntries = 0;
+    Iterator<Map.Entry> entries = entryIterator(null, false, null, false, false);
+    while (entries.hasNext()) {
+      Map.Entry entry = entries.next();
+      if (isHistogramKey(entry.getKey())) {
+        expectedEntries += numberOfEntries(entry.getValue());
+      }
+    }
+    IndexKeyHistogram.Builder builder = new IndexKeyHistogram.Builder(
+        this.valueToEntriesMap.comparator(), expectedEntries, maxBuckets, builtAtModification);
+    entries = entryIterator(null, false, null, false, false);
+    while (entries.hasNext()) {
+      Map.Entry entry = entries.next();
+      if (isHistogramKey(entry.getKey())) {
+        builder.add(entry.getKey(), numberOfEntries(entry.getValue()));
+      }
+    }
+    return builder.build();
+  }
+
+  private static boolean isHistogramKey(Object key) {
+    return !(key instanceof NullToken || key instanceof Undefined);
+  }
+
+  private static int numberOfEntries(Object value) {
+    return value instanceof RegionEntry ? 1 : ((Collection) value).size();
+  }
+
   @Override
   public int size(Object key) {
     Object obj = valueToEntriesMap.get(key);
@@ -573,19 +654,15 @@ public class MemoryIndexStore implements IndexStore {
 
   private class MemoryIndexStoreKeyIterator implements Iterator<IndexStoreEntry> {
 
-    private final Map valuesToEntriesMap;
     private Object currKey;
-    private Iterator<Map.Entry> mapIterator;
+    private final Iterator<Map.Entry> mapIterator;
 
-    public MemoryIndexStoreKeyIterator(Map valuesToEntriesMap) {
-      this.valuesToEntriesMap = valuesToEntriesMap;
+    public MemoryIndexStoreKeyIterator(Iterator<Map.Entry> mapIterator) {
+      this.mapIterator = mapIterator;
     }
 
     @Override
     public boolean hasNext() {
-      if (mapIterator == null) {
-        mapIterator = this.valuesToEntriesMap.entrySet().iterator();
-      }
       if (mapIterator.hasNext()) {
         Map.Entry currentEntry = mapIterator.next();
         currKey = currentEntry.getKey();
@@ -607,24 +684,24 @@ public class MemoryIndexStore implements IndexStore {
    * A bi-directional iterator over the CSL. Iterates over the entries of CSL where entry is a
    * mapping (value -> Collection) as well as over the Collection.
    */
-  private class MemoryIndexStoreIterator implements CloseableIterator<IndexStoreEntry> {
-    final Map map;
+  class MemoryIndexStoreIterator implements CloseableIterator<IndexStoreEntry> {
     Object indexKey;
     Collection keysToRemove;
-    Iterator<Map.Entry> mapIterator;
+    final Iterator<Map.Entry> mapIterator;
     Iterator valuesIterator;
     Object currKey;
     Object currValue; // RegionEntry
     final long iteratorStartTime;
     MemoryIndexStoreEntry currentEntry;
 
-    MemoryIndexStoreIterator(Map submap, Object indexKey, Collection keysToRemove) {
-      this(submap, indexKey, keysToRemove, cache.cacheTimeMillis());
+    MemoryIndexStoreIterator(Iterator<Map.Entry> mapIterator, Object indexKey,
+        Collection keysToRemove) {
+      this(mapIterator, indexKey, keysToRemove, cache.cacheTimeMillis());
     }
 
-    private MemoryIndexStoreIterator(Map submap, Object indexKey, Collection keysToRemove,
-        long iteratorStartTime) {
-      this.map = submap;
+    private MemoryIndexStoreIterator(Iterator<Map.Entry> mapIterator, Object indexKey,
+        Collection keysToRemove, long iteratorStartTime) {
+      this.mapIterator = mapIterator;
       this.indexKey = indexKey;
       this.keysToRemove = keysToRemove == null ? null : new HashSet(keysToRemove);
       this.iteratorStartTime = iteratorStartTime;
@@ -646,9 +723,6 @@ public class MemoryIndexStore implements IndexStore {
         return true;
       }
       // sets the next values iterator
-      if (mapIterator == null) {
-        mapIterator = map.entrySet().iterator();
-      }
       if (mapIterator.hasNext()) {
         // set the next entry in the map as current
         Map.Entry currentMapEntry = mapIterator.next();
@@ -732,7 +806,7 @@ public class MemoryIndexStore implements IndexStore {
   @Override
   public String printAll() {
     StringBuffer sb = new StringBuffer();
-    Iterator iterator = this.valueToEntriesMap.entrySet().iterator();
+    Iterator iterator = entryIterator(null, false, null, false, false);
     while (iterator.hasNext()) {
       Map.Entry mapEntry = (Map.Entry) iterator.next();
       sb.append("Key: " + mapEntry.getKey());
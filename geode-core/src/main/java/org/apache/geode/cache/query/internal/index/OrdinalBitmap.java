@@ -0,0 +1,426 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+
+/**
+ * A compressed set of non-negative ints in the style of a roaring bitmap. The ints are split into
+ * chunks of 65536 by their high 16 bits and each chunk that has any ints is kept in a container of
+ * its own: a sorted array of the low 16 bits while the chunk has at most {@link #ARRAY_MAX_SIZE}
+ * ints and a bitmap of 8KB once it has more. A set of ordinals that are close together so costs
+ * about a bit per ordinal when dense and two bytes per ordinal when sparse.
+ * <p>
+ * Not thread safe.
+ */
+final class OrdinalBitmap {
+
+  /** The most ints an array container holds, beyond which a bitmap container is smaller */
+  static final int ARRAY_MAX_SIZE = 4096;
+
+  private static final int BITMAP_WORDS = 1024;
+
+  /** The high 16 bits of the ints of each container, in increasing order */
+  private char[] highs = new char[4];
+
+  private Container[] containers = new Container[4];
+
+  private int size;
+
+  OrdinalBitmap() {}
+
+  private OrdinalBitmap(char[] highs, Container[] containers, int size) {
+    this.highs = highs;
+    this.containers = containers;
+    this.size = size;
+  }
+
+  private static char high(int ordinal) {
+    return (char) (ordinal >>> 16);
+  }
+
+  private static char low(int ordinal) {
+    return (char) ordinal;
+  }
+
+  private int containerIndex(char high) {
+    int lo = 0;
+    int hi = this.size - 1;
+    while (lo <= hi) {
+      int middle = (lo + hi) >>> 1;
+      char value = this.highs[middle];
+      if (value < high) {
+        lo = middle + 1;
+      } else if (value > high) {
+        hi = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(lo + 1);
+  }
+
+  /**
+   * @return true if the ordinal was not already in this bitmap
+   */
+  boolean add(int ordinal) {
+    char high = high(ordinal);
+    int index = containerIndex(high);
+    if (index >= 0) {
+      Container container = this.containers[index];
+      if (container.contains(low(ordinal))) {
+        return false;
+      }
+      this.containers[index] = container.add(low(ordinal));
+      return true;
+    }
+    index = -(index + 1);
+    if (this.size == this.highs.length) {
+      this.highs = Arrays.copyOf(this.highs, this.size * 2);
+      this.containers = Arrays.copyOf(this.containers, this.size * 2);
+    }
+    System.arraycopy(this.highs, index, this.highs, index + 1, this.size - index);
+    System.arraycopy(this.containers, index, this.containers, index + 1, this.size - index);
+    this.highs[index] = high;
+    this.containers[index] = new ArrayContainer().add(low(ordinal));
+    this.size++;
+    return true;
+  }
+
+  /**
+   * @return true if the ordinal was in this bitmap
+   */
+  boolean remove(int ordinal) {
+    int index = containerIndex(high(ordinal));
+    if (index < 0) {
+      return false;
+    }
+    Container container = this.containers[index];
+    if (!container.contains(low(ordinal))) {
+      return false;
+    }
+    container = container.remove(low(ordinal));
+    if (container.cardinality() == 0) {
+      this.size--;
+      System.arraycopy(this.highs, index + 1, this.highs, index, this.size - index);
+      System.arraycopy(this.containers, index + 1, this.containers, index, this.size - index);
+      this.containers[this.size] = null;
+    } else {
+      this.containers[index] = container;
+    }
+    return true;
+  }
+
+  boolean contains(int ordinal) {
+    int index = containerIndex(high(ordinal));
+    return index >= 0 && this.containers[index].contains(low(ordinal));
+  }
+
+  int getCardinality() {
+    int cardinality = 0;
+    for (int i = 0; i < this.size; i++) {
+      cardinality += this.containers[i].cardinality();
+    }
+    return cardinality;
+  }
+
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Copies the ordinals from {@code from} on, in increasing order, into the given array until it is
+   * full.
+   *
+   * @return the number of ordinals copied
+   */
+  int copyFrom(int from, int[] ordinals) {
+    int count = 0;
+    int index = containerIndex(high(from));
+    char low = 0;
+    if (index >= 0) {
+      low = low(from);
+    } else {
+      index = -(index + 1);
+    }
+    for (; index < this.size && count < ordinals.length; index++) {
+      count = this.containers[index].copyFrom(low, this.highs[index] << 16, ordinals, count);
+      low = 0;
+    }
+    return count;
+  }
+
+  OrdinalBitmap copy() {
+    Container[] copies = new Container[Math.max(this.size, 1)];
+    for (int i = 0; i < this.size; i++) {
+      copies[i] = this.containers[i].copy();
+    }
+    return new OrdinalBitmap(Arrays.copyOf(this.highs, copies.length), copies, this.size);
+  }
+
+  /**
+   * Returns a new bitmap of the ordinals in both this bitmap and the other.
+   */
+  OrdinalBitmap and(OrdinalBitmap other) {
+    int length = Math.max(Math.min(this.size, other.size), 1);
+    char[] highs = new char[length];
+    Container[] containers = new Container[length];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < this.size && j < other.size) {
+      char high = this.highs[i];
+      char otherHigh = other.highs[j];
+      if (high < otherHigh) {
+        i++;
+      } else if (high > otherHigh) {
+        j++;
+      } else {
+        Container container = this.containers[i++].and(other.containers[j++]);
+        if (container.cardinality() > 0) {
+          highs[size] = high;
+          containers[size++] = container;
+        }
+      }
+    }
+    return new OrdinalBitmap(highs, containers, size);
+  }
+
+  /**
+   * The low 16 bits of the ordinals of one chunk. Changes return the container that holds the
+   * result, which is another container when the change makes another kind smaller.
+   */
+  private abstract static class Container {
+    abstract int cardinality();
+
+    abstract boolean contains(char low);
+
+    /** Adds a low value that is not in this container */
+    abstract Container add(char low);
+
+    /** Removes a low value that is in this container */
+    abstract Container remove(char low);
+
+    /**
+     * Copies the values from {@code from} on, or'ed with {@code high}, into ordinals from count.
+     *
+     * @return the new count
+     */
+    abstract int copyFrom(char from, int high, int[] ordinals, int count);
+
+    abstract Container copy();
+
+    abstract Container and(Container other);
+  }
+
+  private static final class ArrayContainer extends Container {
+    char[] values;
+    int cardinality;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return this.cardinality;
+    }
+
+    private int indexOf(char low) {
+      return Arrays.binarySearch(this.values, 0, this.cardinality, low);
+    }
+
+    @Override
+    boolean contains(char low) {
+      return indexOf(low) >= 0;
+    }
+
+    @Override
+    Container add(char low) {
+      if (this.cardinality == ARRAY_MAX_SIZE) {
+        return toBitmap().add(low);
+      }
+      int index = -(indexOf(low) + 1);
+      if (this.cardinality == this.values.length) {
+        this.values = Arrays.copyOf(this.values,
+            Math.min(this.cardinality < 64 ? this.cardinality * 2 : this.cardinality * 3 / 2,
+                ARRAY_MAX_SIZE));
+      }
+      System.arraycopy(this.values, index, this.values, index + 1, this.cardinality - index);
+      this.values[index] = low;
+      this.cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(char low) {
+      int index = indexOf(low);
+      this.cardinality--;
+      System.arraycopy(this.values, index + 1, this.values, index, this.cardinality - index);
+      return this;
+    }
+
+    @Override
+    int copyFrom(char from, int high, int[] ordinals, int count) {
+      int index = indexOf(from);
+      if (index < 0) {
+        index = -(index + 1);
+      }
+      for (; index < this.cardinality && count < ordinals.length; index++) {
+        ordinals[count++] = high | this.values[index];
+      }
+      return count;
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(this.values, this.cardinality), this.cardinality);
+    }
+
+    @Override
+    Container and(Container other) {
+      if (other instanceof BitmapContainer) {
+        return other.and(this);
+      }
+      ArrayContainer array = (ArrayContainer) other;
+      char[] values = new char[Math.max(Math.min(this.cardinality, array.cardinality), 1)];
+      int cardinality = 0;
+      int i = 0;
+      int j = 0;
+      while (i < this.cardinality && j < array.cardinality) {
+        char value = this.values[i];
+        char otherValue = array.values[j];
+        if (value < otherValue) {
+          i++;
+        } else if (value > otherValue) {
+          j++;
+        } else {
+          values[cardinality++] = value;
+          i++;
+          j++;
+        }
+      }
+      return new ArrayContainer(values, cardinality);
+    }
+
+    BitmapContainer toBitmap() {
+      BitmapContainer bitmap = new BitmapContainer(new long[BITMAP_WORDS], this.cardinality);
+      for (int i = 0; i < this.cardinality; i++) {
+        char value = this.values[i];
+        bitmap.words[value >>> 6] |= 1L << value;
+      }
+      return bitmap;
+    }
+  }
+
+  private static final class BitmapContainer extends Container {
+    final long[] words;
+    int cardinality;
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return this.cardinality;
+    }
+
+    @Override
+    boolean contains(char low) {
+      return (this.words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    Container add(char low) {
+      this.words[low >>> 6] |= 1L << low;
+      this.cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(char low) {
+      this.words[low >>> 6] &= ~(1L << low);
+      this.cardinality--;
+      if (this.cardinality <= ARRAY_MAX_SIZE / 2) {
+        // shrunk well below the size at which it became a bitmap, so an array is smaller again
+        return toArray();
+      }
+      return this;
+    }
+
+    @Override
+    int copyFrom(char from, int high, int[] ordinals, int count) {
+      int wordIndex = from >>> 6;
+      long word = this.words[wordIndex] & (-1L << from);
+      while (count < ordinals.length) {
+        if (word != 0) {
+          ordinals[count++] = high | (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+        } else if (++wordIndex < BITMAP_WORDS) {
+          word = this.words[wordIndex];
+        } else {
+          break;
+        }
+      }
+      return count;
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(this.words.clone(), this.cardinality);
+    }
+
+    @Override
+    Container and(Container other) {
+      if (other instanceof ArrayContainer) {
+        ArrayContainer array = (ArrayContainer) other;
+        char[] values = new char[Math.max(array.cardinality, 1)];
+        int cardinality = 0;
+        for (int i = 0; i < array.cardinality; i++) {
+          if (contains(array.values[i])) {
+            values[cardinality++] = array.values[i];
+          }
+        }
+        return new ArrayContainer(values, cardinality);
+      }
+      long[] otherWords = ((BitmapContainer) other).words;
+      long[] words = new long[BITMAP_WORDS];
+      int cardinality = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        words[i] = this.words[i] & otherWords[i];
+        cardinality += Long.bitCount(words[i]);
+      }
+      BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+      return cardinality <= ARRAY_MAX_SIZE ? bitmap.toArray() : bitmap;
+    }
+
+    ArrayContainer toArray() {
+      char[] values = new char[Math.max(this.cardinality, 1)];
+      int[] ordinals = new int[this.cardinality];
+      int count = copyFrom((char) 0, 0, ordinals, 0);
+      for (int i = 0; i < count; i++) {
+        values[i] = (char) ordinals[i];
+      }
+      return new ArrayContainer(values, count);
+    }
+  }
+}
@@ -78,6 +78,16 @@ public interface GatewayReceiver {
   boolean APPLY_RETRIES =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "GatewayReceiver.ApplyRetries");
 
+  /**
+   * The number of threads that apply the events of a batch in parallel, including the thread that
+   * received the batch. The events of a key, or of a bucket of a partitioned region without a
+   * partition resolver, are still applied in order. Batches are applied by a single thread by
+   * default.
+   */
+  int PARALLEL_APPLY_THREADS = Integer
+      .getInteger(DistributionConfig.GEMFIRE_PREFIX + "GatewayReceiver.ParallelApplyThreads", 1)
+      .intValue();
+
   /**
    * Starts this receiver. Once the receiver is running, its configuration cannot be changed.
    *
@@ -139,6 +139,32 @@ public interface GatewaySender {
   boolean EARLY_ACK =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "GatewaySender.EARLY_ACK");
 
+  /**
+   * If the System property is set, the event values of the batches sent to gateway receivers that
+   * support it are compressed with the Snappy codec. Off by default. Receivers of the current
+   * version that predate compression report the same version, so only set this once every site
+   * has been upgraded to a build that can read compressed batches.
+   */
+  boolean COMPRESS_BATCHES =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "GatewaySender.COMPRESS_BATCHES");
+
+  /**
+   * If the System property is set, the number of events in a batch is adjusted between an eighth
+   * and four times the configured batch size according to the time batches take to be
+   * acknowledged and the rate at which the gateway receiver acknowledges events. Off by default.
+   */
+  boolean ADAPTIVE_BATCH_SIZE =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "GatewaySender.ADAPTIVE_BATCH_SIZE");
+
+  /**
+   * The number of batches a gateway sender dispatcher may have sent without receiving their
+   * acknowledgements before it waits to send the next one. 0, the default, does not limit them, so
+   * only the socket buffers do.
+   */
+  int MAX_OUTSTANDING_BATCHES = Integer
+      .getInteger(DistributionConfig.GEMFIRE_PREFIX + "GatewaySender.MAX_OUTSTANDING_BATCHES", 0)
+      .intValue();
+
   boolean DEFAULT_IS_PARALLEL = false;
 
   boolean DEFAULT_IS_FOR_INTERNAL_USE = false;
@@ -78,7 +78,10 @@ import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.logging.LoggingExecutors;
 import org.apache.geode.internal.logging.LoggingThread;
+import org.apache.geode.internal.logging.LoggingThreadFactory.CommandWrapper;
+import org.apache.geode.internal.logging.LoggingThreadFactory.ThreadInitializer;
 import org.apache.geode.internal.logging.LoggingUncaughtExceptionHandler;
+import org.apache.geode.internal.logging.LoggingVirtualThreadFactory;
 import org.apache.geode.internal.logging.log4j.LogMarker;
 import org.apache.geode.internal.monitoring.ThreadsMonitoring;
 import org.apache.geode.internal.monitoring.ThreadsMonitoringImpl;
@@ -159,6 +162,17 @@ public class ClusterDistributionManager implements DistributionManager {
 
 
 
+  /**
+   * Flag indicating whether the processing, high priority, waiting, partitioned region and function
+   * execution pools should run each message in its own virtual thread instead of a bounded pool of
+   * platform threads. Requires JDK 21 or later; ignored otherwise.
+   */
+  public static final String USE_VIRTUAL_THREADS_PROPERTY =
+      "DistributionManager.USE_VIRTUAL_THREADS";
+
+  private static final boolean USE_VIRTUAL_THREADS =
+      Boolean.getBoolean(USE_VIRTUAL_THREADS_PROPERTY);
+
   private static final int INCOMING_QUEUE_LIMIT =
       Integer.getInteger("DistributionManager.INCOMING_QUEUE_LIMIT", 80000).intValue();
 
@@ -703,19 +717,35 @@ public class ClusterDistributionManager implements DistributionManager {
               thread -> stats.incViewThreadStarts(), this::doViewThread,
               this.stats.getViewProcessorHelper(), threadMonitor);
 
-      this.threadPool =
-          LoggingExecutors.newThreadPoolWithFeedStatistics("Pooled Message Processor ",
-              thread -> stats.incProcessingThreadStarts(), this::doProcessingThread,
-              MAX_THREADS, this.stats.getNormalPoolHelper(), threadMonitor,
-              INCOMING_QUEUE_LIMIT, this.stats.getOverflowQueueHelper());
+      final boolean useVirtualThreads = USE_VIRTUAL_THREADS && checkVirtualThreadsSupported();
 
-      this.highPriorityPool = LoggingExecutors.newThreadPoolWithFeedStatistics(
-          "Pooled High Priority Message Processor ",
-          thread -> stats.incHighPriorityThreadStarts(), this::doHighPriorityThread,
-          MAX_THREADS, this.stats.getHighPriorityPoolHelper(), threadMonitor,
-          INCOMING_QUEUE_LIMIT, this.stats.getHighPriorityQueueHelper());
+      if (useVirtualThreads) {
+        this.threadPool = newVirtualThreadPool("Pooled Message Processor ",
+            thread -> stats.incProcessingThreadStarts(), this::doProcessingThread,
+            this.stats.getNormalPoolHelper());
 
-      {
+        this.highPriorityPool = newVirtualThreadPool("Pooled High Priority Message Processor ",
+            thread -> stats.incHighPriorityThreadStarts(), this::doHighPriorityThread,
+            this.stats.getHighPriorityPoolHelper());
+
+        this.waitingPool = newVirtualThreadPool("Pooled Waiting Message Processor ",
+            thread -> stats.incWaitingThreadStarts(), this::doWaitingThread,
+            this.stats.getWaitingPoolHelper());
+      } else {
+        this.threadPool =
+            LoggingExecutors.newThreadPoolWithFeedStatistics("Pooled Message Processor ",
+                thread -> stats.incProcessingThreadStarts(), this::doProcessingThread,
+                MAX_THREADS, this.stats.getNormalPoolHelper(), threadMonitor,
+                INCOMING_QUEUE_LIMIT, this.stats.getOverflowQueueHelper());
+
+        this.highPriorityPool = LoggingExecutors.newThreadPoolWithFeedStatistics(
+            "Pooled High Priority Message Processor ",
+            thread -> stats.incHighPriorityThreadStarts(), this::doHighPriorityThread,
+            MAX_THREADS, this.stats.getHighPriorityPoolHelper(), threadMonitor,
+            INCOMING_QUEUE_LIMIT, this.stats.getHighPriorityQueueHelper());
+      }
+
+      if (!useVirtualThreads) {
         BlockingQueue<Runnable> poolQueue;
         if (MAX_WAITING_THREADS == Integer.MAX_VALUE) {
           // no need for a queue since we have infinite threads
@@ -735,7 +765,11 @@ public class ClusterDistributionManager implements DistributionManager {
               MAX_PR_META_DATA_CLEANUP_THREADS, this.stats.getWaitingPoolHelper(), threadMonitor,
               0, this.stats.getWaitingQueueHelper());
 
-      if (MAX_PR_THREADS > 1) {
+      if (MAX_PR_THREADS > 1 && useVirtualThreads) {
+        this.partitionedRegionPool = newVirtualThreadPool("PartitionedRegion Message Processor",
+            thread -> stats.incPartitionedRegionThreadStarts(), this::doPartitionRegionThread,
+            this.stats.getPartitionedRegionPoolHelper());
+      } else if (MAX_PR_THREADS > 1) {
         this.partitionedRegionPool =
             LoggingExecutors.newThreadPoolWithFeedStatistics("PartitionedRegion Message Processor",
                 thread -> stats.incPartitionedRegionThreadStarts(), this::doPartitionRegionThread,
@@ -748,7 +782,14 @@ public class ClusterDistributionManager implements DistributionManager {
             this.stats.getPartitionedRegionPoolHelper(), threadMonitor,
             INCOMING_QUEUE_LIMIT, this.stats.getPartitionedRegionQueueHelper());
       }
-      if (MAX_FE_THREADS > 1) {
+      if (MAX_FE_THREADS > 1 && useVirtualThreads) {
+        this.functionExecutionPool =
+            LoggingExecutors.newFunctionVirtualThreadPerTaskExecutor(
+                FUNCTION_EXECUTION_PROCESSOR_THREAD_PREFIX,
+                virtualThreadInitializer(thread -> stats.incFunctionExecutionThreadStarts()),
+                virtualCommandWrapper(this::doFunctionExecutionThread),
+                this.stats.getFunctionExecutionPoolHelper(), threadMonitor);
+      } else if (MAX_FE_THREADS > 1) {
         this.functionExecutionPool =
             LoggingExecutors.newFunctionThreadPoolWithFeedStatistics(
                 FUNCTION_EXECUTION_PROCESSOR_THREAD_PREFIX,
@@ -814,6 +855,43 @@ public class ClusterDistributionManager implements DistributionManager {
     }
   }
 
+  private static boolean checkVirtualThreadsSupported() {
+    if (LoggingVirtualThreadFactory.isSupported()) {
+      logger.info("DistributionManager.USE_VIRTUAL_THREADS is set; message processing pools will "
+          + "run each message in a virtual thread.");
+      return true;
+    }
+    logger.warn("DistributionManager.USE_VIRTUAL_THREADS is set but this JVM does not support "
+        + "virtual threads. Using pooled platform threads instead.");
+    return false;
+  }
+
+  private ExecutorService newVirtualThreadPool(String threadName,
+      ThreadInitializer threadInitializer, CommandWrapper commandWrapper,
+      PoolStatHelper poolStats) {
+    return LoggingExecutors.newVirtualThreadPerTaskExecutor(threadName,
+        virtualThreadInitializer(threadInitializer), virtualCommandWrapper(commandWrapper),
+        poolStats, threadMonitor);
+  }
+
+  private ThreadInitializer virtualThreadInitializer(ThreadInitializer threadInitializer) {
+    return thread -> {
+      stats.incVirtualThreadStarts();
+      threadInitializer.initialize(thread);
+    };
+  }
+
+  private CommandWrapper virtualCommandWrapper(CommandWrapper commandWrapper) {
+    return command -> {
+      stats.incVirtualThreads(1);
+      try {
+        commandWrapper.invoke(command);
+      } finally {
+        stats.incVirtualThreads(-1);
+      }
+    };
+  }
+
   private void doProcessingThread(Runnable command) {
     stats.incNumProcessingThreads(1);
     try {
@@ -1735,6 +1813,17 @@ public class ClusterDistributionManager implements DistributionManager {
     }
   }
 
+  /**
+   * Returns the number of threads that are actively executing tasks in one of this manager's
+   * executors.
+   */
+  static int getActiveCount(ExecutorService executor) {
+    if (executor instanceof ThreadPerTaskExecutorWithDMStats) {
+      return ((ThreadPerTaskExecutorWithDMStats) executor).getActiveCount();
+    }
+    return ((ThreadPoolExecutor) executor).getActiveCount();
+  }
+
   /**
    * Cheap tool to examine an executor to see if it is still working
    *
@@ -1744,7 +1833,7 @@ public class ClusterDistributionManager implements DistributionManager {
     if (tpe == null) {
       return false;
     } else {
-      int ac = ((ThreadPoolExecutor) tpe).getActiveCount();
+      int ac = getActiveCount(tpe);
       // boolean result = tpe.getActiveCount() > 0;
       if (ac > 0) {
         if (logger.isDebugEnabled()) {
@@ -199,6 +199,8 @@ public class DistributionStats implements DMStats {
   private static final int partitionedRegionThreadStartsId;
   private static final int functionExecutionThreadStartsId;
   private static final int serialPooledThreadStartsId;
+  private static final int virtualThreadStartsId;
+  private static final int virtualThreadsId;
   private static final int TOSentMsgId;
 
   private static final int replyHandoffTimeId;
@@ -690,6 +692,12 @@ public class DistributionStats implements DMStats {
         f.createLongCounter("serialPooledThreadStarts",
             "Total number of times a thread has been created for the serial pool(s).", "starts",
             false),
+        f.createLongCounter("virtualThreadStarts",
+            "Total number of virtual threads started to process messages. Only incremented when DistributionManager.USE_VIRTUAL_THREADS is set.",
+            "starts", false),
+        f.createIntGauge("virtualThreads",
+            "The number of virtual threads currently processing messages. When this is higher than the number of processors, processing threads are blocked rather than running.",
+            "threads"),
         f.createLongCounter("TOSentMsgs", "Total number of messages sent on thread owned senders",
             "messages", false),
         f.createLongCounter("replyHandoffTime", replyHandoffTimeDesc, "nanoseconds"),
@@ -893,6 +901,8 @@ public class DistributionStats implements DMStats {
     partitionedRegionThreadStartsId = type.nameToId("partitionedRegionThreadStarts");
     functionExecutionThreadStartsId = type.nameToId("functionExecutionThreadStarts");
     serialPooledThreadStartsId = type.nameToId("serialPooledThreadStarts");
+    virtualThreadStartsId = type.nameToId("virtualThreadStarts");
+    virtualThreadsId = type.nameToId("virtualThreads");
     TOSentMsgId = type.nameToId("TOSentMsgs");
     replyHandoffTimeId = type.nameToId("replyHandoffTime");
     partitionedRegionThreadJobsId = type.nameToId("partitionedRegionThreadJobs");
@@ -2332,6 +2342,18 @@ public class DistributionStats implements DMStats {
     stats.incLong(serialPooledThreadStartsId, 1);
   }
 
+  public void incVirtualThreadStarts() {
+    stats.incLong(virtualThreadStartsId, 1);
+  }
+
+  public void incVirtualThreads(int threads) {
+    this.stats.incInt(virtualThreadsId, threads);
+  }
+
+  public int getVirtualThreads() {
+    return this.stats.getInt(virtualThreadsId);
+  }
+
   @Override
   public void incReplyHandOffTime(long start) {
     if (enableClockStats) {
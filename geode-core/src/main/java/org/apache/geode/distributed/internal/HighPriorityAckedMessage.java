@@ -20,7 +20,7 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.logging.log4j.Logger;
 
@@ -160,8 +160,9 @@ public class HighPriorityAckedMessage extends HighPriorityDistributionMessage
         Assert.assertTrue(this.id != null);
         // wait 10 seconds for the high priority queue to drain
         long endTime = System.currentTimeMillis() + 10000;
-        ThreadPoolExecutor pool = (ThreadPoolExecutor) dm.getHighPriorityThreadPool();
-        while (pool.getActiveCount() > 1 && System.currentTimeMillis() < endTime) {
+        ExecutorService pool = dm.getHighPriorityThreadPool();
+        while (ClusterDistributionManager.getActiveCount(pool) > 1
+            && System.currentTimeMillis() < endTime) {
           boolean interrupted = Thread.interrupted();
           try {
             Thread.sleep(500);
@@ -175,11 +176,12 @@ public class HighPriorityAckedMessage extends HighPriorityDistributionMessage
               Thread.currentThread().interrupt();
           }
         }
-        if (pool.getActiveCount() > 1) {
+        int activeCount = ClusterDistributionManager.getActiveCount(pool);
+        if (activeCount > 1) {
 
           logger.warn(
               "{}: There are still {} other threads active in the high priority thread pool.",
-              new Object[] {this, Integer.valueOf(pool.getActiveCount() - 1)});
+              new Object[] {this, Integer.valueOf(activeCount - 1)});
         }
         ReplyMessage.send(getSender(), processorId, null, dm);
         break;
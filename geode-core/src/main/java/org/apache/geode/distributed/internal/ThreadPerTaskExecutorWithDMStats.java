@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.distributed.internal;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.geode.internal.monitoring.ThreadsMonitoring;
+
+/**
+ * An executor that starts a new thread for every task it is given, with stat support. It is
+ * intended to be used with a factory that produces virtual threads, which are cheap enough that
+ * they do not need to be pooled and may block without tying up a platform thread.
+ *
+ * @see org.apache.geode.internal.logging.LoggingVirtualThreadFactory
+ */
+public class ThreadPerTaskExecutorWithDMStats extends AbstractExecutorService {
+  private final ThreadFactory threadFactory;
+  private final PoolStatHelper stats;
+  private final ThreadsMonitoring threadMonitoring;
+  private final ThreadsMonitoring.Mode monitoringMode;
+
+  /**
+   * The threads that are currently running a task.
+   *
+   * guarded.By {@link #lock}
+   */
+  private final Set<Thread> threads = new HashSet<>();
+
+  private final Object lock = new Object();
+
+  /**
+   * guarded.By {@link #lock}
+   */
+  private boolean shutdown;
+
+  public ThreadPerTaskExecutorWithDMStats(ThreadFactory threadFactory, PoolStatHelper stats,
+      ThreadsMonitoring threadMonitoring, ThreadsMonitoring.Mode monitoringMode) {
+    this.threadFactory = threadFactory;
+    this.stats = stats;
+    this.threadMonitoring = threadMonitoring;
+    this.monitoringMode = monitoringMode;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    if (command == null) {
+      throw new NullPointerException();
+    }
+    Thread thread = this.threadFactory.newThread(() -> runTask(command));
+    if (thread == null) {
+      throw new RejectedExecutionException("thread factory did not create a thread");
+    }
+    synchronized (this.lock) {
+      if (this.shutdown) {
+        throw new RejectedExecutionException("executor has been shutdown");
+      }
+      this.threads.add(thread);
+    }
+    // the thread is started outside the lock so that submissions do not wait on each other
+    try {
+      thread.start();
+    } catch (RuntimeException | Error e) {
+      forgetThread(thread);
+      throw e;
+    }
+  }
+
+  private void forgetThread(Thread thread) {
+    synchronized (this.lock) {
+      this.threads.remove(thread);
+      if (this.threads.isEmpty()) {
+        this.lock.notifyAll();
+      }
+    }
+  }
+
+  private void runTask(Runnable command) {
+    if (this.stats != null) {
+      this.stats.startJob();
+    }
+    if (this.threadMonitoring != null) {
+      this.threadMonitoring.startMonitor(this.monitoringMode);
+    }
+    try {
+      command.run();
+    } finally {
+      if (this.stats != null) {
+        this.stats.endJob();
+      }
+      if (this.threadMonitoring != null) {
+        this.threadMonitoring.endMonitor();
+      }
+      forgetThread(Thread.currentThread());
+    }
+  }
+
+  /**
+   * Returns the number of threads that are currently running a task.
+   */
+  public int getActiveCount() {
+    synchronized (this.lock) {
+      return this.threads.size();
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    synchronized (this.lock) {
+      this.shutdown = true;
+    }
+  }
+
+  /**
+   * Interrupts all threads that are running a task. Since tasks are never queued the returned list
+   * is always empty.
+   */
+  @Override
+  public List<Runnable> shutdownNow() {
+    synchronized (this.lock) {
+      this.shutdown = true;
+      for (Thread thread : this.threads) {
+        thread.interrupt();
+      }
+    }
+    return new ArrayList<>();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    synchronized (this.lock) {
+      return this.shutdown;
+    }
+  }
+
+  @Override
+  public boolean isTerminated() {
+    synchronized (this.lock) {
+      return this.shutdown && this.threads.isEmpty();
+    }
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long remainingNanos = unit.toNanos(timeout);
+    long endTime = System.nanoTime() + remainingNanos;
+    synchronized (this.lock) {
+      while (!(this.shutdown && this.threads.isEmpty())) {
+        if (remainingNanos <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(this.lock, remainingNanos);
+        remainingNanos = endTime - System.nanoTime();
+      }
+      return true;
+    }
+  }
+}
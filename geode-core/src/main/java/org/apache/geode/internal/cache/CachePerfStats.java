@@ -80,6 +80,8 @@ public class CachePerfStats {
   protected static final int queryResultsHashCollisionsId;
   protected static final int queryResultsHashCollisionProbeTimeId;
   protected static final int partitionedRegionQueryRetriesId;
+  protected static final int queryPlanCacheHitsId;
+  protected static final int queryPlanCacheMissesId;
 
   protected static final int txSuccessLifeTimeId;
   protected static final int txFailedLifeTimeId;
@@ -242,6 +244,10 @@ public class CachePerfStats {
         "Total time spent probing the hashtable in an OQL result set due to hash code collisions, includes reads, writes, and rehashes";
     final String partitionedRegionOQLQueryRetriesDesc =
         "Total number of times an OQL Query on a Partitioned Region had to be retried";
+    final String queryPlanCacheHitsDesc =
+        "Total number of times a query string was found already compiled in the query plan cache";
+    final String queryPlanCacheMissesDesc =
+        "Total number of times a query string had to be compiled because it was not in the query plan cache";
     final String txSuccessLifeTimeDesc =
         "The total amount of time, in nanoseconds, spent in a transaction before a successful commit. The time measured starts at transaction begin and ends when commit is called.";
     final String txFailedLifeTimeDesc =
@@ -416,6 +422,8 @@ public class CachePerfStats {
                 queryResultsHashCollisionProbeTimeDesc, "nanoseconds"),
             f.createLongCounter("partitionedRegionQueryRetries",
                 partitionedRegionOQLQueryRetriesDesc, "retries"),
+            f.createLongCounter("queryPlanCacheHits", queryPlanCacheHitsDesc, "operations"),
+            f.createLongCounter("queryPlanCacheMisses", queryPlanCacheMissesDesc, "operations"),
 
             f.createIntCounter("txCommits", txCommitsDesc, "commits"),
             f.createIntCounter("txCommitChanges", txCommitChangesDesc, "changes"),
@@ -557,6 +565,8 @@ public class CachePerfStats {
     queryResultsHashCollisionsId = type.nameToId("queryResultsHashCollisions");
     queryResultsHashCollisionProbeTimeId = type.nameToId("queryResultsHashCollisionProbeTime");
     partitionedRegionQueryRetriesId = type.nameToId("partitionedRegionQueryRetries");
+    queryPlanCacheHitsId = type.nameToId("queryPlanCacheHits");
+    queryPlanCacheMissesId = type.nameToId("queryPlanCacheMisses");
 
     txSuccessLifeTimeId = type.nameToId("txSuccessLifeTime");
     txFailedLifeTimeId = type.nameToId("txFailedLifeTime");
@@ -1483,6 +1493,22 @@ public class CachePerfStats {
     return this.stats.getLong(partitionedRegionQueryRetriesId);
   }
 
+  public void incQueryPlanCacheHits() {
+    this.stats.incLong(queryPlanCacheHitsId, 1);
+  }
+
+  public long getQueryPlanCacheHits() {
+    return this.stats.getLong(queryPlanCacheHitsId);
+  }
+
+  public void incQueryPlanCacheMisses() {
+    this.stats.incLong(queryPlanCacheMissesId, 1);
+  }
+
+  public long getQueryPlanCacheMisses() {
+    return this.stats.getLong(queryPlanCacheMissesId);
+  }
+
   public QueueStatHelper getEvictionQueueStatHelper() {
     return new QueueStatHelper() {
       @Override
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket that limits the rate at which compactor threads copy bytes forward, so that
+ * compaction leaves disk bandwidth for foreground writes. The bucket holds at most one second of
+ * bytes. A thread that takes more bytes than are available puts the bucket into debt and waits
+ * until the debt has been repaid, so threads sharing a limiter share its budget.
+ */
+class CompactionRateLimiter {
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final long bytesPerSecond;
+
+  private final LongSupplier nanoClock;
+
+  /**
+   * guarded.By this
+   */
+  private long availableBytes;
+
+  /**
+   * guarded.By this
+   */
+  private long lastRefillNanos;
+
+  CompactionRateLimiter(long bytesPerSecond) {
+    this(bytesPerSecond, System::nanoTime);
+  }
+
+  CompactionRateLimiter(long bytesPerSecond, LongSupplier nanoClock) {
+    if (bytesPerSecond <= 0) {
+      throw new IllegalArgumentException("bytesPerSecond must be positive: " + bytesPerSecond);
+    }
+    this.bytesPerSecond = bytesPerSecond;
+    this.nanoClock = nanoClock;
+    this.availableBytes = bytesPerSecond;
+    this.lastRefillNanos = nanoClock.getAsLong();
+  }
+
+  /**
+   * Takes the given number of bytes from the bucket, waiting if the bucket is in debt.
+   *
+   * @return the number of nanoseconds spent waiting
+   */
+  long acquire(long bytes) {
+    long waitNanos = reserve(bytes);
+    if (waitNanos <= 0) {
+      return 0;
+    }
+    long start = this.nanoClock.getAsLong();
+    long deadline = start + waitNanos;
+    long remaining = waitNanos;
+    while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+      LockSupport.parkNanos(remaining);
+      remaining = deadline - this.nanoClock.getAsLong();
+    }
+    return this.nanoClock.getAsLong() - start;
+  }
+
+  /**
+   * Takes the given number of bytes from the bucket without waiting.
+   *
+   * @return the number of nanoseconds the caller must wait before doing its I/O
+   */
+  synchronized long reserve(long bytes) {
+    long now = this.nanoClock.getAsLong();
+    long elapsed = now - this.lastRefillNanos;
+    if (elapsed > 0) {
+      long refill = elapsed >= NANOS_PER_SECOND ? this.bytesPerSecond
+          : elapsed * this.bytesPerSecond / NANOS_PER_SECOND;
+      if (refill > 0) {
+        this.availableBytes = Math.min(this.bytesPerSecond, this.availableBytes + refill);
+        // only move forward by the time that was converted into bytes
+        this.lastRefillNanos = elapsed >= NANOS_PER_SECOND ? now
+            : this.lastRefillNanos + refill * NANOS_PER_SECOND / this.bytesPerSecond;
+      }
+    }
+    this.availableBytes -= bytes;
+    if (this.availableBytes >= 0) {
+      return 0;
+    }
+    return -this.availableBytes * NANOS_PER_SECOND / this.bytesPerSecond;
+  }
+}
@@ -47,6 +47,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -217,6 +218,37 @@ public class DiskStoreImpl implements DiskStore {
       DistributionConfig.GEMFIRE_PREFIX + "MAX_CONCURRENT_COMPACTIONS",
       Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "MAX_CONCURRENT_ROLLS", 1).intValue());
 
+  /**
+   * The number of threads used to read drf and krf files into memory ahead of the thread that
+   * recovers them. Their records are still decoded and applied by that thread, one oplog at a time,
+   * so the recovered entries are the same as with a serial recovery. Disabled if set to <= 0.
+   *
+   * @see OplogRecoveryPrefetcher
+   */
+  static final int RECOVERY_READ_THREADS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "disk.recoveryReadThreads", 0);
+
+  /**
+   * The maximum number of bytes of drf and krf files that the recovery read threads hold in memory
+   * at once. Files larger than this are read by the recovering thread itself.
+   */
+  static final long RECOVERY_READ_AHEAD_BYTES = Long.getLong(
+      DistributionConfig.GEMFIRE_PREFIX + "disk.recoveryReadAheadBytes", 256L * 1024 * 1024);
+
+  /**
+   * The number of oplogs of a disk store that a compaction works on at the same time. A compaction
+   * picks up to this many oplogs, even if MAX_OPLOGS_PER_COMPACTION is smaller.
+   */
+  static final int COMPACTION_THREADS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "disk.compactionThreads", 1);
+
+  /**
+   * The maximum number of megabytes per second that the compactions of a disk store copy forward.
+   * Unlimited if set to <= 0.
+   */
+  static final int COMPACTION_MAX_MB_PER_SECOND =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "disk.compactionMaxMBPerSecond", 0);
+
   /**
    * This system property indicates that maximum number of delayed write tasks that can be pending
    * before submitting the tasks start blocking. These tasks are things like unpreblow oplogs,
@@ -357,6 +389,16 @@ public class DiskStoreImpl implements DiskStore {
 
   private final ExecutorService delayedWritePool;
 
+  /**
+   * Compacts oplogs in parallel for the compactor. Null unless COMPACTION_THREADS > 1.
+   */
+  private final ExecutorService compactionWorkerPool;
+
+  /**
+   * Shared by all compactions of this disk store. Null unless COMPACTION_MAX_MB_PER_SECOND > 0.
+   */
+  private final CompactionRateLimiter compactionRateLimiter;
+
   private volatile Future lastDelayedWrite;
 
   private static int calcCompactionThreshold(int ct) {
@@ -483,6 +525,18 @@ public class DiskStoreImpl implements DiskStore {
         MAX_CONCURRENT_COMPACTIONS, Integer.MAX_VALUE);
     this.delayedWritePool =
         LoggingExecutors.newFixedThreadPoolWithFeedSize("Oplog Delete Task", 1, MAX_PENDING_TASKS);
+    if (COMPACTION_THREADS > 1) {
+      this.compactionWorkerPool = LoggingExecutors.newFixedThreadPoolWithFeedSize(
+          "OplogCompactor Worker", COMPACTION_THREADS, Integer.MAX_VALUE);
+    } else {
+      this.compactionWorkerPool = null;
+    }
+    if (COMPACTION_MAX_MB_PER_SECOND > 0) {
+      this.compactionRateLimiter =
+          new CompactionRateLimiter(COMPACTION_MAX_MB_PER_SECOND * 1024L * 1024L);
+    } else {
+      this.compactionRateLimiter = null;
+    }
   }
 
   // //////////////////// Instance Methods //////////////////////
@@ -2712,7 +2766,7 @@ public class DiskStoreImpl implements DiskStore {
 
     int max = Integer.MAX_VALUE;
     if (!all && max > MAX_OPLOGS_PER_COMPACTION && MAX_OPLOGS_PER_COMPACTION > 0) {
-      max = MAX_OPLOGS_PER_COMPACTION;
+      max = Math.max(MAX_OPLOGS_PER_COMPACTION, COMPACTION_THREADS);
     }
     getPersistentOplogs().getCompactableOplogs(l, max);
 
@@ -2839,8 +2893,12 @@ public class DiskStoreImpl implements DiskStore {
       long compactionStart = getStats().startCompaction();
       long start = System.nanoTime();
       try {
-        for (int i = 0; i < oplogs.length && keepCompactorRunning(); i++) {
-          totalCount += oplogs[i].compact(this);
+        if (compactionWorkerPool != null && oplogs.length > 1) {
+          totalCount = compactInParallel(oplogs);
+        } else {
+          for (int i = 0; i < oplogs.length && keepCompactorRunning(); i++) {
+            totalCount += oplogs[i].compact(this);
+          }
         }
 
       } finally {
@@ -2852,6 +2910,68 @@ public class DiskStoreImpl implements DiskStore {
       return true;
     }
 
+    /**
+     * Compacts each oplog on a thread from the worker pool. Oplogs copy their live entries forward
+     * into the active oplog under its lock, so only the reading of the old oplogs overlaps. Waits
+     * for every oplog to finish before returning so that the next compaction is not scheduled
+     * while one of these is still running.
+     */
+    private int compactInParallel(CompactableOplog[] oplogs) {
+      List<Future<Integer>> results = new ArrayList<>(oplogs.length);
+      for (final CompactableOplog oplog : oplogs) {
+        results.add(compactionWorkerPool.submit(() -> {
+          markBackgroundTaskThread(); // for bug 42775
+          return keepCompactorRunning() ? oplog.compact(this) : 0;
+        }));
+      }
+      int totalCount = 0;
+      RuntimeException failure = null;
+      boolean interrupted = false;
+      for (Future<Integer> result : results) {
+        while (true) {
+          try {
+            totalCount += result.get();
+            break;
+          } catch (InterruptedException e) {
+            interrupted = true;
+          } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+              throw (Error) cause;
+            }
+            if (failure == null) {
+              failure = cause instanceof RuntimeException ? (RuntimeException) cause
+                  : new DiskAccessException("Failed compacting " + oplogs.length + " oplogs",
+                      cause, DiskStoreImpl.this);
+            }
+            break;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return totalCount;
+    }
+
+    /**
+     * Called by an oplog being compacted each time it has copied a value forward. Waits for as long
+     * as the compaction I/O budget of this disk store requires. Must not be called while holding
+     * the lock of an entry.
+     */
+    void compactedBytes(int bytes) {
+      getStats().incCompactedBytes(bytes);
+      if (compactionRateLimiter != null) {
+        long waitNanos = compactionRateLimiter.acquire(bytes);
+        if (waitNanos > 0) {
+          getStats().incCompactionThrottleTime(waitNanos);
+        }
+      }
+    }
+
     private boolean isClosing() {
       if (getCache().isClosed()) {
         return true;
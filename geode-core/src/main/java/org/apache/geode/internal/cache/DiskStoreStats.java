@@ -76,6 +76,11 @@ public class DiskStoreStats {
 
   private static final int oplogReadsId;
   private static final int oplogSeeksId;
+  private static final int mappedOplogReadsId;
+  private static final int mappedOplogBytesId;
+  private static final int groupCommitsId;
+  private static final int compactedBytesId;
+  private static final int compactionThrottleTimeId;
 
   private static final int uncreatedRecoveredRegionsId;
   private static final int backupsInProgress;
@@ -185,6 +190,19 @@ public class DiskStoreStats {
                 "oplogs"),
             f.createLongCounter("oplogReads", "Total number of oplog reads", "reads"),
             f.createLongCounter("oplogSeeks", "Total number of oplog seeks", "seeks"),
+            f.createLongCounter("mappedOplogReads",
+                "Total number of oplog reads that were copied from a memory mapped crf instead of read from its file",
+                "reads"),
+            f.createLongGauge("mappedOplogBytes",
+                "Current number of bytes of crf files that are memory mapped", "bytes"),
+            f.createLongCounter("compactedBytes",
+                "Total number of value bytes copied forward by oplog compactions", "bytes"),
+            f.createLongCounter("compactionThrottleTime",
+                "Total amount of time, in nanoseconds, compactions waited to stay within the compaction I/O budget",
+                "nanoseconds"),
+            f.createLongCounter("groupCommits",
+                "Total number of times the records of one or more synchronous writers were flushed and forced to disk together",
+                "commits"),
             f.createIntGauge("uncreatedRecoveredRegions",
                 "The current number of regions that have been recovered but have not yet been created.",
                 "regions"),
@@ -230,6 +248,11 @@ public class DiskStoreStats {
     compactUpdateTimeId = type.nameToId("compactUpdateTime");
     oplogReadsId = type.nameToId("oplogReads");
     oplogSeeksId = type.nameToId("oplogSeeks");
+    mappedOplogReadsId = type.nameToId("mappedOplogReads");
+    mappedOplogBytesId = type.nameToId("mappedOplogBytes");
+    groupCommitsId = type.nameToId("groupCommits");
+    compactedBytesId = type.nameToId("compactedBytes");
+    compactionThrottleTimeId = type.nameToId("compactionThrottleTime");
 
     openOplogsId = type.nameToId("openOplogs");
     inactiveOplogsId = type.nameToId("inactiveOplogs");
@@ -502,6 +525,34 @@ public class DiskStoreStats {
     this.stats.incLong(oplogSeeksId, 1);
   }
 
+  public void incMappedOplogReads() {
+    this.stats.incLong(mappedOplogReadsId, 1);
+  }
+
+  public long getMappedOplogReads() {
+    return this.stats.getLong(mappedOplogReadsId);
+  }
+
+  public void incMappedOplogBytes(long delta) {
+    this.stats.incLong(mappedOplogBytesId, delta);
+  }
+
+  public long getMappedOplogBytes() {
+    return this.stats.getLong(mappedOplogBytesId);
+  }
+
+  public void incGroupCommits() {
+    this.stats.incLong(groupCommitsId, 1);
+  }
+
+  public void incCompactedBytes(long bytes) {
+    this.stats.incLong(compactedBytesId, bytes);
+  }
+
+  public void incCompactionThrottleTime(long nanos) {
+    this.stats.incLong(compactionThrottleTimeId, nanos);
+  }
+
   public void incInactiveOplogs(int delta) {
     this.stats.incInt(inactiveOplogsId, delta);
   }
@@ -316,6 +316,22 @@ public class DummyCachePerfStats extends CachePerfStats {
   @Override
   public void endQueryExecution(long executionTime) {}
 
+  @Override
+  public void incQueryPlanCacheHits() {}
+
+  @Override
+  public long getQueryPlanCacheHits() {
+    return 0;
+  }
+
+  @Override
+  public void incQueryPlanCacheMisses() {}
+
+  @Override
+  public long getQueryPlanCacheMisses() {
+    return 0;
+  }
+
   @Override
   public int getTxCommits() {
     return 0;
@@ -43,6 +43,7 @@ import org.apache.geode.cache.Operation;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.SerializedCacheValue;
 import org.apache.geode.cache.query.internal.CqStateImpl;
+import org.apache.geode.cache.query.internal.cq.CqPredicateIndex;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.cache.query.internal.cq.CqServiceProvider;
 import org.apache.geode.cache.query.internal.cq.ServerCQ;
@@ -171,6 +172,9 @@ public class FilterProfile implements DataSerializableFixedID {
   /** CQs that are registered on the remote node **/
   private final CopyOnWriteHashMap<String, ServerCQ> cqs = new CopyOnWriteHashMap<>();
 
+  /** The index of the queries of the CQs in cqs */
+  private final transient CqPredicateIndex cqPredicateIndex = new CqPredicateIndex();
+
   /* the ID of the member that this profile describes */
   private DistributedMember memberID;
 
@@ -775,6 +779,28 @@ public class FilterProfile implements DataSerializableFixedID {
     return this.cqs;
   }
 
+  /**
+   * Returns the index of the queries of the CQs registered on this region.
+   */
+  public CqPredicateIndex getCqPredicateIndex() {
+    return this.cqPredicateIndex;
+  }
+
+  private void putCq(String serverCqName, ServerCQ cq) {
+    ServerCQ oldCq = this.cqs.put(serverCqName, cq);
+    if (oldCq != null) {
+      this.cqPredicateIndex.remove(oldCq.getQueryString());
+    }
+    this.cqPredicateIndex.add(cq.getQueryString());
+  }
+
+  private void removeCq(String serverCqName) {
+    ServerCQ oldCq = this.cqs.remove(serverCqName);
+    if (oldCq != null) {
+      this.cqPredicateIndex.remove(oldCq.getQueryString());
+    }
+  }
+
   /**
    * does this profile contain any continuous queries?
    */
@@ -791,7 +817,7 @@ public class FilterProfile implements DataSerializableFixedID {
     if (logger.isDebugEnabled()) {
       logger.debug("Adding CQ {} to this members FilterProfile.", cq.getServerCqName());
     }
-    this.cqs.put(cq.getServerCqName(), cq);
+    putCq(cq.getServerCqName(), cq);
     this.incCqCount();
 
     // cq.setFilterID(cqMap.getWireID(cq.getServerCqName()));
@@ -855,7 +881,7 @@ public class FilterProfile implements DataSerializableFixedID {
     // region is not set on the FilterProfile created for the peer nodes.
     if (cq.getCqBaseRegion() != null) {
       if (addToCqMap) {
-        this.cqs.put(serverCqName, cq);
+        putCq(serverCqName, cq);
       }
 
       FilterProfile pf = cq.getCqBaseRegion().getFilterProfile();
@@ -877,7 +903,7 @@ public class FilterProfile implements DataSerializableFixedID {
               this.region.getFullPath(), serverCqName, ex.getMessage(), ex);
         }
       }
-      this.cqs.remove(serverCqName);
+      removeCq(serverCqName);
       cq.getCqBaseRegion().getFilterProfile().decCqCount();
     }
   }
@@ -917,7 +943,7 @@ public class FilterProfile implements DataSerializableFixedID {
   public void closeCq(ServerCQ cq) {
     ensureCqID(cq);
     String serverCqName = cq.getServerCqName();
-    this.cqs.remove(serverCqName);
+    removeCq(serverCqName);
     if (this.cqMap != null) {
       this.cqMap.removeIDMapping(cq.getFilterID());
     }
@@ -1497,7 +1523,7 @@ public class FilterProfile implements DataSerializableFixedID {
           String serverCqName = DataSerializer.readString(in);
           ServerCQ cq = CqServiceProvider.readCq(in);
           processRegisterCq(serverCqName, cq, false);
-          this.cqs.put(serverCqName, cq);
+          putCq(serverCqName, cq);
         }
       } finally {
         LocalRegion.setThreadInitLevelRequirement(oldLevel);
@@ -136,6 +136,7 @@ import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.internal.DefaultQueryService;
 import org.apache.geode.cache.query.internal.InternalQueryService;
 import org.apache.geode.cache.query.internal.QueryMonitor;
+import org.apache.geode.cache.query.internal.QueryPlanCache;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.cache.query.internal.cq.CqServiceProvider;
 import org.apache.geode.cache.server.CacheServer;
@@ -376,6 +377,9 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
 
   private final CachePerfStats cachePerfStats;
 
+  /** The compiled forms of recently used query strings */
+  private final QueryPlanCache queryPlanCache;
+
   /** Date on which this instances was created */
   private final Date creationDate;
 
@@ -909,6 +913,7 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
       // Create the CacheStatistics
       this.cachePerfStats = new CachePerfStats(system);
       CachePerfStats.enableClockStats = this.system.getConfig().getEnableTimeStatistics();
+      this.queryPlanCache = new QueryPlanCache(this.cachePerfStats);
 
       this.transactionManager = new TXManagerImpl(this.cachePerfStats, this);
       this.dm.addMembershipListener(this.transactionManager);
@@ -4472,6 +4477,11 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
     return this.queryMonitorDisabledForLowMem;
   }
 
+  @Override
+  public QueryPlanCache getQueryPlanCache() {
+    return this.queryPlanCache;
+  }
+
   /**
    * Returns the QueryMonitor instance based on system property MAX_QUERY_EXECUTION_TIME.
    *
@@ -2457,7 +2457,8 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
             DefaultQueryService qs = (DefaultQueryService) getGemFireCache().getLocalQueryService();
             String fromClause =
                 icd.getIndexType() == IndexType.FUNCTIONAL || icd.getIndexType() == IndexType.HASH
-                    ? icd.getIndexFromClause() : this.getFullPath();
+                    || icd.getIndexType() == IndexType.BITMAP ? icd.getIndexFromClause()
+                        : this.getFullPath();
             // load entries during initialization only for non overflow regions
             indexes.add(
                 qs.createIndex(icd.getIndexName(), icd.getIndexType(), icd.getIndexExpression(),
@@ -26,9 +26,13 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -42,6 +46,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -101,6 +106,7 @@ import org.apache.geode.internal.cache.versions.VersionStamp;
 import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.logging.log4j.LogMarker;
+import org.apache.geode.internal.offheap.AddressableMemoryManager;
 import org.apache.geode.internal.offheap.OffHeapHelper;
 import org.apache.geode.internal.offheap.ReferenceCountHelper;
 import org.apache.geode.internal.offheap.StoredObject;
@@ -178,6 +184,33 @@ public class Oplog implements CompactableOplog, Flushable {
   private static final boolean SYNC_WRITES =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "syncWrites");
 
+  /**
+   * This system property turns on group commit for synchronous writes. Writers that arrive within
+   * this many microseconds of each other share a single flush and force of the oplog instead of
+   * each flushing their own record. Zero only groups writers that arrive while a commit is in
+   * progress. Disabled if negative.
+   */
+  static final long GROUP_COMMIT_WINDOW_MICROS =
+      Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "disk.groupCommitWindowMicros", -1L);
+
+  /**
+   * This system property instructs that values be read from memory mapped regions of a crf once
+   * the oplog is no longer being appended to, instead of seeking and reading its file. Not final so
+   * that tests can change it.
+   */
+  static boolean MMAP_READS =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "disk.mmapOplogReads");
+
+  /**
+   * Set by tests to make mapping a crf fail, so that its values are read from the file instead.
+   */
+  static boolean FAIL_CRF_MAPPING_FOR_TESTING_PURPOSES = false;
+
+  /**
+   * The largest region of a crf that is mapped by a single MappedByteBuffer.
+   */
+  static final int MAPPED_REGION_SIZE = 1024 * 1024 * 1024;
+
   /**
    * The HighWaterMark of recentValues.
    */
@@ -526,6 +559,36 @@ public class Oplog implements CompactableOplog, Flushable {
    */
   private boolean doneAppending = false;
 
+  /**
+   * Coalesces the flushes of synchronous writers. Null unless {@link #GROUP_COMMIT_WINDOW_MICROS}
+   * is set.
+   */
+  private final OplogGroupCommitter groupCommitter = GROUP_COMMIT_WINDOW_MICROS < 0 ? null
+      : new OplogGroupCommitter(this::groupCommit,
+          TimeUnit.MICROSECONDS.toNanos(GROUP_COMMIT_WINDOW_MICROS));
+
+  /**
+   * The read only mappings of the crf, in file order, once they have been created by
+   * {@link #getCrfMappedRegions()}. Only used when {@link #MMAP_READS} is true.
+   *
+   * guarded.By {@link #lock}
+   */
+  private MappedByteBuffer[] crfMappedRegions;
+
+  /**
+   * The number of bytes of the crf covered by {@link #crfMappedRegions}.
+   *
+   * guarded.By {@link #lock}
+   */
+  private long crfMappedBytes;
+
+  /**
+   * Set to true if mapping the crf failed so that we stop trying and read from the file instead.
+   *
+   * guarded.By {@link #lock}
+   */
+  private boolean crfMappingFailed;
+
   /**
    * Creates new {@code Oplog} for the given region.
    *
@@ -1156,6 +1219,19 @@ public class Oplog implements CompactableOplog, Flushable {
     return this.drf.f;
   }
 
+  /**
+   * Returns the krf that {@link #recoverCrf} will read, or null if this oplog does not have a
+   * complete one.
+   */
+  File getRecoveryKrfFile() {
+    if (this.crf.f == null || this.drf.f == null
+        || !getParent().getDiskInitFile().hasKrf(this.oplogId)) {
+      return null;
+    }
+    return new File(this.drf.f.getParentFile(),
+        oplogSet.getPrefix() + getParent().getName() + "_" + this.oplogId + KRF_FILE_EXT);
+  }
+
   /**
    * Given a set of Oplog file names return a Set of the oplog files that match those names that are
    * managed by this Oplog.
@@ -1465,9 +1541,9 @@ public class Oplog implements CompactableOplog, Flushable {
       try {
         int recordCount = 0;
         boolean foundDiskStoreRecord = false;
-        FileInputStream fis = null;
+        InputStream fis = null;
         try {
-          fis = new FileInputStream(drfFile);
+          fis = getOplogSet().openForRecovery(drfFile);
           dis = new CountingDataInputStream(new BufferedInputStream(fis, 32 * 1024),
               drfFile.length());
           boolean endOfLog = false;
@@ -1630,9 +1706,9 @@ public class Oplog implements CompactableOplog, Flushable {
       return false;
     }
 
-    FileInputStream fis;
+    InputStream fis;
     try {
-      fis = new FileInputStream(f);
+      fis = getOplogSet().openForRecovery(f);
     } catch (FileNotFoundException ignore) {
       return false;
     }
@@ -3222,6 +3298,7 @@ public class Oplog implements CompactableOplog, Flushable {
     // No need to get the backup lock prior to synchronizing (correct lock order) since the
     // synchronized block does not attempt to get the backup lock (incorrect lock order)
     synchronized (this.lock/* crf */) {
+      releaseCrfMappedRegions();
       unpreblow(this.crf, getMaxCrfSize());
       if (!this.crf.RAFClosed) {
         try {
@@ -3483,6 +3560,7 @@ public class Oplog implements CompactableOplog, Flushable {
     DiskId id = entry.getDiskId();
     boolean useNextOplog = false;
     long startPosForSynchOp = -1;
+    long commitTicket = 0;
     if (DiskStoreImpl.KRF_DEBUG) {
       // wait for cache close to create krf
       System.out.println("basicCreate KRF_DEBUG");
@@ -3551,7 +3629,8 @@ public class Oplog implements CompactableOplog, Flushable {
           id.setOplogId(getOplogId());
           // do the io while holding lock so that switch can set doneAppending
           // Write the data to the opLog for the synch mode
-          startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+          startPosForSynchOp = writeOpLogBytes(this.crf, async, this.groupCommitter == null);
+          commitTicket = registerGroupCommit(async);
           // if (this.crf.currSize != startPosForSynchOp) {
           // assert false;
           // }
@@ -3607,6 +3686,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitTicket);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -4486,6 +4566,7 @@ public class Oplog implements CompactableOplog, Flushable {
     DiskId id = entry.getDiskId();
     boolean useNextOplog = false;
     long startPosForSynchOp = -1L;
+    long commitTicket = 0;
     int adjustment = 0;
     Oplog emptyOplog = null;
     if (DiskStoreImpl.KRF_DEBUG) {
@@ -4519,7 +4600,8 @@ public class Oplog implements CompactableOplog, Flushable {
             long oldOplogId;
             // do the io while holding lock so that switch can set doneAppending
             // Write the data to the opLog for the synch mode
-            startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+            startPosForSynchOp = writeOpLogBytes(this.crf, async, this.groupCommitter == null);
+            commitTicket = registerGroupCommit(async);
             this.crf.currSize = temp;
             startPosForSynchOp += getOpStateValueOffset();
             if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
@@ -4590,6 +4672,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitTicket);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -4621,6 +4704,7 @@ public class Oplog implements CompactableOplog, Flushable {
   private void basicSaveConflictVersionTag(DiskRegionView dr, VersionTag tag, boolean async)
       throws IOException, InterruptedException {
     boolean useNextOplog = false;
+    long commitTicket = 0;
     int adjustment = 0;
     getParent().getBackupLock().lock();
     try {
@@ -4644,7 +4728,8 @@ public class Oplog implements CompactableOplog, Flushable {
               throw cce;
             }
             this.firstRecord = false;
-            writeOpLogBytes(this.crf, async, true);
+            writeOpLogBytes(this.crf, async, this.groupCommitter == null);
+            commitTicket = registerGroupCommit(async);
             this.crf.currSize = temp;
             if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
               logger.trace(LogMarker.PERSIST_WRITES_VERBOSE,
@@ -4666,6 +4751,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitTicket);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -4943,6 +5029,7 @@ public class Oplog implements CompactableOplog, Flushable {
 
     boolean useNextOplog = false;
     long startPosForSynchOp = -1;
+    long commitTicket = 0;
     Oplog emptyOplog = null;
     if (DiskStoreImpl.KRF_DEBUG) {
       // wait for cache close to create krf
@@ -4992,7 +5079,8 @@ public class Oplog implements CompactableOplog, Flushable {
             // before we flush the crf.
             // However we can't have removes by async if we are doing a sync write
             // because we might be killed right after we do this write.
-            startPosForSynchOp = writeOpLogBytes(this.drf, async, true);
+            startPosForSynchOp = writeOpLogBytes(this.drf, async, this.groupCommitter == null);
+            commitTicket = registerGroupCommit(async);
             setHasDeletes(true);
             if (logger.isDebugEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
               logger.debug("basicRemove: id=<{}> key=<{}> drId={} oplog#{}", abs(id.getKeyId()),
@@ -5024,6 +5112,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitTicket);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -5243,6 +5332,59 @@ public class Oplog implements CompactableOplog, Flushable {
     return startPos;
   }
 
+  /**
+   * Registers a record just written by a synchronous writer with the group committer. Caller must
+   * hold {@link #lock}.
+   *
+   * @return the ticket to pass to {@link #awaitGroupCommit(long)}, or 0 if the record does not need
+   *         to wait for a group commit
+   */
+  private long registerGroupCommit(boolean async) {
+    if (async || this.groupCommitter == null) {
+      return 0;
+    }
+    return this.groupCommitter.register();
+  }
+
+  /**
+   * Waits for the record with the given ticket to be durable. Must not be called while holding
+   * {@link #lock} so that other writers can add their records to the same commit.
+   */
+  private void awaitGroupCommit(long ticket) {
+    if (ticket == 0) {
+      return;
+    }
+    try {
+      this.groupCommitter.awaitCommitted(ticket);
+    } catch (IOException ex) {
+      getParent().getCancelCriterion().checkCancelInProgress(ex);
+      throw new DiskAccessException(
+          String.format("Failed writing key to %s", this.diskFile.getPath()),
+          ex, getParent());
+    }
+  }
+
+  /**
+   * Writes the buffered drf and crf records and forces them to disk. The force is done without
+   * holding {@link #lock} so that writers can buffer the records for the next commit meanwhile.
+   */
+  private void groupCommit() throws IOException {
+    // drf before crf, as in flushAll
+    flush(this.drf, false);
+    flush(this.crf, false);
+    try {
+      if (!this.drf.RAFClosed) {
+        this.drf.channel.force(false);
+      }
+      if (!this.crf.RAFClosed) {
+        this.crf.channel.force(false);
+      }
+    } catch (ClosedChannelException ignore) {
+      // the oplog was closed after flushing its buffers
+    }
+    this.stats.incGroupCommits();
+  }
+
   boolean isRAFOpen() {
     return !this.crf.RAFClosed; // volatile read
   }
@@ -5311,6 +5453,12 @@ public class Oplog implements CompactableOplog, Flushable {
           flushAllNoSync(true); // fix for bug 41205
         }
         try {
+          if (MMAP_READS && this.doneAppending) {
+            BytesAndBits bb = readMapped(offsetInOplog, valueLength, userBits);
+            if (bb != null) {
+              return bb;
+            }
+          }
           UninterruptibleRandomAccessFile myRAF = null;
           if (this.crf.RAFClosed) {
             myRAF = new UninterruptibleRandomAccessFile(this.crf.f, "r");
@@ -5384,6 +5532,109 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Copies a value out of the mapped regions of the crf. Caller must hold {@link #lock}.
+   *
+   * @return the value, or null if it can not be read from a mapping and should be read from the
+   *         file instead
+   */
+  private BytesAndBits readMapped(long offsetInOplog, int valueLength, byte userBits) {
+    MappedByteBuffer[] regions = getCrfMappedRegions();
+    if (regions == null || offsetInOplog < 0
+        || (offsetInOplog + valueLength) > this.crfMappedBytes) {
+      return null;
+    }
+    byte[] valueBytes = new byte[valueLength];
+    long position = offsetInOplog;
+    int copied = 0;
+    while (copied < valueLength) {
+      // a value may span the boundary between two regions
+      ByteBuffer region = regions[(int) (position / MAPPED_REGION_SIZE)].duplicate();
+      region.position((int) (position % MAPPED_REGION_SIZE));
+      int count = Math.min(region.remaining(), valueLength - copied);
+      region.get(valueBytes, copied, count);
+      copied += count;
+      position += count;
+    }
+    this.stats.incOplogReads();
+    this.stats.incMappedOplogReads();
+    BytesAndBits bb = new BytesAndBits(valueBytes, userBits);
+    // also set the product version for an older product
+    final Version version = getProductVersionIfOld();
+    if (version != null) {
+      bb.setVersion(version);
+    }
+    return bb;
+  }
+
+  /**
+   * Maps the flushed bytes of the crf the first time it is read after appending is done. The
+   * mappings do not hold a file descriptor open so they are not counted as an open oplog. Caller
+   * must hold {@link #lock}.
+   *
+   * @return the mapped regions, or null if the crf could not be mapped
+   */
+  private MappedByteBuffer[] getCrfMappedRegions() {
+    if (this.crfMappedRegions != null || this.crfMappingFailed) {
+      return this.crfMappedRegions;
+    }
+    if (this.closed || this.crf.f == null) {
+      return null;
+    }
+    final long size = this.crf.bytesFlushed;
+    MappedByteBuffer[] regions =
+        new MappedByteBuffer[(int) ((size + MAPPED_REGION_SIZE - 1) / MAPPED_REGION_SIZE)];
+    try (RandomAccessFile raf = new RandomAccessFile(this.crf.f, "r")) {
+      if (FAIL_CRF_MAPPING_FOR_TESTING_PURPOSES) {
+        throw new IOException("mapping failed for testing");
+      }
+      FileChannel channel = raf.getChannel();
+      for (int i = 0; i < regions.length; i++) {
+        long start = (long) i * MAPPED_REGION_SIZE;
+        regions[i] =
+            channel.map(FileChannel.MapMode.READ_ONLY, start,
+                Math.min(MAPPED_REGION_SIZE, size - start));
+      }
+    } catch (IOException ex) {
+      unmap(regions);
+      this.crfMappingFailed = true;
+      logger.warn("Could not memory map {} for disk store {}; reading it from the file instead.",
+          this.crf.f.getAbsolutePath(), getParent().getName(), ex);
+      return null;
+    }
+    this.crfMappedRegions = regions;
+    this.crfMappedBytes = size;
+    this.stats.incMappedOplogBytes(size);
+    return regions;
+  }
+
+  /**
+   * Unmaps the crf so that its memory and address space are released before the crf is closed or
+   * deleted, instead of once the buffers are garbage collected. This is safe because the buffers,
+   * and the duplicates {@link #readMapped} makes of them, are only used while holding
+   * {@link #lock}. Caller must hold {@link #lock}.
+   */
+  private void releaseCrfMappedRegions() {
+    if (this.crfMappedRegions != null) {
+      unmap(this.crfMappedRegions);
+      this.crfMappedRegions = null;
+      this.stats.incMappedOplogBytes(-this.crfMappedBytes);
+      this.crfMappedBytes = 0;
+    }
+  }
+
+  /**
+   * Unmaps the given regions. If this JVM does not allow it the regions are unmapped once they are
+   * garbage collected.
+   */
+  private static void unmap(MappedByteBuffer[] regions) {
+    for (MappedByteBuffer region : regions) {
+      if (region != null) {
+        AddressableMemoryManager.cleanDirectByteBuffer(region);
+      }
+    }
+  }
+
   /**
    * Extracts the Value byte array & UserBit from the OpLog
    *
@@ -5640,6 +5891,9 @@ public class Oplog implements CompactableOplog, Flushable {
     // No need to get the backup lock prior to synchronizing (correct lock order) since the
     // synchronized block does not attempt to get the backup lock (incorrect lock order)
     synchronized (this.lock) {
+      if (olf == this.crf) {
+        releaseCrfMappedRegions();
+      }
       if (olf.currSize != 0) {
         this.dirHolder.decrementTotalOplogSize(olf.currSize);
         olf.currSize = 0;
@@ -6012,6 +6266,7 @@ public class Oplog implements CompactableOplog, Flushable {
             if (didCompact) {
               totalCount++;
               getStats().endCompactionUpdate(opStart);
+              compactor.compactedBytes(wrapper.getValidLength());
               opStart = getStats().getStatTime();
               // Check if the value byte array happens to be any of the
               // constant
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coalesces the flushes of concurrent synchronous writers to an oplog. Each writer buffers its
+ * record and calls {@link #register()} while holding the oplog lock, then releases the lock and
+ * calls {@link #awaitCommitted(long)}. The first writer to arrive becomes the leader. It waits up
+ * to the configured window for others to join, then does a single write and force for every
+ * record registered so far. The writers that joined are released together when that completes.
+ */
+class OplogGroupCommitter {
+
+  /**
+   * Writes out and forces everything that has been buffered.
+   */
+  interface Committer {
+    void commit() throws IOException;
+  }
+
+  private final Committer committer;
+
+  private final long windowNanos;
+
+  private final AtomicLong registered = new AtomicLong();
+
+  private final Object commitLock = new Object();
+
+  /**
+   * The highest ticket known to be durable.
+   *
+   * guarded.By {@link #commitLock}
+   */
+  private long committed;
+
+  /**
+   * True while a leader is committing.
+   *
+   * guarded.By {@link #commitLock}
+   */
+  private boolean committing;
+
+  OplogGroupCommitter(Committer committer, long windowNanos) {
+    this.committer = committer;
+    this.windowNanos = windowNanos;
+  }
+
+  /**
+   * Called by a writer after buffering its record, while holding the lock that orders records.
+   *
+   * @return the ticket to pass to {@link #awaitCommitted(long)}
+   */
+  long register() {
+    return this.registered.incrementAndGet();
+  }
+
+  /**
+   * Blocks until the record with the given ticket, and every record registered before it, is
+   * durable. Must not be called while holding the oplog lock.
+   *
+   * @throws IOException if the commit done by this thread failed
+   */
+  void awaitCommitted(long ticket) throws IOException {
+    boolean interrupted = false;
+    try {
+      synchronized (this.commitLock) {
+        while (this.committing) {
+          if (this.committed >= ticket) {
+            return;
+          }
+          try {
+            this.commitLock.wait();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+        if (this.committed >= ticket) {
+          return;
+        }
+        this.committing = true;
+      }
+      long target = ticket;
+      try {
+        if (this.windowNanos > 0) {
+          // give other writers a chance to join this commit
+          LockSupport.parkNanos(this.windowNanos);
+        }
+        // everything registered by now has been buffered so this commit will include it
+        target = this.registered.get();
+        this.committer.commit();
+      } catch (IOException | RuntimeException | Error e) {
+        target = 0;
+        throw e;
+      } finally {
+        synchronized (this.commitLock) {
+          if (target > this.committed) {
+            this.committed = target;
+          }
+          this.committing = false;
+          this.commitLock.notifyAll();
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
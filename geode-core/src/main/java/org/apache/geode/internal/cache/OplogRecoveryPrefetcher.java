@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads the raw bytes of the drf and krf files of the oplogs being recovered on a pool of threads,
+ * ahead of the thread that recovers them. This is read-ahead only: the records are still decoded,
+ * and their keys deserialized, by the recovery thread, one oplog at a time, newest first. Decoding
+ * a krf depends on the ids deleted by the drfs, on the regions currently being recovered and on the
+ * entries recovered from newer oplogs, so it is not done in parallel. Recovery therefore only gains
+ * when it waits on the disk, and its result is identical to a serial recovery.
+ *
+ * <p>
+ * Files are expected to be opened in the order they were scheduled. At most {@code window} files,
+ * and at most {@code maxBytes} bytes, are read ahead at once. A file larger than {@code maxBytes}
+ * is never prefetched. A file that was not prefetched is simply read from disk.
+ */
+class OplogRecoveryPrefetcher implements AutoCloseable {
+
+  private final ExecutorService executor;
+
+  private final int window;
+
+  private final long maxBytes;
+
+  /**
+   * guarded.By this
+   */
+  private final Deque<File> pending = new ArrayDeque<>();
+
+  /**
+   * The files being read, or already read, in the order they were scheduled.
+   *
+   * guarded.By this
+   */
+  private final Map<File, Future<byte[]>> inFlight = new LinkedHashMap<>();
+
+  /**
+   * The length of each pending or in flight file, as it was when the file was scheduled.
+   *
+   * guarded.By this
+   */
+  private final Map<File, Long> lengths = new HashMap<>();
+
+  /**
+   * The total length of the files in flight.
+   *
+   * guarded.By this
+   */
+  private long bytesInFlight;
+
+  OplogRecoveryPrefetcher(ExecutorService executor, int window, long maxBytes) {
+    this.executor = executor;
+    this.window = window;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Schedules a file to be read ahead of its call to {@link #open(File)}.
+   */
+  synchronized void schedule(File file) {
+    if (file == null || !file.isFile()) {
+      return;
+    }
+    long length = file.length();
+    if (length > this.maxBytes) {
+      return;
+    }
+    this.lengths.put(file, length);
+    this.pending.add(file);
+    fill();
+  }
+
+  /**
+   * Opens the given file for reading. Any files scheduled before it that have not been opened are
+   * assumed to have been skipped by recovery and are discarded.
+   */
+  InputStream open(File file) throws FileNotFoundException {
+    Future<byte[]> future = takeFuture(file);
+    if (future != null) {
+      try {
+        return new ByteArrayInputStream(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException ignore) {
+        // read the file again so that the caller sees the failure
+      }
+    }
+    return new FileInputStream(file);
+  }
+
+  private synchronized Future<byte[]> takeFuture(File file) {
+    Future<byte[]> result = null;
+    if (this.inFlight.containsKey(file)) {
+      for (Iterator<Map.Entry<File, Future<byte[]>>> it = this.inFlight.entrySet().iterator(); it
+          .hasNext();) {
+        Map.Entry<File, Future<byte[]>> entry = it.next();
+        it.remove();
+        this.bytesInFlight -= this.lengths.remove(entry.getKey());
+        if (entry.getKey().equals(file)) {
+          result = entry.getValue();
+          break;
+        }
+        entry.getValue().cancel(true);
+      }
+    } else if (this.pending.contains(file)) {
+      cancelInFlight();
+      File skipped;
+      do {
+        skipped = this.pending.poll();
+        this.lengths.remove(skipped);
+      } while (!skipped.equals(file));
+    }
+    fill();
+    return result;
+  }
+
+  private void fill() {
+    while (this.inFlight.size() < this.window && !this.pending.isEmpty()) {
+      final File file = this.pending.peek();
+      long length = this.lengths.get(file);
+      if (this.bytesInFlight + length > this.maxBytes) {
+        // wait for the files in flight to be opened
+        return;
+      }
+      this.pending.poll();
+      this.bytesInFlight += length;
+      this.inFlight.put(file, this.executor.submit(() -> Files.readAllBytes(file.toPath())));
+    }
+  }
+
+  private void cancelInFlight() {
+    for (Map.Entry<File, Future<byte[]>> entry : this.inFlight.entrySet()) {
+      entry.getValue().cancel(true);
+      this.lengths.remove(entry.getKey());
+    }
+    this.inFlight.clear();
+    this.bytesInFlight = 0;
+  }
+
+  @Override
+  public synchronized void close() {
+    this.pending.clear();
+    this.lengths.clear();
+    cancelInFlight();
+    this.executor.shutdownNow();
+  }
+}
@@ -1312,6 +1312,7 @@ class OverflowOplog implements CompactableOplog, Flushable {
           if (didCompact) {
             totalCount++;
             getStats().endCompactionUpdate(opStart);
+            compactor.compactedBytes(wrapper.getValidLength());
             opStart = getStats().getStatTime();
             // Check if the value byte array happens to be any of the constant
             // static byte arrays or references the value byte array of underlying RegionEntry.
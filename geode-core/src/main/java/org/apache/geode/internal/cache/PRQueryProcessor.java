@@ -23,14 +23,18 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.logging.log4j.Logger;
 
@@ -40,7 +44,9 @@ import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.query.QueryException;
 import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.CompiledGroupBySelect;
 import org.apache.geode.cache.query.internal.CompiledSelect;
+import org.apache.geode.cache.query.internal.CompiledValue;
 import org.apache.geode.cache.query.internal.DefaultQuery;
 import org.apache.geode.cache.query.internal.ExecutionContext;
 import org.apache.geode.cache.query.internal.NWayMergeResults;
@@ -74,6 +80,31 @@ public class PRQueryProcessor {
   /* For Test purpose */
   public static int TEST_NUM_THREADS = 0;
 
+  /* For Test purpose: queries buckets in parallel as if PARALLEL_BUCKET_QUERY were set */
+  public static boolean TEST_PARALLEL_BUCKET_QUERY = false;
+
+  /**
+   * If true, and numThreads is not set, the buckets of a query are spread over a work stealing pool
+   * with one thread per processor, see {@link ParallelBucketQuery}.
+   */
+  public static final boolean PARALLEL_BUCKET_QUERY =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "PRQueryProcessor.parallel");
+
+  /**
+   * The largest number of threads that query the buckets of a single query at the same time when
+   * {@link #PARALLEL_BUCKET_QUERY} is set.
+   */
+  public static final int MAX_QUERY_PARALLELISM =
+      getInteger(DistributionConfig.GEMFIRE_PREFIX + "PRQueryProcessor.maxQueryParallelism",
+          Runtime.getRuntime().availableProcessors());
+
+  /**
+   * The largest number of queries whose results are streamed at the same time, see
+   * {@link PartitionedRegion#executeQueryStreaming}. The results of further queries are gathered.
+   */
+  public static final int MAX_STREAMING_QUERIES =
+      getInteger(DistributionConfig.GEMFIRE_PREFIX + "PRQueryProcessor.maxStreamingQueries", 16);
+
   private PartitionedRegionDataStore _prds;
   private PartitionedRegion pr;
   private final DefaultQuery query;
@@ -115,6 +146,9 @@ public class PRQueryProcessor {
       throws QueryException, InterruptedException, ForceReattemptException {
     if (NUM_THREADS > 1 || TEST_NUM_THREADS > 1) {
       executeWithThreadPool(resultCollector);
+    } else if ((PARALLEL_BUCKET_QUERY && MAX_QUERY_PARALLELISM > 1 || TEST_PARALLEL_BUCKET_QUERY)
+        && this._bucketsToQuery.size() > 1) {
+      executeInParallel(resultCollector);
     } else {
       executeSequentially(resultCollector, this._bucketsToQuery);
     }
@@ -187,6 +221,66 @@ public class PRQueryProcessor {
     }
   }
 
+  private void executeInParallel(Collection<Collection> resultCollector)
+      throws QueryException, InterruptedException, ForceReattemptException {
+    if (Thread.interrupted())
+      throw new InterruptedException();
+
+    ParallelBucketQuery bucketQuery =
+        new ParallelBucketQuery(largestBucketsFirst(this._bucketsToQuery), resultCollector);
+    int parallelism =
+        TEST_PARALLEL_BUCKET_QUERY ? Math.max(MAX_QUERY_PARALLELISM, 2) : MAX_QUERY_PARALLELISM;
+    int threads = Math.min(parallelism, this._bucketsToQuery.size());
+    ExecutorService execService = PRQueryExecutor.getWorkStealingPool();
+    List<Future<?>> futures = new ArrayList<>(threads - 1);
+    try {
+      for (int i = 1; i < threads; i++) {
+        futures.add(execService.submit(bucketQuery));
+      }
+      // the calling thread takes its share of the buckets rather than just waiting
+      bucketQuery.run();
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          bucketQuery.fail(e.getCause());
+        }
+      }
+    } catch (InterruptedException | RuntimeException e) {
+      bucketQuery.fail(e);
+      throw e;
+    }
+    bucketQuery.throwFailure();
+
+    CompiledSelect cs = this.query.getSimpleSelect();
+    if (cs != null && (cs.isOrderBy() || cs.isGroupBy())) {
+      ExecutionContext context = new QueryExecutionContext(this.parameters, pr.getCache());
+      int limit = this.query.getLimit(parameters);
+      Collection mergedResults = coalesceOrderedResults(resultCollector, context, cs, limit);
+      resultCollector.clear();
+      resultCollector.add(mergedResults);
+    }
+  }
+
+  /**
+   * Orders the buckets by their number of entries, largest first, so that no thread is left with a
+   * large bucket to query after the others have finished.
+   */
+  private List<Integer> largestBucketsFirst(List<Integer> buckets) {
+    PartitionedRegionDataStore dataStore = this.pr.getDataStore();
+    if (dataStore == null) {
+      return buckets;
+    }
+    List<Integer> result = new ArrayList<>(buckets);
+    Map<Integer, Integer> sizes = new HashMap<>();
+    for (Integer bucketId : buckets) {
+      BucketRegion bucket = dataStore.getLocalBucketById(bucketId);
+      sizes.put(bucketId, bucket == null ? 0 : bucket.entryCount());
+    }
+    result.sort((a, b) -> Integer.compare(sizes.get(b), sizes.get(a)));
+    return result;
+  }
+
   private void executeSequentially(Collection<Collection> resultCollector, List buckets)
       throws QueryException, InterruptedException, ForceReattemptException {
     ExecutionContext context =
@@ -211,7 +305,7 @@ public class PRQueryProcessor {
   }
 
   private Collection coalesceOrderedResults(Collection<Collection> results,
-      ExecutionContext context, CompiledSelect cs, int limit) {
+      ExecutionContext context, CompiledSelect cs, int limit) throws QueryException {
     List<Collection> sortedResults = new ArrayList<Collection>(results.size());
     // TODO :Asif : Deal with UNDEFINED
     for (Object o : results) {
@@ -220,9 +314,27 @@ public class PRQueryProcessor {
       }
     }
 
-    return new NWayMergeResults(sortedResults, cs.isDistinct(), limit, cs.getOrderByAttrs(),
-        context, cs.getElementTypeForOrderByQueries());
+    NWayMergeResults mergedResults = new NWayMergeResults(sortedResults, cs.isDistinct(), limit,
+        cs.getOrderByAttrs(), context, cs.getElementTypeForOrderByQueries());
+    if (cs.getType() == CompiledValue.GROUP_BY_SELECT && cs.isGroupBy()) {
+      return combineGroupedResults((CompiledGroupBySelect) cs, mergedResults);
+    }
+    return mergedResults;
+  }
 
+  /**
+   * Each bucket produces one row per group with partial aggregates. Combines the rows of the same
+   * group from the different buckets, which arrive next to each other as they are sorted by the
+   * group by columns, so that each group is sent to the query node once rather than once per
+   * bucket.
+   */
+  private SelectResults combineGroupedResults(CompiledGroupBySelect cgs,
+      SelectResults bucketResults) throws QueryException {
+    ExecutionContext context =
+        new QueryExecutionContext(this.parameters, this.pr.getCache(), this.query);
+    context.setBucketList(this._bucketsToQuery);
+    context.setIsCombiningBucketResults(true);
+    return cgs.applyAggregateAndGroupBy(bucketResults, context);
   }
 
   private void executeQueryOnBuckets(Collection<Collection> resultCollector,
@@ -288,6 +400,14 @@ public class PRQueryProcessor {
     PRQueryExecutor.shutdown();
   }
 
+  /**
+   * Returns the pool that runs the queries whose results are streamed, which rejects a query once
+   * {@link #MAX_STREAMING_QUERIES} are running.
+   */
+  static ExecutorService getStreamingQueryExecutor() {
+    return PRQueryExecutor.getStreamingPool();
+  }
+
   public static void shutdownNow() {
     PRQueryExecutor.shutdownNow();
   }
@@ -300,6 +420,10 @@ public class PRQueryProcessor {
 
     private static ExecutorService execService = null;
 
+    private static ExecutorService workStealingPool = null;
+
+    private static ExecutorService streamingPool = null;
+
     /**
      * Closes the executor service. This is called from
      * {@link PartitionedRegion#afterRegionsClosedByCacheClose(InternalCache)}
@@ -308,11 +432,41 @@ public class PRQueryProcessor {
       if (execService != null) {
         execService.shutdown();
       }
+      if (workStealingPool != null) {
+        workStealingPool.shutdown();
+      }
+      if (streamingPool != null) {
+        streamingPool.shutdown();
+      }
     }
 
     static synchronized void shutdownNow() {
       if (execService != null)
         execService.shutdownNow();
+      if (workStealingPool != null)
+        workStealingPool.shutdownNow();
+      if (streamingPool != null)
+        streamingPool.shutdownNow();
+    }
+
+    /**
+     * Returns the pool used by {@link #PARALLEL_BUCKET_QUERY}, creating it if needed. It is shared
+     * by all queries and has one thread per processor.
+     */
+    static synchronized ExecutorService getWorkStealingPool() {
+      if (workStealingPool == null || workStealingPool.isShutdown()) {
+        workStealingPool = LoggingExecutors.newWorkStealingPool("PRQueryProcessor-",
+            Runtime.getRuntime().availableProcessors());
+      }
+      return workStealingPool;
+    }
+
+    static synchronized ExecutorService getStreamingPool() {
+      if (streamingPool == null || streamingPool.isShutdown()) {
+        streamingPool = LoggingExecutors.newThreadPoolWithSynchronousFeed("PRStreamingQuery", 0,
+            MAX_STREAMING_QUERIES, 60);
+      }
+      return streamingPool;
     }
 
     static synchronized ExecutorService getExecutorService() {
@@ -378,6 +532,66 @@ public class PRQueryProcessor {
     }
   }
 
+  /**
+   * Queries a list of buckets from several threads at once, one bucket at a time. Each thread takes
+   * the next bucket that no thread has started, so a thread that finishes a small bucket moves on
+   * to the next one while the others are still busy. Threads stop taking buckets once the query
+   * has failed or been canceled by the {@link QueryMonitor}.
+   */
+  private class ParallelBucketQuery implements Runnable {
+    private final List<Integer> buckets;
+    private final Collection<Collection> resultCollector;
+    private final AtomicInteger nextBucket = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    ParallelBucketQuery(List<Integer> buckets, Collection<Collection> resultCollector) {
+      this.buckets = buckets;
+      this.resultCollector = resultCollector;
+    }
+
+    @Override
+    public void run() {
+      while (this.failure.get() == null && !query.isCanceled()) {
+        int index = this.nextBucket.getAndIncrement();
+        if (index >= this.buckets.size()) {
+          return;
+        }
+        ExecutionContext context = new QueryExecutionContext(parameters, pr.getCache(), query);
+        context.setBucketList(Collections.singletonList(this.buckets.get(index)));
+        try {
+          executeQueryOnBuckets(this.resultCollector, context);
+        } catch (Exception e) {
+          fail(e);
+        }
+      }
+    }
+
+    void fail(Throwable t) {
+      this.failure.compareAndSet(null, t);
+    }
+
+    void throwFailure() throws QueryException, ForceReattemptException {
+      Throwable t = this.failure.get();
+      if (t == null) {
+        if (query.isCanceled()) {
+          throw query.getQueryCanceledException();
+        }
+        return;
+      }
+      if (t instanceof ForceReattemptException) {
+        throw (ForceReattemptException) t;
+      } else if (t instanceof QueryException) {
+        throw (QueryException) t;
+      } else if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      } else if (t instanceof Error) {
+        throw (Error) t;
+      }
+      throw new InternalGemFireException(
+          "Got unexpected exception while executing query on partitioned region bucket", t);
+    }
+  }
+
   /**
    * Implementation of call-able task to execute query on a bucket region. This task will be
    * generated by the PRQueryProcessor.
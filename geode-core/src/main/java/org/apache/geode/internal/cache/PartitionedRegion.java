@@ -41,6 +41,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -122,6 +123,7 @@ import org.apache.geode.cache.query.internal.QueryExecutor;
 import org.apache.geode.cache.query.internal.ResultsBag;
 import org.apache.geode.cache.query.internal.ResultsCollectionWrapper;
 import org.apache.geode.cache.query.internal.ResultsSet;
+import org.apache.geode.cache.query.internal.StreamingQueryResults;
 import org.apache.geode.cache.query.internal.index.AbstractIndex;
 import org.apache.geode.cache.query.internal.index.IndexCreationData;
 import org.apache.geode.cache.query.internal.index.IndexManager;
@@ -1883,17 +1885,83 @@ public class PartitionedRegion extends LocalRegion
   }
 
   /**
-   * If ForceReattemptException is thrown then the caller must loop and call us again.
+   * Starts executing a query on this PartitionedRegion whose results are handed to the caller as
+   * they arrive from the data stores instead of being gathered first. The query is run by a thread
+   * of the streaming query pool of {@link PRQueryProcessor} that is done once the returned results
+   * have been consumed or closed.
    *
-   * @throws ForceReattemptException if one of the buckets moved out from under us
+   * @return null if the results of the query have to be gathered before they can be returned, or
+   *         if the streaming query pool is busy
+   * @see PartitionedRegionQueryEvaluator#isStreamable(CompiledSelect)
    */
-  private Object doExecuteQuery(DefaultQuery query, Object[] parameters, Set buckets)
+  public StreamingQueryResults executeQueryStreaming(DefaultQuery query, Object[] parameters)
       throws FunctionDomainException, TypeMismatchException, NameResolutionException,
-      QueryInvocationTargetException, ForceReattemptException {
-    if (logger.isDebugEnabled()) {
-      logger.debug("Executing query :{}", query);
+      QueryInvocationTargetException {
+    CompiledSelect selectExpr = query.getSimpleSelect();
+    if (!PartitionedRegionQueryEvaluator.isStreamable(selectExpr)) {
+      return null;
+    }
+    SelectResults emptyResults = selectExpr.getEmptyResultSet(parameters, getCache(), query);
+    StreamingQueryResults streamingResults = new StreamingQueryResults(query,
+        emptyResults.getCollectionType(), query.getLimit(parameters));
+
+    HashSet<Integer> allBuckets = getBucketsToQuery(null);
+    if (allBuckets.isEmpty()) {
+      streamingResults.complete();
+      return streamingResults;
+    }
+
+    PartitionedRegionQueryEvaluator prqe = new PartitionedRegionQueryEvaluator(this.getSystem(),
+        this, query, parameters, emptyResults, allBuckets);
+    prqe.setStreamingResults(streamingResults);
+    try {
+      PRQueryProcessor.getStreamingQueryExecutor()
+          .execute(() -> streamQuery(query, prqe, streamingResults));
+    } catch (RejectedExecutionException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Too many streaming queries, gathering the results of query :{}", query);
+      }
+      return null;
     }
+    return streamingResults;
+  }
 
+  /**
+   * Queries the buckets of a streamed query, which hands their results to the given streaming
+   * results as they arrive, then completes them or makes them fail.
+   */
+  private void streamQuery(DefaultQuery query, PartitionedRegionQueryEvaluator prqe,
+      StreamingQueryResults streamingResults) {
+    try {
+      query.executeStreamed(() -> {
+        for (;;) {
+          try {
+            queryBuckets(prqe);
+            break;
+          } catch (ForceReattemptException ignore) {
+            // fall through and loop
+          }
+        }
+      });
+      streamingResults.complete();
+    } catch (VirtualMachineError e) {
+      SystemFailure.initiateFailure(e);
+      throw e;
+    } catch (Throwable t) {
+      SystemFailure.checkFailure();
+      if (query.isCanceled()) {
+        // report why the query was canceled rather than how it noticed
+        t = query.getQueryCanceledException();
+      }
+      streamingResults.fail(t);
+    }
+  }
+
+  /**
+   * Returns the ids of the buckets to query, which are all of the buckets of this region unless
+   * the query is limited to the given local buckets.
+   */
+  private HashSet<Integer> getBucketsToQuery(Set buckets) {
     HashSet<Integer> allBuckets = new HashSet<Integer>();
 
     if (buckets == null) { // remote buckets
@@ -1918,6 +1986,22 @@ public class PartitionedRegion extends LocalRegion
       } catch (NoSuchElementException ignore) {
       }
     }
+    return allBuckets;
+  }
+
+  /**
+   * If ForceReattemptException is thrown then the caller must loop and call us again.
+   *
+   * @throws ForceReattemptException if one of the buckets moved out from under us
+   */
+  private Object doExecuteQuery(DefaultQuery query, Object[] parameters, Set buckets)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException, ForceReattemptException {
+    if (logger.isDebugEnabled()) {
+      logger.debug("Executing query :{}", query);
+    }
+
+    HashSet<Integer> allBuckets = getBucketsToQuery(buckets);
 
     if (allBuckets.size() == 0) {
       if (logger.isDebugEnabled()) {
@@ -1941,33 +2025,7 @@ public class PartitionedRegion extends LocalRegion
 
     PartitionedRegionQueryEvaluator prqe = new PartitionedRegionQueryEvaluator(this.getSystem(),
         this, query, parameters, results, allBuckets);
-    for (;;) {
-      this.getCancelCriterion().checkCancelInProgress(null);
-      boolean interrupted = Thread.interrupted();
-      try {
-        results = prqe.queryBuckets(null);
-        break;
-      } catch (InterruptedException ignore) {
-        interrupted = true;
-      } catch (FunctionDomainException e) {
-        throw e;
-      } catch (TypeMismatchException e) {
-        throw e;
-      } catch (NameResolutionException e) {
-        throw e;
-      } catch (QueryInvocationTargetException e) {
-        throw e;
-      } catch (QueryException qe) {
-        throw new QueryInvocationTargetException(
-            String.format("Unexpected query exception occurred during query execution %s",
-                qe.getMessage()),
-            qe);
-      } finally {
-        if (interrupted) {
-          Thread.currentThread().interrupt();
-        }
-      }
-    } // for
+    results = queryBuckets(prqe);
 
     // Drop Duplicates if this is a DISTINCT query
     boolean allowsDuplicates = results.getCollectionType().allowsDuplicates();
@@ -2000,6 +2058,42 @@ public class PartitionedRegion extends LocalRegion
     return results;
   }
 
+  /**
+   * Queries the buckets of the given evaluator, starting again if the thread is interrupted.
+   *
+   * @throws ForceReattemptException if one of the buckets moved out from under us
+   */
+  private SelectResults queryBuckets(PartitionedRegionQueryEvaluator prqe)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException, ForceReattemptException {
+    for (;;) {
+      this.getCancelCriterion().checkCancelInProgress(null);
+      boolean interrupted = Thread.interrupted();
+      try {
+        return prqe.queryBuckets(null);
+      } catch (InterruptedException ignore) {
+        interrupted = true;
+      } catch (FunctionDomainException e) {
+        throw e;
+      } catch (TypeMismatchException e) {
+        throw e;
+      } catch (NameResolutionException e) {
+        throw e;
+      } catch (QueryInvocationTargetException e) {
+        throw e;
+      } catch (QueryException qe) {
+        throw new QueryInvocationTargetException(
+            String.format("Unexpected query exception occurred during query execution %s",
+                qe.getMessage()),
+            qe);
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    } // for
+  }
+
   /**
    * @since GemFire 5.0
    * @throws UnsupportedOperationException OVERRIDES
@@ -58,6 +58,7 @@ import org.apache.geode.cache.query.internal.QueryMonitor;
 import org.apache.geode.cache.query.internal.ResultsSet;
 import org.apache.geode.cache.query.internal.SortedResultsBag;
 import org.apache.geode.cache.query.internal.SortedStructBag;
+import org.apache.geode.cache.query.internal.StreamingQueryResults;
 import org.apache.geode.cache.query.internal.StructSet;
 import org.apache.geode.cache.query.internal.utils.PDXUtils;
 import org.apache.geode.cache.query.types.ObjectType;
@@ -132,6 +133,17 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
   // set of members failed to execute query
   private Set<InternalDistributedMember> failedMembers;
 
+  /**
+   * Where results are handed off as they arrive when the query is streamed, otherwise null.
+   */
+  private StreamingQueryResults streamingResults;
+
+  /**
+   * The members whose results have been handed to {@link #streamingResults}. Their buckets cannot
+   * be queried again if they fail.
+   */
+  private final Set<InternalDistributedMember> streamedMembers = ConcurrentHashMap.newKeySet();
+
   /**
    * Construct a PartitionedRegionQueryEvaluator
    *
@@ -158,6 +170,25 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     }
   }
 
+  /**
+   * Returns true if the results of the given select can be handed to the caller as they arrive
+   * from each member, which is not the case if they have to be sorted, made distinct, counted or
+   * grouped first.
+   */
+  public static boolean isStreamable(CompiledSelect cs) {
+    return cs != null && cs.getType() != CompiledValue.GROUP_BY_SELECT && !cs.isDistinct()
+        && !cs.isCount() && cs.getOrderByAttrs() == null;
+  }
+
+  /**
+   * Makes this evaluator hand each chunk of results to the given consumer as it arrives instead of
+   * keeping them until every bucket has been queried. The query must be
+   * {@link #isStreamable(CompiledSelect) streamable}.
+   */
+  void setStreamingResults(StreamingQueryResults streamingResults) {
+    this.streamingResults = streamingResults;
+  }
+
   @Override
   protected DistributionMessage createRequestMessage(Set recipients, ReplyProcessor21 processor) {
     throw new UnsupportedOperationException();
@@ -228,7 +259,20 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     }
 
     synchronized (results) {
-      if (!QueryMonitor.isLowMemory() && !this.query.isCanceled()) {
+      if (this.streamingResults != null && !QueryMonitor.isLowMemory()
+          && !this.query.isCanceled()) {
+        this.streamedMembers.add(sender);
+        // never wait for the consumer here, this is a thread processing replies
+        if (!this.streamingResults.offer(objects,
+            CumulativeNonDistinctResults.getCollectionMetadata(
+                !this.pr.getCache().getPdxReadSerializedByAnyGemFireServices(),
+                !this.query.isKeepSerialized(), false))) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("streamed query results closed while gathering results, aborting");
+          }
+          return false;
+        }
+      } else if (!QueryMonitor.isLowMemory() && !this.query.isCanceled()) {
         results.add(objects);
       } else {
         if (logger.isDebugEnabled()) {
@@ -468,6 +512,11 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     if (Thread.interrupted()) {
       throw new InterruptedException();
     }
+    if (!this.streamedMembers.isEmpty()) {
+      // querying the buckets again would hand the same results to the consumer twice
+      throw new QueryException(
+          "Unable to query the buckets again because some of their results have already been streamed.");
+    }
     if (isDebugEnabled) {
       logger.debug("PRQE query :{}", this.query.getQueryString());
     }
@@ -529,6 +578,10 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
       throw new QueryException(msg);
     }
 
+    if (this.streamingResults != null) {
+      // the results have already been handed off
+      return this.cumulativeResults;
+    }
     return addResultsToResultSet();
   }
 
@@ -548,7 +601,7 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     }
   }
 
-  private Set<Integer> calculateRetryBuckets() {
+  private Set<Integer> calculateRetryBuckets() throws QueryException {
     Iterator<Map.Entry<InternalDistributedMember, List<Integer>>> memberToBucketList =
         node2bucketIds.entrySet().iterator();
     final HashSet<Integer> retryBuckets = new HashSet<Integer>();
@@ -557,6 +610,11 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
       InternalDistributedMember m = e.getKey();
       if (!this.resultsPerMember.containsKey(m)
           || (!((MemberResultsList) this.resultsPerMember.get(m)).isLastChunkReceived())) {
+        if (this.streamedMembers.contains(m)) {
+          // querying these buckets again would hand the same results to the consumer twice
+          throw new QueryException("Unable to retry the query on the buckets " + e.getValue()
+              + " of " + m + " because some of their results have already been streamed.");
+        }
         retryBuckets.addAll(e.getValue());
         this.resultsPerMember.remove(m);
       }
@@ -1000,6 +1058,10 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
           prQueryTraceInfoList.add(queryTraceInfo);
         }
 
+        if (this.streamingResults != null) {
+          resultCollector = streamLocalResults(resultCollector);
+        }
+
         resultCollector.setLastChunkReceived(true);
         // Add results to the results-list. If prior successfully completed
         // results exist from previous executions on different buckets, add (to) those results as
@@ -1021,6 +1083,39 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     return false;
   }
 
+  /**
+   * Hands the results of the local buckets to {@link #streamingResults}.
+   *
+   * @return an empty list to record that the local results are complete
+   */
+  private MemberResultsList streamLocalResults(MemberResultsList resultCollector)
+      throws QueryException {
+    CumulativeNonDistinctResults.Metadata metadata =
+        CumulativeNonDistinctResults.getCollectionMetadata(false, false, true);
+    List<Object> singleResults = new ArrayList<>();
+    this.streamedMembers.add(this.pr.getMyId());
+    for (Object o : resultCollector) {
+      if (o instanceof Collection) {
+        if (!this.streamingResults.add((Collection) o, metadata)) {
+          throw streamingStopped();
+        }
+      } else {
+        singleResults.add(o);
+      }
+    }
+    if (!singleResults.isEmpty() && !this.streamingResults.add(singleResults, metadata)) {
+      throw streamingStopped();
+    }
+    return new MemberResultsList();
+  }
+
+  private QueryException streamingStopped() {
+    if (this.query.isCanceled()) {
+      throw this.query.getQueryCanceledException();
+    }
+    return new QueryException("Streamed query results were closed");
+  }
+
   protected PRQueryProcessor createLocalPRQueryProcessor(List<Integer> bucketList) {
     return new PRQueryProcessor(this.pr, query, parameters, bucketList);
   }
@@ -15,7 +15,10 @@
 package org.apache.geode.internal.cache;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -43,6 +46,7 @@ import org.apache.geode.internal.cache.persistence.DiskStoreFilter;
 import org.apache.geode.internal.cache.persistence.OplogType;
 import org.apache.geode.internal.cache.versions.RegionVersionVector;
 import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingExecutors;
 import org.apache.geode.internal.sequencelog.EntryLogger;
 
 public class PersistentOplogSet implements OplogSet {
@@ -69,6 +73,11 @@ public class PersistentOplogSet implements OplogSet {
 
   private final DiskStoreImpl parent;
 
+  /**
+   * Reads oplog files ahead of recovery. Only set while oplogs are being recovered.
+   */
+  private volatile OplogRecoveryPrefetcher recoveryPrefetcher;
+
   final AtomicInteger inactiveOpenCount = new AtomicInteger();
 
   private final Map<Long, DiskRecoveryStore> pendingRecoveryMap =
@@ -369,6 +378,10 @@ public class PersistentOplogSet implements OplogSet {
         byteCount = recoverOplogs(byteCount);
 
       } finally {
+        if (this.recoveryPrefetcher != null) {
+          this.recoveryPrefetcher.close();
+          this.recoveryPrefetcher = null;
+        }
         Map<String, Integer> prSizes = null;
         Map<String, Integer> prBuckets = null;
         if (parent.isValidating()) {
@@ -438,6 +451,7 @@ public class PersistentOplogSet implements OplogSet {
       }
     }
     if (oplogSet.size() > 0) {
+      this.recoveryPrefetcher = createRecoveryPrefetcher(oplogSet);
       long startOpLogRecovery = System.currentTimeMillis();
       // first figure out all entries that have been destroyed
       boolean latestOplog = true;
@@ -522,6 +536,42 @@ public class PersistentOplogSet implements OplogSet {
     return byteCount;
   }
 
+  /**
+   * Starts reading the drfs, and then the krfs, of the given oplogs into memory in the order they
+   * will be recovered. They are still decoded by the recovery thread.
+   *
+   * @return null if recovery should read its files itself
+   */
+  private OplogRecoveryPrefetcher createRecoveryPrefetcher(TreeSet<Oplog> oplogSet) {
+    int threads = DiskStoreImpl.RECOVERY_READ_THREADS;
+    if (threads <= 0 || oplogSet.size() < 2) {
+      return null;
+    }
+    OplogRecoveryPrefetcher prefetcher = new OplogRecoveryPrefetcher(
+        LoggingExecutors.newFixedThreadPool("Oplog Recovery Reader", true, threads), threads * 2,
+        DiskStoreImpl.RECOVERY_READ_AHEAD_BYTES);
+    for (Oplog oplog : oplogSet) {
+      prefetcher.schedule(oplog.getDrfFile());
+    }
+    if (!recoverValuesSync() && (!parent.isOffline() || parent.FORCE_KRF_RECOVERY)) {
+      for (Oplog oplog : oplogSet) {
+        prefetcher.schedule(oplog.getRecoveryKrfFile());
+      }
+    }
+    return prefetcher;
+  }
+
+  /**
+   * Opens a drf or krf that is being recovered, from memory if it has already been read.
+   */
+  InputStream openForRecovery(File file) throws FileNotFoundException {
+    OplogRecoveryPrefetcher prefetcher = this.recoveryPrefetcher;
+    if (prefetcher != null) {
+      return prefetcher.open(file);
+    }
+    return new FileInputStream(file);
+  }
+
   protected boolean recoverValuesSync() {
     return parent.RECOVER_VALUES_SYNC;
   }
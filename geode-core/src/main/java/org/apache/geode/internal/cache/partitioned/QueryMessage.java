@@ -47,6 +47,7 @@ import org.apache.geode.distributed.internal.streaming.StreamingOperation.Stream
 import org.apache.geode.internal.NanoTimer;
 import org.apache.geode.internal.Version;
 import org.apache.geode.internal.cache.ForceReattemptException;
+import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.PRQueryProcessor;
 import org.apache.geode.internal.cache.PartitionedRegion;
 import org.apache.geode.internal.cache.Token;
@@ -168,7 +169,9 @@ public class QueryMessage extends StreamingPartitionOperation.StreamingPartition
       throw new QueryExecutionLowMemoryException(reason);
     }
 
-    DefaultQuery query = new DefaultQuery(this.queryString, pr.getCache(), false);
+    InternalCache cache = pr.getCache();
+    DefaultQuery query = new DefaultQuery(this.queryString,
+        cache.getQueryPlanCache().getPlan(this.queryString, cache), cache);
     // Remote query, use the PDX types in serialized form.
     Boolean initialPdxReadSerialized = pr.getCache().getPdxReadSerializedOverride();
     pr.getCache().setPdxReadSerializedOverride(true);
@@ -65,8 +65,10 @@ import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.client.internal.PoolImpl;
 import org.apache.geode.cache.server.CacheServer;
+import org.apache.geode.cache.wan.GatewayReceiver;
 import org.apache.geode.cache.wan.GatewayTransportFilter;
 import org.apache.geode.distributed.DistributedMember;
+import org.apache.geode.distributed.internal.ClusterDistributionManager;
 import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.distributed.internal.DistributionManager;
 import org.apache.geode.distributed.internal.InternalDistributedSystem;
@@ -89,6 +91,7 @@ import org.apache.geode.internal.logging.LoggingExecutors;
 import org.apache.geode.internal.logging.LoggingThread;
 import org.apache.geode.internal.logging.LoggingThreadFactory.CommandWrapper;
 import org.apache.geode.internal.logging.LoggingThreadFactory.ThreadInitializer;
+import org.apache.geode.internal.logging.LoggingVirtualThreadFactory;
 import org.apache.geode.internal.monitoring.ThreadsMonitoring;
 import org.apache.geode.internal.net.SocketCreator;
 import org.apache.geode.internal.net.SocketCreatorFactory;
@@ -126,6 +129,12 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
    */
   private final ExecutorService clientQueueInitPool;
 
+  /**
+   * A pool used by a gateway receiver to apply the events of a batch in parallel, or null if they
+   * are applied by the server connection thread alone.
+   */
+  private final ExecutorService gatewayApplyPool;
+
   /**
    * The port on which this acceptor listens for client connections
    */
@@ -568,6 +577,7 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
     pool = initializeServerConnectionThreadPool();
     hsPool = initializeHandshakerThreadPool();
     clientQueueInitPool = initializeClientQueueInitializerThreadPool();
+    gatewayApplyPool = initializeGatewayApplyThreadPool();
 
     isAuthenticationRequired = this.securityService.isClientSecurityRequired();
 
@@ -605,6 +615,15 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
         getThreadMonitorObj());
   }
 
+  private ExecutorService initializeGatewayApplyThreadPool() {
+    if (!this.isGatewayReceiver || GatewayReceiver.PARALLEL_APPLY_THREADS <= 1) {
+      return null;
+    }
+    return LoggingExecutors.newFixedThreadPool(
+        "GatewayReceiver apply on port " + this.localPort + " Thread ", true,
+        GatewayReceiver.PARALLEL_APPLY_THREADS);
+  }
+
   private ExecutorService initializeServerConnectionThreadPool() throws IOException {
     String threadName = "ServerConnection on port " + this.localPort + " Thread ";
     ThreadInitializer threadInitializer = thread -> getStats().incConnectionThreadsCreated();
@@ -622,6 +641,10 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
         return LoggingExecutors.newThreadPoolWithUnlimitedFeed(threadName, threadInitializer,
             commandWrapper, this.maxThreads,
             getStats().getCnxPoolHelper(), Integer.MAX_VALUE, getThreadMonitorObj());
+      } else if (USE_VIRTUAL_THREADS && LoggingVirtualThreadFactory.isSupported()) {
+        // connections are limited by maxConnections before they reach this pool
+        return LoggingExecutors.newVirtualThreadPerTaskExecutor(threadName, threadInitializer,
+            commandWrapper, null, null);
       } else {
         return LoggingExecutors.newThreadPoolWithSynchronousFeed(threadName, threadInitializer,
             commandWrapper,
@@ -676,9 +699,53 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
   @Deprecated
   private final int DEPRECATED_SELECTOR_POOL_SIZE =
       Integer.getInteger("BridgeServer.SELECTOR_POOL_SIZE", 16).intValue();
+  /**
+   * When true, and the selector is not in use, each client connection is served by its own virtual
+   * thread rather than a platform thread. Requires JDK 21 or later; ignored otherwise.
+   */
+  private static final boolean USE_VIRTUAL_THREADS =
+      Boolean.getBoolean(ClusterDistributionManager.USE_VIRTUAL_THREADS_PROPERTY);
+
   private final int HANDSHAKE_POOL_SIZE = Integer
       .getInteger("BridgeServer.HANDSHAKE_POOL_SIZE", HANDSHAKER_DEFAULT_POOL_SIZE).intValue();
 
+  /**
+   * The name of a system property that, when the selector is in use, makes the selector thread read
+   * each client message without blocking and only hand the connection to the thread pool once the
+   * whole message has arrived. This keeps slow or bursty clients from holding pool threads.
+   */
+  public static final String SELECTOR_FRAMING_PROPERTY_NAME = "BridgeServer.SELECTOR_FRAMING";
+
+  private static final boolean SELECTOR_FRAMING =
+      Boolean.getBoolean(SELECTOR_FRAMING_PROPERTY_NAME);
+
+  /**
+   * The name of a system property that sets the largest message (in bytes) that the selector thread
+   * will buffer when {@link #SELECTOR_FRAMING_PROPERTY_NAME} is set. Larger messages are handed to
+   * the thread pool as soon as their header has arrived.
+   */
+  public static final String MAX_SELECTOR_FRAME_SIZE_PROPERTY_NAME =
+      "BridgeServer.MAX_SELECTOR_FRAME_SIZE";
+
+  /**
+   * The default value of the {@link #MAX_SELECTOR_FRAME_SIZE_PROPERTY_NAME} system property.
+   */
+  public static final int DEFAULT_MAX_SELECTOR_FRAME_SIZE = 1024 * 1024;
+
+  private final int maxSelectorFrameSize =
+      Integer.getInteger(MAX_SELECTOR_FRAME_SIZE_PROPERTY_NAME, DEFAULT_MAX_SELECTOR_FRAME_SIZE);
+
+  /**
+   * Returns true if the selector thread assembles complete messages before dispatching them.
+   */
+  public boolean isFramingMessagesInSelector() {
+    return SELECTOR_FRAMING;
+  }
+
+  int getMaxSelectorFrameSize() {
+    return this.maxSelectorFrameSize;
+  }
+
   @Override
   public void start() throws IOException {
     // This thread should not be a daemon to keep BridgeServers created
@@ -1065,6 +1132,10 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
               if (key.isValid() && key.isReadable()) {
                 // this is the only event we currently register for
                 try {
+                  if (!sc.readAvailableMessageBytes()) {
+                    // stay registered until the rest of the message arrives
+                    continue;
+                  }
                   key.cancel();
                   this.selectorRegistrations.remove(sc);
                   registeredKeys--;
@@ -1077,7 +1148,7 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
                   // in the thread pool queue and to cancel operations that
                   // have waited too long in the queue.
                   sc.setProcessingMessage();
-                } catch (ClosedChannelException ignore) {
+                } catch (ClosedChannelException | EOFException ignore) {
                   finishCon(sc);
                   continue;
                 } catch (IOException ex) {
@@ -1646,6 +1717,9 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
     }
     this.clientQueueInitPool.shutdown();
     this.hsPool.shutdown();
+    if (this.gatewayApplyPool != null) {
+      this.gatewayApplyPool.shutdown();
+    }
   }
 
   private void shutdownSCs() {
@@ -1765,6 +1839,14 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
     return this.isGatewayReceiver;
   }
 
+  /**
+   * Returns the pool a gateway receiver applies the events of a batch in parallel with, or null if
+   * {@link GatewayReceiver#PARALLEL_APPLY_THREADS} is one.
+   */
+  public ExecutorService getGatewayApplyPool() {
+    return this.gatewayApplyPool;
+  }
+
   public List<GatewayTransportFilter> getGatewayTransportFilters() {
     return this.gatewayTransportFilters;
   }
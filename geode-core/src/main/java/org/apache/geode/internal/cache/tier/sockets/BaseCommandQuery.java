@@ -15,7 +15,9 @@
 package org.apache.geode.internal.cache.tier.sockets;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -28,12 +30,15 @@ import org.apache.geode.cache.query.QueryInvalidException;
 import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.Struct;
 import org.apache.geode.cache.query.internal.CqEntry;
+import org.apache.geode.cache.query.internal.CumulativeNonDistinctResults;
 import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.StreamingQueryResults;
 import org.apache.geode.cache.query.internal.cq.ServerCQ;
 import org.apache.geode.cache.query.internal.types.CollectionTypeImpl;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
 import org.apache.geode.cache.query.types.CollectionType;
 import org.apache.geode.distributed.DistributedSystemDisconnectedException;
+import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.distributed.internal.DistributionStats;
 import org.apache.geode.internal.Version;
 import org.apache.geode.internal.cache.CachedDeserializable;
@@ -46,6 +51,15 @@ import org.apache.geode.security.ResourcePermission.Resource;
 
 public abstract class BaseCommandQuery extends BaseCommand {
 
+  /**
+   * Whether the results of queries on a partitioned region are sent to the client as they arrive
+   * from the data stores rather than after all of them have been gathered on this server.
+   *
+   * @see DefaultQuery#executeStreaming(Object[])
+   */
+  static final boolean STREAM_PARTITIONED_REGION_RESULTS =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "Query.streamPartitionedResults");
+
   /**
    * Process the give query and sends the resulset back to the client.
    *
@@ -94,6 +108,34 @@ public abstract class BaseCommandQuery extends BaseCommand {
       // startTime = GenericStats.getTime();
       // startTime = System.currentTimeMillis();
 
+      if (STREAM_PARTITIONED_REGION_RESULTS && cqQuery == null && sendResults
+          && servConn.getPostAuthzRequest() == null) {
+        StreamingQueryResults streamingResults = ((DefaultQuery) query).executeStreaming(params);
+        if (streamingResults != null) {
+          try {
+            checkRegionsExist(regionNames, crHelper);
+            long oldStart = start;
+            start = DistributionStats.getStatTime();
+            stats.incProcessQueryTime(start - oldStart);
+
+            queryResponseMsg.setMessageType(MessageType.RESPONSE);
+            queryResponseMsg.setTransactionId(msg.getTransactionId());
+            queryResponseMsg.sendHeader();
+            sendStreamingResults(streamingResults, ((DefaultQuery) query).isKeepSerialized(),
+                servConn, securityService);
+          } finally {
+            streamingResults.close();
+          }
+          msg.clearParts();
+          if (logger.isDebugEnabled()) {
+            logger.debug("{}: Sent streamed query response for query {}", servConn.getName(),
+                queryString);
+          }
+          stats.incWriteQueryResponseTime(DistributionStats.getStatTime() - start);
+          return true;
+        }
+      }
+
       // For now we assume the results are a SelectResults
       // which is the only possibility now, but this may change
       // in the future if we support arbitrary queries
@@ -109,15 +151,7 @@ public abstract class BaseCommandQuery extends BaseCommand {
       // of the regions involved in the query have been destroyed
       // or not. If yes, throw an Exception.
       // This is a workaround/fix for Bug 36969
-      Iterator itr = regionNames.iterator();
-      while (itr.hasNext()) {
-        String regionName = (String) itr.next();
-        if (crHelper.getRegion(regionName) == null) {
-          throw new RegionDestroyedException(
-              "Region destroyed during the execution of the query",
-              regionName);
-        }
-      }
+      checkRegionsExist(regionNames, crHelper);
       AuthorizeRequestPP postAuthzRequest = servConn.getPostAuthzRequest();
       if (postAuthzRequest != null) {
         if (cqQuery == null) {
@@ -290,6 +324,81 @@ public abstract class BaseCommandQuery extends BaseCommand {
     return results.getCollectionType();
   }
 
+  private static void checkRegionsExist(Set regionNames, CachedRegionHelper crHelper) {
+    Iterator itr = regionNames.iterator();
+    while (itr.hasNext()) {
+      String regionName = (String) itr.next();
+      if (crHelper.getRegion(regionName) == null) {
+        throw new RegionDestroyedException(
+            "Region destroyed during the execution of the query",
+            regionName);
+      }
+    }
+  }
+
+  /**
+   * Sends streamed query results to the client in chunks of {@link #MAXIMUM_CHUNK_SIZE} as they
+   * arrive. The response header must already have been sent.
+   *
+   * @param hasSerializedObjects whether the results are kept serialized, in which case they are
+   *        sent as an ObjectPartList
+   */
+  private void sendStreamingResults(StreamingQueryResults streamingResults,
+      boolean hasSerializedObjects, ServerConnection servConn,
+      final SecurityService securityService)
+      throws IOException, QueryException, InterruptedException {
+    // the type of the results the query would have returned had they been gathered
+    CollectionType collectionType = getCollectionType(new CumulativeNonDistinctResults(
+        Collections.emptyList(), -1, streamingResults.getCollectionType().getElementType(),
+        Collections.emptyList()));
+    boolean isStructs = collectionType.getElementType().isStructType();
+    List<Object> pending = new ArrayList<>(MAXIMUM_CHUNK_SIZE);
+    int numberOfChunks = 0;
+    List<Object> results;
+    while ((results = streamingResults.nextChunk()) != null) {
+      for (Object result : results) {
+        if (pending.size() == MAXIMUM_CHUNK_SIZE) {
+          writeQueryResponseChunk(toResponseChunk(pending, hasSerializedObjects, isStructs,
+              collectionType, servConn, securityService), collectionType, false, servConn);
+          pending.clear();
+          numberOfChunks++;
+        }
+        pending.add(result);
+      }
+    }
+    // the last chunk is sent even if it is empty so the client knows the response is complete
+    writeQueryResponseChunk(toResponseChunk(pending, hasSerializedObjects, isStructs,
+        collectionType, servConn, securityService), collectionType, true, servConn);
+    if (logger.isTraceEnabled()) {
+      logger.trace("{}: Sent {} chunks of streamed query results", servConn.getName(),
+          numberOfChunks + 1);
+    }
+  }
+
+  private Object toResponseChunk(List<Object> results, boolean hasSerializedObjects,
+      boolean isStructs, CollectionType collectionType, ServerConnection servConn,
+      final SecurityService securityService) throws IOException {
+    if (hasSerializedObjects) {
+      ObjectPartList serializedObjs = new ObjectPartList(results.size(), false);
+      for (Object result : results) {
+        addToObjectPartList(serializedObjs, result, collectionType, false, servConn, isStructs,
+            securityService);
+      }
+      return serializedObjs;
+    }
+    Object[] chunk = new Object[results.size()];
+    for (int i = 0; i < chunk.length; i++) {
+      Object result = results.get(i);
+      // instance check added to fix bug 40516.
+      if (isStructs && result instanceof Struct) {
+        chunk[i] = ((Struct) result).getFieldValues();
+      } else {
+        chunk[i] = result;
+      }
+    }
+    return chunk;
+  }
+
   private boolean sendCqResultsWithKey(ServerConnection servConn) {
     Version clientVersion = servConn.getClientVersion();
     if (clientVersion.compareTo(Version.GFE_65) >= 0) {
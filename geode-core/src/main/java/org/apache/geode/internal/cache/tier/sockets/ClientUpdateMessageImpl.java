@@ -26,15 +26,18 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.logging.log4j.Logger;
 
 import org.apache.geode.DataSerializer;
 import org.apache.geode.GemFireIOException;
 import org.apache.geode.InternalGemFireError;
+import org.apache.geode.SerializationException;
 import org.apache.geode.cache.query.internal.cq.InternalCqQuery;
 import org.apache.geode.cache.util.ObjectSizer;
 import org.apache.geode.internal.DSCODE;
+import org.apache.geode.internal.HeapDataOutputStream;
 import org.apache.geode.internal.InternalDataSerializer;
 import org.apache.geode.internal.Sendable;
 import org.apache.geode.internal.Version;
@@ -49,6 +52,7 @@ import org.apache.geode.internal.cache.tier.MessageType;
 import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.size.Sizeable;
+import org.apache.geode.internal.util.BlobHelper;
 
 
 /**
@@ -145,6 +149,9 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
 
   private VersionTag versionTag;
 
+  /** The parts of the messages to clients that are the same for every client, by client version */
+  private transient volatile ConcurrentMap<Version, SerializedParts> serializedParts;
+
   /* added up all constants and form single value */
   private static final int CONSTANT_MEMORY_OVERHEAD;
 
@@ -835,6 +842,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     byte[] latestValue = p_latestValue;
     Message message = null;
     ClientProxyMembershipID proxyId = proxy.getProxyID();
+    SerializedParts serializedParts = getSerializedParts(proxy, clientVersion);
     // Add CQ info.
     int cqMsgParts = 0;
     boolean clientHasCq = this._hasCqs && (this.getCqs(proxyId) != null);
@@ -854,21 +862,21 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         message = getMessage(7 + cqMsgParts, clientVersion);
         message.setMessageType(MessageType.LOCAL_INVALIDATE);
         message.addStringPart(this._regionName, true);
-        message.addStringOrObjPart(this._keyOfInterest);
+        serializedParts.addKeyPart(message);
       } else {
         // Notify by subscription - send the value
         message = getMessage(9 + cqMsgParts, clientVersion);
         if (isCreate()) {
           message.setMessageType(MessageType.LOCAL_CREATE);
           message.addStringPart(this._regionName, true);
-          message.addStringOrObjPart(this._keyOfInterest);
+          serializedParts.addKeyPart(message);
           message.addObjPart(Boolean.FALSE); // NO delta
           // Add the value (which has already been serialized)
           message.addRawPart(latestValue, (this._valueIsObject == 0x01));
         } else {
           message.setMessageType(MessageType.LOCAL_UPDATE);
           message.addStringPart(this._regionName, true);
-          message.addStringOrObjPart(this._keyOfInterest);
+          serializedParts.addKeyPart(message);
 
           if (this.deltaBytes != null && !conflation && !proxy.isMarkerEnqueued()
               && !proxy.getRegionsWithEmptyDataPolicy().containsKey(_regionName)) {
@@ -889,11 +897,8 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         }
       }
 
-      message.addObjPart(this._callbackArgument);
-      if (this.versionTag != null) {
-        this.versionTag.setCanonicalIDs(proxy.getCache().getDistributionManager());
-      }
-      message.addObjPart(this.versionTag);
+      serializedParts.addCallbackArgumentPart(message);
+      serializedParts.addVersionTagPart(message);
       message.addObjPart(Boolean.valueOf(isClientInterested(proxyId)));
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
@@ -916,9 +921,9 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         message.setMessageType(MessageType.LOCAL_INVALIDATE);
       }
       message.addStringPart(this._regionName, true);
-      message.addStringOrObjPart(this._keyOfInterest);
-      message.addObjPart(this._callbackArgument);
-      message.addObjPart(this.versionTag);
+      serializedParts.addKeyPart(message);
+      serializedParts.addCallbackArgumentPart(message);
+      serializedParts.addVersionTagPart(message);
       message.addObjPart(Boolean.valueOf(isClientInterested(proxyId)));
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
@@ -934,7 +939,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
       message = getMessage(4 + cqMsgParts, clientVersion);
       message.setMessageType(MessageType.LOCAL_DESTROY_REGION);
       message.addStringPart(this._regionName, true);
-      message.addObjPart(this._callbackArgument);
+      serializedParts.addCallbackArgumentPart(message);
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
       if (clientHasCq) {
@@ -944,7 +949,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
       message = getMessage(4 + cqMsgParts, clientVersion);
       message.setMessageType(MessageType.CLEAR_REGION);
       message.addStringPart(this._regionName, true);
-      message.addObjPart(this._callbackArgument);
+      serializedParts.addCallbackArgumentPart(message);
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
       if (clientHasCq) {
@@ -954,7 +959,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
       message = getMessage(4 + cqMsgParts, clientVersion);
       message.setMessageType(MessageType.INVALIDATE_REGION);
       message.addStringPart(this._regionName, true);
-      message.addObjPart(this._callbackArgument);
+      serializedParts.addCallbackArgumentPart(message);
 
       // Add CQ status.
       message.addObjPart(Boolean.valueOf(clientHasCq));
@@ -969,10 +974,167 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     message.setTransactionId(0);
     // Add the EventId since 5.1 (used to prevent duplicate events
     // received on the client side after a failover)
-    message.addObjPart(this._eventIdentifier);
+    serializedParts.addEventIdentifierPart(message);
     return message;
   }
 
+  /**
+   * Returns the parts of the messages to clients of a version that are the same for every client.
+   * The message is shared by the queues of all the clients the event is sent to, so its key,
+   * callback argument, version tag and event id are serialized once for each client version rather
+   * than once for each client. A part is only serialized when a message that has it is built.
+   */
+  private SerializedParts getSerializedParts(CacheClientProxy proxy, Version clientVersion) {
+    ConcurrentMap<Version, SerializedParts> serializedPartsByVersion = this.serializedParts;
+    if (serializedPartsByVersion == null) {
+      synchronized (this) {
+        serializedPartsByVersion = this.serializedParts;
+        if (serializedPartsByVersion == null) {
+          // there are rarely more than a couple of client versions
+          serializedPartsByVersion = new ConcurrentHashMap<>(4, 0.75f, 1);
+          this.serializedParts = serializedPartsByVersion;
+        }
+      }
+    }
+    SerializedParts serializedParts = serializedPartsByVersion.get(clientVersion);
+    // the event id of a message read from the HA container region is set after it is read
+    if (serializedParts == null || serializedParts.eventIdentifier != this._eventIdentifier) {
+      if (serializedParts != null) {
+        serializedPartsByVersion.clear();
+      }
+      if (this.versionTag != null) {
+        this.versionTag.setCanonicalIDs(proxy.getCache().getDistributionManager());
+      }
+      serializedParts = new SerializedParts(clientVersion, this._keyOfInterest,
+          this._callbackArgument, this.versionTag, this._eventIdentifier);
+      serializedPartsByVersion.put(clientVersion, serializedParts);
+    }
+    return serializedParts;
+  }
+
+  /**
+   * Returns the size of the parts serialized for the messages to clients.
+   */
+  private int getSerializedPartsSizeInBytes() {
+    ConcurrentMap<Version, SerializedParts> serializedPartsByVersion = this.serializedParts;
+    if (serializedPartsByVersion == null) {
+      return 0;
+    }
+    int size = 0;
+    for (SerializedParts serializedParts : serializedPartsByVersion.values()) {
+      size += serializedParts.getSizeInBytes();
+    }
+    return size;
+  }
+
+  /**
+   * The parts of a message that are the same for every client of a version.
+   */
+  private static class SerializedParts {
+
+    private final Version version;
+
+    private final Object key;
+
+    private final SerializedPart keyPart;
+
+    private final SerializedPart callbackArgumentPart;
+
+    private final SerializedPart versionTagPart;
+
+    private final Object eventIdentifier;
+
+    private final SerializedPart eventIdentifierPart;
+
+    SerializedParts(Version version, Object key, Object callbackArgument, Object versionTag,
+        Object eventIdentifier) {
+      this.version = version;
+      this.key = key;
+      // like Message.addStringOrObjPart, a key that is a byte[] is serialized too
+      this.keyPart = new SerializedPart(key, true);
+      this.callbackArgumentPart = new SerializedPart(callbackArgument, false);
+      this.versionTagPart = new SerializedPart(versionTag, false);
+      this.eventIdentifier = eventIdentifier;
+      this.eventIdentifierPart = new SerializedPart(eventIdentifier, false);
+    }
+
+    void addKeyPart(Message message) {
+      if (this.key instanceof String || this.key == null) {
+        message.addStringOrObjPart(this.key);
+      } else {
+        this.keyPart.addTo(message, this.version);
+      }
+    }
+
+    void addCallbackArgumentPart(Message message) {
+      this.callbackArgumentPart.addTo(message, this.version);
+    }
+
+    void addVersionTagPart(Message message) {
+      this.versionTagPart.addTo(message, this.version);
+    }
+
+    void addEventIdentifierPart(Message message) {
+      this.eventIdentifierPart.addTo(message, this.version);
+    }
+
+    int getSizeInBytes() {
+      return this.keyPart.getSizeInBytes() + this.callbackArgumentPart.getSizeInBytes()
+          + this.versionTagPart.getSizeInBytes() + this.eventIdentifierPart.getSizeInBytes();
+    }
+  }
+
+  /**
+   * A part of a message that is serialized the first time it is added to a message. Unless
+   * {@code serializeAlways} is set, a part that {@link Message#addObjPart(Object)} does not
+   * serialize is added as it is.
+   */
+  private static class SerializedPart {
+
+    private final Object object;
+
+    private final boolean serializeAlways;
+
+    private volatile byte[] serializedObject;
+
+    SerializedPart(Object object, boolean serializeAlways) {
+      this.object = object;
+      this.serializeAlways = serializeAlways;
+    }
+
+    void addTo(Message message, Version version) {
+      if (!this.serializeAlways && (this.object == null || this.object instanceof byte[]
+          || this.object instanceof Boolean)) {
+        message.addObjPart(this.object);
+        return;
+      }
+      byte[] serializedObject = this.serializedObject;
+      if (serializedObject == null) {
+        // two threads may both serialize the part, which leaves equal bytes either way
+        serializedObject = serialize(this.object, version);
+        this.serializedObject = serializedObject;
+      }
+      message.addRawPart(serializedObject, true);
+    }
+
+    int getSizeInBytes() {
+      byte[] serializedObject = this.serializedObject;
+      return serializedObject == null ? 0
+          : CachedDeserializableFactory.calcMemSize(serializedObject);
+    }
+
+    private static byte[] serialize(Object object, Version version) {
+      HeapDataOutputStream hdos =
+          new HeapDataOutputStream(version.equals(Version.CURRENT) ? null : version);
+      try {
+        BlobHelper.serializeTo(object, hdos);
+      } catch (IOException ex) {
+        throw new SerializationException("failed serializing object", ex);
+      }
+      return hdos.toByteArray();
+    }
+  }
+
   private static final ThreadLocal<Map<Integer, Message>> CACHED_MESSAGES =
       new ThreadLocal<Map<Integer, Message>>() {
         @Override
@@ -1396,6 +1558,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
 
     // The sizeOf call gets the size of the input callback argument.
     size += sizeOf(getOriginalCallbackArgument());
+    size += getSerializedPartsSizeInBytes();
     return size;
   }
 
@@ -86,6 +86,14 @@ public class Message {
 
   static final int DEFAULT_MAX_MESSAGE_SIZE = 1073741824;
 
+  /**
+   * Off-heap parts at least this long are sent to a socket channel with a gathering write, together
+   * with whatever is in the comm buffer, instead of being copied into the comm buffer. Zero or less
+   * disables gathering writes.
+   */
+  static final int GATHER_WRITE_THRESHOLD =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "Message.gatherWriteThreshold", 8192);
+
   private static final Logger logger = LogService.getLogger();
 
   private static final int PART_HEADER_SIZE = 5; // 4 bytes for length, 1 byte for isObject
@@ -141,6 +149,11 @@ public class Message {
   private ByteBuffer cachedCommBuffer;
   protected Socket socket = null;
   private SocketChannel socketChannel = null;
+  /**
+   * Bytes of the next message that were already read off {@link #socketChannel} by the selector
+   * thread; null if there are none.
+   */
+  private ByteBuffer bufferedInput = null;
   private OutputStream outputStream = null;
   protected InputStream inputStream = null;
   private boolean messageModified = true;
@@ -447,6 +460,18 @@ public class Message {
     return FIXED_LENGTH;
   }
 
+  /**
+   * Returns the number of bytes the header and parts of this message take when it is sent, not
+   * counting a security part.
+   */
+  public long getSendLength() {
+    long length = FIXED_LENGTH;
+    for (int i = 0; i < this.numberOfParts; i++) {
+      length += PART_HEADER_SIZE + this.partsList[i].getLength();
+    }
+    return length;
+  }
+
   public int getNumberOfParts() {
     return this.numberOfParts;
   }
@@ -609,7 +634,14 @@ public class Message {
           int partLen = part.getLength();
           commBuffer.putInt(partLen);
           commBuffer.put(part.getTypeCode());
-          if (partLen <= commBuffer.remaining()) {
+          ByteBuffer gatherBuffer = null;
+          if (this.socketChannel != null && GATHER_WRITE_THRESHOLD > 0
+              && partLen >= GATHER_WRITE_THRESHOLD) {
+            gatherBuffer = part.getBufferForGatherWrite();
+          }
+          if (gatherBuffer != null) {
+            gatherWrite(commBuffer, gatherBuffer);
+          } else if (partLen <= commBuffer.remaining()) {
             part.writeTo(commBuffer);
           } else {
             flushBuffer();
@@ -638,6 +670,24 @@ public class Message {
     }
   }
 
+  /**
+   * Writes the contents of the comm buffer followed by the given part buffer to the socket channel
+   * with as few system calls as possible, leaving the comm buffer empty.
+   */
+  private void gatherWrite(ByteBuffer commBuffer, ByteBuffer partBuffer) throws IOException {
+    commBuffer.flip();
+    ByteBuffer[] buffers = {commBuffer, partBuffer};
+    long written = 0;
+    // the part buffer is written last so everything has been sent once it is empty
+    while (partBuffer.remaining() > 0) {
+      written += this.socketChannel.write(buffers);
+    }
+    if (this.messageStats != null) {
+      this.messageStats.incSentBytes(written);
+    }
+    commBuffer.clear();
+  }
+
   void flushBuffer() throws IOException {
     final ByteBuffer cb = getCommBuffer();
     if (this.socketChannel != null) {
@@ -798,7 +848,7 @@ public class Message {
     if (this.socketChannel != null) {
       cb.limit(headerLength);
       do {
-        int bytesRead = this.socketChannel.read(cb);
+        int bytesRead = readFromChannel(cb);
         if (bytesRead == -1) {
           throw new EOFException(
               "The connection has been reset while reading the header");
@@ -905,7 +955,7 @@ public class Message {
               bytesThisTime = cb.capacity();
             }
             cb.limit(bytesThisTime);
-            int res = this.socketChannel.read(cb);
+            int res = readFromChannel(cb);
             if (res != -1) {
               cb.flip();
               bytesRemaining -= res;
@@ -980,7 +1030,7 @@ public class Message {
         commBuffer.limit(commBuffer.position() + bytesRemaining);
       }
       while (remaining > 0) {
-        int res = this.socketChannel.read(commBuffer);
+        int res = readFromChannel(commBuffer);
         if (res != -1) {
           remaining -= res;
           bytesRead += res;
@@ -1079,6 +1129,32 @@ public class Message {
     this.messageStats = msgStats;
   }
 
+  /**
+   * Supplies bytes of the next message that have already been read from this message's socket
+   * channel. They are consumed before any further bytes are read from the channel.
+   *
+   * @see MessageFrameAssembler
+   */
+  void setBufferedInput(ByteBuffer bytes) {
+    this.bufferedInput = bytes;
+  }
+
+  private int readFromChannel(ByteBuffer dst) throws IOException {
+    final ByteBuffer src = this.bufferedInput;
+    if (src != null) {
+      if (src.hasRemaining()) {
+        int bytesToCopy = Math.min(src.remaining(), dst.remaining());
+        ByteBuffer slice = src.duplicate();
+        slice.limit(slice.position() + bytesToCopy);
+        dst.put(slice);
+        src.position(src.position() + bytesToCopy);
+        return bytesToCopy;
+      }
+      this.bufferedInput = null;
+    }
+    return this.socketChannel.read(dst);
+  }
+
   /**
    * Undo any state changes done by setComms.
    *
@@ -1091,6 +1167,7 @@ public class Message {
     this.outputStream = null;
     this.cachedCommBuffer = null;
     this.messageStats = null;
+    this.bufferedInput = null;
   }
 
   /**
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.apache.geode.internal.cache.tier.MessageType;
+
+/**
+ * Accumulates the bytes of the next client {@link Message} from a non-blocking channel so that the
+ * selector thread can defer handing a {@link ServerConnection} to a worker thread until the whole
+ * message has arrived. A worker thread then parses the buffered bytes without ever blocking on a
+ * slow client.
+ *
+ * <p>
+ * Messages whose payload would exceed {@code maxBufferedFrameSize} are only buffered up to their
+ * header; the remainder is read by the worker thread directly from the socket as before.
+ *
+ * <p>
+ * Instances are not thread safe. The selector thread and the worker thread hand the assembler back
+ * and forth through the selector registration queue, which provides the needed happens-before.
+ *
+ * @see Message#setBufferedInput(ByteBuffer)
+ */
+class MessageFrameAssembler {
+
+  static final int HEADER_LENGTH = 17;
+
+  private static final int PAYLOAD_LENGTH_OFFSET = 4;
+
+  private final int maxBufferedFrameSize;
+
+  private final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+
+  /**
+   * Holds the header followed by the payload once the header has been read and the message fits in
+   * {@link #maxBufferedFrameSize}; null otherwise.
+   */
+  private ByteBuffer frame;
+
+  /**
+   * True when the buffered bytes should be handed to a worker even though the frame is not
+   * complete. This happens for messages too large to buffer.
+   */
+  private boolean oversized;
+
+  MessageFrameAssembler(int maxBufferedFrameSize) {
+    this.maxBufferedFrameSize = maxBufferedFrameSize;
+  }
+
+  /**
+   * Reads whatever bytes are currently available on the given non-blocking channel.
+   *
+   * @return true if the message is ready to be dispatched to a worker thread
+   * @throws EOFException if the channel has reached end of stream
+   */
+  boolean readFrom(ReadableByteChannel channel) throws IOException {
+    if (isReadyForDispatch()) {
+      return true;
+    }
+    if (this.frame == null) {
+      if (!fill(channel, this.header)) {
+        return false;
+      }
+      int payloadLength = this.header.getInt(PAYLOAD_LENGTH_OFFSET);
+      int messageType = this.header.getInt(0);
+      if (!MessageType.validate(messageType) || payloadLength < 0
+          || payloadLength > this.maxBufferedFrameSize - HEADER_LENGTH) {
+        // let Message report the problem, or stream the large payload, on the worker thread
+        this.oversized = true;
+        return true;
+      }
+      this.frame = ByteBuffer.allocate(HEADER_LENGTH + payloadLength);
+      this.header.flip();
+      this.frame.put(this.header);
+    }
+    return fill(channel, this.frame);
+  }
+
+  /**
+   * Returns true if enough bytes have been read that a worker thread can process the message.
+   */
+  boolean isReadyForDispatch() {
+    return this.oversized || (this.frame != null && !this.frame.hasRemaining());
+  }
+
+  /**
+   * Returns true if any bytes of the next message have been consumed from the channel.
+   */
+  boolean hasBufferedBytes() {
+    return this.header.position() > 0 || this.frame != null;
+  }
+
+  /**
+   * Returns the buffered bytes, ready for reading, and resets this assembler for the next message.
+   */
+  ByteBuffer takeBufferedBytes() {
+    ByteBuffer result;
+    if (this.frame != null) {
+      result = this.frame;
+      result.flip();
+    } else {
+      this.header.flip();
+      result = ByteBuffer.allocate(this.header.remaining());
+      result.put(this.header);
+      result.flip();
+    }
+    reset();
+    return result;
+  }
+
+  void reset() {
+    this.header.clear();
+    this.frame = null;
+    this.oversized = false;
+  }
+
+  /**
+   * @return true if the buffer is full
+   */
+  private static boolean fill(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      int bytesRead = channel.read(buffer);
+      if (bytesRead == -1) {
+        throw new EOFException("The connection has been reset while reading a message");
+      }
+      if (bytesRead == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -65,6 +65,11 @@ public class OriginalServerConnection extends ServerConnection {
     return true;
   }
 
+  @Override
+  protected boolean isReadyForMessageFraming() {
+    return !this.doHandshake;
+  }
+
   @Override
   protected void doOneMessage() {
     if (this.doHandshake) {
@@ -441,6 +441,18 @@ public class Part {
     }
   }
 
+  /**
+   * Returns a buffer over this part's off-heap memory that can be written to a socket channel
+   * without copying it, or null if this part has to be copied to be sent. Heap byte arrays are not
+   * returned because the channel would copy them into a temporary direct buffer anyway.
+   */
+  ByteBuffer getBufferForGatherWrite() {
+    if (this.part instanceof StoredObject) {
+      return ((StoredObject) this.part).createDirectByteBuffer();
+    }
+    return null;
+  }
+
   private static String typeCodeToString(byte c) {
     switch (c) {
       case BYTE_CODE:
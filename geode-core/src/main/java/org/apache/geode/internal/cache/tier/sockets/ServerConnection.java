@@ -27,6 +27,7 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
@@ -156,6 +157,11 @@ public abstract class ServerConnection implements Runnable {
 
   Socket theSocket;
   private ByteBuffer commBuffer;
+  /**
+   * Buffers partially received messages while this connection is registered with the selector;
+   * null if the acceptor does not frame messages in its selector thread.
+   */
+  private final MessageFrameAssembler frameAssembler;
   protected final CachedRegionHelper crHelper;
   protected String name;
 
@@ -273,6 +279,12 @@ public abstract class ServerConnection implements Runnable {
 
     this.securityService = securityService;
 
+    if (this.acceptor.isSelector() && this.acceptor.isFramingMessagesInSelector()) {
+      this.frameAssembler = new MessageFrameAssembler(this.acceptor.getMaxSelectorFrameSize());
+    } else {
+      this.frameAssembler = null;
+    }
+
     final boolean isDebugEnabled = logger.isDebugEnabled();
     try {
       theSocket = socket;
@@ -1188,6 +1200,9 @@ public abstract class ServerConnection implements Runnable {
         this.stats.decThreadQueueSize();
         if (!isTerminated()) {
           getAcceptor().setTLCommBuffer();
+          if (this.frameAssembler != null && this.frameAssembler.hasBufferedBytes()) {
+            this.requestMessage.setBufferedInput(this.frameAssembler.takeBufferedBytes());
+          }
           doOneMessage();
           if (this.processMessages && !(this.crHelper.isShutdown())) {
             registerWithSelector(); // finished message so reregister
@@ -1247,6 +1262,27 @@ public abstract class ServerConnection implements Runnable {
     getAcceptor().registerSC(this);
   }
 
+  /**
+   * Called by the selector thread when this connection is readable. Reads whatever bytes of the
+   * next message are available without blocking.
+   *
+   * @return true if this connection should now be handed to a worker thread
+   */
+  boolean readAvailableMessageBytes() throws IOException {
+    if (this.frameAssembler == null || !isReadyForMessageFraming()) {
+      return true;
+    }
+    return this.frameAssembler.readFrom((ReadableByteChannel) getSelectableChannel());
+  }
+
+  /**
+   * Returns true if the bytes that will next arrive on this connection are framed as a
+   * {@link Message}. Subclasses override this once their handshake has completed.
+   */
+  protected boolean isReadyForMessageFraming() {
+    return false;
+  }
+
   SelectableChannel getSelectableChannel() {
     return this.theSocket.getChannel();
   }
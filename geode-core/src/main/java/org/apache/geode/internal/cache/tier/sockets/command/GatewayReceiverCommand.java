@@ -16,10 +16,20 @@ package org.apache.geode.internal.cache.tier.sockets.command;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.geode.CancelException;
+import org.apache.geode.InternalGemFireException;
 import org.apache.geode.cache.EntryNotFoundException;
+import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.operations.DestroyOperationContext;
 import org.apache.geode.cache.operations.PutOperationContext;
@@ -33,6 +43,8 @@ import org.apache.geode.internal.cache.EventID;
 import org.apache.geode.internal.cache.EventIDHolder;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.internal.cache.PartitionedRegionHelper;
 import org.apache.geode.internal.cache.tier.CachedRegionHelper;
 import org.apache.geode.internal.cache.tier.Command;
 import org.apache.geode.internal.cache.tier.MessageType;
@@ -42,6 +54,7 @@ import org.apache.geode.internal.cache.tier.sockets.Part;
 import org.apache.geode.internal.cache.tier.sockets.ServerConnection;
 import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.cache.wan.BatchException70;
+import org.apache.geode.internal.cache.wan.GatewayBatchCompression;
 import org.apache.geode.internal.cache.wan.GatewayReceiverStats;
 import org.apache.geode.internal.security.AuthorizeRequest;
 import org.apache.geode.internal.security.SecurityService;
@@ -77,24 +90,14 @@ public class GatewayReceiverCommand extends BaseCommand {
   @Override
   public void cmdExecute(final Message clientMessage, final ServerConnection serverConnection,
       final SecurityService securityService, long start) throws IOException, InterruptedException {
-    Part regionNamePart = null, keyPart = null, valuePart = null, callbackArgPart = null;
-    String regionName = null;
-    Object callbackArg = null, key = null;
     int partNumber = 0;
-    CachedRegionHelper crHelper = serverConnection.getCachedRegionHelper();
     GatewayReceiverStats stats = (GatewayReceiverStats) serverConnection.getCacheServerStats();
-    EventID eventId = null;
-    LocalRegion region = null;
-    List<BatchException70> exceptions = new ArrayList<BatchException70>();
-    Throwable fatalException = null;
     // requiresResponse = true;// let PROCESS_BATCH deal with this itself
     {
       long oldStart = start;
       start = DistributionStats.getStatTime();
       stats.incReadProcessBatchRequestTime(start - oldStart);
     }
-    Part callbackArgExistsPart;
-
     stats.incBatchSize(clientMessage.getPayloadLength());
 
     // Retrieve the number of events
@@ -160,19 +163,89 @@ public class GatewayReceiverCommand extends BaseCommand {
     partNumber = 2;
     int dsid = clientMessage.getPart(partNumber++).getInt();
 
+    byte batchFlags = clientMessage.getPart(partNumber++).getSerializedForm()[0];
     boolean removeOnException =
-        clientMessage.getPart(partNumber++).getSerializedForm()[0] == 1 ? true : false;
+        (batchFlags & GatewayBatchCompression.REMOVE_FROM_QUEUE_ON_EXCEPTION) != 0;
+    boolean valuesCompressed = (batchFlags & GatewayBatchCompression.VALUES_COMPRESSED) != 0;
 
-    // event received in batch also have PDX events at the start of the batch,to
-    // represent correct index on which the exception occurred, number of PDX
-    // events need to be subtracted.
-    int indexWithoutPDXEvent = -1; //
-    for (int i = 0; i < numberOfEvents; i++) {
+    ProcessedBatch batch = new ProcessedBatch(clientMessage, serverConnection, stats, batchId,
+        numberOfEvents, dsid, removeOnException, valuesCompressed);
+    List<BatchEvent> events = getEvents(clientMessage, partNumber, numberOfEvents);
+    ExecutorService applyPool = serverConnection.getAcceptor().getGatewayApplyPool();
+    if (applyPool != null && numberOfEvents > 1) {
+      processEventsInParallel(batch, events, applyPool, GatewayReceiver.PARALLEL_APPLY_THREADS,
+          this::processEvents);
+    } else {
+      processEvents(batch, events);
+    }
+    if (batch.cancelException != null) {
+      serverConnection.setFlagProcessMessagesAsFalse();
+      serverConnection.setClientDisconnectedException(batch.cancelException);
+      return;
+    }
+    Throwable fatalException = batch.fatalException;
+    List<BatchException70> exceptions = batch.getExceptions();
+
+    {
+      long oldStart = start;
+      start = DistributionStats.getStatTime();
+      stats.incProcessBatchTime(start - oldStart);
+    }
+    if (fatalException != null) {
+      serverConnection.incrementLatestBatchIdReplied(batchId);
+      writeFatalException(clientMessage, fatalException, serverConnection, batchId);
+      serverConnection.setAsTrue(RESPONDED);
+    } else if (!exceptions.isEmpty()) {
+      serverConnection.incrementLatestBatchIdReplied(batchId);
+      writeBatchException(clientMessage, exceptions, serverConnection, batchId);
+      serverConnection.setAsTrue(RESPONDED);
+    } else {
+      // Increment the batch id unless the received batch id is -1 (a failover
+      // batch)
+      serverConnection.incrementLatestBatchIdReplied(batchId);
+
+      writeReply(clientMessage, serverConnection, batchId, numberOfEvents);
+      serverConnection.setAsTrue(RESPONDED);
+      stats.incWriteProcessBatchResponseTime(DistributionStats.getStatTime() - start);
+      if (logger.isDebugEnabled()) {
+        logger.debug(
+            "{}: Sent process batch normal response for batch {} containing {} events ({} bytes) with {} acknowledgement on {}",
+            serverConnection.getName(), batchId, numberOfEvents, clientMessage.getPayloadLength(),
+            "normal", serverConnection.getSocketString());
+      }
+    }
+  }
+
+  /**
+   * Applies events of a batch in order. Stops once the processing of the batch has been stopped by
+   * a fatal exception or the cache closing, in this thread or another one applying other events of
+   * the batch.
+   */
+  private void processEvents(ProcessedBatch batch, List<BatchEvent> events)
+      throws InterruptedException, IOException {
+    final Message clientMessage = batch.clientMessage;
+    final ServerConnection serverConnection = batch.serverConnection;
+    final GatewayReceiverStats stats = batch.stats;
+    final int batchId = batch.batchId;
+    final int numberOfEvents = batch.numberOfEvents;
+    final int dsid = batch.dsid;
+    final boolean removeOnException = batch.removeOnException;
+    final boolean valuesCompressed = batch.valuesCompressed;
+    Part regionNamePart = null, keyPart = null, valuePart = null, callbackArgPart = null;
+    String regionName = null;
+    Object callbackArg = null, key = null;
+    CachedRegionHelper crHelper = serverConnection.getCachedRegionHelper();
+    EventID eventId = null;
+    LocalRegion region = null;
+    Part callbackArgExistsPart;
+
+    for (BatchEvent event : events) {
+      if (batch.isStopped()) {
+        return;
+      }
       boolean retry = true;
       boolean isPdxEvent = false;
-      indexWithoutPDXEvent++;
-      // System.out.println("Processing event " + i + " in batch " + batchId + "
-      // starting with part number " + partNumber);
+      int partNumber = event.partNumber;
       Part actionTypePart = clientMessage.getPart(partNumber);
       int actionType = actionTypePart.getInt();
 
@@ -183,10 +256,6 @@ public class GatewayReceiverCommand extends BaseCommand {
 
       try {
         do {
-          if (isPdxEvent) {
-            // This is a retried event. Reset the PDX event index.
-            indexWithoutPDXEvent++;
-          }
           isPdxEvent = false;
           Part possibleDuplicatePart = clientMessage.getPart(partNumber + 1);
           byte[] possibleDuplicatePartBytes;
@@ -212,7 +281,6 @@ public class GatewayReceiverCommand extends BaseCommand {
           regionNamePart = clientMessage.getPart(partNumber + 2);
           regionName = regionNamePart.getString();
           if (regionName.equals(PeerTypeRegistration.REGION_FULL_PATH)) {
-            indexWithoutPDXEvent--;
             isPdxEvent = true;
           }
 
@@ -239,7 +307,8 @@ public class GatewayReceiverCommand extends BaseCommand {
           // Retrieve the key from the message parts
           keyPart = clientMessage.getPart(partNumber + 4);
           try {
-            key = keyPart.getStringOrObject();
+            // the key may have been deserialized to choose the group of the event
+            key = event.key != null ? event.key : keyPart.getStringOrObject();
           } catch (Exception e) {
             logger.warn(String.format(
                 "%s: Caught exception processing batch request %s containing %s events",
@@ -330,6 +399,9 @@ public class GatewayReceiverCommand extends BaseCommand {
                   clientEvent.setPossibleDuplicate(possibleDuplicate);
                   handleMessageRetry(region, clientEvent);
                   byte[] value = valuePart.getSerializedForm();
+                  if (valuesCompressed) {
+                    value = GatewayBatchCompression.decompress(value);
+                  }
                   boolean isObject = valuePart.isObject();
                   // [sumedh] This should be done on client while sending
                   // since that is the WAN gateway
@@ -456,6 +528,9 @@ public class GatewayReceiverCommand extends BaseCommand {
                   clientEvent.setPossibleDuplicate(possibleDuplicate);
                   handleMessageRetry(region, clientEvent);
                   byte[] value = valuePart.getSerializedForm();
+                  if (valuesCompressed) {
+                    value = GatewayBatchCompression.decompress(value);
+                  }
                   boolean isObject = valuePart.isObject();
                   AuthorizeRequest authzRequest = serverConnection.getAuthzRequest();
                   if (authzRequest != null) {
@@ -684,8 +759,7 @@ public class GatewayReceiverCommand extends BaseCommand {
               serverConnection.getName(), MessageType.getString(clientMessage.getMessageType()),
               serverConnection.getProxyID());
         }
-        serverConnection.setFlagProcessMessagesAsFalse();
-        serverConnection.setClientDisconnectedException(e);
+        batch.cancelException = e;
         return;
       } catch (Exception e) {
         // If an interrupted exception is thrown , rethrow it
@@ -693,11 +767,11 @@ public class GatewayReceiverCommand extends BaseCommand {
 
         // If we have an issue with the PDX registry, stop processing more data
         if (e.getCause() instanceof PdxRegistryMismatchException) {
-          fatalException = e.getCause();
+          batch.fatalException = e.getCause();
           logger.fatal(String.format(
               "This gateway receiver has received a PDX type from %s that does match the existing PDX type. This gateway receiver will not process any more events, in order to prevent receiving objects which may not be deserializable.",
               new Object[] {serverConnection.getMembershipID()}), e.getCause());
-          break;
+          return;
         }
 
         // Increment the batch id unless the received batch id is -1 (a
@@ -709,60 +783,182 @@ public class GatewayReceiverCommand extends BaseCommand {
                 ((InternalDistributedSystem) ds).getDistributionManager().getDistributedSystemId(),
                 ds.getDistributedMember()});
         BatchException70 be =
-            new BatchException70(exceptionMessage, e, indexWithoutPDXEvent, batchId);
-        exceptions.add(be);
-      } finally {
-        // Increment the partNumber
-        if (actionType == 0 /* create */ || actionType == 1 /* update */) {
-          if (callbackArgExists) {
-            partNumber += 9;
-          } else {
-            partNumber += 8;
-          }
-        } else if (actionType == 2 /* destroy */) {
-          if (callbackArgExists) {
-            partNumber += 8;
-          } else {
-            partNumber += 7;
-          }
-        } else if (actionType == 3 /* update-version */) {
-          if (callbackArgExists) {
-            partNumber += 8;
+            new BatchException70(exceptionMessage, e, event.indexWithoutPDXEvent, batchId);
+        batch.exceptions.add(be);
+      }
+    }
+  }
+
+  /**
+   * Applies the PDX types of a batch, then its other events in groups applied in parallel, the
+   * first one by this thread. All the events of a key are in the same group, and so are all the
+   * events of a bucket of a partitioned region without a partition resolver, so they are applied in
+   * the order they were sent. Returns once all the groups are applied, so that the batch is only
+   * acknowledged then.
+   */
+  static void processEventsInParallel(ProcessedBatch batch, List<BatchEvent> events,
+      ExecutorService applyPool, int numberOfGroups, EventsProcessor processor)
+      throws InterruptedException, IOException {
+    List<BatchEvent> pdxEvents = new ArrayList<>();
+    for (BatchEvent event : events) {
+      if (event.isPdxEvent) {
+        pdxEvents.add(event);
+      }
+    }
+    // the keys of the other events, which are deserialized to group them, may need the types
+    processor.process(batch, pdxEvents);
+
+    List<List<BatchEvent>> groups = getApplyGroups(batch, events, numberOfGroups);
+    List<BatchEvent> ownEvents = new ArrayList<>();
+    List<Future<?>> futures = new ArrayList<>(numberOfGroups - 1);
+    for (List<BatchEvent> group : groups) {
+      if (group.isEmpty()) {
+        continue;
+      }
+      if (ownEvents.isEmpty()) {
+        ownEvents.addAll(group);
+        continue;
+      }
+      try {
+        futures.add(applyPool.submit(() -> {
+          processor.process(batch, group);
+          return null;
+        }));
+      } catch (RejectedExecutionException e) {
+        // the acceptor is closing
+        ownEvents.addAll(group);
+      }
+    }
+
+    Throwable failure = null;
+    try {
+      processor.process(batch, ownEvents);
+    } catch (InterruptedException | IOException | RuntimeException | Error e) {
+      failure = e;
+    }
+    // the other groups are still reading the message, so wait for them even when interrupted
+    boolean interrupted = false;
+    for (Future<?> future : futures) {
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause();
           } else {
-            partNumber += 7;
+            failure.addSuppressed(e.getCause());
           }
+          break;
         }
       }
     }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      if (failure == null) {
+        failure = new InterruptedException();
+      }
+    }
+    if (failure instanceof InterruptedException) {
+      throw (InterruptedException) failure;
+    } else if (failure instanceof IOException) {
+      throw (IOException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure != null) {
+      throw new InternalGemFireException(failure);
+    }
+  }
 
-    {
-      long oldStart = start;
-      start = DistributionStats.getStatTime();
-      stats.incProcessBatchTime(start - oldStart);
+  /**
+   * Splits the events of a batch that are not PDX types into the groups of
+   * {@link #processEventsInParallel}.
+   */
+  static List<List<BatchEvent>> getApplyGroups(ProcessedBatch batch, List<BatchEvent> events,
+      int numberOfGroups) {
+    List<List<BatchEvent>> groups = new ArrayList<>(numberOfGroups);
+    for (int i = 0; i < numberOfGroups; i++) {
+      groups.add(new ArrayList<>());
     }
-    if (fatalException != null) {
-      serverConnection.incrementLatestBatchIdReplied(batchId);
-      writeFatalException(clientMessage, fatalException, serverConnection, batchId);
-      serverConnection.setAsTrue(RESPONDED);
-    } else if (!exceptions.isEmpty()) {
-      serverConnection.incrementLatestBatchIdReplied(batchId);
-      writeBatchException(clientMessage, exceptions, serverConnection, batchId);
-      serverConnection.setAsTrue(RESPONDED);
+    InternalCache cache =
+        batch.serverConnection.getCachedRegionHelper().getCacheForGatewayCommand();
+    Map<String, Region> regions = new HashMap<>();
+    for (BatchEvent event : events) {
+      if (!event.isPdxEvent) {
+        groups.get(getApplyGroup(cache, regions, batch.clientMessage, event, numberOfGroups))
+            .add(event);
+      }
+    }
+    return groups;
+  }
+
+  /**
+   * Returns the group of {@link #processEventsInParallel} an event is applied in, and keeps the
+   * key it deserialized in the event.
+   */
+  private static int getApplyGroup(InternalCache cache, Map<String, Region> regions,
+      Message clientMessage, BatchEvent event, int numberOfGroups) {
+    String regionName = clientMessage.getPart(event.partNumber + 2).getString();
+    Object key;
+    try {
+      key = clientMessage.getPart(event.partNumber + 4).getStringOrObject();
+    } catch (Exception e) {
+      // the exception is reported when the event is applied
+      return 0;
+    }
+    if (regionName == null || key == null) {
+      return 0;
+    }
+    event.key = key;
+    Region region = regions.computeIfAbsent(regionName, cache::getRegion);
+    int hash;
+    if (region instanceof PartitionedRegion
+        && ((PartitionedRegion) region).getPartitionResolver() == null) {
+      hash = PartitionedRegionHelper.getHashKey((PartitionedRegion) region, key);
     } else {
-      // Increment the batch id unless the received batch id is -1 (a failover
-      // batch)
-      serverConnection.incrementLatestBatchIdReplied(batchId);
+      hash = key.hashCode();
+    }
+    return Math.floorMod(31 * regionName.hashCode() + hash, numberOfGroups);
+  }
 
-      writeReply(clientMessage, serverConnection, batchId, numberOfEvents);
-      serverConnection.setAsTrue(RESPONDED);
-      stats.incWriteProcessBatchResponseTime(DistributionStats.getStatTime() - start);
-      if (logger.isDebugEnabled()) {
-        logger.debug(
-            "{}: Sent process batch normal response for batch {} containing {} events ({} bytes) with {} acknowledgement on {}",
-            serverConnection.getName(), batchId, numberOfEvents, clientMessage.getPayloadLength(),
-            "normal", serverConnection.getSocketString());
+  /**
+   * Finds the events of a batch from the part of the first one.
+   */
+  static List<BatchEvent> getEvents(Message clientMessage, int partNumber,
+      int numberOfEvents) {
+    List<BatchEvent> events = new ArrayList<>(numberOfEvents);
+    // event received in batch also have PDX events at the start of the batch,to
+    // represent correct index on which the exception occurred, number of PDX
+    // events need to be subtracted.
+    int indexWithoutPDXEvent = -1;
+    for (int i = 0; i < numberOfEvents; i++) {
+      boolean isPdxEvent = PeerTypeRegistration.REGION_FULL_PATH
+          .equals(clientMessage.getPart(partNumber + 2).getString());
+      if (!isPdxEvent) {
+        indexWithoutPDXEvent++;
+      }
+      events.add(new BatchEvent(partNumber, indexWithoutPDXEvent, isPdxEvent));
+      int actionType = clientMessage.getPart(partNumber).getInt();
+      if (actionType == 0 /* create */ || actionType == 1 /* update */) {
+        partNumber += callbackArgExists(clientMessage.getPart(partNumber + 6)) ? 9 : 8;
+      } else if (actionType == 2 /* destroy */ || actionType == 3 /* update-version */) {
+        partNumber += callbackArgExists(clientMessage.getPart(partNumber + 5)) ? 8 : 7;
       }
     }
+    return events;
+  }
+
+  private static boolean callbackArgExists(Part callbackArgExistsPart) {
+    try {
+      return ((byte[]) callbackArgExistsPart.getObject())[0] == 0x01;
+    } catch (Exception e) {
+      // the exception is reported when the event is applied
+      return false;
+    }
   }
 
   private boolean addPdxType(CachedRegionHelper crHelper, Object key, Object value)
@@ -870,4 +1066,80 @@ public class GatewayReceiverCommand extends BaseCommand {
     logger.warn(servConn.getName() + ": Wrote batch exception: ",
         exception);
   }
+
+  /**
+   * Applies events of a batch.
+   */
+  @FunctionalInterface
+  interface EventsProcessor {
+    void process(ProcessedBatch batch, List<BatchEvent> events)
+        throws InterruptedException, IOException;
+  }
+
+  /**
+   * A batch being processed, and how the processing of its events ended.
+   */
+  static class ProcessedBatch {
+    final Message clientMessage;
+    final ServerConnection serverConnection;
+    final GatewayReceiverStats stats;
+    final int batchId;
+    final int numberOfEvents;
+    final int dsid;
+    final boolean removeOnException;
+    final boolean valuesCompressed;
+
+    final List<BatchException70> exceptions = Collections.synchronizedList(new ArrayList<>());
+
+    volatile Throwable fatalException;
+
+    volatile CancelException cancelException;
+
+    ProcessedBatch(Message clientMessage, ServerConnection serverConnection,
+        GatewayReceiverStats stats, int batchId, int numberOfEvents, int dsid,
+        boolean removeOnException, boolean valuesCompressed) {
+      this.clientMessage = clientMessage;
+      this.serverConnection = serverConnection;
+      this.stats = stats;
+      this.batchId = batchId;
+      this.numberOfEvents = numberOfEvents;
+      this.dsid = dsid;
+      this.removeOnException = removeOnException;
+      this.valuesCompressed = valuesCompressed;
+    }
+
+    boolean isStopped() {
+      return this.fatalException != null || this.cancelException != null;
+    }
+
+    /**
+     * Returns the exceptions in the order of the events they occurred for.
+     */
+    List<BatchException70> getExceptions() {
+      List<BatchException70> result = new ArrayList<>(this.exceptions);
+      result.sort(Comparator.comparingInt(BatchException70::getIndex));
+      return result;
+    }
+  }
+
+  /**
+   * Where an event starts in a batch message.
+   */
+  static class BatchEvent {
+    final int partNumber;
+
+    /** The index of the event among the events of the batch that are not PDX types */
+    final int indexWithoutPDXEvent;
+
+    final boolean isPdxEvent;
+
+    /** The key, if it has been deserialized before the event is applied */
+    Object key;
+
+    BatchEvent(int partNumber, int indexWithoutPDXEvent, boolean isPdxEvent) {
+      this.partNumber = partNumber;
+      this.indexWithoutPDXEvent = indexWithoutPDXEvent;
+      this.isPdxEvent = isPdxEvent;
+    }
+  }
 }
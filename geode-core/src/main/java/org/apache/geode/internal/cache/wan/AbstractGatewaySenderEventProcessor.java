@@ -141,9 +141,9 @@ public abstract class AbstractGatewaySenderEventProcessor extends LoggingThread
   /**
    * The batchSize is the batch size being used by this processor. By default, it is the configured
    * batch size of the GatewaySender. It may be automatically reduced if a MessageTooLargeException
-   * occurs.
+   * occurs, or changed by the ack reader thread if adaptive batch sizing is enabled.
    */
-  private int batchSize;
+  private volatile int batchSize;
 
   public AbstractGatewaySenderEventProcessor(String string,
       GatewaySender sender, ThreadsMonitoring tMonitoring) {
@@ -233,6 +233,16 @@ public abstract class AbstractGatewaySenderEventProcessor extends LoggingThread
     }
   }
 
+  /**
+   * Sets the batch size chosen by adaptive batch sizing, which changes it too often to log it.
+   */
+  protected void adjustBatchSize(int batchSize) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("Adjusted the batch size from {} to {} events", this.batchSize, batchSize);
+    }
+    this.batchSize = Math.max(batchSize, 1);
+  }
+
   /**
    * Returns the current batch id to be used to identify the next batch.
    *
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+import org.apache.geode.cache.wan.GatewaySender;
+import org.apache.geode.compression.Compressor;
+import org.apache.geode.compression.SnappyCompressor;
+import org.apache.geode.internal.Version;
+
+/**
+ * The flags of a batch of events sent by a gateway sender to a gateway receiver, and the
+ * compression of its event values. The flags are sent in the byte that older senders use for the
+ * removeFromQueueOnException boolean, so a sender only compresses the values of a batch when
+ * {@link GatewaySender#COMPRESS_BATCHES} is set and the receiver is recent enough to read the
+ * other flags. The version of a receiver cannot tell builds of the current version with and
+ * without compression apart, which is why {@link GatewaySender#COMPRESS_BATCHES} must only be set
+ * once every site has been upgraded.
+ */
+public class GatewayBatchCompression {
+
+  /** Set if the receiver should not retry the events of the batch that fail */
+  public static final byte REMOVE_FROM_QUEUE_ON_EXCEPTION = 0x01;
+
+  /** Set if the event values of the batch are compressed */
+  public static final byte VALUES_COMPRESSED = 0x02;
+
+  private static final Version MINIMUM_RECEIVER_VERSION = Version.GEODE_190;
+
+  private static final Compressor compressor = new SnappyCompressor();
+
+  private GatewayBatchCompression() {
+    // no instances allowed
+  }
+
+  /**
+   * Returns whether a receiver of the given version ordinal can decompress event values.
+   */
+  public static boolean isSupportedBy(short receiverVersionOrdinal) {
+    return receiverVersionOrdinal >= MINIMUM_RECEIVER_VERSION.ordinal();
+  }
+
+  public static byte[] compress(byte[] value) {
+    return value == null ? null : compressor.compress(value);
+  }
+
+  public static byte[] decompress(byte[] value) {
+    return value == null ? null : compressor.decompress(value);
+  }
+}
@@ -98,6 +98,13 @@ public class GatewaySenderStats {
   protected static final String SYNCHRONIZATION_EVENTS_ENQUEUED = "synchronizationEventsEnqueued";
   protected static final String SYNCHRONIZATION_EVENTS_PROVIDED = "synchronizationEventsProvided";
 
+  protected static final String BATCH_BYTES_SENT = "batchBytesSent";
+  protected static final String EVENT_VALUE_BYTES = "eventValueBytes";
+  protected static final String COMPRESSED_EVENT_VALUE_BYTES = "compressedEventValueBytes";
+  protected static final String BATCHES_ACKNOWLEDGED = "batchesAcknowledged";
+  protected static final String BATCH_ACKNOWLEDGEMENT_TIME = "batchAcknowledgementTime";
+  protected static final String BATCH_SIZE = "batchSize";
+
   /** Id of the events queued statistic */
   protected static int eventsReceivedId;
   /** Id of the events queued statistic */
@@ -159,6 +166,18 @@ public class GatewaySenderStats {
   protected static int synchronizationEventsEnqueuedId;
   /** Id of synchronization events provided */
   protected static int synchronizationEventsProvidedId;
+  /** Id of the batch bytes sent statistic */
+  protected static int batchBytesSentId;
+  /** Id of the event value bytes statistic */
+  protected static int eventValueBytesId;
+  /** Id of the compressed event value bytes statistic */
+  protected static int compressedEventValueBytesId;
+  /** Id of the batches acknowledged statistic */
+  protected static int batchesAcknowledgedId;
+  /** Id of the batch acknowledgement time statistic */
+  protected static int batchAcknowledgementTimeId;
+  /** Id of the batch size statistic */
+  protected static int batchSizeId;
 
   /**
    * Static initializer to create and initialize the <code>StatisticsType</code>
@@ -244,7 +263,23 @@ public class GatewaySenderStats {
             f.createIntCounter(SYNCHRONIZATION_EVENTS_ENQUEUED,
                 "Number of synchronization events added to the event queue.", "operations"),
             f.createIntCounter(SYNCHRONIZATION_EVENTS_PROVIDED,
-                "Number of synchronization events provided to other members.", "operations"),});
+                "Number of synchronization events provided to other members.", "operations"),
+            f.createLongCounter(BATCH_BYTES_SENT,
+                "Number of bytes of batches of events sent to gateway receivers.", "bytes"),
+            f.createLongCounter(EVENT_VALUE_BYTES,
+                "Number of bytes of event values sent to gateway receivers, before compression.",
+                "bytes"),
+            f.createLongCounter(COMPRESSED_EVENT_VALUE_BYTES,
+                "Number of bytes of event values sent to gateway receivers, after compression.",
+                "bytes"),
+            f.createIntCounter(BATCHES_ACKNOWLEDGED,
+                "Number of batches of events acknowledged by gateway receivers.", "operations"),
+            f.createLongCounter(BATCH_ACKNOWLEDGEMENT_TIME,
+                "Total time between sending batches of events and receiving their acknowledgement.",
+                "nanoseconds"),
+            f.createIntGauge(BATCH_SIZE,
+                "Number of events in a batch when adaptive batch sizing is enabled.",
+                "operations"),});
 
     // Initialize id fields
     eventsReceivedId = type.nameToId(EVENTS_RECEIVED);
@@ -280,6 +315,12 @@ public class GatewaySenderStats {
     loadBalanceTimeId = type.nameToId(LOAD_BALANCE_TIME);
     synchronizationEventsEnqueuedId = type.nameToId(SYNCHRONIZATION_EVENTS_ENQUEUED);
     synchronizationEventsProvidedId = type.nameToId(SYNCHRONIZATION_EVENTS_PROVIDED);
+    batchBytesSentId = type.nameToId(BATCH_BYTES_SENT);
+    eventValueBytesId = type.nameToId(EVENT_VALUE_BYTES);
+    compressedEventValueBytesId = type.nameToId(COMPRESSED_EVENT_VALUE_BYTES);
+    batchesAcknowledgedId = type.nameToId(BATCHES_ACKNOWLEDGED);
+    batchAcknowledgementTimeId = type.nameToId(BATCH_ACKNOWLEDGEMENT_TIME);
+    batchSizeId = type.nameToId(BATCH_SIZE);
   }
 
   ////////////////////// Instance Fields //////////////////////
@@ -884,6 +925,50 @@ public class GatewaySenderStats {
     this.stats.incInt(synchronizationEventsProvidedId, 1);
   }
 
+  /**
+   * Increments the bytes of batches sent to gateway receivers, and the bytes of their event values
+   * before and after compression.
+   */
+  public void incBatchBytesSent(long batchBytes, long valueBytes, long compressedValueBytes) {
+    this.stats.incLong(batchBytesSentId, batchBytes);
+    this.stats.incLong(eventValueBytesId, valueBytes);
+    this.stats.incLong(compressedEventValueBytesId, compressedValueBytes);
+  }
+
+  public long getBatchBytesSent() {
+    return this.stats.getLong(batchBytesSentId);
+  }
+
+  public long getEventValueBytes() {
+    return this.stats.getLong(eventValueBytesId);
+  }
+
+  public long getCompressedEventValueBytes() {
+    return this.stats.getLong(compressedEventValueBytesId);
+  }
+
+  /**
+   * Increments the "batchesAcknowledged" and "batchAcknowledgementTime" stats.
+   *
+   * @param elapsed the nanoseconds between sending the batch and receiving its acknowledgement
+   */
+  public void endBatchAcknowledgement(long elapsed) {
+    this.stats.incInt(batchesAcknowledgedId, 1);
+    this.stats.incLong(batchAcknowledgementTimeId, elapsed);
+  }
+
+  public int getBatchesAcknowledged() {
+    return this.stats.getInt(batchesAcknowledgedId);
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.stats.setInt(batchSizeId, batchSize);
+  }
+
+  public int getBatchSize() {
+    return this.stats.getInt(batchSizeId);
+  }
+
   public Statistics getStats() {
     return stats;
   }
@@ -44,6 +44,7 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamResult;
 
+import org.apache.logging.log4j.Logger;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.DTDHandler;
@@ -98,6 +99,7 @@ import org.apache.geode.cache.execute.Function;
 import org.apache.geode.cache.execute.FunctionService;
 import org.apache.geode.cache.partition.PartitionListener;
 import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.IndexType;
 import org.apache.geode.cache.query.internal.index.HashIndex;
 import org.apache.geode.cache.query.internal.index.PrimaryKeyIndex;
 import org.apache.geode.cache.server.CacheServer;
@@ -124,6 +126,7 @@ import org.apache.geode.internal.cache.control.MemoryThresholds;
 import org.apache.geode.internal.cache.extension.Extensible;
 import org.apache.geode.internal.cache.extension.Extension;
 import org.apache.geode.internal.cache.persistence.DefaultDiskDirs;
+import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.size.SizeClassOnceObjectSizer;
 import org.apache.geode.management.internal.configuration.utils.XmlConstants;
 import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
@@ -138,6 +141,8 @@ import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
 @SuppressWarnings("deprecation")
 public class CacheXmlGenerator extends CacheXml implements XMLReader {
 
+  private static final Logger logger = LogService.getLogger();
+
   /** An empty <code>Attributes</code> */
   private static final Attributes EMPTY = new AttributesImpl();
 
@@ -1766,6 +1771,11 @@ public class CacheXmlGenerator extends CacheXml implements XMLReader {
         String indexType = "range";
         if (index instanceof HashIndex) {
           indexType = "hash";
+        } else if (index.getType() == IndexType.BITMAP) {
+          // cache.xml has no bitmap index type, and a bitmap index is a compact range index
+          logger.warn(
+              "Index {} is a bitmap index, which cache.xml cannot describe, so it is generated as a range index",
+              index.getName());
         }
         atts.addAttribute("", "", INDEX_TYPE, "", "" + indexType);
       }
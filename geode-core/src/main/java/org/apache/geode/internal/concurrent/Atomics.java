@@ -23,6 +23,7 @@ import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.internal.statistics.LocalStatisticsImpl;
 import org.apache.geode.internal.statistics.StatisticsManager;
 import org.apache.geode.internal.statistics.StatisticsTypeImpl;
+import org.apache.geode.internal.statistics.StripedStatisticsImpl;
 import org.apache.geode.internal.stats50.Atomic50StatisticsImpl;
 
 public class Atomics {
@@ -39,7 +40,9 @@ public class Atomics {
   public static Statistics createAtomicStatistics(StatisticsType type, String textId, long nId,
       long uId, StatisticsManager mgr) {
     Statistics result = null;
-    if (((StatisticsTypeImpl) type).getDoubleStatCount() == 0 && !STRIPED_STATS_DISABLED) {
+    if (StripedStatisticsImpl.isStripedType(type)) {
+      result = new StripedStatisticsImpl(type, textId, nId, uId, mgr);
+    } else if (((StatisticsTypeImpl) type).getDoubleStatCount() == 0 && !STRIPED_STATS_DISABLED) {
       result = new Atomic50StatisticsImpl(type, textId, nId, uId, mgr);
     } else {
       result = new LocalStatisticsImpl(type, textId, nId, uId, true, 0, mgr);
@@ -42,6 +42,7 @@ import org.apache.geode.distributed.internal.PoolStatHelper;
 import org.apache.geode.distributed.internal.PooledExecutorWithDMStats;
 import org.apache.geode.distributed.internal.QueueStatHelper;
 import org.apache.geode.distributed.internal.SerialQueuedExecutorWithDMStats;
+import org.apache.geode.distributed.internal.ThreadPerTaskExecutorWithDMStats;
 import org.apache.geode.internal.ScheduledThreadPoolExecutorWithKeepAlive;
 import org.apache.geode.internal.logging.LoggingThreadFactory.CommandWrapper;
 import org.apache.geode.internal.logging.LoggingThreadFactory.ThreadInitializer;
@@ -140,6 +141,32 @@ public class LoggingExecutors {
         threadsMonitoring);
   }
 
+  /**
+   * Creates an executor that runs each task in a new virtual thread. Only call this if
+   * {@link LoggingVirtualThreadFactory#isSupported()} returns true.
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor(String threadName,
+      ThreadInitializer threadInitializer, CommandWrapper commandWrapper,
+      PoolStatHelper poolStats, ThreadsMonitoring threadsMonitoring) {
+    ThreadFactory threadFactory =
+        new LoggingVirtualThreadFactory(threadName, threadInitializer, commandWrapper);
+    return new ThreadPerTaskExecutorWithDMStats(threadFactory, poolStats, threadsMonitoring,
+        ThreadsMonitoring.Mode.PooledExecutor);
+  }
+
+  /**
+   * Creates an executor that runs each function execution task in a new virtual thread. Only call
+   * this if {@link LoggingVirtualThreadFactory#isSupported()} returns true.
+   */
+  public static ExecutorService newFunctionVirtualThreadPerTaskExecutor(String threadName,
+      ThreadInitializer threadInitializer, CommandWrapper commandWrapper,
+      PoolStatHelper poolStats, ThreadsMonitoring threadsMonitoring) {
+    ThreadFactory threadFactory =
+        new LoggingVirtualThreadFactory(threadName, threadInitializer, commandWrapper);
+    return new ThreadPerTaskExecutorWithDMStats(threadFactory, poolStats, threadsMonitoring,
+        ThreadsMonitoring.Mode.FunctionExecutor);
+  }
+
   public static ExecutorService newThreadPoolWithSynchronousFeed(String threadName,
       CommandWrapper commandWrapper,
       int poolSize) {
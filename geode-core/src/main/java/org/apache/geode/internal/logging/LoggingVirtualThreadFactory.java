@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.geode.internal.logging;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.geode.internal.logging.LoggingThreadFactory.CommandWrapper;
+import org.apache.geode.internal.logging.LoggingThreadFactory.ThreadInitializer;
+
+/**
+ * Produces virtual threads that log uncaught exceptions and have unique names that contain the
+ * "baseName" passed to the constructor. Virtual threads are always daemons.
+ * <p>
+ * Virtual threads are only available when running on JDK 21 or later. Geode is compiled for
+ * older JDKs, so the virtual thread builder is looked up reflectively. Use {@link #isSupported()}
+ * before creating an instance.
+ * <p>
+ * The optional "threadInitializer" and "commandWrapper" behave as they do for
+ * {@link LoggingThreadFactory}.
+ */
+public class LoggingVirtualThreadFactory implements ThreadFactory {
+
+  private static final Method OF_VIRTUAL;
+  private static final Method NAME;
+  private static final Method FACTORY;
+
+  static {
+    Method ofVirtual = null;
+    Method name = null;
+    Method factory = null;
+    try {
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      name = builderClass.getMethod("name", String.class, long.class);
+      factory = builderClass.getMethod("factory");
+    } catch (ReflectiveOperationException ignore) {
+      // running on a JDK without virtual threads
+    }
+    OF_VIRTUAL = ofVirtual;
+    NAME = name;
+    FACTORY = factory;
+  }
+
+  private final ThreadFactory virtualThreadFactory;
+  private final CommandWrapper commandWrapper;
+  private final ThreadInitializer threadInitializer;
+
+  /**
+   * Create a factory that produces virtual threads that log uncaught exceptions
+   *
+   * @param baseName the base name will be included in every thread name
+   * @param threadInitializer if not null, will be invoked with the thread each time a thread is
+   *        created
+   * @param commandWrapper if not null, will be invoked by each thread created by this factory
+   * @throws UnsupportedOperationException if this JDK does not support virtual threads
+   */
+  public LoggingVirtualThreadFactory(String baseName, ThreadInitializer threadInitializer,
+      CommandWrapper commandWrapper) {
+    this.virtualThreadFactory = createVirtualThreadFactory(baseName);
+    this.threadInitializer = threadInitializer;
+    this.commandWrapper = commandWrapper;
+  }
+
+  /**
+   * Returns true if the running JDK can create virtual threads.
+   */
+  public static boolean isSupported() {
+    try {
+      createVirtualThreadFactory("");
+      return true;
+    } catch (UnsupportedOperationException e) {
+      return false;
+    }
+  }
+
+  private static ThreadFactory createVirtualThreadFactory(String baseName) {
+    if (OF_VIRTUAL == null) {
+      throw new UnsupportedOperationException("Virtual threads require JDK 21 or later");
+    }
+    try {
+      Object builder = OF_VIRTUAL.invoke(null);
+      builder = NAME.invoke(builder, baseName, 1L);
+      return (ThreadFactory) FACTORY.invoke(builder);
+    } catch (InvocationTargetException e) {
+      // virtual threads are a preview feature on JDK 19 and 20
+      throw new UnsupportedOperationException("Virtual threads are not enabled",
+          e.getTargetException());
+    } catch (IllegalAccessException e) {
+      throw new UnsupportedOperationException("Virtual threads are not accessible", e);
+    }
+  }
+
+  @Override
+  public Thread newThread(Runnable runnable) {
+    Runnable commandToRun;
+    if (commandWrapper != null) {
+      commandToRun = () -> commandWrapper.invoke(runnable);
+    } else {
+      commandToRun = runnable;
+    }
+    Thread thread = virtualThreadFactory.newThread(commandToRun);
+    LoggingUncaughtExceptionHandler.setOnThread(thread);
+    if (threadInitializer != null) {
+      threadInitializer.initialize(thread);
+    }
+    return thread;
+  }
+}
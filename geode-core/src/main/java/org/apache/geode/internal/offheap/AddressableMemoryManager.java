@@ -19,6 +19,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 
+import org.apache.commons.lang3.JavaVersion;
+import org.apache.commons.lang3.SystemUtils;
+
 import org.apache.geode.internal.SharedLibrary;
 import org.apache.geode.pdx.internal.unsafe.UnsafeWrapper;
 
@@ -180,6 +183,8 @@ public class AddressableMemoryManager {
   private static volatile boolean dbbCreateFailed = false;
   private static volatile Method dbbAddressMethod = null;
   private static volatile boolean dbbAddressFailed = false;
+  private static volatile Method dbbCleanerMethod = null;
+  private static volatile boolean dbbCleanFailed = false;
 
   /**
    * Returns the address of the Unsafe memory for the first byte of a direct ByteBuffer. If the
@@ -230,6 +235,48 @@ public class AddressableMemoryManager {
     }
   }
 
+  /**
+   * Frees the memory of a direct ByteBuffer, or unmaps a MappedByteBuffer, without waiting for the
+   * buffer to be garbage collected. The buffer, and any buffer that shares its memory, must not be
+   * used afterwards. On Java 9 and later this uses Unsafe.invokeCleaner; on older JVMs it runs the
+   * Cleaner of the DirectByteBuffer.
+   *
+   * @return true if the memory was released; false if it will only be released once the buffer is
+   *         garbage collected
+   */
+  public static boolean cleanDirectByteBuffer(ByteBuffer bb) {
+    if (!bb.isDirect() || dbbCleanFailed) {
+      return false;
+    }
+    try {
+      if (SystemUtils.isJavaVersionAtLeast(JavaVersion.JAVA_9)) {
+        if (unsafe == null) {
+          dbbCleanFailed = true;
+          return false;
+        }
+        unsafe.invokeCleaner(bb);
+        return true;
+      }
+      Method m = dbbCleanerMethod;
+      if (m == null) {
+        m = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+        dbbCleanerMethod = m;
+      }
+      Object cleaner = m.invoke(bb);
+      if (cleaner == null) {
+        // a duplicate or slice; the buffer it was created from owns the memory
+        return false;
+      }
+      cleaner.getClass().getMethod("clean").invoke(cleaner);
+      return true;
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // throw new IllegalStateException("Could not clean DirectByteBuffer", e);
+      dbbCleanerMethod = null;
+      dbbCleanFailed = true;
+      return false;
+    }
+  }
+
   /**
    * Create a direct byte buffer given its address and size. The returned ByteBuffer will be direct
    * and use the memory at the given address.
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.statistics;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.distributed.internal.DistributionConfig;
+
+/**
+ * An implementation of {@link Statistics} that keeps each statistic in a {@link LongAdder} or
+ * {@link DoubleAdder}. Increments from different threads go to different cells so they do not
+ * contend on a lock or a cache line; the cells are summed when the statistic is read, which for
+ * most statistics only happens when the sampler takes a sample.
+ * <p>
+ * Setting a statistic is atomic with respect to reads of it, which take the same lock, but not with
+ * respect to concurrent increments of it. This is the same trade off made by the per-thread
+ * striping in {@link org.apache.geode.internal.stats50.Atomic50StatisticsImpl} and is acceptable
+ * because a statistic is normally either set or incremented, not both.
+ *
+ * @see #isStripedType(StatisticsType)
+ */
+public class StripedStatisticsImpl extends StatisticsImpl {
+
+  /**
+   * Comma separated names of the statistics types whose atomic instances are striped, or "*" for
+   * all of them.
+   */
+  public static final String STRIPED_TYPES_PROPERTY =
+      DistributionConfig.GEMFIRE_PREFIX + "statistics.stripedTypes";
+
+  private static final Set<String> STRIPED_TYPES =
+      parseTypeNames(System.getProperty(STRIPED_TYPES_PROPERTY, ""));
+
+  private final LongAdder[] intStorage;
+
+  private final LongAdder[] longStorage;
+
+  private final DoubleAdder[] doubleStorage;
+
+  /** The statistics manager that created this instance */
+  private final StatisticsManager statisticsManager;
+
+  /////////////////////// Constructors ///////////////////////
+
+  /**
+   * Creates a new statistics instance of the given type
+   *
+   * @param type A description of the statistics
+   * @param textId Text that identifies this statistic when it is monitored
+   * @param numericId A number that displayed when this statistic is monitored
+   * @param uniqueId A number that uniquely identifies this instance
+   * @param statisticsManager The statistics manager that is creating this instance
+   */
+  public StripedStatisticsImpl(StatisticsType type, String textId, long numericId, long uniqueId,
+      StatisticsManager statisticsManager) {
+    super(type, textId, numericId, uniqueId, 0);
+    this.statisticsManager = statisticsManager;
+
+    StatisticsTypeImpl realType = (StatisticsTypeImpl) type;
+    this.intStorage = newLongAdders(realType.getIntStatCount());
+    this.longStorage = newLongAdders(realType.getLongStatCount());
+    int doubleCount = realType.getDoubleStatCount();
+    this.doubleStorage = new DoubleAdder[doubleCount];
+    for (int i = 0; i < doubleCount; i++) {
+      this.doubleStorage[i] = new DoubleAdder();
+    }
+  }
+
+  private static LongAdder[] newLongAdders(int count) {
+    LongAdder[] result = new LongAdder[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = new LongAdder();
+    }
+    return result;
+  }
+
+  static Set<String> parseTypeNames(String value) {
+    Set<String> result = new HashSet<>();
+    for (String name : value.split(",")) {
+      name = name.trim();
+      if (!name.isEmpty()) {
+        result.add(name);
+      }
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Returns true if atomic instances of the given type should be striped, as configured by the
+   * {@link #STRIPED_TYPES_PROPERTY} system property.
+   */
+  public static boolean isStripedType(StatisticsType type) {
+    return isStripedType(STRIPED_TYPES, type);
+  }
+
+  static boolean isStripedType(Set<String> stripedTypes, StatisticsType type) {
+    return stripedTypes.contains("*") || stripedTypes.contains(type.getName());
+  }
+
+  ////////////////////// Instance Methods //////////////////////
+
+  @Override
+  public boolean isAtomic() {
+    return true;
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    if (this.statisticsManager != null) {
+      statisticsManager.destroyStatistics(this);
+    }
+  }
+
+  //////////////////////// store() Methods ///////////////////////
+
+  @Override
+  protected void _setInt(int offset, int value) {
+    set(this.intStorage[offset], value);
+  }
+
+  @Override
+  protected void _setLong(int offset, long value) {
+    set(this.longStorage[offset], value);
+  }
+
+  @Override
+  protected void _setDouble(int offset, double value) {
+    DoubleAdder adder = this.doubleStorage[offset];
+    synchronized (adder) {
+      adder.reset();
+      adder.add(value);
+    }
+  }
+
+  private static void set(LongAdder adder, long value) {
+    // serialize setters so that two concurrent sets leave one of their values
+    synchronized (adder) {
+      adder.reset();
+      adder.add(value);
+    }
+  }
+
+  /////////////////////// get() Methods ///////////////////////
+
+  @Override
+  protected int _getInt(int offset) {
+    return (int) get(this.intStorage[offset]);
+  }
+
+  @Override
+  protected long _getLong(int offset) {
+    return get(this.longStorage[offset]);
+  }
+
+  @Override
+  protected double _getDouble(int offset) {
+    DoubleAdder adder = this.doubleStorage[offset];
+    synchronized (adder) {
+      return adder.sum();
+    }
+  }
+
+  private static long get(LongAdder adder) {
+    // a setter resets the adder before adding its value, so read under its lock to never see the
+    // reset without the value
+    synchronized (adder) {
+      return adder.sum();
+    }
+  }
+
+  //////////////////////// inc() Methods ////////////////////////
+
+  @Override
+  protected void _incInt(int offset, int delta) {
+    this.intStorage[offset].add(delta);
+  }
+
+  @Override
+  protected void _incLong(int offset, long delta) {
+    this.longStorage[offset].add(delta);
+  }
+
+  @Override
+  protected void _incDouble(int offset, double delta) {
+    this.doubleStorage[offset].add(delta);
+  }
+}
@@ -617,6 +617,17 @@ public class PdxInstanceImpl extends PdxReaderImpl implements InternalPdxInstanc
     return super.readField(fieldName);
   }
 
+  @Override
+  public Object readField(PdxField ft) {
+    if (ft.isVariableLengthType()) {
+      synchronized (this) {
+        return super.readField(ft);
+      }
+    }
+    // fixed width fields are read at an absolute position so need no sync
+    return super.readField(ft);
+  }
+
   @Override
   protected synchronized Object basicGetObject() {
     DMStats stats = InternalDataSerializer.getDMStats(null);
@@ -659,6 +670,14 @@ public class PdxInstanceImpl extends PdxReaderImpl implements InternalPdxInstanc
     return getUnmodifiableReader(fieldName).readRawField(fieldName);
   }
 
+  /**
+   * The same as {@link #getRawField(String)} for a field that the caller has already looked up in
+   * this instance's type.
+   */
+  public Object getRawField(PdxField ft) {
+    return getUnmodifiableReader(ft.getFieldName()).readRawField(ft);
+  }
+
   @Override
   public boolean isDeserializable() {
     if (this.getClassName().equals(JSONFormatter.JSON_CLASSNAME)) {
@@ -695,6 +695,13 @@ public class PdxReaderImpl implements InternalPdxReader, java.io.Serializable {
     if (ft == null) {
       return null;
     }
+    return readField(ft);
+  }
+
+  /**
+   * Reads the value of a field of this blob's type.
+   */
+  public Object readField(PdxField ft) {
     switch (ft.getFieldType()) {
       case CHAR:
         return readChar(ft);
@@ -952,14 +959,27 @@ public class PdxReaderImpl implements InternalPdxReader, java.io.Serializable {
     if (ft == null) {
       return null;
     }
-    if (ft.getFieldType() == FieldType.STRING) {
-      return readPdxString(ft);
-    } else {
+    return readRawField(ft);
+  }
+
+  /**
+   * Reads a field of this blob's type straight from its offset in the serialized bytes. A String
+   * field is returned as a PdxString that refers to those bytes unless they are off-heap, in which
+   * case a String is returned since a PdxString needs a heap array.
+   *
+   * @return PdxString if field is a String otherwise invokes {@link #readField(PdxField)}
+   */
+  public Object readRawField(PdxField ft) {
+    if (this.dis.getBuffer().hasArray()) {
+      if (ft.getFieldType() == FieldType.STRING) {
+        return readPdxString(ft);
+      }
       PdxString pdxString = getPdxStringFromObjectField(ft);
-      if (pdxString != null)
+      if (pdxString != null) {
         return pdxString;
+      }
     }
-    return readField(field);
+    return readField(ft);
   }
 
   /**
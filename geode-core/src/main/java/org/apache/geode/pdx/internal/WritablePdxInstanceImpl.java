@@ -60,6 +60,12 @@ public class WritablePdxInstanceImpl extends PdxInstanceImpl implements Writable
     return new PdxReaderImpl(this);
   }
 
+  @Override
+  public Object getRawField(PdxField ft) {
+    // flushing dirty fields can change the type, so look the field up again
+    return getRawField(ft.getFieldName());
+  }
+
   @Override
   public synchronized Object getCachedObject() {
     return super.getCachedObject();
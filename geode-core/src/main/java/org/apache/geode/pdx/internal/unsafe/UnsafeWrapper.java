@@ -15,6 +15,8 @@
 package org.apache.geode.pdx.internal.unsafe;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 
 import sun.misc.Unsafe;
 
@@ -26,6 +28,20 @@ import sun.misc.Unsafe;
  */
 public class UnsafeWrapper {
 
+  /**
+   * Unsafe.invokeCleaner, or null if this JVM does not have it. It was added in Java 9.
+   */
+  private static final Method INVOKE_CLEANER;
+  static {
+    Method tmp = null;
+    try {
+      tmp = Unsafe.class.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (NoSuchMethodException | SecurityException ignore) {
+      // an older JVM
+    }
+    INVOKE_CLEANER = tmp;
+  }
+
   private final Unsafe unsafe;
   {
     Unsafe tmp = null;
@@ -39,6 +55,17 @@ public class UnsafeWrapper {
     unsafe = tmp;
   }
 
+  /**
+   * Frees the memory of a direct ByteBuffer, or unmaps a MappedByteBuffer, now instead of once it
+   * is garbage collected. Unsafe only has this method on Java 9 and later.
+   */
+  public void invokeCleaner(ByteBuffer bb) throws ReflectiveOperationException {
+    if (INVOKE_CLEANER == null) {
+      throw new NoSuchMethodException("Unsafe.invokeCleaner");
+    }
+    INVOKE_CLEANER.invoke(this.unsafe, bb);
+  }
+
   public long objectFieldOffset(Field f) {
     return this.unsafe.objectFieldOffset(f);
   }
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.cache.EntryDestroyedException;
+import org.apache.geode.cache.query.NameNotFoundException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.pdx.internal.TypeRegistry;
+
+public class AttributeDescriptorTest {
+
+  private MethodInvocationAuthorizer authorizer;
+
+  @Before
+  public void setUp() {
+    authorizer = mock(MethodInvocationAuthorizer.class);
+  }
+
+  private AttributeDescriptor descriptor(String name) {
+    return new AttributeDescriptor(mock(TypeRegistry.class), authorizer, name);
+  }
+
+  @Test
+  public void readsPublicField() throws Exception {
+    assertThat(descriptor("publicField").read(new TestObject())).isEqualTo("field");
+  }
+
+  @Test
+  public void readsStaticField() throws Exception {
+    assertThat(descriptor("STATIC_FIELD").read(new TestObject())).isEqualTo(7);
+  }
+
+  @Test
+  public void readsBeanGetterAndBoxesPrimitive() throws Exception {
+    TestObject target = new TestObject();
+
+    assertThat(descriptor("id").read(target)).isEqualTo(42);
+    verify(authorizer).authorizeMethodInvocation(TestObject.class.getMethod("getId"), target);
+  }
+
+  @Test
+  public void readsMethodNamedAfterAttribute() throws Exception {
+    assertThat(descriptor("status").read(new TestObject())).isEqualTo("active");
+  }
+
+  @Test
+  public void readsPublicMethodOfNonPublicSubclass() throws Exception {
+    assertThat(descriptor("id").read(new HiddenSubclass())).isEqualTo(43);
+  }
+
+  @Test
+  public void nullAndUndefinedTargetsAreUndefined() throws Exception {
+    assertThat(descriptor("id").read(null)).isSameAs(QueryService.UNDEFINED);
+    assertThat(descriptor("id").read(QueryService.UNDEFINED)).isSameAs(QueryService.UNDEFINED);
+  }
+
+  @Test
+  public void missingAttributeThrowsNameNotFound() {
+    assertThatThrownBy(() -> descriptor("missing").read(new TestObject()))
+        .isInstanceOf(NameNotFoundException.class);
+    assertThat(descriptor("missing").validateReadType(TestObject.class)).isFalse();
+  }
+
+  @Test
+  public void exceptionFromMethodIsWrapped() {
+    assertThatThrownBy(() -> descriptor("failing").read(new TestObject()))
+        .isInstanceOf(QueryInvocationTargetException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void entryDestroyedExceptionFromMethodIsUndefined() throws Exception {
+    assertThat(descriptor("destroyed").read(new TestObject())).isSameAs(QueryService.UNDEFINED);
+  }
+
+  @Test
+  public void unauthorizedMethodIsNotInvoked() {
+    doThrow(new IllegalArgumentException("not authorized")).when(authorizer)
+        .authorizeMethodInvocation(any(), any());
+
+    assertThatThrownBy(() -> descriptor("failing").read(new TestObject()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  public static class TestObject {
+    public static final int STATIC_FIELD = 7;
+
+    public String publicField = "field";
+
+    public int getId() {
+      return 42;
+    }
+
+    public String status() {
+      return "active";
+    }
+
+    public Object getFailing() {
+      throw new IllegalStateException("failed");
+    }
+
+    public Object getDestroyed() {
+      throw new EntryDestroyedException("destroyed");
+    }
+  }
+
+  private static class HiddenSubclass extends TestObject {
+    @Override
+    public int getId() {
+      return 43;
+    }
+  }
+}
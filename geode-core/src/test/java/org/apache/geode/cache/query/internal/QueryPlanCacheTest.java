@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.cache.query.QueryInvalidException;
+import org.apache.geode.internal.cache.CachePerfStats;
+import org.apache.geode.internal.cache.InternalCache;
+
+public class QueryPlanCacheTest {
+
+  private static final String QUERY = "SELECT * FROM /portfolios p WHERE p.ID > $1";
+
+  private CachePerfStats stats;
+  private InternalCache cache;
+
+  @Before
+  public void setUp() {
+    stats = mock(CachePerfStats.class);
+    cache = mock(InternalCache.class);
+  }
+
+  @Test
+  public void compiledQueryIsReused() {
+    QueryPlanCache planCache = new QueryPlanCache(2, stats);
+
+    QueryPlanCache.Plan plan = planCache.getPlan(QUERY, cache);
+
+    assertThat(plan.getCompiledQuery()).isInstanceOf(CompiledSelect.class);
+    assertThat(planCache.getPlan(QUERY, cache)).isSameAs(plan);
+    assertThat(planCache.size()).isEqualTo(1);
+    verify(stats, times(1)).incQueryPlanCacheMisses();
+    verify(stats, times(1)).incQueryPlanCacheHits();
+  }
+
+  @Test
+  public void leastRecentlyUsedQueryIsEvicted() {
+    QueryPlanCache planCache = new QueryPlanCache(2, stats);
+    QueryPlanCache.Plan first = planCache.getPlan("SELECT * FROM /a", cache);
+    planCache.getPlan("SELECT * FROM /b", cache);
+    planCache.getPlan("SELECT * FROM /a", cache);
+
+    planCache.getPlan("SELECT * FROM /c", cache);
+
+    assertThat(planCache.size()).isEqualTo(2);
+    assertThat(planCache.getPlan("SELECT * FROM /a", cache)).isSameAs(first);
+    planCache.getPlan("SELECT * FROM /b", cache);
+    verify(stats, times(4)).incQueryPlanCacheMisses();
+    verify(stats, times(2)).incQueryPlanCacheHits();
+  }
+
+  @Test
+  public void zeroSizeDisablesTheCache() {
+    QueryPlanCache planCache = new QueryPlanCache(0, stats);
+
+    QueryPlanCache.Plan plan = planCache.getPlan(QUERY, cache);
+
+    assertThat(planCache.getPlan(QUERY, cache)).isNotSameAs(plan);
+    assertThat(planCache.size()).isZero();
+  }
+
+  @Test
+  public void invalidQueryIsNotCached() {
+    QueryPlanCache planCache = new QueryPlanCache(2, stats);
+
+    assertThatThrownBy(() -> planCache.getPlan("SELECT FROM WHERE", cache))
+        .isInstanceOf(QueryInvalidException.class);
+    assertThat(planCache.size()).isZero();
+  }
+
+  @Test
+  public void queriesShareTheCompiledQuery() {
+    QueryPlanCache planCache = new QueryPlanCache(2, stats);
+    QueryPlanCache.Plan plan = planCache.getPlan(QUERY, cache);
+
+    DefaultQuery query1 = new DefaultQuery(QUERY, plan, cache);
+    DefaultQuery query2 = new DefaultQuery(QUERY, plan, cache);
+
+    assertThat(query1.getSimpleSelect()).isSameAs(query2.getSimpleSelect());
+    assertThat(query1.getQueryString()).isEqualTo(QUERY);
+  }
+}
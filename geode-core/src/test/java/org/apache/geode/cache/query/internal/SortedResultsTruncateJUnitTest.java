@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.query.internal.types.ObjectTypeImpl;
+
+/**
+ * Tests truncating the sorted results used by ORDER BY queries with a LIMIT.
+ */
+public class SortedResultsTruncateJUnitTest {
+
+  private static final Comparator NATURAL_ORDER = Comparator.naturalOrder();
+
+  @Test
+  public void truncateKeepsTheFirstElementsOfABag() {
+    SortedResultsBag<Integer> bag = new SortedResultsBag<>(NATURAL_ORDER, true);
+    bag.setElementType(new ObjectTypeImpl(Integer.class));
+    for (int i : new int[] {5, 3, 3, 9, 1, 7, 3}) {
+      bag.add(i);
+    }
+
+    bag.truncate(4);
+
+    assertThat(bag.size()).isEqualTo(4);
+    assertThat(bag.asList()).containsExactly(1, 3, 3, 3);
+  }
+
+  @Test
+  public void truncateRemovesPartOfTheDuplicatesOfTheLastElement() {
+    SortedResultsBag<Integer> bag = new SortedResultsBag<>(NATURAL_ORDER, true);
+    bag.setElementType(new ObjectTypeImpl(Integer.class));
+    for (int i : new int[] {2, 2, 2, 1}) {
+      bag.add(i);
+    }
+
+    bag.truncate(2);
+
+    assertThat(bag.asList()).containsExactly(1, 2);
+    assertThat(bag.occurrences(2)).isEqualTo(1);
+  }
+
+  @Test
+  public void truncateRemovesNullsEmittedLast() {
+    SortedResultsBag<Integer> bag = new SortedResultsBag<>(NATURAL_ORDER, false);
+    bag.setElementType(new ObjectTypeImpl(Integer.class));
+    bag.add(null);
+    bag.add(4);
+    bag.add(null);
+    bag.add(8);
+
+    bag.truncate(3);
+
+    assertThat(bag.size()).isEqualTo(3);
+    assertThat(bag.occurrences(null)).isEqualTo(1);
+  }
+
+  @Test
+  public void truncateKeepsNullsEmittedFirst() {
+    SortedResultsBag<Integer> bag = new SortedResultsBag<>(NATURAL_ORDER, true);
+    bag.setElementType(new ObjectTypeImpl(Integer.class));
+    bag.add(null);
+    bag.add(4);
+    bag.add(8);
+
+    bag.truncate(2);
+
+    assertThat(bag.asList()).containsExactly(null, 4);
+  }
+
+  @Test
+  public void truncateKeepsTheFirstElementsOfASet() {
+    SortedResultSet set = new SortedResultSet(NATURAL_ORDER);
+    set.setElementType(new ObjectTypeImpl(Integer.class));
+    for (int i = 10; i > 0; i--) {
+      set.add(i);
+    }
+
+    set.truncate(3);
+
+    assertThat(set.asList()).containsExactly(1, 2, 3);
+  }
+}
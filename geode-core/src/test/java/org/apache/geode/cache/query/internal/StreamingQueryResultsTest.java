@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.cache.query.QueryException;
+import org.apache.geode.cache.query.QueryExecutionTimeoutException;
+import org.apache.geode.cache.query.internal.CumulativeNonDistinctResults.Metadata;
+import org.apache.geode.cache.query.internal.types.CollectionTypeImpl;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+
+public class StreamingQueryResultsTest {
+
+  private Metadata metadata;
+
+  private DefaultQuery query;
+
+  private AtomicBoolean canceled;
+
+  @Before
+  public void setUp() {
+    metadata = CumulativeNonDistinctResults.getCollectionMetadata(false, false, true);
+    canceled = new AtomicBoolean();
+    query = mock(DefaultQuery.class);
+    when(query.isCanceled()).thenAnswer(invocation -> canceled.get());
+    when(query.getQueryCanceledException())
+        .thenAnswer(invocation -> canceled.get() ? new QueryExecutionTimeoutException("timed out")
+            : null);
+  }
+
+  private StreamingQueryResults createResults(int limit, int window) {
+    return new StreamingQueryResults(query,
+        new CollectionTypeImpl(ResultsBag.class, TypeUtils.OBJECT_TYPE), limit, window);
+  }
+
+  @Test
+  public void chunksAreReturnedInOrderUntilComplete() throws Exception {
+    StreamingQueryResults results = createResults(-1, 4);
+    assertThat(results.add(Arrays.asList("a", "b"), metadata)).isTrue();
+    assertThat(results.add(Arrays.asList(), metadata)).isTrue();
+    assertThat(results.add(Arrays.asList("c"), metadata)).isTrue();
+    results.complete();
+
+    assertThat(results.nextChunk()).containsExactly("a", "b");
+    assertThat(results.nextChunk()).containsExactly("c");
+    assertThat(results.nextChunk()).isNull();
+    assertThat(results.nextChunk()).isNull();
+  }
+
+  @Test
+  public void limitTruncatesResultsAndClosesStream() throws Exception {
+    StreamingQueryResults results = createResults(3, 4);
+    results.add(Arrays.asList("a", "b"), metadata);
+    results.add(Arrays.asList("c", "d"), metadata);
+
+    assertThat(results.nextChunk()).containsExactly("a", "b");
+    assertThat(results.nextChunk()).containsExactly("c");
+    assertThat(results.isClosed()).isTrue();
+    assertThat(results.nextChunk()).isNull();
+    assertThat(results.add(Arrays.asList("e"), metadata)).isFalse();
+  }
+
+  @Test
+  public void failureIsThrownAfterBufferedChunks() throws Exception {
+    StreamingQueryResults results = createResults(-1, 4);
+    results.add(Arrays.asList("a"), metadata);
+    results.fail(new QueryException("failed"));
+
+    assertThat(results.nextChunk()).containsExactly("a");
+    assertThatThrownBy(results::nextChunk).isInstanceOf(QueryException.class)
+        .hasMessage("failed");
+  }
+
+  @Test
+  public void producerWaitsForConsumerWhenWindowIsFull() throws Exception {
+    StreamingQueryResults results = createResults(-1, 1);
+    results.add(Arrays.asList("a"), metadata);
+
+    CompletableFuture<Boolean> added =
+        CompletableFuture.supplyAsync(() -> results.add(Arrays.asList("b"), metadata));
+    Thread.sleep(200);
+    assertThat(added).isNotDone();
+
+    assertThat(results.nextChunk()).containsExactly("a");
+    assertThat(added.get(30, TimeUnit.SECONDS)).isTrue();
+    assertThat(results.nextChunk()).containsExactly("b");
+  }
+
+  @Test
+  public void closeReleasesWaitingProducer() throws Exception {
+    StreamingQueryResults results = createResults(-1, 1);
+    results.add(Arrays.asList("a"), metadata);
+
+    CompletableFuture<Boolean> added =
+        CompletableFuture.supplyAsync(() -> results.add(Arrays.asList("b"), metadata));
+    results.close();
+
+    assertThat(added.get(30, TimeUnit.SECONDS)).isFalse();
+  }
+
+  @Test
+  public void offerDoesNotWaitWhenWindowIsFull() throws Exception {
+    StreamingQueryResults results = createResults(-1, 1);
+    results.add(Arrays.asList("a"), metadata);
+
+    assertThat(results.offer(Arrays.asList("b"), metadata)).isTrue();
+    assertThat(results.offer(Arrays.asList("c"), metadata)).isTrue();
+    results.complete();
+
+    assertThat(results.nextChunk()).containsExactly("a");
+    assertThat(results.nextChunk()).containsExactly("b");
+    assertThat(results.nextChunk()).containsExactly("c");
+    assertThat(results.nextChunk()).isNull();
+  }
+
+  @Test
+  public void canceledQueryFailsWaitingConsumer() throws Exception {
+    StreamingQueryResults results = createResults(-1, 1);
+
+    CompletableFuture<Void> consumed = CompletableFuture.runAsync(() -> {
+      try {
+        results.nextChunk();
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    canceled.set(true);
+
+    assertThatThrownBy(() -> consumed.get(30, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(QueryExecutionTimeoutException.class);
+    assertThat(results.isClosed()).isTrue();
+  }
+
+  @Test
+  public void canceledQueryReleasesWaitingProducer() throws Exception {
+    StreamingQueryResults results = createResults(-1, 1);
+    results.add(Arrays.asList("a"), metadata);
+
+    CompletableFuture<Boolean> added =
+        CompletableFuture.supplyAsync(() -> results.add(Arrays.asList("b"), metadata));
+    canceled.set(true);
+
+    assertThat(added.get(30, TimeUnit.SECONDS)).isFalse();
+    assertThat(results.offer(Arrays.asList("c"), metadata)).isFalse();
+  }
+}
@@ -199,4 +199,44 @@ public class AggregatorJUnitTest {
     assertEquals(1, ((Integer) min.terminate()).intValue());
   }
 
+  @Test
+  public void testAvgBucketResultCombiner() throws Exception {
+    AvgBucketNode bucket1 = new AvgBucketNode();
+    bucket1.accumulate(new Integer(1));
+    bucket1.accumulate(new Integer(2));
+    AvgBucketNode bucket2 = new AvgBucketNode();
+    bucket2.accumulate(new Integer(6));
+    bucket2.accumulate(null);
+
+    AvgBucketResultCombiner combiner = new AvgBucketResultCombiner();
+    combiner.accumulate(bucket1.terminate());
+    combiner.accumulate(bucket2.terminate());
+    Object[] result = (Object[]) combiner.terminate();
+    assertEquals(3, ((Integer) result[0]).intValue());
+    assertEquals(9, ((Number) result[1]).intValue());
+
+    AvgPRQueryNode apqn = new AvgPRQueryNode();
+    apqn.accumulate(result);
+    assertEquals(3, ((Number) apqn.terminate()).intValue());
+  }
+
+  @Test
+  public void testDistinctBucketResultCombiner() throws Exception {
+    DistinctAggregator bucket1 = new DistinctAggregator();
+    bucket1.accumulate(new Integer(1));
+    bucket1.accumulate(new Integer(2));
+    DistinctAggregator bucket2 = new DistinctAggregator();
+    bucket2.accumulate(new Integer(2));
+    bucket2.accumulate(new Integer(3));
+
+    DistinctBucketResultCombiner combiner = new DistinctBucketResultCombiner();
+    combiner.accumulate(bucket1.terminate());
+    combiner.accumulate(bucket2.terminate());
+    assertEquals(3, ((Set) combiner.terminate()).size());
+
+    CountDistinctPRQueryNode cdpr = new CountDistinctPRQueryNode();
+    cdpr.accumulate(combiner.terminate());
+    assertEquals(3, ((Number) cdpr.terminate()).intValue());
+  }
+
 }
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.cq;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.query.internal.MethodInvocationAuthorizer;
+import org.apache.geode.cache.query.internal.cq.CqPredicateIndex.Candidates;
+
+public class CqPredicateIndexJUnitTest {
+
+  private static final String ACTIVE = "SELECT * FROM /positions p WHERE p.status = 'active'";
+
+  private static final String CLOSED = "SELECT * FROM /positions p WHERE p.status = 'closed'";
+
+  private static final String ID_GREATER = "SELECT * FROM /positions p WHERE p.id > 5";
+
+  private static final String ID_LESS = "SELECT * FROM /positions p WHERE 10 > p.id";
+
+  private static final String ID_AT_LEAST = "SELECT * FROM /positions p WHERE p.id >= 7";
+
+  private final MethodInvocationAuthorizer authorizer = (method, target) -> {
+  };
+
+  private final CqPredicateIndex index = new CqPredicateIndex();
+
+  private Candidates getCandidates(Object value) {
+    return this.index.getCandidates(value, null, this.authorizer);
+  }
+
+  @Test
+  public void equalityMatchesOnlyTheQueriesOfTheValue() {
+    this.index.add(ACTIVE);
+    this.index.add(CLOSED);
+
+    Candidates candidates = getCandidates(new Position(1, "active"));
+
+    assertTrue(candidates.mayMatch(ACTIVE));
+    assertFalse(candidates.mayMatch(CLOSED));
+  }
+
+  @Test
+  public void rangesMatchTheQueriesWhoseBoundsTheValueIsWithin() {
+    this.index.add(ID_GREATER);
+    this.index.add(ID_LESS);
+    this.index.add(ID_AT_LEAST);
+
+    Candidates candidates = getCandidates(new Position(7, "active"));
+    assertTrue(candidates.mayMatch(ID_GREATER));
+    assertTrue(candidates.mayMatch(ID_LESS));
+    assertTrue(candidates.mayMatch(ID_AT_LEAST));
+
+    candidates = getCandidates(new Position(5, "active"));
+    assertFalse(candidates.mayMatch(ID_GREATER));
+    assertTrue(candidates.mayMatch(ID_LESS));
+    assertFalse(candidates.mayMatch(ID_AT_LEAST));
+
+    candidates = getCandidates(new Position(10L, "active"));
+    assertTrue(candidates.mayMatch(ID_GREATER));
+    assertFalse(candidates.mayMatch(ID_LESS));
+    assertTrue(candidates.mayMatch(ID_AT_LEAST));
+  }
+
+  @Test
+  public void inMatchesTheQueriesWithTheValueInTheirSet() {
+    String query = "SELECT * FROM /positions p WHERE p.status IN SET('active', 'pending')";
+    this.index.add(query);
+
+    assertTrue(getCandidates(new Position(1, "pending")).mayMatch(query));
+    assertFalse(getCandidates(new Position(1, "closed")).mayMatch(query));
+  }
+
+  @Test
+  public void junctionIsIndexedOnItsFirstCondition() {
+    String query = "SELECT * FROM /positions p WHERE p.id = 1 AND p.status = 'active'";
+    this.index.add(query);
+
+    assertTrue(getCandidates(new Position(1, "closed")).mayMatch(query));
+    assertFalse(getCandidates(new Position(2, "active")).mayMatch(query));
+  }
+
+  @Test
+  public void implicitAttributeIsIndexed() {
+    String query = "SELECT * FROM /positions WHERE status = 'active'";
+    this.index.add(query);
+
+    assertFalse(getCandidates(new Position(1, "closed")).mayMatch(query));
+  }
+
+  @Test
+  public void queriesThatAreNotIndexedAlwaysMayMatch() {
+    String[] queries = {"SELECT * FROM /positions p WHERE p.id = 1 OR p.id = 2",
+        "SELECT * FROM /positions p WHERE p.id <> 1",
+        "SELECT * FROM /positions p WHERE p.getId() = 1",
+        "SELECT * FROM /positions p WHERE p.status = p.id",
+        "SELECT * FROM /positions p WHERE p.active = true"};
+    for (String query : queries) {
+      this.index.add(query);
+      assertFalse(query, this.index.isIndexed(query));
+      assertTrue(query, getCandidates(new Position(3, "closed")).mayMatch(query));
+    }
+  }
+
+  @Test
+  public void valuesTheConditionCannotBeEvaluatedOnMayMatch() {
+    this.index.add(ACTIVE);
+    this.index.add(ID_GREATER);
+
+    Candidates candidates = getCandidates("not a position");
+
+    assertTrue(candidates.mayMatch(ACTIVE));
+    assertTrue(candidates.mayMatch(ID_GREATER));
+  }
+
+  @Test
+  public void nullMayMatchRangesButNotEquality() {
+    String query = "SELECT * FROM /positions p WHERE p.status > 'b'";
+    this.index.add(query);
+    this.index.add(ACTIVE);
+
+    Candidates candidates = getCandidates(new Position(1, null));
+
+    // the comparison of null with a literal is UNDEFINED rather than false
+    assertTrue(candidates.mayMatch(query));
+    assertFalse(candidates.mayMatch(ACTIVE));
+  }
+
+  @Test
+  public void queryIsIndexedUntilRemovedByEveryCq() {
+    this.index.add(ACTIVE);
+    this.index.add(ACTIVE);
+
+    this.index.remove(ACTIVE);
+    assertTrue(this.index.isIndexed(ACTIVE));
+
+    this.index.remove(ACTIVE);
+    assertFalse(this.index.isIndexed(ACTIVE));
+  }
+
+  @Test
+  public void queryAddedAfterTheCandidatesWereFoundMayMatch() {
+    this.index.add(ACTIVE);
+    Candidates candidates = getCandidates(new Position(1, "closed"));
+
+    // the query takes the id the removed query had, which the value does not match
+    this.index.remove(ACTIVE);
+    this.index.add(CLOSED);
+
+    assertTrue(candidates.mayMatch(CLOSED));
+  }
+
+  public static class Position {
+
+    private final Number id;
+
+    private final String status;
+
+    Position(Number id, String status) {
+      this.id = id;
+      this.status = status;
+    }
+
+    public Number getId() {
+      return this.id;
+    }
+
+    public String getStatus() {
+      return this.status;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
+import org.apache.geode.internal.cache.RegionEntry;
+
+/**
+ * Runs the {@link MemoryIndexStore} tests against a {@link CompactIndexStore}, along with tests of
+ * integer keys that fill many blocks.
+ */
+public class CompactIndexStoreJUnitTest extends MemoryIndexStoreJUnitTest {
+
+  private static final int KEYS = LongKeyBlockMap.BLOCK_SIZE * 10;
+
+  @Override
+  protected MemoryIndexStore createStore() {
+    return new CompactIndexStore(region, mockStats, cache);
+  }
+
+  private void addShuffledKeys() throws Exception {
+    List<Integer> keys = new ArrayList<>();
+    for (int i = 0; i < KEYS; i++) {
+      keys.add(i);
+    }
+    Collections.shuffle(keys, new Random(1));
+    for (Integer key : keys) {
+      store.addMapping(key, createRegionEntry(key, new Object()));
+    }
+  }
+
+  private List<Object> keysOf(Iterator<IndexStoreEntry> iterator) {
+    List<Object> keys = new ArrayList<>();
+    while (iterator.hasNext()) {
+      keys.add(iterator.next().getDeserializedKey());
+    }
+    return keys;
+  }
+
+  @Test
+  public void keysInManyBlocksAreIteratedInOrder() throws Exception {
+    addShuffledKeys();
+
+    List<Object> keys = keysOf(store.iterator(null));
+    assertThat(keys).hasSize(KEYS).isSorted().allMatch(key -> key instanceof Integer);
+    List<Object> descendingKeys = keysOf(store.descendingIterator(null));
+    Collections.reverse(descendingKeys);
+    assertThat(descendingKeys).isEqualTo(keys);
+    assertThat(store.size()).isEqualTo(KEYS);
+    assertThat(store.valueToEntriesMap).isEmpty();
+  }
+
+  @Test
+  public void rangesMayHaveBoundsOfOtherNumericTypes() throws Exception {
+    addShuffledKeys();
+
+    assertThat(keysOf(store.iterator(2.5, true, 5.5, false, null))).containsExactly(3, 4, 5);
+    assertThat(keysOf(store.iterator(200L, false, 203L, true, null))).containsExactly(201, 202,
+        203);
+    assertThat(keysOf(store.descendingIterator(KEYS - 2.5f, false, null)))
+        .containsExactly(KEYS - 1, KEYS - 2);
+    assertThat(keysOf(store.iterator(null, false, -1, true, null))).isEmpty();
+    assertThat(keysOf(store.get(7L))).containsExactly(7);
+  }
+
+  @Test
+  public void keysOfAnotherClassAreMergedInOrder() throws Exception {
+    store.addMapping(1, createRegionEntry(1, new Object()));
+    store.addMapping(3, createRegionEntry(3, new Object()));
+    store.addMapping(2L, createRegionEntry(2, new Object()));
+    store.addMapping(IndexManager.NULL, createRegionEntry(0, new Object()));
+
+    assertThat(store.valueToEntriesMap).hasSize(2);
+    assertThat(keysOf(store.iterator(null))).containsExactly(1, 2L, 3);
+    assertThat(keysOf(store.descendingIterator(null))).containsExactly(3, 2L, 1);
+    assertThat(store.size()).isEqualTo(4);
+  }
+
+  @Test
+  public void changesToKeysInBlocksAreCountedAsModifications() throws Exception {
+    RegionEntry entry = createRegionEntry(1, new Object());
+
+    store.addMapping(1, entry);
+    store.updateMapping(2, 1, entry, null);
+    store.removeMapping(2, entry);
+
+    assertThat(store.getNumModifications()).isEqualTo(3);
+    assertThat(store.valueToEntriesMap).isEmpty();
+  }
+
+  @Test
+  public void updateMovesEntryBetweenBlocks() throws Exception {
+    addShuffledKeys();
+    RegionEntry entry = createRegionEntry(-1, new Object());
+    store.addMapping(0, entry);
+
+    store.updateMapping(KEYS, 0, entry, null);
+
+    assertThat(store.size(0)).isEqualTo(1);
+    assertThat(store.size(KEYS)).isEqualTo(1);
+    assertThat(numObjectsInStore(store)).isEqualTo(KEYS + 1);
+
+    store.removeMapping(KEYS, entry);
+    assertThat(store.size(KEYS)).isZero();
+    assertThat(store.size()).isEqualTo(KEYS);
+  }
+
+  @Test
+  public void removingEveryEntryEmptiesTheStore() throws Exception {
+    List<RegionEntry> entries = new ArrayList<>();
+    for (int i = 0; i < KEYS; i++) {
+      RegionEntry entry = createRegionEntry(i, new Object());
+      entries.add(entry);
+      store.addMapping(i % 200, entry);
+    }
+
+    for (int i = 0; i < KEYS; i++) {
+      store.removeMapping(i % 200, entries.get(i));
+    }
+
+    assertThat(store.size()).isZero();
+    assertThat(numObjectsInStore(store)).isZero();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.apache.geode.internal.cache.RegionEntry;
+
+public class EntryOrdinalsTest {
+
+  private static List<RegionEntry> createEntries(int count) {
+    List<RegionEntry> entries = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      entries.add(mock(RegionEntry.class));
+    }
+    return entries;
+  }
+
+  @Test
+  public void ordinalIsKeptUntilLastReferenceIsReleased() {
+    EntryOrdinals ordinals = new EntryOrdinals();
+    RegionEntry entry = mock(RegionEntry.class);
+
+    int ordinal = ordinals.acquire(entry);
+    assertThat(ordinals.acquire(entry)).isEqualTo(ordinal);
+    ordinals.release(ordinal);
+    assertThat(ordinals.ordinalOf(entry)).isEqualTo(ordinal);
+    assertThat(ordinals.entryAt(ordinal)).isSameAs(entry);
+
+    ordinals.release(ordinal);
+    assertThat(ordinals.ordinalOf(entry)).isEqualTo(-1);
+    assertThat(ordinals.size()).isZero();
+  }
+
+  @Test
+  public void ordinalsSurviveGrowthAndRemovalOfOtherEntries() {
+    EntryOrdinals ordinals = new EntryOrdinals();
+    List<RegionEntry> entries = createEntries(5000);
+    for (int i = 0; i < entries.size(); i++) {
+      assertThat(ordinals.acquire(entries.get(i))).isEqualTo(i);
+    }
+    for (int i = 1; i < entries.size(); i += 2) {
+      ordinals.release(i);
+    }
+
+    for (int i = 0; i < entries.size(); i++) {
+      assertThat(ordinals.ordinalOf(entries.get(i))).isEqualTo(i % 2 == 0 ? i : -1);
+    }
+    assertThat(ordinals.size()).isEqualTo(2500);
+    assertThat(ordinals.acquire(mock(RegionEntry.class))).isEqualTo(1);
+  }
+
+  @Test
+  public void entriesCanBeNumberedConcurrently() throws Exception {
+    EntryOrdinals ordinals = new EntryOrdinals();
+    List<CompletableFuture<List<RegionEntry>>> futures = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      futures.add(CompletableFuture.supplyAsync(() -> {
+        List<RegionEntry> entries = createEntries(2000);
+        for (RegionEntry entry : entries) {
+          ordinals.acquire(entry);
+        }
+        for (int i = 0; i < entries.size(); i += 2) {
+          ordinals.release(ordinals.ordinalOf(entries.get(i)));
+        }
+        return entries;
+      }));
+    }
+
+    for (CompletableFuture<List<RegionEntry>> future : futures) {
+      List<RegionEntry> entries = future.get(30, TimeUnit.SECONDS);
+      for (int i = 0; i < entries.size(); i++) {
+        int ordinal = ordinals.ordinalOf(entries.get(i));
+        if (i % 2 == 0) {
+          assertThat(ordinal).isEqualTo(-1);
+        } else {
+          assertThat(ordinals.entryAt(ordinal)).isSameAs(entries.get(i));
+        }
+      }
+    }
+    assertThat(ordinals.size()).isEqualTo(4000);
+  }
+}
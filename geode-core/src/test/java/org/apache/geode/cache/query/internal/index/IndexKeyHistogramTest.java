@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+public class IndexKeyHistogramTest {
+
+  private static final Comparator NATURAL_ORDER = Comparator.naturalOrder();
+
+  private static IndexKeyHistogram uniformHistogram() {
+    IndexKeyHistogram.Builder builder = new IndexKeyHistogram.Builder(NATURAL_ORDER, 1000, 10, 0);
+    for (int i = 0; i < 1000; i++) {
+      builder.add(i, 1);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void estimatesUniformKeys() {
+    IndexKeyHistogram histogram = uniformHistogram();
+
+    assertThat(histogram.getTotalEntries()).isEqualTo(1000);
+    assertThat(histogram.getBucketCount()).isEqualTo(10);
+    assertThat(histogram.estimateLessThan(500, false)).isCloseTo(500L, within(10L));
+    assertThat(histogram.estimateGreaterThan(900, true)).isCloseTo(100L, within(10L));
+    assertThat(histogram.estimateRange(100, true, 199, true)).isCloseTo(100L, within(10L));
+  }
+
+  @Test
+  public void estimatesKeysOutsideTheIndexedRange() {
+    IndexKeyHistogram histogram = uniformHistogram();
+
+    assertThat(histogram.estimateLessThan(-1, true)).isZero();
+    assertThat(histogram.estimateLessThan(5000, false)).isEqualTo(1000);
+    assertThat(histogram.estimateLessThan(999, true)).isEqualTo(1000);
+    assertThat(histogram.estimateGreaterThan(999, false)).isZero();
+    assertThat(histogram.estimateRange(2000, true, 3000, true)).isZero();
+  }
+
+  @Test
+  public void estimatesSkewedKeys() {
+    IndexKeyHistogram.Builder builder = new IndexKeyHistogram.Builder(NATURAL_ORDER, 1000, 10, 0);
+    builder.add(1, 900);
+    for (int i = 2; i < 102; i++) {
+      builder.add(i, 1);
+    }
+    IndexKeyHistogram histogram = builder.build();
+
+    assertThat(histogram.estimateLessThan(2, false)).isEqualTo(900);
+    assertThat(histogram.estimateGreaterThan(1, false)).isEqualTo(100);
+    assertThat(histogram.estimateGreaterThan(50, true)).isCloseTo(52L, within(10L));
+  }
+
+  @Test
+  public void estimatesStringKeys() {
+    IndexKeyHistogram.Builder builder = new IndexKeyHistogram.Builder(NATURAL_ORDER, 26, 26, 0);
+    for (char c = 'a'; c <= 'z'; c++) {
+      builder.add(String.valueOf(c), 10);
+    }
+    IndexKeyHistogram histogram = builder.build();
+
+    assertThat(histogram.estimateLessThan("n", false)).isEqualTo(130);
+    assertThat(histogram.estimateRange("a", true, "c", false)).isEqualTo(20);
+    assertThat(histogram.estimateGreaterThan("zz", false)).isZero();
+  }
+
+  @Test
+  public void keyOfAnotherTypeCannotBeEstimated() {
+    IndexKeyHistogram histogram = uniformHistogram();
+
+    assertThat(histogram.estimateLessThan("500", false)).isEqualTo(-1);
+    assertThat(histogram.estimateGreaterThan("500", false)).isEqualTo(-1);
+    assertThat(histogram.estimateRange(1, true, "500", false)).isEqualTo(-1);
+  }
+
+  @Test
+  public void emptyHistogramEstimatesNothing() {
+    IndexKeyHistogram histogram =
+        new IndexKeyHistogram.Builder(NATURAL_ORDER, 0, 10, 0).build();
+
+    assertThat(histogram.getBucketCount()).isZero();
+    assertThat(histogram.estimateLessThan(1, true)).isZero();
+    assertThat(histogram.estimateGreaterThan(1, true)).isZero();
+  }
+
+  @Test
+  public void becomesStaleAfterEnoughUpdates() {
+    IndexKeyHistogram.Builder builder = new IndexKeyHistogram.Builder(NATURAL_ORDER, 1000, 10, 50);
+    for (int i = 0; i < 1000; i++) {
+      builder.add(i, 1);
+    }
+    IndexKeyHistogram histogram = builder.build();
+
+    assertThat(histogram.getBuiltAtUpdate()).isEqualTo(50);
+    assertThat(histogram.isStale(150, 10, 0.1)).isFalse();
+    assertThat(histogram.isStale(151, 10, 0.1)).isTrue();
+    assertThat(histogram.isStale(550, 500, 0.1)).isFalse();
+    assertThat(histogram.isStale(49, 10, 0.1)).isTrue();
+  }
+}
@@ -52,6 +52,10 @@ public class MemoryIndexStoreJUnitTest {
     return mock(LocalRegion.class);
   }
 
+  protected MemoryIndexStore createStore() {
+    return new MemoryIndexStore(region, mockStats, cache);
+  }
+
   @Before
   public void setup() {
     subclassPreSetup();
@@ -59,7 +63,7 @@ public class MemoryIndexStoreJUnitTest {
     cache = mock(GemFireCacheImpl.class);
     mockStats = mock(AbstractIndex.InternalIndexStatistics.class);
 
-    store = new MemoryIndexStore(region, mockStats, cache);
+    store = createStore();
     store.setIndexOnValues(true);
     mockEntries = new RegionEntry[numMockEntries];
     IntStream.range(0, numMockEntries).forEach(i -> {
@@ -111,6 +115,22 @@ public class MemoryIndexStoreJUnitTest {
     assertEquals(151, numObjectsInStore(store));
   }
 
+  @Test
+  public void keyHistogramIsOfTheEntriesOfTheStoreAtItsNumberOfModifications() throws Exception {
+    addMockedEntries(numMockEntries);
+    store.removeMapping(mockEntries[0].getKey(), mockEntries[0]);
+    store.addMapping(QueryService.UNDEFINED, createRegionEntry(numMockEntries, new Object()));
+    // the statistics of a bucket index are those of its partitioned region
+    when(mockStats.getNumberOfValues()).thenReturn(1000L);
+    when(mockStats.getNumUpdates()).thenReturn(1000L);
+
+    IndexKeyHistogram histogram = store.createKeyHistogram(IndexKeyHistogram.DEFAULT_MAX_BUCKETS);
+
+    assertEquals(numMockEntries + 2, store.getNumModifications());
+    assertEquals(numMockEntries + 2, histogram.getBuiltAtUpdate());
+    assertEquals(numMockEntries - 1, histogram.getTotalEntries());
+  }
+
   @Test
   public void testCanAddObjectWithUndefinedKey() throws Exception {
     store.addMapping(QueryService.UNDEFINED, mockEntries[0]);
@@ -345,12 +365,12 @@ public class MemoryIndexStoreJUnitTest {
     assertEquals(0, numObjectsInStore(store));
   }
 
-  private int numObjectsInStore(MemoryIndexStore store) {
+  protected int numObjectsInStore(MemoryIndexStore store) {
     Iterator iterator = store.iterator(null);
     return numObjectsIterated(iterator);
   }
 
-  private int numObjectsIterated(Iterator iterator) {
+  protected int numObjectsIterated(Iterator iterator) {
     int count = 0;
     while (iterator.hasNext()) {
       iterator.next();
@@ -383,7 +403,7 @@ public class MemoryIndexStoreJUnitTest {
     });
   }
 
-  private RegionEntry createRegionEntry(Object key, Object value) {
+  protected RegionEntry createRegionEntry(Object key, Object value) {
     RegionEntry mockEntry = mock(RegionEntry.class);
     when(mockEntry.getValue(any())).thenReturn(value);
     when(mockEntry.getKey()).thenReturn(key);
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import org.apache.geode.internal.cache.RegionEntry;
+
+public class OrdinalBitmapTest {
+
+  private static List<Integer> ordinals(OrdinalBitmap bitmap) {
+    List<Integer> ordinals = new ArrayList<>();
+    int[] chunk = new int[37];
+    int from = 0;
+    int count;
+    do {
+      count = bitmap.copyFrom(from, chunk);
+      for (int i = 0; i < count; i++) {
+        ordinals.add(chunk[i]);
+      }
+      if (count > 0) {
+        from = chunk[count - 1] + 1;
+      }
+    } while (count == chunk.length);
+    return ordinals;
+  }
+
+  @Test
+  public void matchesASortedSetOfSparseAndDenseOrdinals() {
+    Random random = new Random(3);
+    for (int range : new int[] {20000, 70000, 300000}) {
+      OrdinalBitmap bitmap = new OrdinalBitmap();
+      OrdinalBitmap other = new OrdinalBitmap();
+      TreeSet<Integer> expected = new TreeSet<>();
+      TreeSet<Integer> otherExpected = new TreeSet<>();
+      for (int i = 0; i < 60000; i++) {
+        int ordinal = random.nextInt(range);
+        if (random.nextInt(4) != 0) {
+          assertThat(bitmap.add(ordinal)).isEqualTo(expected.add(ordinal));
+        } else {
+          assertThat(bitmap.remove(ordinal)).isEqualTo(expected.remove(ordinal));
+        }
+        if (random.nextBoolean()) {
+          int otherOrdinal = random.nextInt(range);
+          other.add(otherOrdinal);
+          otherExpected.add(otherOrdinal);
+        }
+      }
+
+      assertThat(bitmap.getCardinality()).isEqualTo(expected.size());
+      assertThat(ordinals(bitmap)).containsExactlyElementsOf(expected);
+      for (int i = 0; i < 1000; i++) {
+        int ordinal = random.nextInt(range);
+        assertThat(bitmap.contains(ordinal)).isEqualTo(expected.contains(ordinal));
+      }
+
+      TreeSet<Integer> intersection = new TreeSet<>(expected);
+      intersection.retainAll(otherExpected);
+      OrdinalBitmap and = bitmap.and(other);
+      assertThat(and.getCardinality()).isEqualTo(intersection.size());
+      assertThat(ordinals(and)).containsExactlyElementsOf(intersection);
+
+      OrdinalBitmap copy = bitmap.copy();
+      for (Integer ordinal : expected) {
+        bitmap.remove(ordinal);
+      }
+      assertThat(bitmap.isEmpty()).isTrue();
+      assertThat(ordinals(copy)).containsExactlyElementsOf(expected);
+    }
+  }
+
+  @Test
+  public void copiesOrdinalsFromAGivenOrdinal() {
+    OrdinalBitmap bitmap = new OrdinalBitmap();
+    bitmap.add(3);
+    bitmap.add(70000);
+    bitmap.add(70002);
+    int[] chunk = new int[2];
+
+    assertThat(bitmap.copyFrom(4, chunk)).isEqualTo(2);
+    assertThat(chunk).containsExactly(70000, 70002);
+    assertThat(bitmap.copyFrom(70001, chunk)).isEqualTo(1);
+    assertThat(chunk[0]).isEqualTo(70002);
+    assertThat(bitmap.copyFrom(70003, chunk)).isZero();
+  }
+
+  @Test
+  public void entryBitmapsOfTheSameOrdinalsCanBeAnded() {
+    EntryOrdinals entryOrdinals = new EntryOrdinals();
+    EntryBitmap red = new EntryBitmap(entryOrdinals);
+    EntryBitmap large = new EntryBitmap(entryOrdinals);
+    List<RegionEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      RegionEntry entry = mock(RegionEntry.class);
+      entries.add(entry);
+      if (i % 2 == 0) {
+        red.add(entry);
+      }
+      if (i % 3 == 0) {
+        large.add(entry);
+      }
+    }
+
+    List<RegionEntry> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i += 6) {
+      expected.add(entries.get(i));
+    }
+    List<RegionEntry> redAndLarge = new ArrayList<>();
+    red.iterator(large.copyOrdinals()).forEachRemaining(redAndLarge::add);
+    assertThat(redAndLarge).containsExactlyElementsOf(expected);
+    assertThat(red).hasSize(500).contains(entries.get(998)).doesNotContain(entries.get(999));
+
+    red.clear();
+    assertThat(red).isEmpty();
+    assertThat(entryOrdinals.size()).isEqualTo(large.size());
+    assertThat(large.remove(entries.get(0))).isTrue();
+    assertThat(entryOrdinals.ordinalOf(entries.get(0))).isEqualTo(-1);
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.distributed.internal;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import org.apache.geode.internal.logging.LoggingThreadFactory;
+
+public class ThreadPerTaskExecutorWithDMStatsTest {
+
+  private PoolStatHelper poolStats;
+  private ThreadPerTaskExecutorWithDMStats executor;
+
+  @Before
+  public void setUp() {
+    poolStats = mock(PoolStatHelper.class);
+    executor = new ThreadPerTaskExecutorWithDMStats(new LoggingThreadFactory("test"), poolStats,
+        null, null);
+  }
+
+  @Test
+  public void executeRunsTaskAndRecordsJob() throws Exception {
+    CountDownLatch ran = new CountDownLatch(1);
+
+    executor.execute(ran::countDown);
+
+    assertThat(ran.await(30, SECONDS)).isTrue();
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, SECONDS)).isTrue();
+    InOrder inOrder = inOrder(poolStats);
+    inOrder.verify(poolStats).startJob();
+    inOrder.verify(poolStats).endJob();
+  }
+
+  @Test
+  public void activeCountIncludesRunningTasks() throws Exception {
+    CountDownLatch started = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    Runnable task = () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+
+    executor.execute(task);
+    executor.execute(task);
+
+    assertThat(started.await(30, SECONDS)).isTrue();
+    assertThat(executor.getActiveCount()).isEqualTo(2);
+    executor.shutdown();
+    assertThat(executor.isTerminated()).isFalse();
+    release.countDown();
+    assertThat(executor.awaitTermination(30, SECONDS)).isTrue();
+    assertThat(executor.getActiveCount()).isZero();
+  }
+
+  @Test
+  public void executeAfterShutdownIsRejected() {
+    executor.shutdown();
+
+    assertThatThrownBy(() -> executor.execute(() -> {
+    })).isInstanceOf(RejectedExecutionException.class);
+  }
+
+  @Test
+  public void shutdownNowInterruptsRunningTasks() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    executor.execute(() -> {
+      started.countDown();
+      try {
+        new CountDownLatch(1).await();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    });
+    assertThat(started.await(30, SECONDS)).isTrue();
+
+    assertThat(executor.shutdownNow()).isEmpty();
+
+    assertThat(interrupted.await(30, SECONDS)).isTrue();
+    assertThat(executor.awaitTermination(30, SECONDS)).isTrue();
+  }
+}
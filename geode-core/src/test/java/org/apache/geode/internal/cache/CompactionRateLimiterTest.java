@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactionRateLimiterTest {
+
+  private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private AtomicLong clock;
+  private CompactionRateLimiter limiter;
+
+  @Before
+  public void setUp() {
+    clock = new AtomicLong(1000);
+    limiter = new CompactionRateLimiter(1000, clock::get);
+  }
+
+  @Test
+  public void bytesWithinTheBucketDoNotWait() {
+    assertThat(limiter.reserve(600)).isZero();
+    assertThat(limiter.reserve(400)).isZero();
+  }
+
+  @Test
+  public void debtIsRepaidAtTheConfiguredRate() {
+    assertThat(limiter.reserve(1000)).isZero();
+
+    assertThat(limiter.reserve(500)).isEqualTo(ONE_SECOND / 2);
+    // a second thread waits behind the first
+    assertThat(limiter.reserve(500)).isEqualTo(ONE_SECOND);
+  }
+
+  @Test
+  public void bucketRefillsOverTime() {
+    limiter.reserve(1000);
+
+    clock.addAndGet(ONE_SECOND / 4);
+
+    assertThat(limiter.reserve(250)).isZero();
+    assertThat(limiter.reserve(1)).isGreaterThan(0);
+  }
+
+  @Test
+  public void bucketHoldsAtMostOneSecondOfBytes() {
+    clock.addAndGet(10 * ONE_SECOND);
+
+    assertThat(limiter.reserve(1000)).isZero();
+    assertThat(limiter.reserve(1000)).isEqualTo(ONE_SECOND);
+  }
+
+  @Test
+  public void acquireWithoutDebtDoesNotWait() {
+    assertThat(limiter.acquire(10)).isZero();
+  }
+
+  @Test
+  public void rateMustBePositive() {
+    assertThatThrownBy(() -> new CompactionRateLimiter(0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
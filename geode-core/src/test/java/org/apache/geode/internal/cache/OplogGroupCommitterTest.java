@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class OplogGroupCommitterTest {
+
+  @Test
+  public void singleWriterCommitsItsOwnRecord() throws Exception {
+    AtomicInteger commits = new AtomicInteger();
+    OplogGroupCommitter committer = new OplogGroupCommitter(commits::incrementAndGet, 0);
+
+    committer.awaitCommitted(committer.register());
+
+    assertThat(commits.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void alreadyCommittedTicketDoesNotCommitAgain() throws Exception {
+    AtomicInteger commits = new AtomicInteger();
+    OplogGroupCommitter committer = new OplogGroupCommitter(commits::incrementAndGet, 0);
+    long first = committer.register();
+    long second = committer.register();
+
+    committer.awaitCommitted(second);
+    committer.awaitCommitted(first);
+
+    assertThat(commits.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void writersThatArriveDuringACommitShareTheNextOne() throws Exception {
+    CountDownLatch leaderCommitting = new CountDownLatch(1);
+    CountDownLatch releaseLeader = new CountDownLatch(1);
+    AtomicInteger commits = new AtomicInteger();
+    OplogGroupCommitter committer = new OplogGroupCommitter(() -> {
+      if (commits.incrementAndGet() == 1) {
+        leaderCommitting.countDown();
+        await(releaseLeader);
+      }
+    }, 0);
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      long leaderTicket = committer.register();
+      Future<?> leader = executor.submit(() -> awaitCommitted(committer, leaderTicket));
+      assertThat(leaderCommitting.await(30, SECONDS)).isTrue();
+
+      List<Future<?>> followers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        long ticket = committer.register();
+        followers.add(executor.submit(() -> awaitCommitted(committer, ticket)));
+      }
+      releaseLeader.countDown();
+
+      leader.get(30, SECONDS);
+      for (Future<?> follower : followers) {
+        follower.get(30, SECONDS);
+      }
+      assertThat(commits.get()).isEqualTo(2);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void failedCommitIsThrownAndRetriedByNextWriter() throws Exception {
+    AtomicLong attempts = new AtomicLong();
+    OplogGroupCommitter committer = new OplogGroupCommitter(() -> {
+      if (attempts.incrementAndGet() == 1) {
+        throw new IOException("disk full");
+      }
+    }, 0);
+    long ticket = committer.register();
+
+    assertThatThrownBy(() -> committer.awaitCommitted(ticket)).isInstanceOf(IOException.class);
+    committer.awaitCommitted(ticket);
+
+    assertThat(attempts.get()).isEqualTo(2);
+  }
+
+  private static void awaitCommitted(OplogGroupCommitter committer, long ticket) {
+    try {
+      committer.awaitCommitted(ticket);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(30, SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OplogRecoveryPrefetcherTest {
+
+  private static final long MAX_BYTES = 1024;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ExecutorService executor;
+  private OplogRecoveryPrefetcher prefetcher;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(2);
+    prefetcher = new OplogRecoveryPrefetcher(executor, 2, MAX_BYTES);
+  }
+
+  @After
+  public void tearDown() {
+    prefetcher.close();
+  }
+
+  @Test
+  public void openReturnsContentsReadBeforeFileWasRemoved() throws Exception {
+    ExecutorService singleThread = Executors.newSingleThreadExecutor();
+    OplogRecoveryPrefetcher singleThreadPrefetcher =
+        new OplogRecoveryPrefetcher(singleThread, 1, MAX_BYTES);
+    try {
+      File krf = newFile("1.krf", "krf-1");
+      singleThreadPrefetcher.schedule(krf);
+      // wait for the read to finish
+      singleThread.submit(() -> {
+      }).get();
+      assertThat(krf.delete()).isTrue();
+
+      try (InputStream in = singleThreadPrefetcher.open(krf)) {
+        assertThat(contents(in)).isEqualTo("krf-1");
+      }
+    } finally {
+      singleThreadPrefetcher.close();
+    }
+  }
+
+  @Test
+  public void openReadsFilesInScheduledOrder() throws Exception {
+    File first = newFile("1.drf", "first");
+    File second = newFile("2.drf", "second");
+    File third = newFile("3.drf", "third");
+    prefetcher.schedule(first);
+    prefetcher.schedule(second);
+    prefetcher.schedule(third);
+
+    try (InputStream in = prefetcher.open(first)) {
+      assertThat(in).isInstanceOf(ByteArrayInputStream.class);
+      assertThat(contents(in)).isEqualTo("first");
+    }
+    try (InputStream in = prefetcher.open(second)) {
+      assertThat(in).isInstanceOf(ByteArrayInputStream.class);
+      assertThat(contents(in)).isEqualTo("second");
+    }
+    try (InputStream in = prefetcher.open(third)) {
+      assertThat(in).isInstanceOf(ByteArrayInputStream.class);
+      assertThat(contents(in)).isEqualTo("third");
+    }
+  }
+
+  @Test
+  public void skippedFilesAreDiscarded() throws Exception {
+    File first = newFile("1.drf", "first");
+    File second = newFile("2.drf", "second");
+    File third = newFile("3.drf", "third");
+    File fourth = newFile("4.drf", "fourth");
+    prefetcher.schedule(first);
+    prefetcher.schedule(second);
+    prefetcher.schedule(third);
+    prefetcher.schedule(fourth);
+
+    try (InputStream in = prefetcher.open(fourth)) {
+      assertThat(contents(in)).isEqualTo("fourth");
+    }
+    try (InputStream in = prefetcher.open(first)) {
+      assertThat(in).isInstanceOf(FileInputStream.class);
+      assertThat(contents(in)).isEqualTo("first");
+    }
+  }
+
+  @Test
+  public void filesAreNotReadAheadBeyondMaxBytes() throws Exception {
+    ExecutorService singleThread = Executors.newSingleThreadExecutor();
+    OplogRecoveryPrefetcher budgetPrefetcher = new OplogRecoveryPrefetcher(singleThread, 2, 10);
+    try {
+      File first = newFile("1.krf", "first");
+      File second = newFile("2.krf", "second");
+      budgetPrefetcher.schedule(first);
+      budgetPrefetcher.schedule(second);
+      // wait for the reads to finish
+      singleThread.submit(() -> {
+      }).get();
+      // only read once the first file has been opened
+      Files.write(second.toPath(), "SECOND".getBytes(StandardCharsets.UTF_8));
+
+      try (InputStream in = budgetPrefetcher.open(first)) {
+        assertThat(contents(in)).isEqualTo("first");
+      }
+      try (InputStream in = budgetPrefetcher.open(second)) {
+        assertThat(in).isInstanceOf(ByteArrayInputStream.class);
+        assertThat(contents(in)).isEqualTo("SECOND");
+      }
+    } finally {
+      budgetPrefetcher.close();
+    }
+  }
+
+  @Test
+  public void fileLargerThanMaxBytesIsReadFromDisk() throws Exception {
+    File krf = newFile("1.krf", "krf");
+    Files.write(krf.toPath(), new byte[(int) MAX_BYTES + 1]);
+    prefetcher.schedule(krf);
+
+    try (InputStream in = prefetcher.open(krf)) {
+      assertThat(in).isInstanceOf(FileInputStream.class);
+    }
+  }
+
+  @Test
+  public void fileThatWasNotScheduledIsReadFromDisk() throws Exception {
+    File drf = newFile("1.drf", "drf");
+
+    try (InputStream in = prefetcher.open(drf)) {
+      assertThat(in).isInstanceOf(FileInputStream.class);
+      assertThat(contents(in)).isEqualTo("drf");
+    }
+  }
+
+  @Test
+  public void missingFileIsNotScheduled() {
+    File missing = new File(temporaryFolder.getRoot(), "missing.krf");
+    prefetcher.schedule(missing);
+    prefetcher.schedule(null);
+
+    assertThatThrownBy(() -> prefetcher.open(missing)).isInstanceOf(FileNotFoundException.class);
+  }
+
+  @Test
+  public void closeShutsDownExecutor() {
+    prefetcher.close();
+
+    assertThat(executor.isShutdown()).isTrue();
+  }
+
+  private File newFile(String name, String contents) throws Exception {
+    File file = temporaryFolder.newFile(name);
+    Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static String contents(InputStream in) throws Exception {
+    return IOUtils.toString(in, StandardCharsets.UTF_8);
+  }
+}
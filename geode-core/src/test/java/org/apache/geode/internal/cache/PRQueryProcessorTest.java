@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.ExecutionContext;
+import org.apache.geode.cache.query.internal.LinkedResultSet;
+import org.apache.geode.cache.query.internal.QueryExecutionCanceledException;
+import org.apache.geode.cache.query.internal.types.ObjectTypeImpl;
+import org.apache.geode.internal.cache.execute.BucketMovedException;
+import org.apache.geode.test.fake.Fakes;
+
+/**
+ * Unit tests for the parallel bucket query of {@link PRQueryProcessor}.
+ */
+public class PRQueryProcessorTest {
+
+  private PartitionedRegion pr;
+
+  private DefaultQuery query;
+
+  private List<Integer> buckets;
+
+  @Before
+  public void setUp() {
+    PRQueryProcessor.TEST_PARALLEL_BUCKET_QUERY = true;
+    this.pr = mock(PartitionedRegion.class);
+    GemFireCacheImpl cache = Fakes.cache();
+    when(this.pr.getCache()).thenReturn(cache);
+    this.query = mock(DefaultQuery.class);
+    this.buckets = new ArrayList<>();
+    // more buckets than threads querying them
+    int numberOfBuckets = 4 * Math.max(PRQueryProcessor.MAX_QUERY_PARALLELISM, 2);
+    for (int i = 0; i < numberOfBuckets; i++) {
+      this.buckets.add(i);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    PRQueryProcessor.TEST_PARALLEL_BUCKET_QUERY = false;
+  }
+
+  private static LinkedResultSet resultsOf(ExecutionContext context) {
+    LinkedResultSet results = new LinkedResultSet();
+    results.setElementType(new ObjectTypeImpl(Integer.class));
+    results.addAll(context.getBucketList());
+    return results;
+  }
+
+  private List<Integer> executeQuery() throws Exception {
+    List<Collection> resultCollector = new ArrayList<>();
+    new PRQueryProcessor(this.pr, this.query, null, this.buckets).executeQuery(resultCollector);
+    List<Integer> result = new ArrayList<>();
+    for (Collection results : resultCollector) {
+      result.addAll(results);
+    }
+    return result;
+  }
+
+  @Test
+  public void resultsOfEveryBucketAreCollectedOnce() throws Exception {
+    when(this.query.executeUsingContext(any()))
+        .thenAnswer(invocation -> resultsOf(invocation.getArgument(0)));
+
+    assertThat(executeQuery()).containsExactlyInAnyOrderElementsOf(this.buckets);
+  }
+
+  @Test
+  public void queryExceptionOfABucketIsThrown() throws Exception {
+    when(this.query.executeUsingContext(any())).thenAnswer(invocation -> {
+      ExecutionContext context = invocation.getArgument(0);
+      if (context.getBucketList().contains(this.buckets.size() - 1)) {
+        throw new QueryInvocationTargetException("bucket failed");
+      }
+      return resultsOf(context);
+    });
+
+    assertThatThrownBy(this::executeQuery).isInstanceOf(QueryInvocationTargetException.class)
+        .hasMessage("bucket failed");
+  }
+
+  @Test
+  public void movedBucketForcesTheQueryToBeReattempted() throws Exception {
+    when(this.query.executeUsingContext(any())).thenAnswer(invocation -> {
+      ExecutionContext context = invocation.getArgument(0);
+      if (context.getBucketList().contains(0)) {
+        throw new BucketMovedException("bucket moved");
+      }
+      return resultsOf(context);
+    });
+
+    assertThatThrownBy(this::executeQuery).isInstanceOf(ForceReattemptException.class);
+  }
+
+  @Test
+  public void canceledQueryStopsTakingBuckets() throws Exception {
+    AtomicBoolean isCanceled = new AtomicBoolean();
+    QueryExecutionCanceledException canceled = new QueryExecutionCanceledException("canceled");
+    when(this.query.isCanceled()).thenAnswer(invocation -> isCanceled.get());
+    when(this.query.getQueryCanceledException())
+        .thenAnswer(invocation -> isCanceled.get() ? canceled : null);
+    AtomicInteger bucketsQueried = new AtomicInteger();
+    when(this.query.executeUsingContext(any())).thenAnswer(invocation -> {
+      bucketsQueried.incrementAndGet();
+      // as the QueryMonitor does when the query takes too long
+      isCanceled.set(true);
+      return resultsOf(invocation.getArgument(0));
+    });
+
+    assertThatThrownBy(this::executeQuery).isSameAs(canceled);
+    // each thread queries at most the bucket it had started when the query was canceled
+    assertThat(bucketsQueried.get()).isLessThan(this.buckets.size());
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.EnumListenerEvent;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.test.junit.categories.ClientServerTest;
+
+@Category({ClientServerTest.class})
+public class ClientUpdateMessageImplTest {
+
+  private static final int KEY_PART = 1;
+
+  private static final int EVENT_ID_PART = 6;
+
+  private ClientUpdateMessageImpl clientMessage;
+
+  @Before
+  public void before() {
+    LocalRegion region = mock(LocalRegion.class);
+    when(region.getFullPath()).thenReturn("/region");
+    this.clientMessage = new ClientUpdateMessageImpl(EnumListenerEvent.AFTER_DESTROY, region, 42L,
+        null, (byte) 0x01, null, mock(ClientProxyMembershipID.class),
+        new EventID(new byte[] {1}, 1, 1));
+  }
+
+  private CacheClientProxy createProxy(Version version) {
+    CacheClientProxy proxy = mock(CacheClientProxy.class);
+    when(proxy.getVersion()).thenReturn(version);
+    when(proxy.getProxyID()).thenReturn(mock(ClientProxyMembershipID.class));
+    return proxy;
+  }
+
+  @Test
+  public void messagesToClientsOfTheSameVersionShareTheSerializedParts() throws Exception {
+    Message message = this.clientMessage.getMessage(createProxy(Version.CURRENT), null);
+    byte[] key = message.getPart(KEY_PART).getSerializedForm();
+    byte[] eventId = message.getPart(EVENT_ID_PART).getSerializedForm();
+
+    message = this.clientMessage.getMessage(createProxy(Version.CURRENT), null);
+
+    assertThat(message.getPart(KEY_PART).getSerializedForm()).isSameAs(key);
+    assertThat(message.getPart(EVENT_ID_PART).getSerializedForm()).isSameAs(eventId);
+    assertThat(message.getPart(KEY_PART).getObject()).isEqualTo(42L);
+  }
+
+  @Test
+  public void messageToClientOfAnotherVersionSerializesThePartsAgain() throws Exception {
+    Message message = this.clientMessage.getMessage(createProxy(Version.CURRENT), null);
+    byte[] eventId = message.getPart(EVENT_ID_PART).getSerializedForm();
+
+    message = this.clientMessage.getMessage(createProxy(Version.GFE_90), null);
+
+    assertThat(message.getPart(EVENT_ID_PART).getSerializedForm()).isNotSameAs(eventId);
+  }
+
+  @Test
+  public void messagesToClientsOfInterleavedVersionsKeepSharingTheSerializedParts()
+      throws Exception {
+    Message message = this.clientMessage.getMessage(createProxy(Version.CURRENT), null);
+    byte[] eventId = message.getPart(EVENT_ID_PART).getSerializedForm();
+    message = this.clientMessage.getMessage(createProxy(Version.GFE_90), null);
+    byte[] oldEventId = message.getPart(EVENT_ID_PART).getSerializedForm();
+
+    message = this.clientMessage.getMessage(createProxy(Version.CURRENT), null);
+    assertThat(message.getPart(EVENT_ID_PART).getSerializedForm()).isSameAs(eventId);
+    message = this.clientMessage.getMessage(createProxy(Version.GFE_90), null);
+    assertThat(message.getPart(EVENT_ID_PART).getSerializedForm()).isSameAs(oldEventId);
+  }
+
+  @Test
+  public void byteArrayKeyIsSerialized() throws Exception {
+    LocalRegion region = mock(LocalRegion.class);
+    when(region.getFullPath()).thenReturn("/region");
+    byte[] key = new byte[] {1, 2, 3};
+    ClientUpdateMessageImpl byteArrayKeyMessage =
+        new ClientUpdateMessageImpl(EnumListenerEvent.AFTER_DESTROY, region, key, null,
+            (byte) 0x01, null, mock(ClientProxyMembershipID.class),
+            new EventID(new byte[] {1}, 1, 1));
+
+    Message message = byteArrayKeyMessage.getMessage(createProxy(Version.CURRENT), null);
+
+    assertThat(message.getPart(KEY_PART).isObject()).isTrue();
+    assertThat(message.getPart(KEY_PART).getObject()).isEqualTo(key);
+  }
+
+  @Test
+  public void sizeIncludesTheSerializedParts() throws Exception {
+    int size = this.clientMessage.getSizeInBytes();
+
+    Message message = this.clientMessage.getMessage(createProxy(Version.CURRENT), null);
+
+    assertThat(this.clientMessage.getSizeInBytes()).isGreaterThanOrEqualTo(size
+        + message.getPart(KEY_PART).getLength() + message.getPart(EVENT_ID_PART).getLength());
+  }
+}
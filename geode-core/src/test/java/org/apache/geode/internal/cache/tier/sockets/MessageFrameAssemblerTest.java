@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.cache.tier.MessageType;
+import org.apache.geode.test.junit.categories.ClientServerTest;
+
+@Category({ClientServerTest.class})
+public class MessageFrameAssemblerTest {
+
+  private ChunkedChannel channel;
+  private MessageFrameAssembler assembler;
+
+  @Before
+  public void setUp() {
+    channel = new ChunkedChannel();
+    assembler = new MessageFrameAssembler(64);
+  }
+
+  @Test
+  public void isNotReadyUntilWholeMessageHasArrived() throws Exception {
+    byte[] frame = frame(MessageType.PUT, 10);
+    channel.add(frame, 0, 5);
+    assertThat(assembler.readFrom(channel)).isFalse();
+    channel.add(frame, 5, 15);
+    assertThat(assembler.readFrom(channel)).isFalse();
+    channel.add(frame, 20, frame.length - 20);
+    assertThat(assembler.readFrom(channel)).isTrue();
+    assertThat(assembler.isReadyForDispatch()).isTrue();
+  }
+
+  @Test
+  public void takeBufferedBytesReturnsWholeFrameAndResets() throws Exception {
+    byte[] frame = frame(MessageType.PUT, 10);
+    channel.add(frame, 0, frame.length);
+    assertThat(assembler.readFrom(channel)).isTrue();
+
+    ByteBuffer bytes = assembler.takeBufferedBytes();
+
+    assertThat(bytes.remaining()).isEqualTo(frame.length);
+    byte[] actual = new byte[bytes.remaining()];
+    bytes.get(actual);
+    assertThat(actual).isEqualTo(frame);
+    assertThat(assembler.hasBufferedBytes()).isFalse();
+    assertThat(assembler.isReadyForDispatch()).isFalse();
+  }
+
+  @Test
+  public void doesNotReadPastTheEndOfTheMessage() throws Exception {
+    byte[] first = frame(MessageType.PUT, 4);
+    byte[] second = frame(MessageType.REQUEST, 4);
+    byte[] both = new byte[first.length + second.length];
+    System.arraycopy(first, 0, both, 0, first.length);
+    System.arraycopy(second, 0, both, first.length, second.length);
+    channel.add(both, 0, both.length);
+
+    assertThat(assembler.readFrom(channel)).isTrue();
+    assertThat(assembler.takeBufferedBytes().remaining()).isEqualTo(first.length);
+    assertThat(assembler.readFrom(channel)).isTrue();
+    assertThat(assembler.takeBufferedBytes().getInt(0)).isEqualTo(MessageType.REQUEST);
+  }
+
+  @Test
+  public void oversizedMessageIsReadyOnceHeaderHasArrived() throws Exception {
+    byte[] frame = frame(MessageType.PUT, 100);
+    channel.add(frame, 0, frame.length);
+
+    assertThat(assembler.readFrom(channel)).isTrue();
+
+    assertThat(assembler.takeBufferedBytes().remaining())
+        .isEqualTo(MessageFrameAssembler.HEADER_LENGTH);
+    assertThat(channel.remaining()).isEqualTo(100);
+  }
+
+  @Test
+  public void partialHeaderCanBeTaken() throws Exception {
+    byte[] frame = frame(MessageType.PUT, 10);
+    channel.add(frame, 0, 3);
+    assertThat(assembler.readFrom(channel)).isFalse();
+    assertThat(assembler.hasBufferedBytes()).isTrue();
+
+    assertThat(assembler.takeBufferedBytes().remaining()).isEqualTo(3);
+  }
+
+  @Test
+  public void endOfStreamThrowsEOFException() {
+    channel.close();
+    assertThatThrownBy(() -> assembler.readFrom(channel)).isInstanceOf(EOFException.class);
+  }
+
+  private static byte[] frame(int messageType, int payloadLength) {
+    ByteBuffer buffer = ByteBuffer.allocate(MessageFrameAssembler.HEADER_LENGTH + payloadLength);
+    buffer.putInt(messageType).putInt(payloadLength).putInt(1).putInt(0).put((byte) 0);
+    for (int i = 0; i < payloadLength; i++) {
+      buffer.put((byte) i);
+    }
+    return buffer.array();
+  }
+
+  /**
+   * A non-blocking channel that returns the bytes added to it in the chunks they were added.
+   */
+  private static class ChunkedChannel implements ReadableByteChannel {
+    private final Queue<ByteBuffer> chunks = new ArrayDeque<>();
+    private boolean open = true;
+
+    void add(byte[] bytes, int offset, int length) {
+      chunks.add(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    int remaining() {
+      return chunks.stream().mapToInt(ByteBuffer::remaining).sum();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+      ByteBuffer chunk = chunks.peek();
+      if (chunk == null) {
+        return open ? 0 : -1;
+      }
+      int count = Math.min(chunk.remaining(), dst.remaining());
+      for (int i = 0; i < count; i++) {
+        dst.put(chunk.get());
+      }
+      if (!chunk.hasRemaining()) {
+        chunks.remove();
+      }
+      return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() {
+      open = false;
+    }
+  }
+}
@@ -18,7 +18,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,6 +32,8 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -122,6 +126,45 @@ public class MessageJUnitTest {
     verify(mockPart1, times(2)).clear();
   }
 
+  @Test
+  public void largeOffHeapPartIsSentWithGatheringWrite() throws Exception {
+    int partLen = Message.GATHER_WRITE_THRESHOLD + 100;
+    ByteBuffer payload = ByteBuffer.allocateDirect(partLen);
+    for (int i = 0; i < partLen; i++) {
+      payload.put((byte) i);
+    }
+    payload.flip();
+    Part mockPart = mock(Part.class);
+    when(mockPart.getLength()).thenReturn(partLen);
+    when(mockPart.getBufferForGatherWrite()).thenReturn(payload);
+
+    try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+      serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      try (SocketChannel sender = SocketChannel.open(serverChannel.getLocalAddress());
+          SocketChannel receiver = serverChannel.accept()) {
+        Message gatherMessage = new Message(1, Version.CURRENT);
+        gatherMessage.setComms(sender.socket(), ByteBuffer.allocateDirect(1000),
+            mock(MessageStats.class));
+        gatherMessage.setParts(new Part[] {mockPart});
+
+        gatherMessage.send(false);
+
+        // 17 byte message header followed by a 5 byte part header
+        ByteBuffer received = ByteBuffer.allocate(17 + 5 + partLen);
+        while (received.hasRemaining()) {
+          receiver.read(received);
+        }
+        received.flip();
+        assertEquals(5 + partLen, received.getInt(4));
+        assertEquals(partLen, received.getInt(17));
+        for (int i = 0; i < partLen; i++) {
+          assertEquals((byte) i, received.get(22 + i));
+        }
+      }
+    }
+    verify(mockPart, never()).writeTo(any(ByteBuffer.class));
+  }
+
   /**
    * Client subscription threads establish a timeout when reading a message header in order to avoid
    * hanging should the server's machine fail, or should the network path to the server have
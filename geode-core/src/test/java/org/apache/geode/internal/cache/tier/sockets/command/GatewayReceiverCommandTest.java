@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.tier.CachedRegionHelper;
+import org.apache.geode.internal.cache.tier.sockets.Message;
+import org.apache.geode.internal.cache.tier.sockets.Part;
+import org.apache.geode.internal.cache.tier.sockets.ServerConnection;
+import org.apache.geode.internal.cache.tier.sockets.command.GatewayReceiverCommand.BatchEvent;
+import org.apache.geode.internal.cache.tier.sockets.command.GatewayReceiverCommand.ProcessedBatch;
+import org.apache.geode.internal.cache.wan.BatchException70;
+import org.apache.geode.pdx.internal.PeerTypeRegistration;
+import org.apache.geode.test.junit.categories.ClientServerTest;
+
+@Category({ClientServerTest.class})
+public class GatewayReceiverCommandTest {
+
+  private static final int FIRST_EVENT_PART = 4;
+
+  private static final int GROUPS = 4;
+
+  private final List<Part> parts = new ArrayList<>();
+
+  /** The keys of the events, by the part they start at */
+  private final Map<Integer, Object> keys = new HashMap<>();
+
+  /** What happened to the batch, in order */
+  private final List<String> log = Collections.synchronizedList(new ArrayList<>());
+
+  private Message message;
+
+  private ServerConnection serverConnection;
+
+  private ExecutorService applyPool;
+
+  @Before
+  public void setUp() {
+    this.message = mock(Message.class);
+    when(this.message.getPart(anyInt())).thenAnswer(invocation -> {
+      int index = invocation.getArgument(0);
+      return index < this.parts.size() ? this.parts.get(index) : mock(Part.class);
+    });
+    for (int i = 0; i < FIRST_EVENT_PART; i++) {
+      this.parts.add(mock(Part.class));
+    }
+    CachedRegionHelper cachedRegionHelper = mock(CachedRegionHelper.class);
+    when(cachedRegionHelper.getCacheForGatewayCommand()).thenReturn(mock(InternalCache.class));
+    this.serverConnection = mock(ServerConnection.class);
+    when(this.serverConnection.getCachedRegionHelper()).thenReturn(cachedRegionHelper);
+    this.applyPool = Executors.newFixedThreadPool(GROUPS);
+  }
+
+  @After
+  public void tearDown() {
+    this.applyPool.shutdownNow();
+  }
+
+  /**
+   * Adds the parts of an event to the message: action, possible duplicate, region, event id, key,
+   * the value of a create or update, whether there is a callback argument, the callback argument
+   * and the version timestamp.
+   */
+  private void addEvent(int action, String regionName, Object key, boolean callbackArg)
+      throws Exception {
+    this.keys.put(this.parts.size(), key);
+    Part actionPart = mock(Part.class);
+    when(actionPart.getInt()).thenReturn(action);
+    this.parts.add(actionPart);
+    this.parts.add(mock(Part.class));
+    Part regionNamePart = mock(Part.class);
+    when(regionNamePart.getString()).thenReturn(regionName);
+    this.parts.add(regionNamePart);
+    this.parts.add(mock(Part.class));
+    Part keyPart = mock(Part.class);
+    when(keyPart.getStringOrObject()).thenAnswer(invocation -> {
+      this.log.add("deserialize " + key);
+      return key;
+    });
+    this.parts.add(keyPart);
+    if (action == 0 || action == 1) {
+      this.parts.add(mock(Part.class));
+    }
+    Part callbackArgExistsPart = mock(Part.class);
+    when(callbackArgExistsPart.getObject())
+        .thenReturn(new byte[] {(byte) (callbackArg ? 0x01 : 0x00)});
+    this.parts.add(callbackArgExistsPart);
+    if (callbackArg) {
+      this.parts.add(mock(Part.class));
+    }
+    this.parts.add(mock(Part.class));
+  }
+
+  private List<BatchEvent> getEvents(int numberOfEvents) {
+    return GatewayReceiverCommand.getEvents(this.message, FIRST_EVENT_PART, numberOfEvents);
+  }
+
+  private ProcessedBatch createBatch(int numberOfEvents) {
+    return new ProcessedBatch(this.message, this.serverConnection, null, 1, numberOfEvents, 1,
+        false, false);
+  }
+
+  private void logEvents(List<BatchEvent> events) {
+    for (BatchEvent event : events) {
+      this.log.add("apply " + this.keys.get(event.partNumber));
+    }
+  }
+
+  @Test
+  public void getEventsFindsWhereEachEventStarts() throws Exception {
+    addEvent(0, PeerTypeRegistration.REGION_FULL_PATH, 1, false);
+    addEvent(0, "/region", "a", true);
+    addEvent(2, "/region", "b", false);
+    addEvent(3, "/region", "c", true);
+    addEvent(1, "/region", "d", false);
+
+    List<BatchEvent> events = getEvents(5);
+
+    assertThat(events).extracting(event -> event.partNumber)
+        .containsExactly(FIRST_EVENT_PART, FIRST_EVENT_PART + 8, FIRST_EVENT_PART + 17,
+            FIRST_EVENT_PART + 24, FIRST_EVENT_PART + 32);
+    assertThat(events).extracting(event -> event.isPdxEvent)
+        .containsExactly(true, false, false, false, false);
+    assertThat(events).extracting(event -> event.indexWithoutPDXEvent)
+        .containsExactly(-1, 0, 1, 2, 3);
+  }
+
+  @Test
+  public void exceptionsAreInTheOrderOfTheirEvents() {
+    ProcessedBatch batch = createBatch(3);
+    batch.exceptions.add(new BatchException70("2", null, 2, 1));
+    batch.exceptions.add(new BatchException70("0", null, 0, 1));
+    batch.exceptions.add(new BatchException70("1", null, 1, 1));
+
+    assertThat(batch.getExceptions()).extracting(BatchException70::getIndex).containsExactly(0, 1,
+        2);
+  }
+
+  @Test
+  public void eventsOfAKeyAreInTheSameGroup() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      addEvent(1, "/region", "key" + (i % 5), false);
+    }
+    addEvent(0, PeerTypeRegistration.REGION_FULL_PATH, 1, false);
+
+    List<List<BatchEvent>> groups =
+        GatewayReceiverCommand.getApplyGroups(createBatch(21), getEvents(21), GROUPS);
+
+    int events = 0;
+    for (List<BatchEvent> group : groups) {
+      int previousPartNumber = -1;
+      for (BatchEvent event : group) {
+        assertThat(event.isPdxEvent).isFalse();
+        assertThat(event.partNumber).isGreaterThan(previousPartNumber);
+        previousPartNumber = event.partNumber;
+        for (List<BatchEvent> other : groups) {
+          if (other != group) {
+            assertThat(other).noneMatch(each -> event.key.equals(each.key));
+          }
+        }
+        events++;
+      }
+    }
+    assertThat(events).isEqualTo(20);
+  }
+
+  @Test
+  public void pdxTypesAreAppliedBeforeTheOtherKeysAreDeserialized() throws Exception {
+    addEvent(1, "/region", "a", false);
+    addEvent(0, PeerTypeRegistration.REGION_FULL_PATH, 1, false);
+    addEvent(1, "/region", "b", false);
+    List<BatchEvent> events = getEvents(3);
+
+    GatewayReceiverCommand.processEventsInParallel(createBatch(3), events, this.applyPool, GROUPS,
+        (batch, group) -> logEvents(group));
+
+    assertThat(this.log.get(0)).isEqualTo("apply 1");
+    assertThat(this.log).contains("deserialize a", "deserialize b", "apply a", "apply b");
+  }
+
+  @Test
+  public void failureOfThisThreadIsNotMaskedByTheOtherGroups() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      addEvent(1, "/region", "key" + i, false);
+    }
+    Thread thisThread = Thread.currentThread();
+
+    Throwable thrown = catchThrowable(() -> GatewayReceiverCommand.processEventsInParallel(
+        createBatch(20), getEvents(20), this.applyPool, GROUPS, (batch, group) -> {
+          if (group.isEmpty()) {
+            return;
+          }
+          throw new IllegalStateException(Thread.currentThread() == thisThread ? "own" : "other");
+        }));
+
+    assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessage("own");
+    assertThat(thrown.getSuppressed()).isNotEmpty();
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.offheap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AddressableMemoryManagerJUnitTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void cleanDirectByteBufferUnmapsMappedByteBuffer() throws Exception {
+    File file = temporaryFolder.newFile("1.crf");
+    Files.write(file.toPath(), new byte[4096]);
+    MappedByteBuffer mapped;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, 4096);
+    }
+
+    assertThat(AddressableMemoryManager.cleanDirectByteBuffer(mapped)).isTrue();
+    // the file can be deleted once it is no longer mapped, even on Windows
+    assertThat(file.delete()).isTrue();
+  }
+
+  @Test
+  public void cleanDirectByteBufferFreesDirectByteBuffer() {
+    ByteBuffer direct = ByteBuffer.allocateDirect(1024);
+
+    assertThat(AddressableMemoryManager.cleanDirectByteBuffer(direct)).isTrue();
+  }
+
+  @Test
+  public void cleanDirectByteBufferIgnoresHeapByteBuffer() {
+    ByteBuffer heap = ByteBuffer.allocate(1024);
+
+    assertThat(AddressableMemoryManager.cleanDirectByteBuffer(heap)).isFalse();
+  }
+}
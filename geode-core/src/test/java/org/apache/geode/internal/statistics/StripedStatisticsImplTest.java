@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.statistics;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.StatisticsType;
+
+/**
+ * Unit tests for {@link StripedStatisticsImpl}.
+ */
+public class StripedStatisticsImplTest {
+
+  private StatisticsManager statisticsManager;
+  private StripedStatisticsImpl stats;
+
+  @Before
+  public void createStats() {
+    StatisticsTypeImpl type = mock(StatisticsTypeImpl.class);
+    when(type.getIntStatCount()).thenReturn(2);
+    when(type.getLongStatCount()).thenReturn(2);
+    when(type.getDoubleStatCount()).thenReturn(2);
+    statisticsManager = mock(StatisticsManager.class);
+
+    stats = new StripedStatisticsImpl(type, null, 0, 0, statisticsManager);
+  }
+
+  @Test
+  public void incrementsAreSummedWhenRead() {
+    stats.incInt(0, 3);
+    stats.incInt(0, 4);
+    stats.incLong(1, 5L);
+    stats.incLong(1, -2L);
+    stats.incDouble(1, 1.5);
+    stats.incDouble(1, 1.5);
+
+    assertThat(stats.getInt(0)).isEqualTo(7);
+    assertThat(stats.getInt(1)).isZero();
+    assertThat(stats.getLong(1)).isEqualTo(3L);
+    assertThat(stats.getDouble(1)).isEqualTo(3.0);
+  }
+
+  @Test
+  public void setReplacesIncrementedValue() {
+    stats.incInt(1, 10);
+    stats.incLong(0, 10L);
+    stats.incDouble(0, 10.0);
+
+    stats.setInt(1, 2);
+    stats.setLong(0, 3L);
+    stats.setDouble(0, 4.0);
+
+    assertThat(stats.getInt(1)).isEqualTo(2);
+    assertThat(stats.getLong(0)).isEqualTo(3L);
+    assertThat(stats.getDouble(0)).isEqualTo(4.0);
+  }
+
+  @Test
+  public void concurrentIncrementsAreNotLost() throws Exception {
+    int threads = 8;
+    int incrementsPerThread = 10000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < incrementsPerThread; j++) {
+            stats.incLong(0, 1L);
+            stats.incInt(0, 1);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(stats.getLong(0)).isEqualTo((long) threads * incrementsPerThread);
+    assertThat(stats.getInt(0)).isEqualTo(threads * incrementsPerThread);
+  }
+
+  @Test
+  public void readsNeverSeeAConcurrentSetHalfDone() throws Exception {
+    stats.setLong(0, 5L);
+    stats.setDouble(0, 5.0);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> setter = executor.submit(() -> {
+        for (int i = 0; i < 100000; i++) {
+          stats.setLong(0, 5L);
+          stats.setDouble(0, 5.0);
+        }
+      });
+      while (!setter.isDone()) {
+        assertThat(stats.getLong(0)).isEqualTo(5L);
+        assertThat(stats.getDouble(0)).isEqualTo(5.0);
+      }
+      setter.get(30, SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void closeDestroysStatistics() {
+    stats.close();
+
+    assertThat(stats.isClosed()).isTrue();
+    verify(statisticsManager).destroyStatistics(stats);
+  }
+
+  @Test
+  public void isStripedTypeMatchesConfiguredNames() {
+    StatisticsType cachePerfStats = mock(StatisticsType.class);
+    when(cachePerfStats.getName()).thenReturn("CachePerfStats");
+    StatisticsType distributionStats = mock(StatisticsType.class);
+    when(distributionStats.getName()).thenReturn("DistributionStats");
+    Set<String> names = StripedStatisticsImpl.parseTypeNames(" CachePerfStats, ,Other");
+
+    assertThat(StripedStatisticsImpl.isStripedType(names, cachePerfStats)).isTrue();
+    assertThat(StripedStatisticsImpl.isStripedType(names, distributionStats)).isFalse();
+  }
+
+  @Test
+  public void wildcardStripesEveryType() {
+    StatisticsType type = mock(StatisticsType.class);
+    when(type.getName()).thenReturn("DistributionStats");
+
+    assertThat(StripedStatisticsImpl.isStripedType(StripedStatisticsImpl.parseTypeNames("*"), type))
+        .isTrue();
+    assertThat(StripedStatisticsImpl.isStripedType(StripedStatisticsImpl.parseTypeNames(""), type))
+        .isFalse();
+  }
+}
@@ -264,6 +264,17 @@ public class PdxInstanceImplTest {
     assertEquals(boolean[].class, instance.getField(booleanArrayField.getFieldName()).getClass());
   }
 
+  @Test
+  public void testGetRawFieldByPdxField() {
+    PdxInstanceImpl pdxInstance = (PdxInstanceImpl) instance;
+    assertEquals(new PdxString("MOOF!"), pdxInstance.getRawField(stringField));
+    assertEquals(37, pdxInstance.getRawField(intField));
+    assertEquals(42L, pdxInstance.getRawField(longField));
+    assertEquals(3.1415, pdxInstance.getRawField(doubleField));
+    assertEquals(true, pdxInstance.getRawField(booleanField));
+    assertEquals(SerializableObject.class, pdxInstance.getRawField(objectField).getClass());
+  }
+
   @Test
   public void testHasField() {
     assertEquals(false, instance.hasField(nonExistentField.getFieldName()));
@@ -62,6 +62,7 @@ import org.apache.geode.cache.query.internal.CqStateImpl;
 import org.apache.geode.cache.query.internal.DefaultQuery;
 import org.apache.geode.cache.query.internal.ExecutionContext;
 import org.apache.geode.cache.query.internal.cq.ClientCQ;
+import org.apache.geode.cache.query.internal.cq.CqPredicateIndex.Candidates;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.cache.query.internal.cq.InternalCqQuery;
 import org.apache.geode.cache.query.internal.cq.ServerCQ;
@@ -101,6 +102,13 @@ public class CqServiceImpl implements CqService {
   public static boolean EXECUTE_QUERY_DURING_INIT = Boolean.valueOf(System
       .getProperty(DistributionConfig.GEMFIRE_PREFIX + "cq.EXECUTE_QUERY_DURING_INIT", "true"));
 
+  /**
+   * System property to skip the evaluation of the queries that the CQ predicate index of a region
+   * finds cannot match the value of an event.
+   */
+  public static boolean USE_PREDICATE_INDEX = Boolean.valueOf(System
+      .getProperty(DistributionConfig.GEMFIRE_PREFIX + "cq.USE_PREDICATE_INDEX", "true"));
+
   private static final String CQ_NAME_PREFIX = "GfCq";
 
   private final InternalCache cache;
@@ -1273,7 +1281,6 @@ public class CqServiceImpl implements CqService {
         || (event.getOperation().isCreate() && isDupEvent));
 
     HashMap<String, Integer> matchedCqs = new HashMap<>();
-    long executionStartTime;
     for (int i = -1; i < profiles.length; i++) {
       CacheProfile cf;
       if (i < 0) {
@@ -1310,6 +1317,8 @@ public class CqServiceImpl implements CqService {
 
       HashMap<Long, Integer> cqInfo = new HashMap<>();
       Iterator cqIter = cqs.entrySet().iterator();
+      Candidates newValueCandidates = getCandidates(pf, cqUnfilteredEventsSet_newValue);
+      Candidates oldValueCandidates = null;
 
       while (cqIter.hasNext()) {
         Map.Entry cqEntry = (Map.Entry) cqIter.next();
@@ -1350,11 +1359,8 @@ public class CqServiceImpl implements CqService {
               synchronized (cQuery) {
                 // Apply query on new value.
                 if (!cqUnfilteredEventsSet_newValue.isEmpty()) {
-                  executionStartTime = this.stats.startCqQueryExecution();
-
-                  b_cqResults_newValue =
-                      evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_newValue});
-                  this.stats.endCqQueryExecution(executionStartTime);
+                  b_cqResults_newValue = evaluateQuery(cQuery, newValueCandidates,
+                      new Object[] {cqUnfilteredEventsSet_newValue});
                 }
               }
 
@@ -1393,10 +1399,11 @@ public class CqServiceImpl implements CqService {
                   synchronized (cQuery) {
                     // Apply query on old value.
                     if (!cqUnfilteredEventsSet_oldValue.isEmpty()) {
-                      executionStartTime = this.stats.startCqQueryExecution();
-                      b_cqResults_oldValue =
-                          evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_oldValue});
-                      this.stats.endCqQueryExecution(executionStartTime);
+                      if (oldValueCandidates == null) {
+                        oldValueCandidates = getCandidates(pf, cqUnfilteredEventsSet_oldValue);
+                      }
+                      b_cqResults_oldValue = evaluateQuery(cQuery, oldValueCandidates,
+                          new Object[] {cqUnfilteredEventsSet_oldValue});
                     } else {
                       if (isDebugEnabled) {
                         logger.debug(
@@ -1625,6 +1632,37 @@ public class CqServiceImpl implements CqService {
     return status;
   }
 
+  /**
+   * Returns the CQs of a profile whose query may match the value of an event, or null if all of
+   * them may.
+   */
+  private Candidates getCandidates(FilterProfile pf, Set<Object> eventValues) {
+    if (!USE_PREDICATE_INDEX || eventValues.isEmpty()) {
+      return null;
+    }
+    return pf.getCqPredicateIndex().getCandidates(eventValues.iterator().next(),
+        this.cache.getPdxRegistry(), this.cache.getQueryService().getMethodInvocationAuthorizer());
+  }
+
+  /**
+   * Applies the query of a CQ to the value of an event, unless the CQ is not one of the candidates
+   * for the value.
+   */
+  private boolean evaluateQuery(CqQueryImpl cQuery, Candidates candidates, Object[] event)
+      throws Exception {
+    if (candidates != null && !candidates.mayMatch(cQuery.getQueryString())) {
+      this.stats.incCqQueryExecutionsSkipped();
+      return false;
+    }
+    long executionStartTime = this.stats.startCqQueryExecution();
+    boolean matched = evaluateQuery(cQuery, event);
+    this.stats.endCqQueryExecution(executionStartTime);
+    if (candidates != null) {
+      this.stats.incCqCandidates(matched);
+    }
+    return matched;
+  }
+
   @Override
   public UserAttributes getUserAttributes(String cqName) {
     return this.cqNameToUserAttributesMap.get(cqName);
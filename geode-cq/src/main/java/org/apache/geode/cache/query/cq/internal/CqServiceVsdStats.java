@@ -74,6 +74,15 @@ public class CqServiceVsdStats {
   /** Unique CQs, number of different CQ queries */
   private static final String UNIQUE_CQ_QUERY = "numUniqueCqQuery";
 
+  /** CQ query executions on event values the CQ predicate index found the query may match */
+  private static final String CQ_CANDIDATES = "cqCandidates";
+
+  /** CQ query executions on candidate event values that matched */
+  private static final String CQ_CANDIDATES_MATCHED = "cqCandidatesMatched";
+
+  /** CQ query executions skipped as the CQ predicate index found the query cannot match */
+  private static final String CQ_QUERY_EXECUTIONS_SKIPPED = "cqQueryExecutionsSkipped";
+
   /** Id of the CQs created statistic */
   private static final int _numCqsCreatedId;
 
@@ -104,6 +113,15 @@ public class CqServiceVsdStats {
   /** Id for unique CQs, difference in CQ queries */
   private static final int _numUniqueCqQuery;
 
+  /** Id for CQ query executions on candidate event values */
+  private static final int _cqCandidatesId;
+
+  /** Id for CQ query executions on candidate event values that matched */
+  private static final int _cqCandidatesMatchedId;
+
+  /** Id for skipped CQ query executions */
+  private static final int _cqQueryExecutionsSkippedId;
+
   /*
    * Static initializer to create and initialize the <code>StatisticsType</code>
    */
@@ -126,6 +144,15 @@ public class CqServiceVsdStats {
             f.createIntGauge(CQ_QUERY_EXECUTION_IN_PROGRESS, "CQ Query Execution In Progress.",
                 "operations"),
             f.createIntGauge(UNIQUE_CQ_QUERY, "Number of Unique CQ Querys.", "Queries"),
+            f.createLongCounter(CQ_CANDIDATES,
+                "Number of CQ Query Executions on event values the CQ predicate index found the query may match.",
+                "operations"),
+            f.createLongCounter(CQ_CANDIDATES_MATCHED,
+                "Number of CQ Query Executions on event values the CQ predicate index found the query may match that matched.",
+                "operations"),
+            f.createLongCounter(CQ_QUERY_EXECUTIONS_SKIPPED,
+                "Number of CQ Query Executions skipped as the CQ predicate index found the query cannot match the event value.",
+                "operations"),
 
         });
 
@@ -140,6 +167,9 @@ public class CqServiceVsdStats {
     _cqQueryExecutionsCompletedId = _type.nameToId(CQ_QUERY_EXECUTIONS_COMPLETED);
     _cqQueryExecutionInProgressId = _type.nameToId(CQ_QUERY_EXECUTION_IN_PROGRESS);
     _numUniqueCqQuery = _type.nameToId(UNIQUE_CQ_QUERY);
+    _cqCandidatesId = _type.nameToId(CQ_CANDIDATES);
+    _cqCandidatesMatchedId = _type.nameToId(CQ_CANDIDATES_MATCHED);
+    _cqQueryExecutionsSkippedId = _type.nameToId(CQ_QUERY_EXECUTIONS_SKIPPED);
   }
 
   /** The <code>Statistics</code> instance to which most behavior is delegated */
@@ -329,6 +359,45 @@ public class CqServiceVsdStats {
     this._stats.incInt(_numUniqueCqQuery, -1);
   }
 
+  /**
+   * Increments the number of CQ query executions on candidate event values, and the number that
+   * matched if the query matched.
+   */
+  void incCqCandidates(boolean matched) {
+    this._stats.incLong(_cqCandidatesId, 1);
+    if (matched) {
+      this._stats.incLong(_cqCandidatesMatchedId, 1);
+    }
+  }
+
+  /**
+   * Returns the number of CQ query executions on candidate event values.
+   */
+  public long getCqCandidates() {
+    return this._stats.getLong(_cqCandidatesId);
+  }
+
+  /**
+   * Returns the number of CQ query executions on candidate event values that matched.
+   */
+  public long getCqCandidatesMatched() {
+    return this._stats.getLong(_cqCandidatesMatchedId);
+  }
+
+  /**
+   * Increments the number of skipped CQ query executions.
+   */
+  void incCqQueryExecutionsSkipped() {
+    this._stats.incLong(_cqQueryExecutionsSkippedId, 1);
+  }
+
+  /**
+   * Returns the number of skipped CQ query executions.
+   */
+  public long getCqQueryExecutionsSkipped() {
+    return this._stats.getLong(_cqQueryExecutionsSkippedId);
+  }
+
 
   /**
    * This is a test method. It silently ignores exceptions and should not be used outside of unit
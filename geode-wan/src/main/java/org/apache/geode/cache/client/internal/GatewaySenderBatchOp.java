@@ -29,8 +29,10 @@ import org.apache.geode.internal.cache.tier.sockets.ChunkedMessage;
 import org.apache.geode.internal.cache.tier.sockets.Message;
 import org.apache.geode.internal.cache.tier.sockets.Part;
 import org.apache.geode.internal.cache.wan.BatchException70;
+import org.apache.geode.internal.cache.wan.GatewayBatchCompression;
 import org.apache.geode.internal.cache.wan.GatewaySenderEventImpl;
 import org.apache.geode.internal.cache.wan.GatewaySenderEventRemoteDispatcher.GatewayAck;
+import org.apache.geode.internal.cache.wan.GatewaySenderStats;
 import org.apache.geode.internal.logging.LogService;
 
 @SuppressWarnings("unchecked")
@@ -51,17 +53,37 @@ public class GatewaySenderBatchOp {
    */
   public static void executeOn(Connection con, ExecutablePool pool, List events, int batchId,
       boolean removeFromQueueOnException, boolean isRetry) {
+    executeOn(con, pool, events, batchId, removeFromQueueOnException, isRetry, false, null);
+  }
+
+  /**
+   * Send a list of gateway events to a server to execute using connections from the given pool to
+   * communicate with the server.
+   *
+   * @param con the connection to send the message on.
+   * @param pool the pool to use to communicate with the server.
+   * @param events list of gateway events
+   * @param batchId the ID of this batch
+   * @param removeFromQueueOnException true if the events should be processed even after some
+   *        exception
+   * @param compressValues true if the event values should be compressed, which the server must
+   *        support
+   * @param stats the statistics to add the bytes sent to, or null
+   */
+  public static void executeOn(Connection con, ExecutablePool pool, List events, int batchId,
+      boolean removeFromQueueOnException, boolean isRetry, boolean compressValues,
+      GatewaySenderStats stats) {
     AbstractOp op = null;
     // System.out.println("Version: "+con.getWanSiteVersion());
     // Is this check even needed anymore? It looks like we just create the same exact op impl with
     // the same parameters...
     if (Version.GFE_651.compareTo(con.getWanSiteVersion()) >= 0) {
       op = new GatewaySenderGFEBatchOpImpl(events, batchId, removeFromQueueOnException,
-          con.getDistributedSystemId(), isRetry);
+          con.getDistributedSystemId(), isRetry, false, stats);
     } else {
       // Default should create a batch of server version (ACCEPTOR.VERSION)
       op = new GatewaySenderGFEBatchOpImpl(events, batchId, removeFromQueueOnException,
-          con.getDistributedSystemId(), isRetry);
+          con.getDistributedSystemId(), isRetry, compressValues, stats);
     }
     pool.executeOn(con, op, true/* timeoutFatal */);
   }
@@ -78,19 +100,43 @@ public class GatewaySenderBatchOp {
 
   static class GatewaySenderGFEBatchOpImpl extends AbstractOp {
 
+    private final GatewaySenderStats stats;
+
+    /** The bytes of the event values of the batch, before compression */
+    private long valueBytes;
+
+    /** The bytes of the event values of the batch, as sent */
+    private long sentValueBytes;
+
     /**
      * @throws org.apache.geode.SerializationException if serialization fails
      */
     public GatewaySenderGFEBatchOpImpl(List events, int batchId, boolean removeFromQueueOnException,
         int dsId, boolean isRetry) {
+      this(events, batchId, removeFromQueueOnException, dsId, isRetry, false, null);
+    }
+
+    /**
+     * @throws org.apache.geode.SerializationException if serialization fails
+     */
+    GatewaySenderGFEBatchOpImpl(List events, int batchId, boolean removeFromQueueOnException,
+        int dsId, boolean isRetry, boolean compressValues, GatewaySenderStats stats) {
       super(MessageType.GATEWAY_RECEIVER_COMMAND, calcPartCount(events));
+      this.stats = stats;
       if (isRetry) {
         getMessage().setIsRetry();
       }
       getMessage().addIntPart(events.size());
       getMessage().addIntPart(batchId);
       getMessage().addIntPart(dsId);
-      getMessage().addBytesPart(new byte[] {removeFromQueueOnException ? (byte) 1 : (byte) 0});
+      byte batchFlags = 0;
+      if (removeFromQueueOnException) {
+        batchFlags |= GatewayBatchCompression.REMOVE_FROM_QUEUE_ON_EXCEPTION;
+      }
+      if (compressValues) {
+        batchFlags |= GatewayBatchCompression.VALUES_COMPRESSED;
+      }
+      getMessage().addBytesPart(new byte[] {batchFlags});
       // Add each event
       for (Iterator i = events.iterator(); i.hasNext();) {
         GatewaySenderEventImpl event = (GatewaySenderEventImpl) i.next();
@@ -118,7 +164,14 @@ public class GatewaySenderBatchOp {
           getMessage().addStringOrObjPart(key);
           if (action < 2 /* it is 0 or 1 */) {
             byte[] value = event.getSerializedValue();
-            byte valueIsObject = event.getValueIsObject();;
+            byte valueIsObject = event.getValueIsObject();
+            if (value != null) {
+              this.valueBytes += value.length;
+              if (compressValues) {
+                value = GatewayBatchCompression.compress(value);
+              }
+              this.sentValueBytes += value.length;
+            }
             // Add value (which is already a serialized byte[])
             getMessage().addRawPart(value, (valueIsObject == 0x01));
           }
@@ -150,6 +203,10 @@ public class GatewaySenderBatchOp {
         try {
           attemptSend(cnx);
           this.failed = false;
+          if (this.stats != null) {
+            this.stats.incBatchBytesSent(getMessage().getSendLength(), this.valueBytes,
+                this.sentValueBytes);
+          }
         } finally {
           endSendAttempt(cnx.getStats(), start);
         }
@@ -16,6 +16,7 @@ package org.apache.geode.cache.client.internal;
 
 import java.util.List;
 
+import org.apache.geode.internal.cache.wan.GatewaySenderStats;
 
 /**
  * Used to send operations from a sender to a receiver.
@@ -33,6 +34,13 @@ public class SenderProxy extends ServerProxy {
         isRetry);
   }
 
+  public void dispatchBatch_NewWAN(Connection con, List events, int batchId,
+      boolean removeFromQueueOnException, boolean isRetry, boolean compressValues,
+      GatewaySenderStats stats) {
+    GatewaySenderBatchOp.executeOn(con, this.pool, events, batchId, removeFromQueueOnException,
+        isRetry, compressValues, stats);
+  }
+
   public Object receiveAckFromReceiver(Connection con) {
     return GatewaySenderBatchOp.executeOn(con, this.pool);
   }
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+import org.apache.geode.cache.wan.GatewaySender;
+
+/**
+ * Chooses the number of events a gateway sender puts in a batch from the acknowledgements of the
+ * batches it sends, when {@link GatewaySender#ADAPTIVE_BATCH_SIZE} is set.
+ * <p>
+ * Every {@link #BATCHES_PER_ADJUSTMENT} acknowledged batches the rate at which the receiver
+ * acknowledged events is compared with the rate before the last change of the batch size. The
+ * batch size keeps changing the same way while the rate improves and changes the other way once it
+ * drops. While the rate stays about the same, the batch size shrinks if batches take more than
+ * twice as long to be acknowledged as the fastest batches so far, since they are then waiting on
+ * the link or the receiver rather than making it busier, and otherwise keeps changing the same way.
+ * <p>
+ * Only batches that were full when sent are measured: a sender that does not have a full batch to
+ * send is not limited by its batch size.
+ */
+class AdaptiveBatchSizer {
+
+  /** The number of full batches acknowledged between changes of the batch size */
+  static final int BATCHES_PER_ADJUSTMENT = 8;
+
+  /** The relative change of the acknowledgement rate below which the rate counts as unchanged */
+  private static final double RATE_TOLERANCE = 0.05;
+
+  private static final double ROUND_TRIP_TIME_INFLATION = 2.0;
+
+  private static final double GROWTH_FACTOR = 1.25;
+
+  private static final double SHRINK_FACTOR = 0.8;
+
+  private final int minBatchSize;
+
+  private int maxBatchSize;
+
+  private int batchSize;
+
+  private boolean growing = true;
+
+  /** Events per nanosecond acknowledged before the last change, or 0 if not measured yet */
+  private double lastRate;
+
+  private long minRoundTripTime = Long.MAX_VALUE;
+
+  /** Whether an acknowledgement has started the measurement of the current batch size */
+  private boolean measuring;
+
+  /** When the acknowledgement that started the measurement was received */
+  private long measureStart;
+
+  private int measuredBatches;
+
+  private long measuredEvents;
+
+  private long measuredRoundTripTime;
+
+  /**
+   * @param batchSize the configured batch size, which the batch size starts at and may shrink to an
+   *        eighth of or grow to four times
+   */
+  AdaptiveBatchSizer(int batchSize) {
+    this.batchSize = Math.max(batchSize, 1);
+    this.minBatchSize = Math.max(this.batchSize / 8, 1);
+    this.maxBatchSize = (int) Math.min(this.batchSize * 4L, Integer.MAX_VALUE);
+  }
+
+  synchronized int getBatchSize() {
+    return this.batchSize;
+  }
+
+  /**
+   * Lowers the largest batch size, after a batch turned out to be too large to send.
+   */
+  synchronized void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = Math.max(maxBatchSize, this.minBatchSize);
+    if (this.batchSize > this.maxBatchSize) {
+      this.batchSize = this.maxBatchSize;
+      this.growing = false;
+    }
+    stopMeasurement();
+  }
+
+  /**
+   * Forgets the acknowledgement times measured so far, as when the sender connects to another
+   * receiver.
+   */
+  synchronized void reset() {
+    this.minRoundTripTime = Long.MAX_VALUE;
+    this.lastRate = 0;
+    stopMeasurement();
+  }
+
+  /**
+   * Measures the acknowledgement of a batch.
+   *
+   * @param numEvents the number of events sent in the batch
+   * @param full whether the batch had as many events as the batch size when it was sent
+   * @param roundTripTime the nanoseconds between sending the batch and receiving its
+   *        acknowledgement
+   * @param now the nanosecond time the acknowledgement was received at
+   * @return the batch size to use from now on
+   */
+  synchronized int batchAcknowledged(int numEvents, boolean full, long roundTripTime, long now) {
+    if (!full) {
+      stopMeasurement();
+      return this.batchSize;
+    }
+    if (!this.measuring) {
+      restartMeasurement(now);
+      return this.batchSize;
+    }
+    this.measuredBatches++;
+    this.measuredEvents += numEvents;
+    this.measuredRoundTripTime += roundTripTime;
+    this.minRoundTripTime = Math.min(this.minRoundTripTime, roundTripTime);
+    if (this.measuredBatches == BATCHES_PER_ADJUSTMENT) {
+      adjust(now);
+      restartMeasurement(now);
+    }
+    return this.batchSize;
+  }
+
+  private void adjust(long now) {
+    double rate = (double) this.measuredEvents / Math.max(now - this.measureStart, 1);
+    long averageRoundTripTime = this.measuredRoundTripTime / this.measuredBatches;
+    if (this.lastRate > 0) {
+      if (rate < this.lastRate * (1 - RATE_TOLERANCE)) {
+        // the last change made things worse
+        this.growing = !this.growing;
+      } else if (rate <= this.lastRate * (1 + RATE_TOLERANCE)
+          && averageRoundTripTime > this.minRoundTripTime * ROUND_TRIP_TIME_INFLATION) {
+        this.growing = false;
+      }
+    }
+    this.lastRate = rate;
+    if (this.growing) {
+      this.batchSize =
+          (int) Math.min(Math.ceil(this.batchSize * GROWTH_FACTOR), this.maxBatchSize);
+    } else {
+      this.batchSize = (int) Math.max(this.batchSize * SHRINK_FACTOR, this.minBatchSize);
+    }
+  }
+
+  private void stopMeasurement() {
+    this.measuring = false;
+  }
+
+  private void restartMeasurement(long now) {
+    this.measuring = true;
+    this.measureStart = now;
+    this.measuredBatches = 0;
+    this.measuredEvents = 0;
+    this.measuredRoundTripTime = 0;
+  }
+}
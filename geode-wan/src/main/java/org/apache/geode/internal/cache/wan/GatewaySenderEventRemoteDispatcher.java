@@ -16,7 +16,10 @@ package org.apache.geode.internal.cache.wan;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
@@ -61,6 +64,15 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
 
   private ReentrantReadWriteLock connectionLifeCycleLock = new ReentrantReadWriteLock();
 
+  /**
+   * The batches sent on the current connection that are not acknowledged yet, by batch id in the
+   * order they were sent. Guarded by itself, which is also notified when a batch is acknowledged.
+   */
+  private final Map<Integer, SentBatch> sentBatches = new LinkedHashMap<>();
+
+  /** Chooses the batch size if adaptive batch sizing is enabled, otherwise null */
+  private final AdaptiveBatchSizer batchSizer;
+
   /*
    * Called after each attempt at processing an outbound (dispatch) or inbound (ack)
    * message, whether the attempt is successful or not. The purpose is testability.
@@ -77,6 +89,12 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
 
   private static final int RETRY_WAIT_TIME = 100;
 
+  /**
+   * The milliseconds between checks of whether the processor stopped or is resending its batches
+   * while waiting for outstanding batches to be acknowledged
+   */
+  private static final int OUTSTANDING_BATCHES_WAIT_TIME = 100;
+
   void setAckReaderThread(AckReaderThread ackReaderThread) {
     this.ackReaderThread = ackReaderThread;
   }
@@ -84,6 +102,7 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
   public GatewaySenderEventRemoteDispatcher(AbstractGatewaySenderEventProcessor eventProcessor) {
     this.processor = eventProcessor;
     this.sender = eventProcessor.getSender();
+    this.batchSizer = createBatchSizer(eventProcessor);
     // this.ackReaderThread = new AckReaderThread(sender);
     try {
       initializeConnection();
@@ -96,9 +115,20 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
       Connection connection) {
     this.processor = processor;
     this.sender = processor.getSender();
+    this.batchSizer = createBatchSizer(processor);
     this.connection = connection;
   }
 
+  private static AdaptiveBatchSizer createBatchSizer(
+      AbstractGatewaySenderEventProcessor processor) {
+    if (!GatewaySender.ADAPTIVE_BATCH_SIZE) {
+      return null;
+    }
+    AdaptiveBatchSizer batchSizer = new AdaptiveBatchSizer(processor.getBatchSize());
+    processor.getSender().getStatistics().setBatchSize(batchSizer.getBatchSize());
+    return batchSizer;
+  }
+
   protected GatewayAck readAcknowledgement() {
     SenderProxy sp = new SenderProxy(this.processor.getSender().getProxy());
     GatewayAck ack = null;
@@ -193,6 +223,9 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
     if (currentBatchId != batchIdForThisConnection || this.processor.isConnectionReset()) {
       return false;
     }
+    if (!waitForOutstandingBatches()) {
+      return false;
+    }
     try {
       if (this.processor.isConnectionReset()) {
         isRetry = true;
@@ -201,8 +234,18 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
       this.connectionLifeCycleLock.readLock().lock();
       try {
         if (connection != null) {
-          sp.dispatchBatch_NewWAN(connection, events, currentBatchId,
-              sender.isRemoveFromQueueOnException(), isRetry);
+          boolean compressValues = GatewaySender.COMPRESS_BATCHES
+              && GatewayBatchCompression.isSupportedBy(connection.getWanSiteVersion());
+          // recorded before sending since the ack reader thread may read the ack first
+          recordSentBatch(currentBatchId, events.size(),
+              events.size() >= this.processor.getBatchSize());
+          try {
+            sp.dispatchBatch_NewWAN(connection, events, currentBatchId,
+                sender.isRemoveFromQueueOnException(), isRetry, compressValues, statistics);
+          } catch (RuntimeException e) {
+            forgetSentBatch(currentBatchId);
+            throw e;
+          }
           if (logger.isDebugEnabled()) {
             logger.debug(
                 "{} : Dispatched batch (id={}) of {} events, queue size: {} on connection {}",
@@ -245,6 +288,10 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
             events.size(), newBatchSize),
             e);
         this.processor.setBatchSize(newBatchSize);
+        if (this.batchSizer != null) {
+          this.batchSizer.setMaxBatchSize(newBatchSize);
+          statistics.setBatchSize(newBatchSize);
+        }
         statistics.incBatchesResized();
       } else {
         ex = e;
@@ -363,6 +410,14 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
       } else {
         this.processor.resetBatchId();
       }
+      // the batch ids start over, and the receiver may be another one
+      synchronized (this.sentBatches) {
+        this.sentBatches.clear();
+        this.sentBatches.notifyAll();
+      }
+      if (this.batchSizer != null) {
+        this.batchSizer.reset();
+      }
       Connection con;
       try {
         if (this.sender.isParallel()) {
@@ -497,6 +552,113 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
     }
   }
 
+  /**
+   * Measures the acknowledgement of a batch, and changes the batch size if adaptive batch sizing
+   * is enabled.
+   */
+  void batchAcknowledged(int batchId) {
+    SentBatch batch = null;
+    synchronized (this.sentBatches) {
+      if (this.sentBatches.containsKey(batchId)) {
+        // The receiver acknowledges the batches of a connection in the order they were sent, so
+        // the batches sent before this one that are still outstanding will not be acknowledged.
+        // Their events were resent after the processor reset its peeked events.
+        Iterator<Map.Entry<Integer, SentBatch>> it = this.sentBatches.entrySet().iterator();
+        while (batch == null) {
+          Map.Entry<Integer, SentBatch> entry = it.next();
+          it.remove();
+          if (entry.getKey() == batchId) {
+            batch = entry.getValue();
+          } else if (logger.isDebugEnabled()) {
+            logger.debug("{} : Batch (id={}) was not acknowledged before batch (id={})",
+                this.processor.getSender(), entry.getKey(), batchId);
+          }
+        }
+      }
+      this.sentBatches.notifyAll();
+    }
+    if (batch == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    long roundTripTime = now - batch.sendTime;
+    GatewaySenderStats statistics = this.sender.getStatistics();
+    statistics.endBatchAcknowledgement(roundTripTime);
+    if (this.batchSizer != null) {
+      int batchSize =
+          this.batchSizer.batchAcknowledged(batch.numEvents, batch.full, roundTripTime, now);
+      if (batchSize != this.processor.getBatchSize()) {
+        this.processor.adjustBatchSize(batchSize);
+        statistics.setBatchSize(batchSize);
+      }
+    }
+  }
+
+  void recordSentBatch(int batchId, int numEvents, boolean full) {
+    synchronized (this.sentBatches) {
+      this.sentBatches.put(batchId, new SentBatch(System.nanoTime(), numEvents, full));
+    }
+  }
+
+  private void forgetSentBatch(int batchId) {
+    synchronized (this.sentBatches) {
+      this.sentBatches.remove(batchId);
+    }
+  }
+
+  int getOutstandingBatchCount() {
+    synchronized (this.sentBatches) {
+      return this.sentBatches.size();
+    }
+  }
+
+  /**
+   * Waits until fewer than {@link GatewaySender#MAX_OUTSTANDING_BATCHES} batches other than the
+   * current one are waiting for their acknowledgements. The batches the processor is waiting for
+   * are the ones it still holds the events of, since it forgets all of them when it resends its
+   * peeked events. Since the batches are sent in order on a single connection and the receiver
+   * processes them in order, waiting does not change the order in which events are applied.
+   *
+   * @return false if the processor stopped or is going to resend its peeked events while waiting
+   */
+  private boolean waitForOutstandingBatches() {
+    if (GatewaySender.MAX_OUTSTANDING_BATCHES <= 0) {
+      return true;
+    }
+    Map<Integer, List<GatewaySenderEventImpl>[]> batches = this.processor.getBatchIdToEventsMap();
+    synchronized (this.sentBatches) {
+      // the processor holds the events of the current batch too
+      while (batches.size() > GatewaySender.MAX_OUTSTANDING_BATCHES) {
+        if (this.processor.isStopped() || this.processor.isConnectionReset()) {
+          return false;
+        }
+        try {
+          this.sentBatches.wait(OUTSTANDING_BATCHES_WAIT_TIME);
+        } catch (InterruptedException e) {
+          // send the batch rather than spin on the interrupt
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static class SentBatch {
+    final long sendTime;
+
+    final int numEvents;
+
+    /** Whether the batch had as many events as the batch size when it was sent */
+    final boolean full;
+
+    SentBatch(long sendTime, int numEvents, boolean full) {
+      this.sendTime = sendTime;
+      this.numEvents = numEvents;
+      this.full = full;
+    }
+  }
+
   public static class GatewayAck {
     private int batchId;
 
@@ -628,6 +790,7 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
                 logBatchExceptions(ack.getBatchException());
                 processor.handleSuccessBatchAck(batchId);
               }
+              batchAcknowledged(batchId);
             } // unsuccessful batch
             else { // The batch was successful.
               if (logger.isDebugEnabled()) {
@@ -635,6 +798,7 @@ public class GatewaySenderEventRemoteDispatcher implements GatewaySenderEventDis
                     processor.getSender(), ack.getBatchId(), ack.getNumEvents());
               }
               processor.handleSuccessBatchAck(batchId);
+              batchAcknowledged(batchId);
             }
           } else {
             // If we have received IOException.
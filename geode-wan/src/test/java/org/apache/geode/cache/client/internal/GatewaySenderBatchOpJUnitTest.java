@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+
+import org.apache.geode.distributed.internal.DistributionManager;
+import org.apache.geode.distributed.internal.InternalDistributedSystem;
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.tier.CachedRegionHelper;
+import org.apache.geode.internal.cache.tier.sockets.AcceptorImpl;
+import org.apache.geode.internal.cache.tier.sockets.ClientProxyMembershipID;
+import org.apache.geode.internal.cache.tier.sockets.Message;
+import org.apache.geode.internal.cache.tier.sockets.MessageStats;
+import org.apache.geode.internal.cache.tier.sockets.ServerConnection;
+import org.apache.geode.internal.cache.tier.sockets.command.GatewayReceiverCommand;
+import org.apache.geode.internal.cache.wan.GatewayBatchCompression;
+import org.apache.geode.internal.cache.wan.GatewayReceiverStats;
+import org.apache.geode.internal.cache.wan.GatewaySenderEventImpl;
+import org.apache.geode.test.junit.categories.WanTest;
+
+/**
+ * Sends batches built by the gateway sender to the gateway receiver command, to verify that the
+ * receiver reads the batch flags the sender sets.
+ */
+@Category({WanTest.class})
+public class GatewaySenderBatchOpJUnitTest {
+
+  private static final String REGION_NAME = "/region";
+
+  private static final int BUFFER_SIZE = 32 * 1024;
+
+  private final byte[] value = new byte[2000];
+
+  private LocalRegion region;
+
+  private ServerConnection serverConnection;
+
+  private Message responseMessage;
+
+  private Message errorResponseMessage;
+
+  @Before
+  public void setUp() {
+    // compressible, as most values are
+    Arrays.fill(this.value, (byte) 'v');
+
+    this.region = mock(LocalRegion.class);
+    InternalCache cache = mock(InternalCache.class);
+    doReturn(this.region).when(cache).getRegion(REGION_NAME);
+    InternalDistributedSystem system = mock(InternalDistributedSystem.class);
+    when(system.getDistributionManager()).thenReturn(mock(DistributionManager.class));
+    when(cache.getDistributedSystem()).thenReturn(system);
+    CachedRegionHelper cachedRegionHelper = mock(CachedRegionHelper.class);
+    when(cachedRegionHelper.getCacheForGatewayCommand()).thenReturn(cache);
+
+    this.responseMessage = mock(Message.class);
+    this.errorResponseMessage = mock(Message.class);
+    this.serverConnection = mock(ServerConnection.class);
+    when(this.serverConnection.getCachedRegionHelper()).thenReturn(cachedRegionHelper);
+    when(this.serverConnection.getCacheServerStats()).thenReturn(mock(GatewayReceiverStats.class));
+    when(this.serverConnection.getAcceptor()).thenReturn(mock(AcceptorImpl.class));
+    when(this.serverConnection.getClientVersion()).thenReturn(Version.CURRENT);
+    when(this.serverConnection.getProxyID()).thenReturn(mock(ClientProxyMembershipID.class));
+    when(this.serverConnection.getResponseMessage()).thenReturn(this.responseMessage);
+    when(this.serverConnection.getErrorResponseMessage()).thenReturn(this.errorResponseMessage);
+  }
+
+  private List<GatewaySenderEventImpl> createEvents() throws Exception {
+    GatewaySenderEventImpl event = mock(GatewaySenderEventImpl.class);
+    when(event.getAction()).thenReturn(0);
+    when(event.getNumberOfParts()).thenReturn(8);
+    when(event.getRegionPath()).thenReturn(REGION_NAME);
+    when(event.getEventId()).thenReturn(new EventID(new byte[] {1}, 1, 1));
+    when(event.getKey()).thenReturn("key");
+    when(event.getSerializedValue()).thenReturn(this.value);
+    when(event.getValueIsObject()).thenReturn((byte) 0x01);
+    return Collections.singletonList(event);
+  }
+
+  /**
+   * Sends the batch the way the sender does, and has the receiver command read and apply it.
+   */
+  private Message sendBatch(boolean removeFromQueueOnException, boolean compressValues)
+      throws Exception {
+    GatewaySenderBatchOp.GatewaySenderGFEBatchOpImpl op =
+        new GatewaySenderBatchOp.GatewaySenderGFEBatchOpImpl(createEvents(), 1,
+            removeFromQueueOnException, 1, false, compressValues, null);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Message sent = op.getMessage();
+    sent.setComms(mock(Socket.class), null, out, ByteBuffer.allocate(BUFFER_SIZE),
+        mock(MessageStats.class));
+    sent.send(false);
+
+    Message received = new Message(1, Version.CURRENT);
+    received.setComms(mock(Socket.class), new ByteArrayInputStream(out.toByteArray()), null,
+        ByteBuffer.allocate(BUFFER_SIZE), mock(MessageStats.class));
+    received.receive();
+    ((GatewayReceiverCommand) GatewayReceiverCommand.getCommand()).cmdExecute(received,
+        this.serverConnection, null, 0);
+    return received;
+  }
+
+  private byte[] createdValue() throws Exception {
+    ArgumentCaptor<byte[]> createdValue = ArgumentCaptor.forClass(byte[].class);
+    verify(this.region).basicBridgeCreate(eq("key"), createdValue.capture(), eq(true), isNull(),
+        any(), eq(false), any(), eq(false));
+    return createdValue.getValue();
+  }
+
+  @Test
+  public void compressedValuesAreDecompressedByTheReceiver() throws Exception {
+    when(this.region.basicBridgeCreate(any(), any(), anyBoolean(), any(), any(), anyBoolean(),
+        any(), anyBoolean())).thenReturn(true);
+
+    Message received = sendBatch(false, true);
+
+    assertThat(received.getPart(9).getLength()).isLessThan(this.value.length);
+    assertThat(createdValue()).isEqualTo(this.value);
+    verify(this.responseMessage).send(this.serverConnection);
+  }
+
+  @Test
+  public void uncompressedValuesAreAppliedAsSent() throws Exception {
+    when(this.region.basicBridgeCreate(any(), any(), anyBoolean(), any(), any(), anyBoolean(),
+        any(), anyBoolean())).thenReturn(true);
+
+    Message received = sendBatch(false, false);
+
+    assertThat(received.getPart(9).getSerializedForm()).isEqualTo(this.value);
+    assertThat(createdValue()).isEqualTo(this.value);
+    verify(this.responseMessage).send(this.serverConnection);
+  }
+
+  @Test
+  public void failedEventIsReturnedWhenRemoveFromQueueOnExceptionIsSet() throws Exception {
+    Message received = sendBatch(true, true);
+
+    assertThat(received.getPart(9).getLength()).isLessThan(this.value.length);
+    assertThat(createdValue()).isEqualTo(this.value);
+    verify(this.errorResponseMessage).send(this.serverConnection);
+    verify(this.responseMessage, never()).send(this.serverConnection);
+  }
+
+  @Test
+  public void failedEventIsRetriedWhenRemoveFromQueueOnExceptionIsNotSet() throws Exception {
+    when(this.region.basicBridgePut(any(), any(), any(), anyBoolean(), any(), any(), anyBoolean(),
+        any())).thenReturn(false, true);
+
+    sendBatch(false, false);
+
+    verify(this.region, times(2)).basicBridgePut(eq("key"), eq(this.value), isNull(), eq(true),
+        isNull(), any(), eq(false), any());
+    verify(this.responseMessage).send(this.serverConnection);
+    verify(this.errorResponseMessage, never()).send(this.serverConnection);
+  }
+
+  @Test
+  public void receiversOfOlderVersionsAreNotSentCompressedValues() {
+    assertThat(GatewayBatchCompression.isSupportedBy(Version.GEODE_180.ordinal())).isFalse();
+    assertThat(GatewayBatchCompression.isSupportedBy(Version.CURRENT_ORDINAL)).isTrue();
+  }
+}
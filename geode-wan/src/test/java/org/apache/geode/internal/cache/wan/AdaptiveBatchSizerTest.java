@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.IntToLongFunction;
+
+import org.junit.Test;
+
+public class AdaptiveBatchSizerTest {
+
+  private long now = 1000;
+
+  /**
+   * Acknowledges full batches of the current batch size.
+   *
+   * @param ackInterval the nanoseconds between acknowledgements for a batch size
+   * @param roundTripTime the acknowledgement time for a batch size
+   */
+  private int acknowledge(AdaptiveBatchSizer batchSizer, int batches, IntToLongFunction ackInterval,
+      IntToLongFunction roundTripTime) {
+    for (int i = 0; i < batches; i++) {
+      int batchSize = batchSizer.getBatchSize();
+      this.now += ackInterval.applyAsLong(batchSize);
+      batchSizer.batchAcknowledged(batchSize, true, roundTripTime.applyAsLong(batchSize),
+          this.now);
+    }
+    return batchSizer.getBatchSize();
+  }
+
+  @Test
+  public void growsToFourTimesTheConfiguredBatchSizeWhileTheRateImproves() {
+    AdaptiveBatchSizer batchSizer = new AdaptiveBatchSizer(100);
+
+    int batchSize = acknowledge(batchSizer, AdaptiveBatchSizer.BATCHES_PER_ADJUSTMENT + 1,
+        size -> 1_000_000, size -> 5_000_000);
+    assertThat(batchSize).isEqualTo(125);
+
+    assertThat(acknowledge(batchSizer, 500, size -> 1_000_000, size -> 5_000_000)).isEqualTo(400);
+  }
+
+  @Test
+  public void staysAroundTheBatchSizeWithTheHighestRate() {
+    AdaptiveBatchSizer batchSizer = new AdaptiveBatchSizer(100);
+
+    // the rate is highest for batches of 200 events
+    IntToLongFunction ackInterval = size -> size <= 200 ? 1_000_000 : 25L * size * size;
+    acknowledge(batchSizer, 3 * AdaptiveBatchSizer.BATCHES_PER_ADJUSTMENT, ackInterval,
+        size -> 5_000_000);
+    for (int i = 0; i < 20; i++) {
+      assertThat(acknowledge(batchSizer, AdaptiveBatchSizer.BATCHES_PER_ADJUSTMENT, ackInterval,
+          size -> 5_000_000)).isBetween(150, 250);
+    }
+  }
+
+  @Test
+  public void shrinksWhenLargerBatchesOnlyTakeLongerToBeAcknowledged() {
+    AdaptiveBatchSizer batchSizer = new AdaptiveBatchSizer(100);
+
+    // the same rate for every batch size
+    assertThat(acknowledge(batchSizer, 500, size -> 10_000L * size, size -> 100_000L * size))
+        .isEqualTo(12);
+  }
+
+  @Test
+  public void doesNotChangeWhenBatchesAreNotFull() {
+    AdaptiveBatchSizer batchSizer = new AdaptiveBatchSizer(100);
+
+    for (int i = 0; i < 100; i++) {
+      this.now += 1_000_000;
+      assertThat(batchSizer.batchAcknowledged(10, false, 5_000_000, this.now)).isEqualTo(100);
+    }
+  }
+
+  @Test
+  public void doesNotGrowBeyondALoweredMaximum() {
+    AdaptiveBatchSizer batchSizer = new AdaptiveBatchSizer(100);
+    acknowledge(batchSizer, 100, size -> 1_000_000, size -> 5_000_000);
+
+    batchSizer.setMaxBatchSize(150);
+
+    assertThat(batchSizer.getBatchSize()).isEqualTo(150);
+    assertThat(acknowledge(batchSizer, 500, size -> 1_000_000, size -> 5_000_000))
+        .isLessThanOrEqualTo(150);
+  }
+}
@@ -14,6 +14,7 @@
  */
 package org.apache.geode.internal.cache.wan;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -54,4 +55,34 @@ public class GatewaySenderEventRemoteDispatcherJUnitTest {
     dispatcher.shutDownAckReaderConnection();
     assertTrue(ackReaderThread.isShutdown());
   }
+
+  @Test
+  public void acknowledgingABatchForgetsTheBatchesSentBeforeIt() {
+    GatewaySenderEventRemoteDispatcher dispatcher = createDispatcherWithStatistics();
+    dispatcher.recordSentBatch(1, 10, true);
+    dispatcher.recordSentBatch(2, 10, true);
+    dispatcher.recordSentBatch(3, 10, true);
+    dispatcher.batchAcknowledged(2);
+    assertEquals(1, dispatcher.getOutstandingBatchCount());
+    dispatcher.batchAcknowledged(3);
+    assertEquals(0, dispatcher.getOutstandingBatchCount());
+  }
+
+  @Test
+  public void acknowledgingAnUnknownBatchForgetsNoBatch() {
+    GatewaySenderEventRemoteDispatcher dispatcher = createDispatcherWithStatistics();
+    dispatcher.recordSentBatch(1, 10, true);
+    dispatcher.recordSentBatch(2, 10, true);
+    dispatcher.batchAcknowledged(5);
+    assertEquals(2, dispatcher.getOutstandingBatchCount());
+  }
+
+  private GatewaySenderEventRemoteDispatcher createDispatcherWithStatistics() {
+    AbstractGatewaySender sender = mock(AbstractGatewaySender.class);
+    when(sender.getStatistics()).thenReturn(mock(GatewaySenderStats.class));
+    AbstractGatewaySenderEventProcessor eventProcessor =
+        mock(AbstractGatewaySenderEventProcessor.class);
+    when(eventProcessor.getSender()).thenReturn(sender);
+    return new GatewaySenderEventRemoteDispatcher(eventProcessor, null);
+  }
 }